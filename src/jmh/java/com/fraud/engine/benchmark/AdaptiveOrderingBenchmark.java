@@ -0,0 +1,86 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.engine.ConditionCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for adaptive AND ordering.
+ * <p>
+ * The rule is authored with an expensive REGEX before a cheap, highly selective
+ * {@code country_code} check. The fixed chain always runs the regex; the adaptive group
+ * learns to check the country first and skips the regex for most transactions.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*AdaptiveOrderingBenchmark.*"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AdaptiveOrderingBenchmark {
+
+    private CompiledCondition fixedOrder;
+    private CompiledCondition adaptiveOrder;
+    private TransactionContext[] transactions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        List<Condition> conditions = List.of(
+                new Condition("merchant_name", "regex", ".*(CASINO|BET|POKER).*ONLINE.*"),
+                new Condition("country_code", "eq", "MT"));
+
+        CompiledCondition[] leaves = conditions.stream()
+                .map(ConditionCompiler::compile)
+                .toArray(CompiledCondition[]::new);
+        fixedOrder = tx -> {
+            for (CompiledCondition c : leaves) {
+                if (!c.matches(tx)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+        // adaptive ordering is opt-in (app.evaluation.adaptive-ordering.enabled)
+        ConditionCompiler compiler = new ConditionCompiler();
+        Field adaptive = ConditionCompiler.class.getDeclaredField("adaptiveOrdering");
+        adaptive.setAccessible(true);
+        adaptive.setBoolean(compiler, true);
+        adaptiveOrder = compiler.compileAllConditions(conditions);
+
+        String[] countries = {"US", "GB", "DE", "FR", "MT", "CA", "AU", "NL"};
+        transactions = new TransactionContext[1024];
+        for (int i = 0; i < transactions.length; i++) {
+            TransactionContext tx = new TransactionContext();
+            tx.setCountryCode(countries[i % countries.length]);
+            tx.setMerchantName("ACME GENERAL MERCHANDISE STORE #" + i + " ONLINE");
+            transactions[i] = tx;
+        }
+        // let the adaptive group collect samples and settle before measuring
+        for (int i = 0; i < 1_000_000; i++) {
+            adaptiveOrder.matches(transactions[i & 1023]);
+        }
+    }
+
+    private TransactionContext nextTransaction() {
+        return transactions[next++ & 1023];
+    }
+
+    @Benchmark
+    public boolean benchmarkFixedOrder() {
+        return fixedOrder.matches(nextTransaction());
+    }
+
+    @Benchmark
+    public boolean benchmarkAdaptiveOrder() {
+        return adaptiveOrder.matches(nextTransaction());
+    }
+}
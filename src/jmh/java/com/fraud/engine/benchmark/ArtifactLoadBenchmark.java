@@ -0,0 +1,87 @@
+package com.fraud.engine.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.ruleset.RulesetArtifactConverter;
+import com.fraud.engine.ruleset.RulesetLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for loading a compiled ruleset artifact from disk.
+ * <p>
+ * {@code benchmarkStreamingLoad} is the full load (streamed parse, rule build, predicate
+ * tables, pre-sort). {@code benchmarkTreeRead} only reads the same file into a Jackson
+ * tree, the first step of the previous tree-based loader, as a reference for the memory
+ * the tree alone used to cost. {@code benchmarkBinaryLoad} is the full load of the same
+ * ruleset converted to the memory-mapped binary format. Compare {@code gc.alloc.rate.norm}:
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*ArtifactLoadBenchmark.*" -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArtifactLoadBenchmark {
+
+    @Param({"1000", "10000"})
+    private int ruleCount;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private RulesetLoader loader;
+    private Path artifact;
+    private Path binaryArtifact;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String[] countries = {"US", "GB", "DE", "FR", "BR"};
+        StringBuilder json = new StringBuilder("{\"ruleset_key\":\"CARD_MONITORING\",\"ruleset_version\":1,\"rules\":[");
+        for (int i = 0; i < ruleCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"rule_id\":\"rule-").append(i).append("\",\"priority\":").append(i % 100)
+                    .append(",\"action\":\"REVIEW\",\"condition\":{\"and\":[")
+                    .append("{\"field\":\"amount\",\"op\":\"GT\",\"value\":").append((i % 20) * 50).append("},")
+                    .append("{\"field\":\"country_code\",\"op\":\"EQ\",\"value\":\"")
+                    .append(countries[i % countries.length]).append("\"},")
+                    .append("{\"field\":\"currency\",\"op\":\"IN\",\"values\":[\"USD\",\"EUR\",\"GBP\"]}]}}");
+        }
+        json.append("]}");
+        artifact = Files.createTempFile("artifact-load-benchmark", ".json");
+        Files.writeString(artifact, json);
+        binaryArtifact = Files.createTempFile("artifact-load-benchmark", ".bin");
+        try (InputStream in = Files.newInputStream(artifact)) {
+            Files.write(binaryArtifact, RulesetArtifactConverter.toBinary(in));
+        }
+        loader = new RulesetLoader();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(artifact);
+        Files.deleteIfExists(binaryArtifact);
+    }
+
+    @Benchmark
+    public Ruleset benchmarkStreamingLoad() throws Exception {
+        return loader.loadRulesetFromFile(artifact.toString(), "CARD_MONITORING");
+    }
+
+    @Benchmark
+    public Ruleset benchmarkBinaryLoad() throws Exception {
+        return loader.loadRulesetFromFile(binaryArtifact.toString(), "CARD_MONITORING");
+    }
+
+    @Benchmark
+    public JsonNode benchmarkTreeRead() throws Exception {
+        return mapper.readTree(artifact.toFile());
+    }
+}
@@ -0,0 +1,90 @@
+package com.fraud.engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.domain.TransactionContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the decision's transaction context: copied {@code HashMap}
+ * ({@code toEvaluationContext}) vs the array-backed view ({@code asEvaluationContext}).
+ * <p>
+ * Covers building the context, a few interpretive lookups, and serializing it into the
+ * decision payload. Allocation per operation is visible with {@code -prof gc}.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*EvaluationContextBenchmark.*" -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EvaluationContextBenchmark {
+
+    private TransactionContext transaction;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        transaction = new TransactionContext();
+        transaction.setTransactionId("txn-123");
+        transaction.setCardHash("card-abc123");
+        transaction.setAmount(BigDecimal.valueOf(150.00));
+        transaction.setCurrency("USD");
+        transaction.setMerchantId("merchant-001");
+        transaction.setMerchantName("Test Store");
+        transaction.setMerchantCategoryCode("5411");
+        transaction.setCardPresent(true);
+        transaction.setTransactionType("PURCHASE");
+        transaction.setEntryMode("CHIP");
+        transaction.setCountryCode("US");
+        transaction.setIpAddress("192.168.1.1");
+        transaction.setDeviceId("device-001");
+        transaction.setEmail("test@example.com");
+        transaction.setCardNetwork("VISA");
+        transaction.setCardBin("411111");
+        transaction.setDecision("APPROVE");
+
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public Map<String, Object> benchmarkCopiedContext() {
+        return transaction.toEvaluationContext();
+    }
+
+    @Benchmark
+    public Map<String, Object> benchmarkContextView() {
+        return transaction.asEvaluationContext();
+    }
+
+    @Benchmark
+    public Object benchmarkCopiedContextLookups() {
+        Map<String, Object> context = transaction.toEvaluationContext();
+        context.get("amount");
+        context.get("country_code");
+        return context.get("merchant_category_code");
+    }
+
+    @Benchmark
+    public Object benchmarkContextViewLookups() {
+        Map<String, Object> context = transaction.asEvaluationContext();
+        context.get("amount");
+        context.get("country_code");
+        return context.get("merchant_category_code");
+    }
+
+    @Benchmark
+    public byte[] benchmarkSerializeCopiedContext() throws Exception {
+        return objectMapper.writeValueAsBytes(transaction.toEvaluationContext());
+    }
+
+    @Benchmark
+    public byte[] benchmarkSerializeContextView() throws Exception {
+        return objectMapper.writeValueAsBytes(transaction.asEvaluationContext());
+    }
+}
@@ -0,0 +1,95 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.engine.ConditionCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for IN list matching: linear {@code equals} scan vs compiled hash sets.
+ * <p>
+ * The probe value is absent from the list, which is the common case for deny-lists
+ * and the worst case for a linear scan.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*InListBenchmark.*"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@State(Scope.Benchmark)
+public class InListBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int listSize;
+
+    private List<Object> stringList;
+    private List<Object> numericList;
+    private CompiledCondition compiledStringIn;
+    private CompiledCondition compiledNumericIn;
+    private TransactionContext transaction;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        stringList = new ArrayList<>(listSize);
+        numericList = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            stringList.add("C" + i);
+            numericList.add(1000 + i);
+        }
+
+        Condition stringCondition = new Condition();
+        stringCondition.setField("country_code");
+        stringCondition.setOperator("in");
+        stringCondition.setValues(stringList);
+        compiledStringIn = ConditionCompiler.compile(stringCondition);
+
+        Condition numericCondition = new Condition();
+        numericCondition.setField("merchant_category_code");
+        numericCondition.setOperator("in");
+        numericCondition.setValues(numericList);
+        compiledNumericIn = ConditionCompiler.compile(numericCondition);
+
+        transaction = new TransactionContext();
+        transaction.setCountryCode("ZZ");
+        transaction.setField(TransactionContext.F_MERCHANT_CATEGORY_CODE, 999);
+    }
+
+    @Benchmark
+    public boolean benchmarkLinearStringScan() {
+        Object actual = transaction.getField(TransactionContext.F_COUNTRY_CODE);
+        for (Object item : stringList) {
+            if (actual.equals(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean benchmarkHashedStringIn() {
+        return compiledStringIn.matches(transaction);
+    }
+
+    @Benchmark
+    public boolean benchmarkLinearNumericScan() {
+        Object actual = transaction.getField(TransactionContext.F_MERCHANT_CATEGORY_CODE);
+        for (Object item : numericList) {
+            if (actual.equals(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean benchmarkHashedNumericIn() {
+        return compiledNumericIn.matches(transaction);
+    }
+}
@@ -0,0 +1,94 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Decision;
+import com.fraud.engine.domain.PredicateIndex;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.engine.ConditionCompiler;
+import com.fraud.engine.engine.EvaluationContext;
+import com.fraud.engine.engine.MonitoringEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for a full MONITORING evaluation (index, rule matching, decision build).
+ * <p>
+ * Intermediate state lives in per-thread scratch, so the allocation rate should be
+ * the decision and its matched rules only. Check it with the GC profiler:
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*MonitoringEvaluatorBenchmark.*" -prof gc
+ * <p>
+ * and compare {@code gc.alloc.rate.norm} against the {@code Decision} baseline benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MonitoringEvaluatorBenchmark {
+
+    @Param({"50", "500"})
+    private int ruleCount;
+
+    private MonitoringEvaluator evaluator;
+    private Ruleset ruleset;
+    private List<Rule> rules;
+    private TransactionContext transaction;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ruleset = new Ruleset("CARD_MONITORING", 1);
+        List<Rule> built = new ArrayList<>(ruleCount);
+        String[] countries = {"US", "GB", "DE", "FR", "BR"};
+        for (int i = 0; i < ruleCount; i++) {
+            ConditionNode amount = leaf("amount", "gt", (i % 20) * 50);
+            ConditionNode country = leaf("country_code", "eq", countries[i % countries.length]);
+            ConditionNode currency = leaf("currency", "in", List.of("USD", "EUR"));
+            ConditionNode tree = i % 2 == 0
+                    ? new ConditionNode.And(List.of(country, amount))
+                    : new ConditionNode.And(List.of(currency, amount));
+            Rule rule = new Rule("rule-" + i, "Rule " + i, "REVIEW");
+            rule.setConditionTree(tree);
+            rule.setCompiledCondition(ConditionCompiler.compileTree(tree));
+            built.add(rule);
+        }
+        ruleset.setRules(built);
+        ruleset.setPredicateIndex(PredicateIndex.build(built));
+        rules = built;
+
+        evaluator = new MonitoringEvaluator();
+
+        transaction = new TransactionContext();
+        transaction.setTransactionId("txn-123");
+        transaction.setAmount(BigDecimal.valueOf(420.00));
+        transaction.setCurrency("USD");
+        transaction.setCountryCode("US");
+        transaction.setDecision("APPROVE");
+    }
+
+    private static ConditionNode leaf(String field, String operator, Object value) {
+        Condition condition = new Condition(field, operator, value);
+        return new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+    }
+
+    @Benchmark
+    public Decision benchmarkDecisionBaseline() {
+        return new Decision("txn-123", "MONITORING");
+    }
+
+    @Benchmark
+    public Decision benchmarkEvaluate() {
+        Decision decision = new Decision("txn-123", "MONITORING");
+        evaluator.evaluate(EvaluationContext.create(transaction, ruleset, decision, false,
+                0L, Decision.MODE_NORMAL, null, rules));
+        return decision;
+    }
+}
@@ -0,0 +1,171 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.domain.Decision;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.domain.VelocityConfig;
+import com.fraud.engine.engine.EvaluationContext;
+import com.fraud.engine.engine.MonitoringEvaluator;
+import com.fraud.engine.engine.VelocityEvaluator;
+import io.smallrye.mutiny.Uni;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * JMH benchmark comparing blocking, virtual-thread and non-blocking MONITORING evaluation
+ * under the same injected Redis latency.
+ * <p>
+ * One operation is a burst of {@code concurrency} evaluations, each with a batch velocity
+ * check that takes {@code redisLatencyMicros} to answer:
+ * <ul>
+ *   <li>blocking: the evaluations run on a 20-thread pool (the default
+ *       {@code quarkus.thread-pool.max-threads}) and each thread parks for the latency,
+ *       as in {@code evalshaAndAwait};</li>
+ *   <li>virtual threads: the same blocking evaluations, one virtual thread each
+ *       ({@code app.virtual-threads.enabled}); a parked thread releases its carrier;</li>
+ *   <li>reactive: the evaluations are started from one thread (standing in for the event
+ *       loop) and each completes when a timer thread delivers the "reply".</li>
+ * </ul>
+ * The blocking burst takes about {@code concurrency / 20} latencies; the virtual-thread and
+ * reactive bursts about one latency plus the CPU time of the evaluations. SampleTime mode
+ * reports the p99 burst time next to the mean.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*MonitoringExecutionBenchmark.*"
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonitoringExecutionBenchmark {
+
+    private static final int WORKER_THREADS = 20;
+
+    @Param({"500", "2000"})
+    private long redisLatencyMicros;
+
+    @Param({"200"})
+    private int concurrency;
+
+    private MonitoringEvaluator evaluator;
+    private Ruleset ruleset;
+    private List<Rule> rules;
+    private TransactionContext transaction;
+    private ExecutorService workerPool;
+    private ExecutorService virtualThreads;
+    private ScheduledExecutorService redisReplies;
+
+    /** Velocity evaluator that answers after the injected latency instead of calling Redis. */
+    private final class LatencyVelocity extends VelocityEvaluator {
+        @Override
+        public void checkVelocityBatch(TransactionContext tx, VelocityConfig[] configs, int count,
+                                       Decision decision, Decision.VelocityResult[] results) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(redisLatencyMicros));
+            fill(configs, count, results);
+        }
+
+        @Override
+        public Uni<Void> checkVelocityBatchAsync(TransactionContext tx, VelocityConfig[] configs, int count,
+                                                 Decision decision, Decision.VelocityResult[] results) {
+            CompletableFuture<Void> reply = new CompletableFuture<>();
+            redisReplies.schedule(() -> {
+                fill(configs, count, results);
+                reply.complete(null);
+            }, redisLatencyMicros, TimeUnit.MICROSECONDS);
+            return Uni.createFrom().completionStage(reply);
+        }
+
+        private void fill(VelocityConfig[] configs, int count, Decision.VelocityResult[] results) {
+            for (int i = 0; i < count; i++) {
+                results[i] = new Decision.VelocityResult(configs[i].getDimension(), "card-1", 1,
+                        configs[i].getThreshold(), configs[i].getWindowSeconds());
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        List<Rule> built = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Rule rule = new Rule("rule-" + i, "Rule " + i, "REVIEW");
+            BigDecimal limit = BigDecimal.valueOf(i * 20L);
+            rule.setCompiledCondition(tx -> tx.getAmount().compareTo(limit) > 0);
+            if (i % 10 == 0) {
+                rule.setVelocity(new VelocityConfig("card_hash", 3600, 10, "DECLINE"));
+            }
+            built.add(rule);
+        }
+        ruleset = new Ruleset("CARD_MONITORING", 1);
+        ruleset.setRules(built);
+        rules = built;
+
+        evaluator = new MonitoringEvaluator();
+        Field velocity = MonitoringEvaluator.class.getDeclaredField("velocityEvaluator");
+        velocity.setAccessible(true);
+        velocity.set(evaluator, new LatencyVelocity());
+
+        transaction = new TransactionContext();
+        transaction.setTransactionId("txn-123");
+        transaction.setCardHash("card-1");
+        transaction.setAmount(BigDecimal.valueOf(420.00));
+        transaction.setDecision("APPROVE");
+
+        workerPool = Executors.newFixedThreadPool(WORKER_THREADS);
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        redisReplies = Executors.newScheduledThreadPool(2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workerPool.shutdownNow();
+        virtualThreads.shutdownNow();
+        redisReplies.shutdownNow();
+    }
+
+    private EvaluationContext context() {
+        return EvaluationContext.create(transaction, ruleset, new Decision("txn-123", "MONITORING"), false,
+                0L, Decision.MODE_NORMAL, null, rules);
+    }
+
+    @Benchmark
+    public int benchmarkBlockingBurst() {
+        List<CompletableFuture<Void>> pending = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            pending.add(CompletableFuture.runAsync(() -> evaluator.evaluate(context()), workerPool));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        return pending.size();
+    }
+
+    @Benchmark
+    public int benchmarkVirtualThreadBurst() {
+        List<CompletableFuture<Void>> pending = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            pending.add(CompletableFuture.runAsync(() -> evaluator.evaluate(context()), virtualThreads));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        return pending.size();
+    }
+
+    @Benchmark
+    public int benchmarkReactiveBurst() {
+        List<CompletableFuture<Void>> pending = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            pending.add(evaluator.evaluateAsync(context()).subscribeAsCompletionStage());
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        return pending.size();
+    }
+}
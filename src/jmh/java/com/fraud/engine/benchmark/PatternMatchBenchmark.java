@@ -0,0 +1,86 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.PredicateMemo;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.engine.ConditionCompiler;
+import com.fraud.engine.engine.PatternGroups;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for merchant_name screening: one {@code String.contains} /
+ * {@code startsWith} / {@code endsWith} per rule vs one automaton scan per transaction.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*PatternMatchBenchmark.*"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PatternMatchBenchmark {
+
+    private static final String[] OPERATORS = {"contains", "starts_with", "ends_with"};
+
+    @Param({"10", "100", "1000"})
+    private int patternCount;
+
+    private List<Rule> perRuleRules;
+    private List<Rule> groupedRules;
+    private TransactionContext transaction;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        perRuleRules = buildRules();
+        groupedRules = buildRules();
+        PatternGroups.build(groupedRules);
+
+        transaction = new TransactionContext();
+        transaction.setMerchantName("AMZN MKTP US*2K4RT0 SEATTLE WA");
+    }
+
+    private List<Rule> buildRules() {
+        List<Rule> rules = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            Condition condition = new Condition("merchant_name", OPERATORS[i % OPERATORS.length], "MERCH" + i);
+            ConditionNode tree = new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+            Rule rule = new Rule("r" + i, "r" + i, "REVIEW");
+            rule.setConditionTree(tree);
+            rule.setCompiledCondition(ConditionCompiler.compileTree(tree));
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    @Benchmark
+    public int benchmarkPerRuleScan() {
+        return countMatches(perRuleRules);
+    }
+
+    @Benchmark
+    public int benchmarkGroupedScan() {
+        transaction.setPredicateMemo(PredicateMemo.acquire(0));
+        try {
+            return countMatches(groupedRules);
+        } finally {
+            transaction.setPredicateMemo(null);
+        }
+    }
+
+    private int countMatches(List<Rule> rules) {
+        int matched = 0;
+        for (Rule rule : rules) {
+            if (rule.getCompiledCondition().matches(transaction)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,63 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.util.LinearRegex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * JMH benchmarks for REGEX conditions: backtracking {@code java.util.regex} vs the
+ * linear-time matcher with literal prefilter.
+ * <p>
+ * {@code typical} is an e-mail domain screen; {@code pathological} is {@code (a+)+$}
+ * on a run of 'a' ending in 'b', which backtracks exponentially in java.util.regex.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*RegexBenchmark.*"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RegexBenchmark {
+
+    @Param({"typical-hit", "typical-miss", "pathological"})
+    private String scenario;
+
+    private Pattern javaPattern;
+    private LinearRegex linearRegex;
+    private String input;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String pattern;
+        switch (scenario) {
+            case "typical-hit" -> {
+                pattern = ".*@(mailinator|guerrillamail)\\.com";
+                input = "throwaway.user.2024@mailinator.com";
+            }
+            case "typical-miss" -> {
+                pattern = ".*@(mailinator|guerrillamail)\\.com";
+                input = "jane.doe@example.org";
+            }
+            default -> {
+                pattern = "(a+)+$";
+                input = "a".repeat(22) + "b";
+            }
+        }
+        javaPattern = Pattern.compile(pattern);
+        linearRegex = LinearRegex.compile(pattern);
+    }
+
+    @Benchmark
+    public boolean benchmarkJavaRegex() {
+        return javaPattern.matcher(input).matches();
+    }
+
+    @Benchmark
+    public boolean benchmarkLinearRegex() {
+        return linearRegex.matches(input);
+    }
+}
@@ -0,0 +1,99 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.RulesetProgram;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.engine.ConditionCompiler;
+import com.fraud.engine.engine.RulesetProgramCompiler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for whole-ruleset evaluation: lambda engine vs generated bytecode program.
+ * <p>
+ * Both engines evaluate the same rules built from a handful of condition shapes, which is
+ * what makes the lambda engine's single {@code matches} call site megamorphic.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*RulesetProgramBenchmark.*"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RulesetProgramBenchmark {
+
+    @Param({"50", "200", "1000"})
+    private int ruleCount;
+
+    private List<Rule> rules;
+    private RulesetProgram program;
+    private long[] applicable;
+    private TransactionContext transaction;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Ruleset ruleset = new Ruleset("CARD_MONITORING", 1);
+        List<Rule> built = new ArrayList<>(ruleCount);
+        String[] countries = {"US", "GB", "DE", "FR", "BR"};
+        for (int i = 0; i < ruleCount; i++) {
+            ConditionNode amount = leaf("amount", "gt", (i % 20) * 50);
+            ConditionNode country = leaf("country_code", "eq", countries[i % countries.length]);
+            ConditionNode currency = leaf("currency", "in", List.of("USD", "EUR"));
+            ConditionNode mcc = leaf("merchant_category_code", "ne", "7995");
+            ConditionNode tree = switch (i % 4) {
+                case 0 -> new ConditionNode.And(List.of(amount, country));
+                case 1 -> new ConditionNode.Or(List.of(country, new ConditionNode.And(List.of(amount, currency))));
+                case 2 -> new ConditionNode.And(List.of(new ConditionNode.Not(country), mcc, amount));
+                default -> new ConditionNode.And(List.of(currency, mcc));
+            };
+            Rule rule = new Rule("rule-" + i, "Rule " + i, "REVIEW");
+            rule.setConditionTree(tree);
+            rule.setCompiledCondition(ConditionCompiler.compileTree(tree));
+            built.add(rule);
+        }
+        ruleset.setRules(built);
+        rules = built;
+
+        program = RulesetProgramCompiler.compile(ruleset);
+        applicable = new long[program.wordCount()];
+        for (int i = 0; i < program.ruleCount(); i++) {
+            applicable[i >>> 6] |= 1L << i;
+        }
+
+        transaction = new TransactionContext();
+        transaction.setTransactionId("txn-123");
+        transaction.setAmount(BigDecimal.valueOf(420.00));
+        transaction.setCurrency("USD");
+        transaction.setCountryCode("US");
+        transaction.setMerchantCategoryCode("5411");
+    }
+
+    private static ConditionNode leaf(String field, String operator, Object value) {
+        Condition condition = new Condition(field, operator, value);
+        return new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+    }
+
+    @Benchmark
+    public void benchmarkLambdaEngine(Blackhole bh) {
+        for (Rule rule : rules) {
+            bh.consume(rule.getCompiledCondition().matches(transaction));
+        }
+    }
+
+    @Benchmark
+    public long[] benchmarkBytecodeEngine() {
+        long[] matches = new long[applicable.length];
+        program.evaluate(transaction, applicable, matches);
+        return matches;
+    }
+}
@@ -0,0 +1,125 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.RuleScope;
+import com.fraud.engine.domain.Ruleset;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for scope traversal ({@code Ruleset.getApplicableRules}) over a large
+ * BIN population.
+ * <p>
+ * Traffic draws from ~100k distinct 8-digit BINs with a skewed (Zipf-like) distribution,
+ * so a few hot BINs stay cached while the long tail keeps missing and evicting. The
+ * baseline reproduces the previous lookup: one {@code substring} + {@code HashMap} probe
+ * per prefix length, concatenation, then a full sort.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*ScopeTraversalBenchmark.*" -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class ScopeTraversalBenchmark {
+
+    private static final int DISTINCT_BINS = 100_000;
+    private static final int TRAFFIC = 1 << 16;
+
+    private static final Comparator<Rule> LEGACY_ORDER = Comparator
+            .comparingInt((Rule r) -> r.getScope() != null ? r.getScope().getSpecificity() : 0).reversed()
+            .thenComparing(Comparator.comparingInt(Rule::getPriority).reversed())
+            .thenComparing(r -> "APPROVE".equalsIgnoreCase(r.getAction()) ? 0 : 1);
+
+    private Ruleset ruleset;
+    private Map<String, List<Rule>> legacyBinBuckets;
+    private List<Rule> globalRules;
+    private String[] traffic;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        List<Rule> rules = new ArrayList<>();
+        legacyBinBuckets = new HashMap<>();
+        globalRules = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String prefix = digits(random, 2 + random.nextInt(5));
+            Rule rule = rule("bin-" + i, random.nextInt(10) * 10, RuleScope.bin(prefix));
+            rules.add(rule);
+            legacyBinBuckets.computeIfAbsent(prefix, k -> new ArrayList<>()).add(rule);
+        }
+        for (int i = 0; i < 20; i++) {
+            Rule rule = rule("global-" + i, random.nextInt(10) * 10, null);
+            rules.add(rule);
+            globalRules.add(rule);
+        }
+        ruleset = new Ruleset("CARD_AUTH", 1);
+        ruleset.setRules(rules);
+
+        String[] bins = new String[DISTINCT_BINS];
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] = digits(random, 8);
+        }
+        // Zipf-like: rank ~ exp(uniform * ln(N)) puts most traffic on the first few hundred BINs
+        traffic = new String[TRAFFIC];
+        for (int i = 0; i < traffic.length; i++) {
+            int rank = (int) Math.exp(random.nextDouble() * Math.log(DISTINCT_BINS)) - 1;
+            traffic[i] = bins[rank];
+        }
+        ruleset.getApplicableRules(null, traffic[0], null, null);
+    }
+
+    private static Rule rule(String id, int priority, RuleScope scope) {
+        Rule rule = new Rule(id, id, "DECLINE");
+        rule.setPriority(priority);
+        rule.setEnabled(true);
+        if (scope != null) {
+            rule.setScope(scope);
+        }
+        return rule;
+    }
+
+    private static String digits(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    private String nextBin() {
+        String bin = traffic[cursor];
+        cursor = (cursor + 1) & (TRAFFIC - 1);
+        return bin;
+    }
+
+    @Benchmark
+    public List<Rule> benchmarkLegacySubstringLookup() {
+        String bin = nextBin();
+        List<Rule> applicable = new ArrayList<>();
+        for (int len = bin.length(); len >= 1; len--) {
+            List<Rule> binRules = legacyBinBuckets.get(bin.substring(0, len));
+            if (binRules != null) {
+                applicable.addAll(binRules);
+            }
+        }
+        applicable.addAll(globalRules);
+        applicable.sort(LEGACY_ORDER);
+        return applicable;
+    }
+
+    @Benchmark
+    public List<Rule> benchmarkApplicableRules() {
+        return ruleset.getApplicableRules(null, nextBin(), null, null);
+    }
+}
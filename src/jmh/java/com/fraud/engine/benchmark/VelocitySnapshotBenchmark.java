@@ -0,0 +1,127 @@
+package com.fraud.engine.benchmark;
+
+import com.fraud.engine.domain.Decision;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.domain.VelocityConfig;
+import com.fraud.engine.velocity.VelocityService;
+import io.quarkus.redis.datasource.value.ValueCommands;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * JMH benchmark for the outbox worker's velocity snapshot reads under an injected Redis
+ * round-trip latency.
+ * <p>
+ * One operation captures the default seven-entry snapshot (card 5min/1h/24h, IP 1h/24h,
+ * device 1h/24h) for a batch of {@code batchSize} AUTH events:
+ * <ul>
+ *   <li>sequential GETs: one GET per entry per event, as before;</li>
+ *   <li>per-event MGET: {@code captureVelocitySnapshot} for each event;</li>
+ *   <li>batch MGET: {@code captureVelocitySnapshots} for the whole batch.</li>
+ * </ul>
+ * Each Redis command parks for {@code redisLatencyMicros}, so the expected ratio is about
+ * 7 x batchSize : batchSize : 1 round trips.
+ * <p>
+ * Run with: java -jar target/benchmarks.jar ".*VelocitySnapshotBenchmark.*"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VelocitySnapshotBenchmark {
+
+    private static final VelocityConfig[] SNAPSHOT_WINDOWS = {
+            new VelocityConfig("card_hash", 300, 10),
+            new VelocityConfig("card_hash", 3600, 20),
+            new VelocityConfig("card_hash", 86400, 50),
+            new VelocityConfig("ip_address", 3600, 20),
+            new VelocityConfig("ip_address", 86400, 100),
+            new VelocityConfig("device_id", 3600, 15),
+            new VelocityConfig("device_id", 86400, 50)
+    };
+
+    @Param({"200"})
+    private long redisLatencyMicros;
+
+    @Param({"50"})
+    private int batchSize;
+
+    private VelocityService velocityService;
+    private List<TransactionContext> transactions;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        velocityService = new VelocityService();
+        Field commands = VelocityService.class.getDeclaredField("valueCommands");
+        commands.setAccessible(true);
+        commands.set(velocityService, latencyCommands());
+
+        transactions = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            TransactionContext tx = new TransactionContext();
+            tx.setTransactionId("txn-" + i);
+            tx.setCardHash("card-" + i);
+            tx.setIpAddress("10.0.0." + (i % 16));
+            tx.setDeviceId("device-" + i);
+            transactions.add(tx);
+        }
+    }
+
+    /** ValueCommands whose GET and MGET answer after the injected latency. */
+    private Object latencyCommands() {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ValueCommands.class},
+                (proxy, method, args) -> {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(redisLatencyMicros));
+                    return switch (method.getName()) {
+                        case "get" -> 3L;
+                        case "mget" -> {
+                            Map<String, Long> counts = new HashMap<>();
+                            for (String key : (String[]) args[0]) {
+                                counts.put(key, 3L);
+                            }
+                            yield counts;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+
+    @Benchmark
+    public long benchmarkSequentialGets() {
+        long total = 0;
+        for (TransactionContext tx : transactions) {
+            for (VelocityConfig window : SNAPSHOT_WINDOWS) {
+                total += velocityService.getCurrentCount(velocityService.buildVelocityKey(tx, window));
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int benchmarkPerEventMget() {
+        int entries = 0;
+        for (TransactionContext tx : transactions) {
+            entries += velocityService.captureVelocitySnapshot(tx).size();
+        }
+        return entries;
+    }
+
+    @Benchmark
+    public int benchmarkBatchMget() {
+        int entries = 0;
+        for (Map<String, Decision.VelocityResult> snapshot : velocityService.captureVelocitySnapshots(transactions)) {
+            entries += snapshot.size();
+        }
+        return entries;
+    }
+}
@@ -15,6 +15,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
 
 /**
  * Streaming JSON parser for TransactionContext using Jackson's low-level streaming API.
@@ -97,8 +98,8 @@ public class StreamingTransactionReader implements MessageBodyReader<Transaction
             case "card_logo" -> tx.setCardLogo(parser.getValueAsString());
             case "decision" -> tx.setDecision(parser.getValueAsString());
 
-            // BigDecimal fields
-            case "amount" -> tx.setAmount(parser.getDecimalValue());
+            // BigDecimal fields (primitive slot filled from the parser, no BigDecimal round trip)
+            case "amount" -> readAmount(tx, parser);
 
             // Boolean fields
             case "card_present" -> tx.setCardPresent(parser.getBooleanValue());
@@ -112,4 +113,15 @@ public class StreamingTransactionReader implements MessageBodyReader<Transaction
             default -> parser.skipChildren(); // Unknown field
         }
     }
+
+    private void readAmount(TransactionContext tx, JsonParser parser) throws IOException {
+        JsonParser.NumberType numberType = parser.getNumberType();
+        if (numberType == JsonParser.NumberType.INT || numberType == JsonParser.NumberType.LONG) {
+            long value = parser.getLongValue();
+            tx.setAmount(BigDecimal.valueOf(value), value);
+            return;
+        }
+        BigDecimal value = parser.getDecimalValue();
+        tx.setAmount(value, parser.getDoubleValue());
+    }
 }
@@ -0,0 +1,66 @@
+package com.fraud.engine.domain;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Rules applicable to one scope (network / BIN / MCC / logo), as returned by
+ * {@link Ruleset#getApplicableRules(String, String, String, String)}.
+ * <p>
+ * Backed by a bitset over the ruleset's traversal order: bit {@code i} is set when
+ * {@code getTraversalOrder().get(i)} applies. Iterating the set bits visits rules in
+ * traversal order (scope specificity, priority, APPROVE first), so the union of scope
+ * buckets needs no sort. As a {@link List} it reads like the sorted list it replaces;
+ * {@code MonitoringEvaluator} walks {@link #bits()} instead and keeps its per-rule state
+ * indexed by traversal position.
+ */
+public final class ApplicableRules extends AbstractList<Rule> implements RandomAccess {
+
+    private final List<Rule> traversalOrder;
+    private final long[] bits;
+    private final Rule[] rules;
+
+    ApplicableRules(List<Rule> traversalOrder, long[] bits) {
+        this.traversalOrder = traversalOrder;
+        this.bits = bits;
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        Rule[] selected = new Rule[count];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                selected[n++] = traversalOrder.get((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        this.rules = selected;
+    }
+
+    /**
+     * @return all enabled rules of the ruleset in traversal order; {@link #bits()} indexes into it
+     */
+    public List<Rule> traversalOrder() {
+        return traversalOrder;
+    }
+
+    /**
+     * @return bitset over {@link #traversalOrder()} positions (shared, do not modify)
+     */
+    public long[] bits() {
+        return bits;
+    }
+
+    @Override
+    public Rule get(int index) {
+        return rules[index];
+    }
+
+    @Override
+    public int size() {
+        return rules.length;
+    }
+}
@@ -0,0 +1,140 @@
+package com.fraud.engine.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Digit trie over BIN scope prefixes.
+ * <p>
+ * Each BIN bucket key is a path of decimal digits from the root. A lookup walks the
+ * card BIN one char at a time through a flat {@code int[]} child table (10 slots per
+ * node) and stops at the first char with no child, so no prefix strings are built.
+ * Every node that holds a bucket links to its nearest ancestor that also holds one, and
+ * the walk ORs the bucket bitmaps of the deepest match and its ancestors.
+ * <p>
+ * Bucket keys with non-digit characters cannot be walked; if any exist the trie keeps
+ * the original map and looks prefixes up one by one, as before.
+ */
+final class BinTrie {
+
+    private static final int RADIX = 10;
+
+    private final int[] children;
+    private final ScopeBitmap[] buckets;
+    private final int[] parentMatch;
+    private final Map<String, ScopeBitmap> irregular;
+
+    private BinTrie(int[] children, ScopeBitmap[] buckets, int[] parentMatch, Map<String, ScopeBitmap> irregular) {
+        this.children = children;
+        this.buckets = buckets;
+        this.parentMatch = parentMatch;
+        this.irregular = irregular;
+    }
+
+    /**
+     * Builds the trie from BIN buckets.
+     *
+     * @param buckets BIN prefix to the rules scoped to it
+     * @return the trie
+     */
+    static BinTrie build(Map<String, ScopeBitmap> buckets) {
+        for (String key : buckets.keySet()) {
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (c < '0' || c > '9') {
+                    return new BinTrie(new int[RADIX], new ScopeBitmap[1], new int[]{-1}, Map.copyOf(buckets));
+                }
+            }
+        }
+
+        int[] children = new int[RADIX * 16];
+        List<ScopeBitmap> nodeBuckets = new ArrayList<>();
+        nodeBuckets.add(null);
+        int nodes = 1;
+        for (Map.Entry<String, ScopeBitmap> bucket : buckets.entrySet()) {
+            String key = bucket.getKey();
+            if (key.isEmpty()) {
+                // the empty prefix was never looked up (prefix lengths start at 1)
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < key.length(); i++) {
+                int slot = node * RADIX + (key.charAt(i) - '0');
+                int child = children[slot];
+                if (child == 0) {
+                    child = nodes++;
+                    if (nodes * RADIX > children.length) {
+                        children = Arrays.copyOf(children, children.length * 2);
+                    }
+                    children[slot] = child;
+                    nodeBuckets.add(null);
+                }
+                node = child;
+            }
+            nodeBuckets.set(node, bucket.getValue());
+        }
+
+        int[] parentMatch = new int[nodes];
+        Arrays.fill(parentMatch, -1);
+        linkMatches(children, nodeBuckets, parentMatch, 0, -1);
+        return new BinTrie(Arrays.copyOf(children, nodes * RADIX), nodeBuckets.toArray(new ScopeBitmap[0]),
+                parentMatch, null);
+    }
+
+    private static void linkMatches(int[] children, List<ScopeBitmap> nodeBuckets, int[] parentMatch,
+                                    int node, int nearest) {
+        parentMatch[node] = nearest;
+        int next = nodeBuckets.get(node) != null ? node : nearest;
+        for (int d = 0; d < RADIX; d++) {
+            int child = children[node * RADIX + d];
+            if (child != 0) {
+                linkMatches(children, nodeBuckets, parentMatch, child, next);
+            }
+        }
+    }
+
+    /**
+     * ORs the bucket of every BIN prefix of {@code bin} into a dense bitset.
+     *
+     * @param bin the card BIN
+     * @param out bitset over traversal indexes
+     */
+    void orInto(String bin, long[] out) {
+        if (irregular != null) {
+            for (int len = bin.length(); len >= 1; len--) {
+                ScopeBitmap bucket = irregular.get(bin.substring(0, len));
+                if (bucket != null) {
+                    bucket.orInto(out);
+                }
+            }
+            return;
+        }
+        int deepest = -1;
+        int node = 0;
+        for (int i = 0, n = bin.length(); i < n; i++) {
+            int digit = bin.charAt(i) - '0';
+            if (digit < 0 || digit >= RADIX) {
+                break;
+            }
+            node = children[node * RADIX + digit];
+            if (node == 0) {
+                break;
+            }
+            if (buckets[node] != null) {
+                deepest = node;
+            }
+        }
+        for (int m = deepest; m > 0; m = parentMatch[m]) {
+            buckets[m].orInto(out);
+        }
+    }
+
+    /**
+     * @return number of trie nodes (diagnostics)
+     */
+    int nodeCount() {
+        return parentMatch.length;
+    }
+}
@@ -0,0 +1,124 @@
+package com.fraud.engine.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Structural form of a rule condition: AND / OR / NOT over leaf conditions.
+ * <p>
+ * A {@link CompiledCondition} is opaque once the lambdas are chained together.
+ * The loader keeps this tree alongside it so that load-time passes can still see
+ * the shape of each rule (e.g. {@code RulesetProgramCompiler} emits straight-line
+ * bytecode from it).
+ * <p>
+ * Semantics match the lambda path exactly: children are evaluated left to right
+ * with short-circuiting, and an empty AND / OR is {@code true}.
+ */
+public sealed interface ConditionNode {
+
+    /** Shared node for "no condition" (missing field, missing operator, empty group). */
+    ConditionNode ALWAYS_TRUE = new Constant(true);
+
+    /**
+     * Visits every leaf of a tree, left to right.
+     *
+     * @param node the tree (may be null)
+     * @param visitor called for each leaf
+     */
+    static void forEachLeaf(ConditionNode node, Consumer<Leaf> visitor) {
+        if (node == null) {
+            return;
+        }
+        switch (node) {
+            case Leaf leaf -> visitor.accept(leaf);
+            case And and -> and.children().forEach(child -> forEachLeaf(child, visitor));
+            case Or or -> or.children().forEach(child -> forEachLeaf(child, visitor));
+            case Not not -> forEachLeaf(not.child(), visitor);
+            case Constant ignored -> {
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a tree with each leaf replaced by {@code mapper(leaf)}. Subtrees in
+     * which no leaf changed are returned as the same instance, so callers can detect
+     * "no change" with {@code ==}.
+     *
+     * @param node the tree (may be null)
+     * @param mapper returns the replacement leaf, or the same leaf to keep it
+     * @return the rewritten tree
+     */
+    static ConditionNode mapLeaves(ConditionNode node, UnaryOperator<Leaf> mapper) {
+        if (node == null) {
+            return null;
+        }
+        return switch (node) {
+            case Leaf leaf -> mapper.apply(leaf);
+            case And and -> {
+                List<ConditionNode> children = mapAll(and.children(), mapper);
+                yield children == and.children() ? and : new And(children);
+            }
+            case Or or -> {
+                List<ConditionNode> children = mapAll(or.children(), mapper);
+                yield children == or.children() ? or : new Or(children);
+            }
+            case Not not -> {
+                ConditionNode child = mapLeaves(not.child(), mapper);
+                yield child == not.child() ? not : new Not(child);
+            }
+            case Constant constant -> constant;
+        };
+    }
+
+    private static List<ConditionNode> mapAll(List<ConditionNode> children, UnaryOperator<Leaf> mapper) {
+        List<ConditionNode> mapped = new ArrayList<>(children.size());
+        boolean changed = false;
+        for (ConditionNode child : children) {
+            ConditionNode result = mapLeaves(child, mapper);
+            changed |= result != child;
+            mapped.add(result);
+        }
+        return changed ? mapped : children;
+    }
+
+    /**
+     * A single compiled comparison.
+     *
+     * @param condition the source condition (field / operator / value)
+     * @param compiled the compiled lambda for this leaf
+     */
+    record Leaf(Condition condition, CompiledCondition compiled) implements ConditionNode {
+    }
+
+    /**
+     * Matches only if every child matches.
+     */
+    record And(List<ConditionNode> children) implements ConditionNode {
+        public And {
+            children = List.copyOf(children);
+        }
+    }
+
+    /**
+     * Matches if any child matches.
+     */
+    record Or(List<ConditionNode> children) implements ConditionNode {
+        public Or {
+            children = List.copyOf(children);
+        }
+    }
+
+    /**
+     * Negates its child.
+     */
+    record Not(ConditionNode child) implements ConditionNode {
+    }
+
+    /**
+     * A constant outcome.
+     */
+    record Constant(boolean value) implements ConditionNode {
+    }
+}
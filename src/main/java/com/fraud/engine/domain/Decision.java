@@ -55,6 +55,9 @@ public class Decision {
     @JsonProperty("ruleset_id")
     private String rulesetId;
 
+    @JsonProperty("field_registry_version")
+    private Integer fieldRegistryVersion;
+
     @JsonProperty("matched_rules")
     private List<MatchedRule> matchedRules = Collections.emptyList();
 
@@ -189,6 +192,14 @@ public class Decision {
         this.rulesetId = rulesetId;
     }
 
+    public Integer getFieldRegistryVersion() {
+        return fieldRegistryVersion;
+    }
+
+    public void setFieldRegistryVersion(Integer fieldRegistryVersion) {
+        this.fieldRegistryVersion = fieldRegistryVersion;
+    }
+
     public List<MatchedRule> getMatchedRules() {
         return matchedRules;
     }
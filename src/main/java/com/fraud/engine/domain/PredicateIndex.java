@@ -0,0 +1,298 @@
+package com.fraud.engine.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inverted index from field values to the rules that can possibly match them.
+ * <p>
+ * Scope buckets prune by network / BIN / MCC / logo only; every remaining rule's
+ * condition still runs. This index looks at each rule's <em>required</em> equality:
+ * an EQ or IN leaf on a discriminating field ({@code country_code}, {@code currency},
+ * {@code entry_mode}, {@code transaction_type}) that is the whole condition or a
+ * conjunct of a top-level AND. If the transaction's value for that field is not in
+ * the leaf's value set, the rule cannot match and is skipped without evaluation.
+ * <p>
+ * Each rule is indexed on at most one field (the one with the fewest values, i.e. the
+ * most selective). Rules without a usable equality are always candidates. Bitsets are
+ * over {@link Rule#getRuleIndex()}, assigned by {@link #build(List)}.
+ * <p>
+ * The index only prunes on exact string matches and on missing values, which is
+ * safe under the compiled EQ / IN semantics; non-string field values are never pruned.
+ */
+public final class PredicateIndex {
+
+    /** Fields eligible for indexing (low cardinality, usually present, often required by rules). */
+    static final int[] INDEXED_FIELDS = {
+            FieldRegistry.COUNTRY_CODE,
+            FieldRegistry.CURRENCY,
+            FieldRegistry.ENTRY_MODE,
+            FieldRegistry.TRANSACTION_TYPE
+    };
+
+    private final int ruleCount;
+    private final int words;
+    private final long[] allRules;
+    private final FieldIndex[] fields;
+
+    /**
+     * Rules indexed on one field.
+     *
+     * @param fieldId the field id
+     * @param indexedRules bitset of rules whose required equality is on this field
+     * @param rulesByValue bitset of rules that accept each value
+     * @param ruleCount number of rules indexed on this field
+     */
+    private record FieldIndex(int fieldId, long[] indexedRules, Map<String, long[]> rulesByValue, int ruleCount) {
+    }
+
+    private PredicateIndex(int ruleCount, FieldIndex[] fields) {
+        this.ruleCount = ruleCount;
+        this.words = (ruleCount + 63) >>> 6;
+        this.allRules = new long[words];
+        for (int i = 0; i < ruleCount; i++) {
+            allRules[i >>> 6] |= 1L << i;
+        }
+        this.fields = fields;
+    }
+
+    /**
+     * Assigns rule indexes and builds the index.
+     *
+     * @param rules all rules of the ruleset, in ruleset order
+     * @return the index
+     */
+    public static PredicateIndex build(List<Rule> rules) {
+        int words = (rules.size() + 63) >>> 6;
+        Map<Integer, long[]> indexedByField = new HashMap<>();
+        Map<Integer, Map<String, long[]>> valuesByField = new HashMap<>();
+        Map<Integer, Integer> countsByField = new HashMap<>();
+
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            rule.setRuleIndex(i);
+            Requirement requirement = bestRequirement(rule.getConditionTree());
+            if (requirement == null) {
+                continue;
+            }
+            long bit = 1L << i;
+            indexedByField.computeIfAbsent(requirement.fieldId(), f -> new long[words])[i >>> 6] |= bit;
+            Map<String, long[]> byValue = valuesByField.computeIfAbsent(requirement.fieldId(), f -> new HashMap<>());
+            for (String value : requirement.values()) {
+                byValue.computeIfAbsent(value, v -> new long[words])[i >>> 6] |= bit;
+            }
+            countsByField.merge(requirement.fieldId(), 1, Integer::sum);
+        }
+
+        List<FieldIndex> fields = new ArrayList<>();
+        for (int fieldId : INDEXED_FIELDS) {
+            long[] indexed = indexedByField.get(fieldId);
+            if (indexed != null) {
+                fields.add(new FieldIndex(fieldId, indexed, Map.copyOf(valuesByField.get(fieldId)),
+                        countsByField.get(fieldId)));
+            }
+        }
+        return new PredicateIndex(rules.size(), fields.toArray(FieldIndex[]::new));
+    }
+
+    /**
+     * Computes the rules that can possibly match the transaction.
+     *
+     * @param transaction the transaction
+     * @return bitset over rule indexes; a cleared bit means the rule cannot match
+     */
+    public long[] candidates(TransactionContext transaction) {
+        long[] candidates = new long[words];
+        candidates(transaction, candidates);
+        return candidates;
+    }
+
+    /**
+     * Computes the rules that can possibly match the transaction into a caller-owned
+     * buffer, so a reused scratch array avoids the per-request allocation.
+     *
+     * @param transaction the transaction
+     * @param candidates output bitset of at least {@link #words()} words; words past the
+     *                   index are set to all ones, the same as rules unknown to the index
+     */
+    public void candidates(TransactionContext transaction, long[] candidates) {
+        System.arraycopy(allRules, 0, candidates, 0, words);
+        Arrays.fill(candidates, words, candidates.length, -1L);
+        for (FieldIndex field : fields) {
+            Object value = transaction.getField(field.fieldId());
+            if (value != null && !(value instanceof String)) {
+                // Non-string values (set through setField) may still match after
+                // IN normalization; leave this field's rules to their conditions.
+                continue;
+            }
+            long[] accepted = value != null ? field.rulesByValue().get(value) : null;
+            long[] indexed = field.indexedRules();
+            if (accepted == null) {
+                for (int w = 0; w < words; w++) {
+                    candidates[w] &= ~indexed[w];
+                }
+            } else {
+                for (int w = 0; w < words; w++) {
+                    candidates[w] &= ~indexed[w] | accepted[w];
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks a rule against a candidate bitset. Rules not known to the index
+     * (no rule index) are always candidates.
+     */
+    public static boolean isCandidate(long[] candidates, Rule rule) {
+        int index = rule.getRuleIndex();
+        if (index < 0 || (index >>> 6) >= candidates.length) {
+            return true;
+        }
+        return (candidates[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return number of {@code long} words in a candidate bitset
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * @return number of rules covered by the index bitsets
+     */
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * @return number of rules that have a required equality on an indexed field
+     */
+    public int indexedRuleCount() {
+        int count = 0;
+        for (FieldIndex field : fields) {
+            count += field.ruleCount();
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the average number of candidate rules per transaction, assuming field
+     * values are spread evenly over the values the rules mention. Unindexed rules always
+     * count in full; for each indexed field, a transaction keeps on average
+     * {@code sum(rules per value) / distinct values} of that field's rules.
+     *
+     * @return estimated candidates per transaction
+     */
+    public double estimatedCandidates() {
+        double estimate = ruleCount - indexedRuleCount();
+        for (FieldIndex field : fields) {
+            long postings = 0;
+            for (long[] bits : field.rulesByValue().values()) {
+                for (long word : bits) {
+                    postings += Long.bitCount(word);
+                }
+            }
+            estimate += (double) postings / field.rulesByValue().size();
+        }
+        return estimate;
+    }
+
+    /**
+     * Summarizes selectivity for load-time logging, e.g.
+     * {@code indexed=180/200 estCandidates=34.5 (17.3%) country_code=150r/40v currency=30r/3v}.
+     */
+    public String describe() {
+        double estimate = estimatedCandidates();
+        StringBuilder sb = new StringBuilder()
+                .append("indexed=").append(indexedRuleCount()).append('/').append(ruleCount)
+                .append(String.format(Locale.ROOT, " estCandidates=%.1f (%.1f%%)",
+                        estimate, ruleCount == 0 ? 0.0 : 100.0 * estimate / ruleCount));
+        for (FieldIndex field : fields) {
+            sb.append(' ').append(FieldRegistry.getName(field.fieldId()))
+                    .append('=').append(field.ruleCount()).append("r/")
+                    .append(field.rulesByValue().size()).append('v');
+        }
+        return sb.toString();
+    }
+
+    // ========== Requirement Extraction ==========
+
+    private record Requirement(int fieldId, List<String> values) {
+    }
+
+    /**
+     * Finds the most selective required equality: a leaf reachable from the root
+     * through AND nodes only.
+     */
+    private static Requirement bestRequirement(ConditionNode node) {
+        if (node == null) {
+            return null;
+        }
+        return switch (node) {
+            case ConditionNode.Leaf leaf -> toRequirement(leaf.condition());
+            case ConditionNode.And and -> {
+                Requirement best = null;
+                for (ConditionNode child : and.children()) {
+                    Requirement candidate = bestRequirement(child);
+                    if (candidate != null && (best == null || candidate.values().size() < best.values().size())) {
+                        best = candidate;
+                    }
+                }
+                yield best;
+            }
+            case ConditionNode.Or ignored -> null;
+            case ConditionNode.Not ignored -> null;
+            case ConditionNode.Constant ignored -> null;
+        };
+    }
+
+    private static Requirement toRequirement(Condition condition) {
+        if (condition == null || condition.getOperatorEnum() == null) {
+            return null;
+        }
+        int fieldId = FieldRegistry.fromName(condition.getField());
+        if (!isIndexedField(fieldId)) {
+            return null;
+        }
+        List<?> raw = switch (condition.getOperatorEnum()) {
+            case EQ -> condition.getValue() != null ? List.of(condition.getValue()) : null;
+            case IN -> valueList(condition);
+            default -> null;
+        };
+        if (raw == null || raw.isEmpty()) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(raw.size());
+        for (Object value : raw) {
+            if (!(value instanceof String s)) {
+                return null;
+            }
+            values.add(s);
+        }
+        return new Requirement(fieldId, values);
+    }
+
+    private static List<?> valueList(Condition condition) {
+        if (condition.getValues() instanceof List<?> list) {
+            return list;
+        }
+        if (condition.getValue() instanceof List<?> list) {
+            return list;
+        }
+        return condition.getValue() != null ? List.of(condition.getValue()) : null;
+    }
+
+    private static boolean isIndexedField(int fieldId) {
+        for (int indexed : INDEXED_FIELDS) {
+            if (indexed == fieldId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
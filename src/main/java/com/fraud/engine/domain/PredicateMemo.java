@@ -0,0 +1,144 @@
+package com.fraud.engine.domain;
+
+import com.fraud.engine.util.WorkerThreads;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread memo of shared predicate outcomes for the transaction being evaluated.
+ * <p>
+ * Two bitsets indexed by predicate id: {@code evaluated} marks predicates already
+ * computed for this transaction, {@code results} holds their outcome. The arrays are
+ * reused across requests on the same thread, so a request only pays for clearing
+ * {@code (predicateCount + 63) / 64} words.
+ * <p>
+ * Field scans shared by many predicates ({@link Scanner}) are cached the same way,
+ * one result bitset per scan group.
+ * <p>
+ * The evaluator acquires the memo, attaches it to the {@link TransactionContext} for
+ * the duration of rule evaluation and detaches it afterwards; outside that window
+ * shared predicates are simply evaluated directly.
+ */
+public final class PredicateMemo {
+
+    private static final ThreadLocal<PredicateMemo> CURRENT = ThreadLocal.withInitial(PredicateMemo::new);
+
+    /** Max scan groups cached per transaction (one bit each in {@code scannedGroups}). */
+    static final int MAX_SCAN_GROUPS = 64;
+
+    private long[] evaluated = new long[1];
+    private long[] results = new long[1];
+    private int words;
+
+    private long[][] scanResults = new long[0][];
+    private long scannedGroups;
+
+    /**
+     * A per-field scan that sets one bit per satisfied pattern (e.g. an Aho-Corasick pass
+     * over merchant_name). Run at most once per transaction through {@link #scanOnce}.
+     */
+    public interface Scanner {
+
+        /**
+         * @return number of {@code long} words in the output bitset
+         */
+        int words();
+
+        /**
+         * Scans the transaction and sets the bits of satisfied patterns.
+         *
+         * @param transaction the transaction
+         * @param matches cleared output bitset of {@link #words()} words
+         */
+        void scan(TransactionContext transaction, long[] matches);
+    }
+
+    private PredicateMemo() {
+    }
+
+    /**
+     * Gets this thread's memo, cleared for a new transaction (a fresh one on a virtual
+     * thread).
+     *
+     * @param predicateCount number of shared predicates in the ruleset
+     * @return the cleared memo
+     */
+    public static PredicateMemo acquire(int predicateCount) {
+        PredicateMemo memo = WorkerThreads.perThread(CURRENT, PredicateMemo::new);
+        memo.reset(predicateCount);
+        return memo;
+    }
+
+    private void reset(int predicateCount) {
+        int required = (predicateCount + 63) >>> 6;
+        if (evaluated.length < required) {
+            evaluated = new long[required];
+            results = new long[required];
+        } else {
+            Arrays.fill(evaluated, 0, required, 0L);
+        }
+        words = required;
+        scannedGroups = 0L;
+    }
+
+    /**
+     * Returns the scan result of a group for this transaction, running the scan on first use.
+     *
+     * @param groupId dense group id within the ruleset
+     * @param scanner the group's scanner
+     * @param transaction the transaction being evaluated
+     * @return the group's match bitset (owned by the memo; do not keep)
+     */
+    public long[] scanOnce(int groupId, Scanner scanner, TransactionContext transaction) {
+        int required = scanner.words();
+        if (groupId >= MAX_SCAN_GROUPS) {
+            long[] matches = new long[required];
+            scanner.scan(transaction, matches);
+            return matches;
+        }
+        if (groupId >= scanResults.length) {
+            scanResults = Arrays.copyOf(scanResults, Math.min(MAX_SCAN_GROUPS, Math.max(groupId + 1, scanResults.length * 2)));
+        }
+        long[] matches = scanResults[groupId];
+        long bit = 1L << groupId;
+        if ((scannedGroups & bit) != 0) {
+            return matches;
+        }
+        if (matches == null || matches.length < required) {
+            matches = new long[required];
+            scanResults[groupId] = matches;
+        } else {
+            Arrays.fill(matches, 0L);
+        }
+        scanner.scan(transaction, matches);
+        scannedGroups |= bit;
+        return matches;
+    }
+
+    /**
+     * Returns the memoized outcome of a predicate, computing it on first use.
+     *
+     * @param id the predicate id
+     * @param predicate the predicate to evaluate on a miss
+     * @param transaction the transaction being evaluated
+     * @return the predicate outcome
+     */
+    public boolean matches(int id, CompiledCondition predicate, TransactionContext transaction) {
+        int word = id >>> 6;
+        if (word >= words) {
+            return predicate.matches(transaction);
+        }
+        long bit = 1L << id;
+        if ((evaluated[word] & bit) != 0) {
+            return (results[word] & bit) != 0;
+        }
+        boolean result = predicate.matches(transaction);
+        evaluated[word] |= bit;
+        if (result) {
+            results[word] |= bit;
+        } else {
+            results[word] &= ~bit;
+        }
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package com.fraud.engine.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
@@ -57,6 +58,15 @@ public class Rule {
     @JsonProperty("compiled_condition")
     private transient CompiledCondition compiledCondition;
 
+    // Structural form of compiledCondition, kept for load-time passes (null for hand-built rules)
+    private transient ConditionNode conditionTree;
+
+    // Dense index into the ruleset's RulesetProgram, or -1 when not compiled into one
+    private transient int programIndex = -1;
+
+    // Dense position in the owning ruleset, used by rule bitsets such as PredicateIndex
+    private transient int ruleIndex = -1;
+
     @JsonProperty("scope")
     private RuleScope scope = RuleScope.GLOBAL;
 
@@ -151,6 +161,36 @@ public class Rule {
         this.compiledCondition = compiledCondition;
     }
 
+    @JsonIgnore
+    public ConditionNode getConditionTree() {
+        return conditionTree;
+    }
+
+    @JsonIgnore
+    public void setConditionTree(ConditionNode conditionTree) {
+        this.conditionTree = conditionTree;
+    }
+
+    @JsonIgnore
+    public int getProgramIndex() {
+        return programIndex;
+    }
+
+    @JsonIgnore
+    public void setProgramIndex(int programIndex) {
+        this.programIndex = programIndex;
+    }
+
+    @JsonIgnore
+    public int getRuleIndex() {
+        return ruleIndex;
+    }
+
+    @JsonIgnore
+    public void setRuleIndex(int ruleIndex) {
+        this.ruleIndex = ruleIndex;
+    }
+
     public RuleScope getScope() {
         return scope;
     }
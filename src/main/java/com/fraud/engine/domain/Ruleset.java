@@ -1,6 +1,8 @@
 package com.fraud.engine.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fraud.engine.util.ApproximateLruCache;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -8,10 +10,10 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a ruleset containing a collection of rules.
@@ -24,7 +26,16 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Scope buckets for efficient rule filtering
  */
 public class Ruleset {
-    private static final int APPLICABLE_RULE_CACHE_MAX_ENTRIES = 2048;
+    private static final int APPLICABLE_RULE_CACHE_MAX_ENTRIES = 8192;
+
+    /** Hit / miss / eviction counters of the applicable-rules caches of all rulesets. */
+    private static final ApproximateLruCache.Stats SCOPE_CACHE_STATS = new ApproximateLruCache.Stats();
+
+    /** Default engine: each rule evaluates its own chained {@link CompiledCondition} lambda. */
+    public static final String ENGINE_LAMBDA = "LAMBDA";
+
+    /** Whole-ruleset bytecode engine: rules are evaluated through a generated {@link RulesetProgram}. */
+    public static final String ENGINE_BYTECODE = "BYTECODE";
 
     @NotBlank(message = "Ruleset key is required")
     @JsonProperty("key")
@@ -63,13 +74,27 @@ public class Ruleset {
     @JsonProperty("ruleset_id")
     private String rulesetId;
 
-    private transient Map<String, List<Rule>> networkBuckets;
-    private transient Map<String, List<Rule>> binBuckets;
-    private transient Map<String, List<Rule>> mccBuckets;
-    private transient Map<String, List<Rule>> logoBuckets;
-    private transient List<Rule> globalRules;
+    @JsonProperty("evaluation_engine")
+    private String evaluationEngine = ENGINE_LAMBDA;
+
+    private transient volatile RulesetProgram program;
+
+    private transient int predicateCount;
+
+    private transient int patternGroupCount;
+
+    private transient volatile PredicateIndex predicateIndex;
+
+    private transient List<Rule> traversalOrder;
+    private transient int traversalWords;
+    private transient Map<String, ScopeBitmap> networkBuckets;
+    private transient Map<String, ScopeBitmap> binBuckets;
+    private transient BinTrie binTrie;
+    private transient Map<String, ScopeBitmap> mccBuckets;
+    private transient Map<String, ScopeBitmap> logoBuckets;
+    private transient ScopeBitmap globalRules;
     private transient volatile boolean scopeBucketsBuilt = false;
-    private transient volatile ConcurrentHashMap<ScopeCacheKey, List<Rule>> applicableRulesCache;
+    private transient volatile ApproximateLruCache<ScopeCacheKey, ApplicableRules> applicableRulesCache;
 
     public Ruleset() {
     }
@@ -85,6 +110,9 @@ public class Ruleset {
 
     public void setKey(String key) {
         this.key = key;
+        for (Rule rule : rules) {
+            bindVelocity(rule);
+        }
     }
 
     public Integer getVersion() {
@@ -125,16 +153,33 @@ public class Ruleset {
 
     public void setRules(List<Rule> rules) {
         this.rules = rules != null ? new ArrayList<>(rules) : new ArrayList<>();
+        for (Rule rule : this.rules) {
+            bindVelocity(rule);
+        }
         invalidateCachedRules();
         this.scopeBucketsBuilt = false;
         this.applicableRulesCache = null;
+        this.program = null;
+        this.predicateIndex = null;
     }
 
     public void addRule(Rule rule) {
         this.rules.add(rule);
+        bindVelocity(rule);
         invalidateCachedRules();
         this.scopeBucketsBuilt = false;
         this.applicableRulesCache = null;
+        this.program = null;
+        this.predicateIndex = null;
+    }
+
+    /**
+     * Tells a rule's velocity config which ruleset and rule own it, for scoped counter keys.
+     */
+    private void bindVelocity(Rule rule) {
+        if (rule != null && rule.getVelocity() != null) {
+            rule.getVelocity().bindTo(key, rule.getId());
+        }
     }
 
     /**
@@ -197,9 +242,88 @@ public class Ruleset {
         this.rulesetId = rulesetId;
     }
 
+    /**
+     * Gets the evaluation engine selected for this ruleset.
+     *
+     * @return {@link #ENGINE_LAMBDA} or {@link #ENGINE_BYTECODE}
+     */
+    public String getEvaluationEngine() {
+        return evaluationEngine;
+    }
+
+    public void setEvaluationEngine(String evaluationEngine) {
+        this.evaluationEngine = evaluationEngine != null ? evaluationEngine : ENGINE_LAMBDA;
+    }
+
+    /**
+     * Gets the generated whole-ruleset program, if one was compiled.
+     *
+     * @return the program, or null when rules are evaluated individually
+     */
+    @JsonIgnore
+    public RulesetProgram getProgram() {
+        return program;
+    }
+
+    @JsonIgnore
+    public void setProgram(RulesetProgram program) {
+        this.program = program;
+    }
+
+    /**
+     * Gets the number of leaf predicates shared by two or more rules (see
+     * {@code com.fraud.engine.engine.PredicateTable}). The evaluator sizes its
+     * per-transaction memo from this.
+     *
+     * @return shared predicate count, 0 when nothing is shared
+     */
+    @JsonIgnore
+    public int getPredicateCount() {
+        return predicateCount;
+    }
+
+    @JsonIgnore
+    public void setPredicateCount(int predicateCount) {
+        this.predicateCount = predicateCount;
+    }
+
+    /**
+     * Gets the number of fields whose CONTAINS / STARTS_WITH / ENDS_WITH patterns are
+     * matched by one scan per transaction (see {@code com.fraud.engine.engine.PatternGroups}).
+     *
+     * @return pattern group count, 0 when no field has grouped patterns
+     */
+    @JsonIgnore
+    public int getPatternGroupCount() {
+        return patternGroupCount;
+    }
+
+    @JsonIgnore
+    public void setPatternGroupCount(int patternGroupCount) {
+        this.patternGroupCount = patternGroupCount;
+    }
+
+    /**
+     * Gets the inverted index of required equalities, if one was built at load.
+     *
+     * @return the index, or null to evaluate every applicable rule
+     */
+    @JsonIgnore
+    public PredicateIndex getPredicateIndex() {
+        return predicateIndex;
+    }
+
+    @JsonIgnore
+    public void setPredicateIndex(PredicateIndex predicateIndex) {
+        this.predicateIndex = predicateIndex;
+    }
+
     /**
      * Builds scope buckets for efficient rule filtering.
      * Called automatically on first getApplicableRules() call.
+     * <p>
+     * Enabled rules get a dense index in traversal order (see {@link #getTraversalOrder()});
+     * each bucket is a {@link ScopeBitmap} over those indexes.
      */
     private void buildScopeBuckets() {
         if (scopeBucketsBuilt) {
@@ -209,82 +333,106 @@ public class Ruleset {
             if (scopeBucketsBuilt) {
                 return;
             }
-            networkBuckets = new HashMap<>();
-            binBuckets = new HashMap<>();
-            mccBuckets = new HashMap<>();
-            logoBuckets = new HashMap<>();
-            globalRules = new ArrayList<>();
-            applicableRulesCache = new ConcurrentHashMap<>();
-
+            List<Rule> order = new ArrayList<>();
             for (Rule rule : rules) {
-                if (!rule.isEnabled()) {
-                    continue;
+                if (rule.isEnabled()) {
+                    order.add(rule);
                 }
+            }
+            // Stable: equal keys keep ruleset order
+            order.sort(TRAVERSAL_ORDER);
+            Map<Rule, Integer> positions = new IdentityHashMap<>();
+            for (int i = 0; i < order.size(); i++) {
+                positions.put(order.get(i), i);
+            }
+
+            Map<String, List<Rule>> network = new HashMap<>();
+            Map<String, List<Rule>> bin = new HashMap<>();
+            Map<String, List<Rule>> mcc = new HashMap<>();
+            Map<String, List<Rule>> logo = new HashMap<>();
+            List<Rule> global = new ArrayList<>();
+            applicableRulesCache = newApplicableRulesCache();
+
+            for (Rule rule : order) {
                 RuleScope scope = rule.getScope();
                 if (scope == null) {
-                    globalRules.add(rule);
+                    global.add(rule);
                     continue;
                 }
                 switch (scope.getType()) {
                     case NETWORK -> {
                         // OPT-16: Add Locale.ROOT to toUpperCase calls
                         if (scope.getValue() != null) {
-                            networkBuckets.computeIfAbsent(scope.getValue().toUpperCase(java.util.Locale.ROOT), k -> new ArrayList<>()).add(rule);
+                            network.computeIfAbsent(scope.getValue().toUpperCase(java.util.Locale.ROOT), k -> new ArrayList<>()).add(rule);
                         }
                         if (scope.getValues() != null) {
                             for (String val : scope.getValues()) {
-                                networkBuckets.computeIfAbsent(val.toUpperCase(java.util.Locale.ROOT), k -> new ArrayList<>()).add(rule);
+                                network.computeIfAbsent(val.toUpperCase(java.util.Locale.ROOT), k -> new ArrayList<>()).add(rule);
                             }
                         }
                     }
                     case BIN -> {
                         if (scope.getValue() != null) {
-                            binBuckets.computeIfAbsent(scope.getValue(), k -> new ArrayList<>()).add(rule);
+                            bin.computeIfAbsent(scope.getValue(), k -> new ArrayList<>()).add(rule);
                         }
                         if (scope.getValues() != null) {
                             for (String val : scope.getValues()) {
-                                binBuckets.computeIfAbsent(val, k -> new ArrayList<>()).add(rule);
+                                bin.computeIfAbsent(val, k -> new ArrayList<>()).add(rule);
                             }
                         }
                     }
                     case MCC -> {
                         if (scope.getValue() != null) {
-                            mccBuckets.computeIfAbsent(scope.getValue(), k -> new ArrayList<>()).add(rule);
+                            mcc.computeIfAbsent(scope.getValue(), k -> new ArrayList<>()).add(rule);
                         }
                         if (scope.getValues() != null) {
                             for (String val : scope.getValues()) {
-                                mccBuckets.computeIfAbsent(val, k -> new ArrayList<>()).add(rule);
+                                mcc.computeIfAbsent(val, k -> new ArrayList<>()).add(rule);
                             }
                         }
                     }
                     case LOGO -> {
                         // OPT-16: Add Locale.ROOT to toUpperCase calls
                         if (scope.getValue() != null) {
-                            logoBuckets.computeIfAbsent(scope.getValue().toUpperCase(java.util.Locale.ROOT), k -> new ArrayList<>()).add(rule);
+                            logo.computeIfAbsent(scope.getValue().toUpperCase(java.util.Locale.ROOT), k -> new ArrayList<>()).add(rule);
                         }
                         if (scope.getValues() != null) {
                             for (String val : scope.getValues()) {
-                                logoBuckets.computeIfAbsent(val.toUpperCase(java.util.Locale.ROOT), k -> new ArrayList<>()).add(rule);
+                                logo.computeIfAbsent(val.toUpperCase(java.util.Locale.ROOT), k -> new ArrayList<>()).add(rule);
                             }
                         }
                     }
-                    case GLOBAL, COMBINED -> globalRules.add(rule);
+                    case GLOBAL, COMBINED -> global.add(rule);
                 }
             }
+            traversalOrder = List.copyOf(order);
+            traversalWords = (order.size() + 63) >>> 6;
+            networkBuckets = toBitmaps(network, positions);
+            binBuckets = toBitmaps(bin, positions);
+            mccBuckets = toBitmaps(mcc, positions);
+            logoBuckets = toBitmaps(logo, positions);
+            globalRules = toBitmap(global, positions);
+            binTrie = BinTrie.build(binBuckets);
             scopeBucketsBuilt = true;
         }
     }
 
-    /**
-     * Gets all rules applicable to the given scope dimensions.
-     * Rules are returned in order of scope specificity (most specific first).
-     *
-     * @param network the card network (e.g., "VISA")
-     * @param bin the card BIN (e.g., "411111")
-     * @param mcc the merchant category code (e.g., "5411")
-     * @param logo the card logo
-     * @return list of applicable rules sorted by specificity
-     */
+    private static Map<String, ScopeBitmap> toBitmaps(Map<String, List<Rule>> buckets, Map<Rule, Integer> positions) {
+        Map<String, ScopeBitmap> bitmaps = new HashMap<>(buckets.size() * 2);
+        for (Map.Entry<String, List<Rule>> bucket : buckets.entrySet()) {
+            bitmaps.put(bucket.getKey(), toBitmap(bucket.getValue(), positions));
+        }
+        return bitmaps;
+    }
+
+    private static ScopeBitmap toBitmap(List<Rule> bucket, Map<Rule, Integer> positions) {
+        int[] indexes = new int[bucket.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = positions.get(bucket.get(i));
+        }
+        return ScopeBitmap.of(indexes, indexes.length);
+    }
+
     /**
      * ADR-0015: Scope bucket traversal comparator.
      * Order: scope specificity descending -> priority descending -> APPROVE-first tie-breaker.
@@ -295,10 +443,45 @@ public class Ruleset {
                     .thenComparing(Comparator.comparingInt(Rule::getPriority).reversed())
                     .thenComparing(r -> "APPROVE".equalsIgnoreCase(r.getAction()) ? 0 : 1);
 
-    private record ScopeCacheKey(String network, String bin, String mcc, String logo) {
+    /**
+     * Traversal order: ADR-0015 comparator, then bucket kind in the order buckets used to
+     * be concatenated (BIN, MCC, network, logo, global), then ruleset order.
+     */
+    private static final Comparator<Rule> TRAVERSAL_ORDER =
+            SCOPE_TRAVERSAL_COMPARATOR.thenComparingInt(Ruleset::bucketRank);
+
+    private static int bucketRank(Rule rule) {
+        RuleScope scope = rule.getScope();
+        if (scope == null) {
+            return 4;
+        }
+        return switch (scope.getType()) {
+            case BIN -> 0;
+            case MCC -> 1;
+            case NETWORK -> 2;
+            case LOGO -> 3;
+            case GLOBAL, COMBINED -> 4;
+        };
     }
 
-    public List<Rule> getApplicableRules(String network, String bin, String mcc, String logo) {
+    /**
+     * Scope dimensions of one applicable-rules lookup, as cached (network and logo
+     * upper-cased).
+     */
+    public record ScopeCacheKey(String network, String bin, String mcc, String logo) {
+    }
+
+    /**
+     * Gets all rules applicable to the given scope dimensions.
+     * Rules are returned in traversal order (most specific scope first); each rule appears once.
+     *
+     * @param network the card network (e.g., "VISA")
+     * @param bin the card BIN (e.g., "411111")
+     * @param mcc the merchant category code (e.g., "5411")
+     * @param logo the card logo
+     * @return applicable rules in traversal order, backed by a bitset over {@link #getTraversalOrder()}
+     */
+    public ApplicableRules getApplicableRules(String network, String bin, String mcc, String logo) {
         buildScopeBuckets();
 
         // OPT-16: Add Locale.ROOT to toUpperCase calls
@@ -306,73 +489,106 @@ public class Ruleset {
         String normalizedLogo = logo != null ? logo.toUpperCase(java.util.Locale.ROOT) : null;
         ScopeCacheKey cacheKey = new ScopeCacheKey(normalizedNetwork, bin, mcc, normalizedLogo);
 
-        ConcurrentHashMap<ScopeCacheKey, List<Rule>> cache = applicableRulesCache;
-        if (cache != null) {
-            List<Rule> cached = cache.get(cacheKey);
-            if (cached != null) {
-                return cached;
-            }
+        ApproximateLruCache<ScopeCacheKey, ApplicableRules> cache = applicableRulesCache;
+        if (cache == null) {
+            // Invalidated while buckets are still valid: start a fresh cache (a racing
+            // thread may create another; one of them wins, nothing is lost but hits)
+            cache = newApplicableRulesCache();
+            applicableRulesCache = cache;
         }
-
-        List<Rule> computed = computeApplicableRules(normalizedNetwork, bin, mcc, normalizedLogo);
-
-        if (cache != null) {
-            // OPT-07: Atomic swap instead of clear() to prevent thundering herd
-            if (cache.size() >= APPLICABLE_RULE_CACHE_MAX_ENTRIES) {
-                // Swap to a fresh map - only one thread performs the swap
-                applicableRulesCache = new ConcurrentHashMap<>(256);
-                cache = applicableRulesCache;
-            }
-            List<Rule> previous = cache.putIfAbsent(cacheKey, computed);
-            if (previous != null) {
-                return previous;
-            }
+        ApplicableRules cached = cache.get(cacheKey);
+        if (cached != null) {
+            return cached;
         }
 
+        // Bounded, approximate-LRU: a miss replaces the least recently used entry of its
+        // set instead of dropping the whole cache when it fills up.
+        ApplicableRules computed = computeApplicableRules(normalizedNetwork, bin, mcc, normalizedLogo);
+        cache.put(cacheKey, computed);
         return computed;
     }
 
-    private List<Rule> computeApplicableRules(String normalizedNetwork, String bin, String mcc, String normalizedLogo) {
-        List<Rule> applicable = new ArrayList<>(Math.max(8, globalRules != null ? globalRules.size() : 0));
+    /**
+     * Gets the enabled rules in scope traversal order: scope specificity descending,
+     * priority descending, APPROVE first (ADR-0015). Positions in this list are the bit
+     * indexes of {@link ApplicableRules#bits()}.
+     *
+     * @return immutable list of enabled rules in traversal order
+     */
+    @JsonIgnore
+    public List<Rule> getTraversalOrder() {
+        buildScopeBuckets();
+        return traversalOrder;
+    }
+
+    private static ApproximateLruCache<ScopeCacheKey, ApplicableRules> newApplicableRulesCache() {
+        return new ApproximateLruCache<>(APPLICABLE_RULE_CACHE_MAX_ENTRIES, SCOPE_CACHE_STATS);
+    }
+
+    /**
+     * Process-wide applicable-rules cache counters for {@code /v1/manage/metrics}.
+     *
+     * @return counter name to value
+     */
+    public static Map<String, Long> scopeCacheMetrics() {
+        return SCOPE_CACHE_STATS.snapshot("scope_cache");
+    }
+
+    private ApplicableRules computeApplicableRules(String normalizedNetwork, String bin, String mcc, String normalizedLogo) {
+        // Union of the matching buckets; set bits come out in traversal order, no sort needed
+        long[] bits = new long[traversalWords];
 
         if (bin != null) {
-            for (int len = bin.length(); len >= 1; len--) {
-                String prefix = bin.substring(0, len);
-                List<Rule> binRules = binBuckets.get(prefix);
-                if (binRules != null) {
-                    applicable.addAll(binRules);
-                }
-            }
+            binTrie.orInto(bin, bits);
         }
+        orBucket(mccBuckets, mcc, bits);
+        orBucket(networkBuckets, normalizedNetwork, bits);
+        orBucket(logoBuckets, normalizedLogo, bits);
+        globalRules.orInto(bits);
 
-        if (mcc != null) {
-            List<Rule> mccRules = mccBuckets.get(mcc);
-            if (mccRules != null) {
-                applicable.addAll(mccRules);
-            }
-        }
+        return new ApplicableRules(traversalOrder, bits);
+    }
 
-        if (normalizedNetwork != null) {
-            List<Rule> networkRules = networkBuckets.get(normalizedNetwork);
-            if (networkRules != null) {
-                applicable.addAll(networkRules);
+    private static void orBucket(Map<String, ScopeBitmap> buckets, String value, long[] bits) {
+        if (value != null) {
+            ScopeBitmap bucket = buckets.get(value);
+            if (bucket != null) {
+                bucket.orInto(bits);
             }
         }
+    }
 
-        if (normalizedLogo != null) {
-            List<Rule> logoRules = logoBuckets.get(normalizedLogo);
-            if (logoRules != null) {
-                applicable.addAll(logoRules);
-            }
-        }
+    /**
+     * The scope lookups this ruleset served most recently, for warming its successor.
+     *
+     * @param limit maximum number of keys
+     * @return cached scope keys, most recently used first (empty if nothing is cached)
+     */
+    public List<ScopeCacheKey> hottestScopeKeys(int limit) {
+        ApproximateLruCache<ScopeCacheKey, ApplicableRules> cache = applicableRulesCache;
+        return cache != null ? cache.hottestKeys(limit) : List.of();
+    }
 
-        if (globalRules != null) {
-            applicable.addAll(globalRules);
+    /**
+     * Computes and caches the applicable rules for the given scope keys, so the first
+     * requests after a swap hit the cache. Does not count cache hits or misses.
+     *
+     * @param keys scope keys, e.g. from the previous version's {@link #hottestScopeKeys}
+     * @return number of keys cached
+     */
+    public int warmScopeCache(List<ScopeCacheKey> keys) {
+        buildScopeBuckets();
+        ApproximateLruCache<ScopeCacheKey, ApplicableRules> cache = applicableRulesCache;
+        if (cache == null) {
+            cache = newApplicableRulesCache();
+            applicableRulesCache = cache;
         }
-
-        // ADR-0015: Sort by scope specificity -> priority -> APPROVE-first
-        applicable.sort(SCOPE_TRAVERSAL_COMPARATOR);
-        return List.copyOf(applicable);
+        // Coldest first, so the hottest keys are the most recent and the last to be evicted
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            ScopeCacheKey key = keys.get(i);
+            cache.put(key, computeApplicableRules(key.network(), key.bin(), key.mcc(), key.logo()));
+        }
+        return keys.size();
     }
 
     /**
@@ -383,11 +599,11 @@ public class Ruleset {
     public Map<String, Integer> getScopeBucketCounts() {
         buildScopeBuckets();
         Map<String, Integer> counts = new HashMap<>();
-        counts.put("NETWORK", networkBuckets.values().stream().mapToInt(List::size).sum());
-        counts.put("BIN", binBuckets.values().stream().mapToInt(List::size).sum());
-        counts.put("MCC", mccBuckets.values().stream().mapToInt(List::size).sum());
-        counts.put("LOGO", logoBuckets.values().stream().mapToInt(List::size).sum());
-        counts.put("GLOBAL", globalRules.size());
+        counts.put("NETWORK", networkBuckets.values().stream().mapToInt(ScopeBitmap::cardinality).sum());
+        counts.put("BIN", binBuckets.values().stream().mapToInt(ScopeBitmap::cardinality).sum());
+        counts.put("MCC", mccBuckets.values().stream().mapToInt(ScopeBitmap::cardinality).sum());
+        counts.put("LOGO", logoBuckets.values().stream().mapToInt(ScopeBitmap::cardinality).sum());
+        counts.put("GLOBAL", globalRules.cardinality());
         counts.put("TOTAL", rules.size());
         return counts;
     }
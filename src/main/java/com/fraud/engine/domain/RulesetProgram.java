@@ -0,0 +1,38 @@
+package com.fraud.engine.domain;
+
+/**
+ * A whole ruleset compiled into a single evaluation routine.
+ * <p>
+ * Rules are addressed by their dense program index ({@link Rule#getProgramIndex()}).
+ * Bit {@code i} of a bitset lives in word {@code i >>> 6} at position {@code i & 63}.
+ * <p>
+ * Implementations are generated at load time (one hidden class per ruleset) so that
+ * every leaf condition gets its own call site and the JIT can inline it, instead of
+ * going through a single megamorphic {@link CompiledCondition#matches} call.
+ *
+ * @see com.fraud.engine.engine.RulesetProgramCompiler
+ */
+public interface RulesetProgram {
+
+    /**
+     * Evaluates every rule whose bit is set in {@code applicable} and sets the
+     * corresponding bit in {@code matches} when its condition holds.
+     *
+     * @param transaction the transaction context
+     * @param applicable bitset of rules to evaluate, at least {@link #wordCount()} long
+     * @param matches output bitset, at least {@link #wordCount()} long; bits are only ever set
+     */
+    void evaluate(TransactionContext transaction, long[] applicable, long[] matches);
+
+    /**
+     * @return number of rules addressed by this program
+     */
+    int ruleCount();
+
+    /**
+     * @return number of {@code long} words needed for a bitset over all rules
+     */
+    default int wordCount() {
+        return (ruleCount() + 63) >>> 6;
+    }
+}
@@ -0,0 +1,77 @@
+package com.fraud.engine.domain;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of traversal indexes (see {@link Ruleset#getTraversalOrder()}) held by one
+ * scope bucket.
+ * <p>
+ * Buckets are sparse: a BIN or MCC bucket usually holds a handful of rules out of
+ * hundreds. Only the non-zero 64-bit words of the bitmap are stored, next to their word
+ * offsets, so a bucket costs two small arrays however large the ruleset is, and OR-ing it
+ * into a dense bitset touches only those words.
+ */
+final class ScopeBitmap {
+
+    static final ScopeBitmap EMPTY = new ScopeBitmap(new int[0], new long[0], 0);
+
+    private final int[] wordOffsets;
+    private final long[] words;
+    private final int cardinality;
+
+    private ScopeBitmap(int[] wordOffsets, long[] words, int cardinality) {
+        this.wordOffsets = wordOffsets;
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Builds a bitmap from traversal indexes (any order, duplicates allowed).
+     *
+     * @param indexes the indexes
+     * @param count number of leading entries of {@code indexes} to use
+     * @return the bitmap
+     */
+    static ScopeBitmap of(int[] indexes, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        int[] sorted = Arrays.copyOf(indexes, count);
+        Arrays.sort(sorted);
+        int[] offsets = new int[count];
+        long[] words = new long[count];
+        int used = -1;
+        int cardinality = 0;
+        for (int index : sorted) {
+            int offset = index >>> 6;
+            if (used < 0 || offsets[used] != offset) {
+                used++;
+                offsets[used] = offset;
+            }
+            long bit = 1L << index;
+            if ((words[used] & bit) == 0) {
+                words[used] |= bit;
+                cardinality++;
+            }
+        }
+        return new ScopeBitmap(Arrays.copyOf(offsets, used + 1), Arrays.copyOf(words, used + 1), cardinality);
+    }
+
+    /**
+     * ORs this bitmap into a dense bitset.
+     *
+     * @param dense bitset over traversal indexes
+     */
+    void orInto(long[] dense) {
+        for (int i = 0; i < words.length; i++) {
+            dense[wordOffsets[i]] |= words[i];
+        }
+    }
+
+    /**
+     * @return number of rules in the bucket
+     */
+    int cardinality() {
+        return cardinality;
+    }
+}
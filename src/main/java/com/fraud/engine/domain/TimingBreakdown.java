@@ -44,6 +44,10 @@ public class TimingBreakdown {
     @JsonProperty("decision_finalization_time_ms")
     private Double decisionFinalizationTimeMs;
 
+    /** True when the country had no ruleset and the global one was used (absent otherwise). */
+    @JsonProperty("ruleset_fallback_used")
+    private Boolean rulesetFallbackUsed;
+
     public TimingBreakdown() {
     }
 
@@ -139,6 +143,14 @@ public class TimingBreakdown {
         this.decisionFinalizationTimeMs = decisionFinalizationTimeMs;
     }
 
+    public Boolean getRulesetFallbackUsed() {
+        return rulesetFallbackUsed;
+    }
+
+    public void setRulesetFallbackUsed(Boolean rulesetFallbackUsed) {
+        this.rulesetFallbackUsed = rulesetFallbackUsed;
+    }
+
     /**
      * Creates a timing breakdown with nanosecond precision converted to milliseconds.
      */
@@ -155,6 +167,7 @@ public class TimingBreakdown {
                 ", velocityCheck=" + velocityCheckTimeMs + "ms" +
                 ", velocityCount=" + velocityCheckCount +
                 ", redisOutbox=" + redisOutboxTimeMs + "ms" +
+                (rulesetFallbackUsed != null ? ", rulesetFallbackUsed=" + rulesetFallbackUsed : "") +
                 '}';
     }
 }
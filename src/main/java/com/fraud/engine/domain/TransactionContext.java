@@ -191,6 +191,16 @@ public class TransactionContext {
     // Transient means it won't be serialized by Jackson (we use properties instead).
     private transient Object[] fields;
 
+    // ========== Primitive Numeric Slots ==========
+    // Parallel double store for fields holding a Number, so compiled numeric conditions
+    // compare primitives instead of calling doubleValue() on a boxed BigDecimal per rule.
+    // Bit i of numericMask is set when numericValues[i - 1] holds field i.
+    private transient double[] numericValues;
+    private transient long numericMask;
+
+    // Shared-predicate memo, attached only while the evaluator runs rules for this transaction.
+    private transient PredicateMemo predicateMemo;
+
     // ========== Constructor ==========
 
     public TransactionContext() {
@@ -225,7 +235,44 @@ public class TransactionContext {
     public void setField(int fieldId, Object value) {
         if (fieldId >= 1 && fieldId < F_COUNT) {
             fields[fieldId - 1] = value;
+            if (value instanceof Number n) {
+                putNumeric(fieldId, n.doubleValue());
+            } else {
+                numericMask &= ~(1L << fieldId);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a field currently holds a numeric value.
+     *
+     * @param fieldId the field ID
+     * @return true if {@link #getNumeric(int)} is valid for this field
+     */
+    public boolean hasNumeric(int fieldId) {
+        // The typed setters write fields[] without touching the mask, so a slot is only
+        // trusted while the field still holds a Number.
+        return fieldId >= 1 && fieldId < F_COUNT && (numericMask & (1L << fieldId)) != 0
+                && fields[fieldId - 1] instanceof Number;
+    }
+
+    /**
+     * Gets a numeric field as a primitive (no boxing). Only meaningful when
+     * {@link #hasNumeric(int)} is true.
+     *
+     * @param fieldId the field ID
+     * @return the value as a double
+     */
+    public double getNumeric(int fieldId) {
+        return numericValues[fieldId - 1];
+    }
+
+    private void putNumeric(int fieldId, double value) {
+        if (numericValues == null) {
+            numericValues = new double[F_COUNT];
         }
+        numericValues[fieldId - 1] = value;
+        numericMask |= 1L << fieldId;
     }
 
     // ========== Getters/Setters (backed by array + properties) ==========
@@ -253,8 +300,24 @@ public class TransactionContext {
     }
 
     public void setAmount(BigDecimal amount) {
+        setAmount(amount, amount != null ? amount.doubleValue() : 0.0);
+    }
+
+    /**
+     * Sets the amount together with its primitive value, for callers (the streaming
+     * reader) that already have the number from the parser.
+     *
+     * @param amount the amount
+     * @param amountValue the same amount as a double
+     */
+    public void setAmount(BigDecimal amount, double amountValue) {
         this.amount = amount;
-        this.fields[F_AMOUNT - 1] =amount;
+        this.fields[F_AMOUNT - 1] = amount;
+        if (amount != null) {
+            putNumeric(F_AMOUNT, amountValue);
+        } else {
+            numericMask &= ~(1L << F_AMOUNT);
+        }
     }
 
     public String getCurrency() {
@@ -501,6 +564,21 @@ public class TransactionContext {
         getCustomFields().put(key, value);
     }
 
+    /**
+     * Gets the shared-predicate memo attached for the current evaluation.
+     *
+     * @return the memo, or null outside rule evaluation
+     */
+    @JsonIgnore
+    public PredicateMemo getPredicateMemo() {
+        return predicateMemo;
+    }
+
+    @JsonIgnore
+    public void setPredicateMemo(PredicateMemo predicateMemo) {
+        this.predicateMemo = predicateMemo;
+    }
+
     // ========== Context Projection ==========
     /**
      * Converts this transaction to a flat map for rule evaluation and downstream payloads.
@@ -550,6 +628,17 @@ public class TransactionContext {
         return context;
     }
 
+    /**
+     * Returns a read-only view with the same entries as {@link #toEvaluationContext()},
+     * backed by the field array instead of a copied map. Use for decision payloads and
+     * interpretive evaluation; use {@link #toEvaluationContext()} when a mutable copy is needed.
+     *
+     * @return a live, read-only view of this transaction's fields
+     */
+    public Map<String, Object> asEvaluationContext() {
+        return new TransactionContextView(this);
+    }
+
     public Map<String, Object> toMinimalContext() {
         Map<String, Object> context = new HashMap<>(8);
         if (fields[F_TRANSACTION_ID - 1] != null) context.put("transaction_id", fields[F_TRANSACTION_ID - 1]);
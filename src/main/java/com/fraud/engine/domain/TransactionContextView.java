@@ -0,0 +1,199 @@
+package com.fraud.engine.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only {@link Map} view of a {@link TransactionContext} with the same keys and values
+ * as {@link TransactionContext#toEvaluationContext()}, read straight from the field array.
+ * <p>
+ * Keys are the populated standard fields (canonical names only, no aliases), then
+ * {@code decision}, then custom fields; a custom field shadows a standard field of the same
+ * name, as {@code putAll} does in the copied map. Lookups go through
+ * {@link FieldRegistry#fromName(String)}, so {@code get} is an array read instead of a hash
+ * probe into a freshly built map.
+ * <p>
+ * The view is live: it reflects later changes to the transaction. Transactions are not
+ * modified once evaluated, which is what lets decisions hold the view instead of a copy.
+ * Jackson serializes it directly from the array through {@link Serializer}, without
+ * creating map entries.
+ */
+@JsonSerialize(using = TransactionContextView.Serializer.class)
+public final class TransactionContextView extends AbstractMap<String, Object> {
+
+    private static final String DECISION = "decision";
+
+    /** Canonical name per field id (index 0 unused). */
+    private static final String[] NAMES = new String[FieldRegistry.FIELD_COUNT];
+
+    static {
+        for (int id = 1; id < NAMES.length; id++) {
+            NAMES[id] = FieldRegistry.getName(id);
+        }
+    }
+
+    private final TransactionContext transaction;
+    private Set<Entry<String, Object>> entrySet;
+
+    TransactionContextView(TransactionContext transaction) {
+        this.transaction = transaction;
+    }
+
+    private Map<String, Object> customFields() {
+        Map<String, Object> custom = transaction.getCustomFieldsIfPresent();
+        return custom != null && !custom.isEmpty() ? custom : null;
+    }
+
+    /**
+     * Value of a standard field or decision unless shadowed by a custom field.
+     */
+    private Object standardValue(int slot, Map<String, Object> custom) {
+        String name = slot < NAMES.length ? NAMES[slot] : DECISION;
+        if (custom != null && custom.containsKey(name)) {
+            return null;
+        }
+        return slot < NAMES.length ? transaction.getField(slot) : transaction.getDecision();
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        Map<String, Object> custom = customFields();
+        if (custom != null && custom.containsKey(name)) {
+            return custom.get(name);
+        }
+        if (DECISION.equals(name)) {
+            return transaction.getDecision();
+        }
+        int id = FieldRegistry.fromName(name);
+        return id > 0 && NAMES[id].equals(name) ? transaction.getField(id) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String name)) {
+            return false;
+        }
+        Map<String, Object> custom = customFields();
+        return (custom != null && custom.containsKey(name)) || get(name) != null;
+    }
+
+    @Override
+    public int size() {
+        Map<String, Object> custom = customFields();
+        int size = custom != null ? custom.size() : 0;
+        for (int slot = 1; slot <= NAMES.length; slot++) {
+            if (standardValue(slot, custom) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return TransactionContextView.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Walks standard slots {@code 1..FIELD_COUNT-1}, the decision slot ({@code FIELD_COUNT}),
+     * then the custom fields.
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private final Map<String, Object> custom = customFields();
+        private Iterator<Entry<String, Object>> customIterator;
+        private int slot = advance(1);
+
+        private int advance(int from) {
+            int s = from;
+            while (s <= NAMES.length && standardValue(s, custom) == null) {
+                s++;
+            }
+            return s;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (slot <= NAMES.length) {
+                return true;
+            }
+            if (custom == null) {
+                return false;
+            }
+            if (customIterator == null) {
+                customIterator = custom.entrySet().iterator();
+            }
+            return customIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (slot <= NAMES.length) {
+                int current = slot;
+                slot = advance(slot + 1);
+                return new SimpleImmutableEntry<>(current < NAMES.length ? NAMES[current] : DECISION,
+                        standardValue(current, custom));
+            }
+            Entry<String, Object> e = customIterator.next();
+            return new SimpleImmutableEntry<>(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Writes the view as a JSON object straight from the field array.
+     */
+    public static final class Serializer extends JsonSerializer<TransactionContextView> {
+
+        @Override
+        public void serialize(TransactionContextView view, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(view);
+            Map<String, Object> custom = view.customFields();
+            for (int slot = 1; slot <= NAMES.length; slot++) {
+                Object value = view.standardValue(slot, custom);
+                if (value != null) {
+                    provider.defaultSerializeField(slot < NAMES.length ? NAMES[slot] : DECISION, value, gen);
+                }
+            }
+            if (custom != null) {
+                for (Entry<String, Object> e : custom.entrySet()) {
+                    provider.defaultSerializeField(e.getKey(), e.getValue(), gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, TransactionContextView view) {
+            return view.isEmpty();
+        }
+    }
+}
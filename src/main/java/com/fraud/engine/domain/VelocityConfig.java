@@ -1,5 +1,6 @@
 package com.fraud.engine.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -29,6 +30,14 @@ public class VelocityConfig {
     @JsonProperty("action")
     private String action;
 
+    /** Owning ruleset, for ruleset- or rule-scoped counter keys; set by {@link Ruleset}. */
+    @JsonIgnore
+    private String rulesetKey;
+
+    /** Owning rule, for rule-scoped counter keys; set by {@link Ruleset}. */
+    @JsonIgnore
+    private String ruleId;
+
     /**
      * Default constructor for JSON deserialization.
      */
@@ -93,6 +102,25 @@ public class VelocityConfig {
         this.action = action;
     }
 
+    public String getRulesetKey() {
+        return rulesetKey;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    /**
+     * Records the ruleset and rule this config belongs to.
+     *
+     * @param rulesetKey owning ruleset key
+     * @param ruleId owning rule id
+     */
+    public void bindTo(String rulesetKey, String ruleId) {
+        this.rulesetKey = rulesetKey;
+        this.ruleId = ruleId;
+    }
+
     @Override
     public String toString() {
         return "VelocityConfig{" +
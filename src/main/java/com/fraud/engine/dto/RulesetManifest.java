@@ -37,6 +37,12 @@ public class RulesetManifest {
     @JsonProperty("checksum")
     private String checksum;
 
+    @JsonProperty("binary_artifact_uri")
+    private String binaryArtifactUri;
+
+    @JsonProperty("binary_checksum")
+    private String binaryChecksum;
+
     @JsonProperty("published_at")
     private Instant publishedAt;
 
@@ -76,6 +82,17 @@ public class RulesetManifest {
         return checksum;
     }
 
+    /**
+     * @return URI of the binary form of the artifact (optional; {@code artifact_uri} is the fallback)
+     */
+    public String getBinaryArtifactUri() {
+        return binaryArtifactUri;
+    }
+
+    public String getBinaryChecksum() {
+        return binaryChecksum;
+    }
+
     public Instant getPublishedAt() {
         return publishedAt;
     }
@@ -0,0 +1,219 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.util.EngineMetrics;
+import org.jboss.logging.Logger;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * AND / OR group that reorders its children from sampled cost and selectivity.
+ * <p>
+ * Children are evaluated in the current order with the usual short-circuit. On about
+ * one evaluation in {@code sampleRate}, every child is evaluated and timed instead, and
+ * its pass count recorded. Every {@code reorderInterval} samples the children are
+ * ranked by expected cost to decide the group:
+ * <ul>
+ *   <li>AND: {@code cost / P(false)} ascending - cheap conditions that usually reject first</li>
+ *   <li>OR: {@code cost / P(true)} ascending - cheap conditions that usually accept first</li>
+ * </ul>
+ * The new order is published with one volatile write, so a concurrent evaluation sees
+ * either the old or the new array, never a mix. Leaf conditions are pure, so AND / OR
+ * give the same result in any order; only the work done changes. Counters are halved
+ * after each ranking so the order follows traffic drift; the halving may drop a few
+ * concurrent increments, which only blurs the estimates.
+ * <p>
+ * Evaluations run inside {@link #withoutSampling} (ruleset warm-up replays) are never
+ * sampled, so synthetic traffic does not steer the order live traffic runs in.
+ */
+public final class AdaptiveGroup implements CompiledCondition {
+
+    private static final Logger LOG = Logger.getLogger(AdaptiveGroup.class);
+
+    /** Set on a thread whose evaluations must not be sampled. */
+    private static final ThreadLocal<Boolean> SAMPLING_PAUSED = new ThreadLocal<>();
+
+    private final boolean and;
+    private final CompiledCondition[] children;
+    private final int sampleMask;
+    private final int reorderInterval;
+    private final EngineMetrics metrics;
+    private final LongSupplier clock;
+
+    private volatile Order order;
+
+    private final AtomicLongArray costNanos;
+    private final AtomicLongArray passes;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicBoolean ranking = new AtomicBoolean();
+    private volatile boolean reordered;
+
+    /**
+     * Current evaluation order: indexes into the authoring order and the matching children.
+     */
+    private record Order(int[] indexes, CompiledCondition[] conditions) {
+    }
+
+    /**
+     * @param and true for AND, false for OR
+     * @param children the children in authoring order (at least two)
+     * @param sampleRate sample about one evaluation in this many (rounded down to a power of two)
+     * @param reorderInterval samples between rankings
+     * @param metrics counters for samples and reorders (null to skip)
+     */
+    AdaptiveGroup(boolean and, CompiledCondition[] children, int sampleRate, int reorderInterval,
+                  EngineMetrics metrics) {
+        this(and, children, sampleRate, reorderInterval, metrics, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanosecond clock used to time sampled children
+     */
+    AdaptiveGroup(boolean and, CompiledCondition[] children, int sampleRate, int reorderInterval,
+                  EngineMetrics metrics, LongSupplier clock) {
+        this.and = and;
+        this.children = children.clone();
+        this.sampleMask = Integer.highestOneBit(Math.max(1, sampleRate)) - 1;
+        this.reorderInterval = Math.max(1, reorderInterval);
+        this.metrics = metrics;
+        this.clock = clock;
+        int[] identity = new int[children.length];
+        for (int i = 0; i < identity.length; i++) {
+            identity[i] = i;
+        }
+        this.order = new Order(identity, this.children.clone());
+        this.costNanos = new AtomicLongArray(children.length);
+        this.passes = new AtomicLongArray(children.length);
+        if (metrics != null) {
+            metrics.incrementAdaptiveGroupCreated();
+        }
+    }
+
+    @Override
+    public boolean matches(TransactionContext transaction) {
+        if ((ThreadLocalRandom.current().nextInt() & sampleMask) == 0 && SAMPLING_PAUSED.get() == null) {
+            return sample(transaction);
+        }
+        CompiledCondition[] conditions = order.conditions();
+        if (and) {
+            for (CompiledCondition c : conditions) {
+                if (!c.matches(transaction)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (CompiledCondition c : conditions) {
+            if (c.matches(transaction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean sample(TransactionContext transaction) {
+        boolean result = and;
+        for (int i = 0; i < children.length; i++) {
+            long start = clock.getAsLong();
+            boolean matched = children[i].matches(transaction);
+            costNanos.addAndGet(i, clock.getAsLong() - start);
+            if (matched) {
+                passes.incrementAndGet(i);
+            }
+            result = and ? result && matched : result || matched;
+        }
+        if (metrics != null) {
+            metrics.incrementAdaptiveSample();
+        }
+        if (samples.incrementAndGet() % reorderInterval == 0) {
+            rank();
+        }
+        return result;
+    }
+
+    /**
+     * Ranks the children and publishes a new order if it changed. Only one thread
+     * ranks at a time; others keep evaluating with the current order.
+     */
+    void rank() {
+        if (!ranking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long sampled = Math.max(1, samples.get());
+            double[] score = new double[children.length];
+            for (int i = 0; i < children.length; i++) {
+                double cost = (double) costNanos.get(i) / sampled;
+                double passRate = (passes.get(i) + 1.0) / (sampled + 2.0);
+                score[i] = cost / (and ? 1.0 - passRate : passRate);
+            }
+            Integer[] ranked = new Integer[children.length];
+            for (int i = 0; i < ranked.length; i++) {
+                ranked[i] = i;
+            }
+            // stable sort: ties keep authoring order
+            Arrays.sort(ranked, Comparator.comparingDouble(i -> score[i]));
+            int[] indexes = new int[ranked.length];
+            CompiledCondition[] conditions = new CompiledCondition[ranked.length];
+            for (int i = 0; i < ranked.length; i++) {
+                indexes[i] = ranked[i];
+                conditions[i] = children[ranked[i]];
+            }
+            boolean changed = !Arrays.equals(indexes, order.indexes());
+            boolean firstReorder = changed && !reordered;
+            if (metrics != null) {
+                metrics.recordAdaptiveRanking(changed, firstReorder);
+            }
+            if (changed) {
+                order = new Order(indexes, conditions);
+                reordered = true;
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Reordered %s group children to %s (scores %s)",
+                            and ? "AND" : "OR", Arrays.toString(indexes), Arrays.toString(score));
+                }
+            }
+            for (int i = 0; i < children.length; i++) {
+                costNanos.set(i, costNanos.get(i) / 2);
+                passes.set(i, passes.get(i) / 2);
+            }
+            samples.set(samples.get() / 2);
+        } finally {
+            ranking.set(false);
+        }
+    }
+
+    /**
+     * Runs {@code work} on the calling thread with sampling paused in every adaptive group:
+     * evaluations use the current order and record no cost, pass or ranking statistics.
+     *
+     * @param work the evaluations to run
+     * @param <T> result type
+     * @return the result of {@code work}
+     */
+    static <T> T withoutSampling(Supplier<T> work) {
+        if (SAMPLING_PAUSED.get() != null) {
+            return work.get();
+        }
+        SAMPLING_PAUSED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            SAMPLING_PAUSED.remove();
+        }
+    }
+
+    /**
+     * @return the current evaluation order as indexes into the authoring order
+     */
+    int[] currentOrder() {
+        return order.indexes().clone();
+    }
+}
@@ -2,17 +2,22 @@ package com.fraud.engine.engine;
 
 import com.fraud.engine.domain.Condition;
 import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.ConditionNode;
 import com.fraud.engine.domain.FieldRegistry;
 import com.fraud.engine.domain.TransactionContext;
 import com.fraud.engine.service.FieldRegistryService;
+import com.fraud.engine.util.EngineMetrics;
+import com.fraud.engine.util.LinearRegex;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Compiles conditions into executable lambdas for high-performance evaluation.
@@ -48,6 +53,26 @@ public class ConditionCompiler {
     @Inject
     FieldRegistryService fieldRegistryService;
 
+    @Inject
+    EngineMetrics engineMetrics;
+
+    /** Reorder AND / OR children from sampled cost and selectivity (see {@link AdaptiveGroup}). */
+    @ConfigProperty(name = "app.evaluation.adaptive-ordering.enabled", defaultValue = "false")
+    boolean adaptiveOrdering;
+
+    @ConfigProperty(name = "app.evaluation.adaptive-ordering.sample-rate", defaultValue = "64")
+    int adaptiveSampleRate = 64;
+
+    @ConfigProperty(name = "app.evaluation.adaptive-ordering.reorder-interval", defaultValue = "1024")
+    int adaptiveReorderInterval = 1024;
+
+    /**
+     * Compile REGEX patterns outside the linear-time subset with {@code java.util.regex}
+     * instead of failing the ruleset load. Those patterns can backtrack exponentially.
+     */
+    @ConfigProperty(name = "app.evaluation.regex.backtracking-fallback.enabled", defaultValue = "false")
+    boolean regexBacktrackingFallback;
+
     /**
      * Initializes the compiler and sets the singleton instance for static delegates.
      */
@@ -64,6 +89,7 @@ public class ConditionCompiler {
      *
      * @param condition the condition to compile
      * @return a compiled condition that can be evaluated efficiently
+     * @throws java.util.regex.PatternSyntaxException if a REGEX pattern is invalid or not linear-time
      */
     public static CompiledCondition compile(Condition condition) {
         return getInstance().compileCondition(condition);
@@ -79,6 +105,16 @@ public class ConditionCompiler {
         return getInstance().compileAllConditions(conditions);
     }
 
+    /**
+     * Compiles a condition tree into a single predicate (static delegate).
+     *
+     * @param node the condition tree (null matches everything)
+     * @return a compiled condition equivalent to the tree
+     */
+    public static CompiledCondition compileTree(ConditionNode node) {
+        return getInstance().compileConditionTree(node);
+    }
+
     /**
      * Gets the singleton instance.
      * Falls back to a no-op instance if CDI hasn't initialized yet (for tests).
@@ -100,6 +136,7 @@ public class ConditionCompiler {
      *
      * @param condition the condition to compile
      * @return a compiled condition that can be evaluated efficiently
+     * @throws java.util.regex.PatternSyntaxException if a REGEX pattern is invalid or not linear-time
      */
     public CompiledCondition compileCondition(Condition condition) {
         String fieldName = condition.getField();
@@ -159,13 +196,67 @@ public class ConditionCompiler {
                 .map(this::compileCondition)
                 .toArray(CompiledCondition[]::new);
 
+        return combine(compiled, true);
+    }
+
+    /**
+     * Compiles a condition tree into a single predicate (instance method).
+     * <p>
+     * Leaves reuse their already-compiled lambdas; groups short-circuit and an empty
+     * group matches, the same as the chained {@code and()/or()} form. With adaptive
+     * ordering on, groups start in authoring order and are reordered at runtime by
+     * {@link AdaptiveGroup}.
+     *
+     * @param node the condition tree (null matches everything)
+     * @return a compiled condition equivalent to the tree
+     */
+    public CompiledCondition compileConditionTree(ConditionNode node) {
+        if (node == null) {
+            return tx -> true;
+        }
+        return switch (node) {
+            case ConditionNode.Leaf leaf -> leaf.compiled();
+            case ConditionNode.Constant constant -> constant.value() ? tx -> true : tx -> false;
+            case ConditionNode.Not not -> compileConditionTree(not.child()).not();
+            case ConditionNode.And and -> compileGroup(and.children(), true);
+            case ConditionNode.Or or -> compileGroup(or.children(), false);
+        };
+    }
+
+    private CompiledCondition compileGroup(List<ConditionNode> children, boolean useAnd) {
+        if (children.isEmpty()) {
+            return tx -> true;
+        }
+        if (children.size() == 1) {
+            return compileConditionTree(children.get(0));
+        }
+        CompiledCondition[] compiled = children.stream()
+                .map(this::compileConditionTree)
+                .toArray(CompiledCondition[]::new);
+        return combine(compiled, useAnd);
+    }
+
+    private CompiledCondition combine(CompiledCondition[] compiled, boolean useAnd) {
+        if (adaptiveOrdering) {
+            return new AdaptiveGroup(useAnd, compiled, adaptiveSampleRate, adaptiveReorderInterval, engineMetrics);
+        }
+        if (useAnd) {
+            return tx -> {
+                for (CompiledCondition c : compiled) {
+                    if (!c.matches(tx)) {
+                        return false; // Short-circuit on first failure
+                    }
+                }
+                return true;
+            };
+        }
         return tx -> {
             for (CompiledCondition c : compiled) {
-                if (!c.matches(tx)) {
-                    return false; // Short-circuit on first failure
+                if (c.matches(tx)) {
+                    return true;
                 }
             }
-            return true;
+            return false;
         };
     }
 
@@ -176,13 +267,7 @@ public class ConditionCompiler {
             return tx -> false;
         }
         double threshold = ((Number) expectedValue).doubleValue();
-        return tx -> {
-            Object actual = tx.getField(fieldId);
-            if (actual instanceof Number n) {
-                return n.doubleValue() > threshold;
-            }
-            return false;
-        };
+        return tx -> tx.hasNumeric(fieldId) && tx.getNumeric(fieldId) > threshold;
     }
 
     private CompiledCondition compileGreaterThanOrEqual(int fieldId, Object expectedValue) {
@@ -190,13 +275,7 @@ public class ConditionCompiler {
             return tx -> false;
         }
         double threshold = ((Number) expectedValue).doubleValue();
-        return tx -> {
-            Object actual = tx.getField(fieldId);
-            if (actual instanceof Number n) {
-                return n.doubleValue() >= threshold;
-            }
-            return false;
-        };
+        return tx -> tx.hasNumeric(fieldId) && tx.getNumeric(fieldId) >= threshold;
     }
 
     private CompiledCondition compileLessThan(int fieldId, Object expectedValue) {
@@ -204,13 +283,7 @@ public class ConditionCompiler {
             return tx -> false;
         }
         double threshold = ((Number) expectedValue).doubleValue();
-        return tx -> {
-            Object actual = tx.getField(fieldId);
-            if (actual instanceof Number n) {
-                return n.doubleValue() < threshold;
-            }
-            return false;
-        };
+        return tx -> tx.hasNumeric(fieldId) && tx.getNumeric(fieldId) < threshold;
     }
 
     private CompiledCondition compileLessThanOrEqual(int fieldId, Object expectedValue) {
@@ -218,26 +291,20 @@ public class ConditionCompiler {
             return tx -> false;
         }
         double threshold = ((Number) expectedValue).doubleValue();
-        return tx -> {
-            Object actual = tx.getField(fieldId);
-            if (actual instanceof Number n) {
-                return n.doubleValue() <= threshold;
-            }
-            return false;
-        };
+        return tx -> tx.hasNumeric(fieldId) && tx.getNumeric(fieldId) <= threshold;
     }
 
     private CompiledCondition compileEquals(int fieldId, Object expectedValue) {
+        if (expectedValue instanceof Number expectedNum) {
+            // Numeric comparison on the primitive slot (a non-numeric actual never equals a number)
+            double expected = expectedNum.doubleValue();
+            return tx -> tx.hasNumeric(fieldId) && Double.compare(tx.getNumeric(fieldId), expected) == 0;
+        }
         return tx -> {
             Object actual = tx.getField(fieldId);
             if (actual == null && expectedValue == null) return true;
             if (actual == null || expectedValue == null) return false;
 
-            // Numeric comparison
-            if (actual instanceof Number actualNum && expectedValue instanceof Number expectedNum) {
-                return compareNumeric(actualNum, expectedNum) == 0;
-            }
-
             // String comparison
             return actual.equals(expectedValue);
         };
@@ -248,26 +315,17 @@ public class ConditionCompiler {
         return tx -> !eq.matches(tx);
     }
 
-    @SuppressWarnings("unchecked")
     private CompiledCondition compileInList(int fieldId, Object values, Object singleValue) {
         List<Object> targetList = extractList(values, singleValue);
         if (targetList == null || targetList.isEmpty()) {
             return tx -> false;
         }
 
-        return tx -> {
-            Object actual = tx.getField(fieldId);
-            if (actual == null) return false;
-            for (Object item : targetList) {
-                if (actual.equals(item)) {
-                    return true;
-                }
-            }
-            return false;
-        };
+        // Hashed and type-normalized once here; one probe per evaluation regardless of list size
+        InValueSet set = InValueSet.of(targetList);
+        return tx -> set.contains(tx, fieldId);
     }
 
-    @SuppressWarnings("unchecked")
     private CompiledCondition compileNotInList(int fieldId, Object values, Object singleValue) {
         CompiledCondition inCondition = compileInList(fieldId, values, singleValue);
         return tx -> !inCondition.matches(tx);
@@ -288,12 +346,11 @@ public class ConditionCompiler {
         double low = Math.min(min, max);
         double high = Math.max(min, max);
         return tx -> {
-            Object actual = tx.getField(fieldId);
-            if (actual instanceof Number n) {
-                double val = n.doubleValue();
-                return val >= low && val <= high;
+            if (!tx.hasNumeric(fieldId)) {
+                return false;
             }
-            return false;
+            double val = tx.getNumeric(fieldId);
+            return val >= low && val <= high;
         };
     }
 
@@ -338,16 +395,24 @@ public class ConditionCompiler {
             return tx -> false;
         }
         String pattern = String.valueOf(expectedValue);
+        LinearRegex regex;
         try {
+            regex = LinearRegex.compile(pattern);
+        } catch (PatternSyntaxException unsupported) {
+            // Invalid and non-linear patterns (backreferences, lookaround, ...) fail the
+            // ruleset load, unless the backtracking fallback is explicitly enabled. An
+            // invalid pattern still throws from Pattern.compile.
+            if (!regexBacktrackingFallback) {
+                throw unsupported;
+            }
             Pattern compiledPattern = Pattern.compile(pattern);
-            return tx -> {
-                Object actual = tx.getField(fieldId);
-                return actual instanceof String s && compiledPattern.matcher(s).matches();
-            };
-        } catch (Exception e) {
-            LOG.warnf("Invalid regex pattern: %s", pattern);
-            return tx -> false;
+            LOG.warnf("REGEX %s falls back to java.util.regex: %s", pattern, unsupported.getDescription());
+            if (engineMetrics != null) {
+                engineMetrics.incrementRegexFallback();
+            }
+            return tx -> tx.getField(fieldId) instanceof String s && compiledPattern.matcher(s).matches();
         }
+        return tx -> tx.getField(fieldId) instanceof String s && regex.matches(s);
     }
 
     private CompiledCondition compileExists(int fieldId) {
@@ -389,10 +454,6 @@ public class ConditionCompiler {
         return null;
     }
 
-    private static int compareNumeric(Number a, Number b) {
-        return Double.compare(a.doubleValue(), b.doubleValue());
-    }
-
     /**
      * Gets the field ID for a given field name.
      * <p>
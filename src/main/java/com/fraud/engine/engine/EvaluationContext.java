@@ -18,7 +18,8 @@ public record EvaluationContext(
         String engineMode,
         DebugInfo.Builder debugBuilder,
         List<Rule> candidateRules,
-        Map<String, Object> evalContext
+        Map<String, Object> evalContext,
+        boolean warmup
 ) {
     public static EvaluationContext create(
             TransactionContext transaction,
@@ -37,7 +38,8 @@ public record EvaluationContext(
                 engineMode,
                 debugBuilder,
                 null,
-                null
+                null,
+                false
         );
     }
 
@@ -59,7 +61,8 @@ public record EvaluationContext(
                 engineMode,
                 debugBuilder,
                 candidateRules,
-                null
+                null,
+                false
         );
     }
 
@@ -82,7 +85,35 @@ public record EvaluationContext(
                 engineMode,
                 debugBuilder,
                 candidateRules,
-                evalContext
+                evalContext,
+                false
+        );
+    }
+
+    /**
+     * Context for a pre-swap warm-up replay: velocity checks are stubbed to a zero count
+     * instead of reading Redis.
+     */
+    public static EvaluationContext createWarmup(
+            TransactionContext transaction,
+            Ruleset ruleset,
+            Decision decision,
+            long startTimeMs,
+            String engineMode,
+            DebugInfo.Builder debugBuilder,
+            List<Rule> candidateRules,
+            Map<String, Object> evalContext) {
+        return new EvaluationContext(
+                transaction,
+                ruleset,
+                decision,
+                true,
+                startTimeMs,
+                engineMode,
+                debugBuilder,
+                candidateRules,
+                evalContext,
+                true
         );
     }
 
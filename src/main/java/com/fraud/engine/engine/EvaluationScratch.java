@@ -0,0 +1,142 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.Decision;
+import com.fraud.engine.domain.VelocityConfig;
+import com.fraud.engine.util.WorkerThreads;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Per-thread scratch state for {@link MonitoringEvaluator}.
+ * <p>
+ * Holds the buffers one evaluation needs between matching and building the decision:
+ * <ul>
+ *   <li>{@code matched}: bitset over positions in the evaluated rule list</li>
+ *   <li>{@code selected}: all-positions bitset for rule lists that carry no bitset of their own</li>
+ *   <li>{@code velocityPositions} / {@code velocityConfigs}: matched rules with a velocity
+ *       check, in rule order, and their configs for the batch call</li>
+ *   <li>{@code velocityResults}: batch velocity results aligned to the above</li>
+ *   <li>{@code candidates}, {@code applicable}, {@code programMatches}: predicate index
+ *       and bytecode program bitsets</li>
+ * </ul>
+ * Arrays only grow, so in steady state an evaluation allocates nothing here. Like
+ * {@link com.fraud.engine.domain.PredicateMemo} the state is bound to the thread; a nested
+ * evaluation on the same thread, or one on a virtual thread, gets a fresh, unpooled instance.
+ */
+final class EvaluationScratch {
+
+    private static final ThreadLocal<EvaluationScratch> CURRENT = ThreadLocal.withInitial(EvaluationScratch::new);
+
+    long[] matched = new long[1];
+    long[] selected = new long[1];
+    long[] candidates = new long[1];
+    long[] applicable = new long[1];
+    long[] programMatches = new long[1];
+
+    int[] velocityPositions = new int[8];
+    VelocityConfig[] velocityConfigs = new VelocityConfig[8];
+    Decision.VelocityResult[] velocityResults = new Decision.VelocityResult[8];
+    int velocityCount;
+
+    /** Lazily built evaluation map for rules without a compiled condition. */
+    Map<String, Object> evalContext;
+
+    private boolean inUse;
+
+    private EvaluationScratch() {
+    }
+
+    /**
+     * Gets this thread's scratch, cleared for an evaluation over {@code ruleCount} rules.
+     * Must be paired with {@link #release()}.
+     *
+     * @param ruleCount number of rules to evaluate
+     * @return the scratch
+     */
+    static EvaluationScratch acquire(int ruleCount) {
+        EvaluationScratch scratch = WorkerThreads.perThread(CURRENT, EvaluationScratch::new);
+        if (scratch.inUse) {
+            scratch = new EvaluationScratch();
+        }
+        return prepare(scratch, ruleCount);
+    }
+
+    /**
+     * Gets a fresh, unpooled scratch for an evaluation that may finish on another thread
+     * (the non-blocking path, which completes when the velocity reply arrives).
+     *
+     * @param ruleCount number of rules to evaluate
+     * @return the scratch
+     */
+    static EvaluationScratch detached(int ruleCount) {
+        return prepare(new EvaluationScratch(), ruleCount);
+    }
+
+    private static EvaluationScratch prepare(EvaluationScratch scratch, int ruleCount) {
+        scratch.inUse = true;
+        int words = (ruleCount + 63) >>> 6;
+        if (scratch.matched.length < words) {
+            scratch.matched = new long[words];
+        } else {
+            Arrays.fill(scratch.matched, 0, words, 0L);
+        }
+        scratch.velocityCount = 0;
+        return scratch;
+    }
+
+    /**
+     * Drops references to request objects so they are not kept alive by the thread.
+     */
+    void release() {
+        Arrays.fill(velocityConfigs, 0, velocityCount, null);
+        Arrays.fill(velocityResults, 0, velocityCount, null);
+        velocityCount = 0;
+        evalContext = null;
+        inUse = false;
+    }
+
+    /**
+     * Returns a bitset buffer of at least {@code words} words, cleared.
+     */
+    static long[] cleared(long[] buffer, int words) {
+        if (buffer.length < words) {
+            return new long[words];
+        }
+        Arrays.fill(buffer, 0, words, 0L);
+        return buffer;
+    }
+
+    /**
+     * Returns {@code selected} with exactly positions {@code 0..ruleCount-1} set.
+     */
+    long[] allSelected(int ruleCount) {
+        int words = (ruleCount + 63) >>> 6;
+        if (selected.length < words) {
+            selected = new long[words];
+        }
+        Arrays.fill(selected, 0, words, -1L);
+        if ((ruleCount & 63) != 0) {
+            selected[words - 1] = (1L << ruleCount) - 1;
+        }
+        return selected;
+    }
+
+    /**
+     * Records a matched rule that needs a velocity check.
+     *
+     * @param position the rule's position in the evaluated list
+     * @param config its velocity config
+     */
+    void addVelocityRule(int position, VelocityConfig config) {
+        if (velocityCount == velocityPositions.length) {
+            int capacity = velocityCount * 2;
+            velocityPositions = Arrays.copyOf(velocityPositions, capacity);
+            velocityConfigs = Arrays.copyOf(velocityConfigs, capacity);
+            velocityResults = Arrays.copyOf(velocityResults, capacity);
+        }
+        velocityPositions[velocityCount] = position;
+        velocityConfigs[velocityCount] = config;
+        velocityCount++;
+    }
+}
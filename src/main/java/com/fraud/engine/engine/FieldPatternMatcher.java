@@ -0,0 +1,295 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.PredicateMemo;
+import com.fraud.engine.domain.TransactionContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * All CONTAINS / STARTS_WITH / ENDS_WITH patterns of one string field, matched in a
+ * single pass over the field value.
+ * <p>
+ * Substrings go into an Aho-Corasick automaton, prefixes into a trie walked from the
+ * start of the value, suffixes into a trie of reversed patterns walked from the end.
+ * A scan sets one bit per satisfied pattern id, so the cost per transaction depends on
+ * the length of the value, not on how many screening rules analysts have added.
+ * Matching is case-sensitive on {@code char}s, exactly like {@link String#contains},
+ * {@link String#startsWith} and {@link String#endsWith}.
+ */
+final class FieldPatternMatcher implements PredicateMemo.Scanner {
+
+    enum Kind { CONTAINS, PREFIX, SUFFIX }
+
+    private final int fieldId;
+    private final int words;
+    private final long[] matchAnyString;
+    private final Trie contains;
+    private final Trie prefixes;
+    private final Trie suffixes;
+
+    private FieldPatternMatcher(int fieldId, int patternCount, long[] matchAnyString,
+                                Trie contains, Trie prefixes, Trie suffixes) {
+        this.fieldId = fieldId;
+        this.words = (patternCount + 63) >>> 6;
+        this.matchAnyString = matchAnyString;
+        this.contains = contains;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+    }
+
+    @Override
+    public int words() {
+        return words;
+    }
+
+    @Override
+    public void scan(TransactionContext transaction, long[] matches) {
+        if (!(transaction.getField(fieldId) instanceof String value)) {
+            return;
+        }
+        for (int w = 0; w < words; w++) {
+            matches[w] |= matchAnyString[w];
+        }
+        if (contains != null) {
+            contains.scanAll(value, matches);
+        }
+        if (prefixes != null) {
+            prefixes.scanFromStart(value, matches);
+        }
+        if (suffixes != null) {
+            suffixes.scanFromEnd(value, matches);
+        }
+    }
+
+    /**
+     * Collects the patterns of one field; ids are assigned in registration order and
+     * identical (kind, pattern) pairs share an id.
+     */
+    static final class Builder {
+        private final int fieldId;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> containsPatterns = new ArrayList<>();
+        private final List<String> prefixPatterns = new ArrayList<>();
+        private final List<String> suffixPatterns = new ArrayList<>();
+        private final List<Integer> containsIds = new ArrayList<>();
+        private final List<Integer> prefixIds = new ArrayList<>();
+        private final List<Integer> suffixIds = new ArrayList<>();
+        private final List<Integer> emptyIds = new ArrayList<>();
+
+        Builder(int fieldId) {
+            this.fieldId = fieldId;
+        }
+
+        int add(Kind kind, String pattern) {
+            Integer existing = ids.get(kind + ":" + pattern);
+            if (existing != null) {
+                return existing;
+            }
+            int id = ids.size();
+            ids.put(kind + ":" + pattern, id);
+            if (pattern.isEmpty()) {
+                emptyIds.add(id);
+                return id;
+            }
+            switch (kind) {
+                case CONTAINS -> {
+                    containsPatterns.add(pattern);
+                    containsIds.add(id);
+                }
+                case PREFIX -> {
+                    prefixPatterns.add(pattern);
+                    prefixIds.add(id);
+                }
+                case SUFFIX -> {
+                    suffixPatterns.add(new StringBuilder(pattern).reverse().toString());
+                    suffixIds.add(id);
+                }
+            }
+            return id;
+        }
+
+        int size() {
+            return ids.size();
+        }
+
+        FieldPatternMatcher build() {
+            int words = (ids.size() + 63) >>> 6;
+            long[] any = new long[words];
+            for (int id : emptyIds) {
+                any[id >>> 6] |= 1L << id;
+            }
+            Trie containsTrie = containsPatterns.isEmpty() ? null : Trie.build(containsPatterns, containsIds, words, true);
+            Trie prefixTrie = prefixPatterns.isEmpty() ? null : Trie.build(prefixPatterns, prefixIds, words, false);
+            Trie suffixTrie = suffixPatterns.isEmpty() ? null : Trie.build(suffixPatterns, suffixIds, words, false);
+            return new FieldPatternMatcher(fieldId, ids.size(), any, containsTrie, prefixTrie, suffixTrie);
+        }
+    }
+
+    /**
+     * Frozen character trie: per node, sorted edge labels with their targets and the
+     * bitset of pattern ids that end there. With failure links it is an Aho-Corasick
+     * automaton (outputs already merged along failure chains).
+     */
+    private static final class Trie {
+        private final char[][] labels;
+        private final int[][] targets;
+        private final long[][] outputs;
+        private final int[] fail;
+
+        private Trie(char[][] labels, int[][] targets, long[][] outputs, int[] fail) {
+            this.labels = labels;
+            this.targets = targets;
+            this.outputs = outputs;
+            this.fail = fail;
+        }
+
+        static Trie build(List<String> patterns, List<Integer> ids, int words, boolean withFailureLinks) {
+            List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+            List<long[]> outs = new ArrayList<>();
+            edges.add(new TreeMap<>());
+            outs.add(null);
+            for (int p = 0; p < patterns.size(); p++) {
+                String pattern = patterns.get(p);
+                int node = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    Integer next = edges.get(node).get(pattern.charAt(i));
+                    if (next == null) {
+                        next = edges.size();
+                        edges.get(node).put(pattern.charAt(i), next);
+                        edges.add(new TreeMap<>());
+                        outs.add(null);
+                    }
+                    node = next;
+                }
+                long[] out = outs.get(node);
+                if (out == null) {
+                    out = new long[words];
+                    outs.set(node, out);
+                }
+                int id = ids.get(p);
+                out[id >>> 6] |= 1L << id;
+            }
+
+            int size = edges.size();
+            char[][] labels = new char[size][];
+            int[][] targets = new int[size][];
+            for (int n = 0; n < size; n++) {
+                TreeMap<Character, Integer> e = edges.get(n);
+                labels[n] = new char[e.size()];
+                targets[n] = new int[e.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> entry : e.entrySet()) {
+                    labels[n][i] = entry.getKey();
+                    targets[n][i] = entry.getValue();
+                    i++;
+                }
+            }
+            long[][] outputs = outs.toArray(long[][]::new);
+            int[] fail = withFailureLinks ? buildFailureLinks(labels, targets, outputs, words) : null;
+            return new Trie(labels, targets, outputs, fail);
+        }
+
+        private static int[] buildFailureLinks(char[][] labels, int[][] targets, long[][] outputs, int words) {
+            int[] fail = new int[labels.length];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int i = 0; i < labels[node].length; i++) {
+                    char c = labels[node][i];
+                    int child = targets[node][i];
+                    int f = fail[node];
+                    int next;
+                    while ((next = child(labels, targets, f, c)) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    fail[child] = next >= 0 ? next : 0;
+                    long[] inherited = outputs[fail[child]];
+                    if (inherited != null) {
+                        long[] own = outputs[child];
+                        if (own == null) {
+                            outputs[child] = inherited;
+                        } else {
+                            long[] merged = Arrays.copyOf(own, words);
+                            for (int w = 0; w < words; w++) {
+                                merged[w] |= inherited[w];
+                            }
+                            outputs[child] = merged;
+                        }
+                    }
+                    queue.add(child);
+                }
+            }
+            return fail;
+        }
+
+        private static int child(char[][] labels, int[][] targets, int node, char c) {
+            char[] l = labels[node];
+            if (l.length <= 8) {
+                for (int i = 0; i < l.length; i++) {
+                    if (l[i] == c) {
+                        return targets[node][i];
+                    }
+                }
+                return -1;
+            }
+            int i = Arrays.binarySearch(l, c);
+            return i >= 0 ? targets[node][i] : -1;
+        }
+
+        /** Aho-Corasick: every pattern occurring anywhere in the value. */
+        void scanAll(String value, long[] matches) {
+            int state = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                int next;
+                while ((next = child(labels, targets, state, c)) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                state = next >= 0 ? next : 0;
+                or(outputs[state], matches);
+            }
+        }
+
+        /** Prefix trie: every pattern the value starts with. */
+        void scanFromStart(String value, long[] matches) {
+            int node = 0;
+            for (int i = 0; i < value.length(); i++) {
+                node = child(labels, targets, node, value.charAt(i));
+                if (node < 0) {
+                    return;
+                }
+                or(outputs[node], matches);
+            }
+        }
+
+        /** Reversed trie: every pattern the value ends with. */
+        void scanFromEnd(String value, long[] matches) {
+            int node = 0;
+            for (int i = value.length() - 1; i >= 0; i--) {
+                node = child(labels, targets, node, value.charAt(i));
+                if (node < 0) {
+                    return;
+                }
+                or(outputs[node], matches);
+            }
+        }
+
+        private static void or(long[] source, long[] target) {
+            if (source == null) {
+                return;
+            }
+            for (int w = 0; w < source.length; w++) {
+                target[w] |= source[w];
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.util.LongHashSet;
+import com.fraud.engine.util.StringHashSet;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled value list for IN / NOT_IN conditions.
+ * <p>
+ * Values are normalized once at compile time, because JSON gives us {@code Integer},
+ * {@code Long}, {@code Double} and {@code String} for what is logically the same value:
+ * <ul>
+ *   <li>numbers are stored as canonical {@code double} bits in a {@link LongHashSet}
+ *       and also as their decimal string (e.g. {@code 5411 -> "5411"})</li>
+ *   <li>strings are stored in a {@link StringHashSet} and, when they parse as a
+ *       number, also in the numeric set</li>
+ *   <li>anything else (booleans) falls back to an {@code equals} scan</li>
+ * </ul>
+ * So {@code mcc IN [5411]} matches an MCC sent as {@code "5411"} and vice versa,
+ * and a lookup costs one hash probe whatever the list size.
+ */
+final class InValueSet {
+
+    private static final LongHashSet NO_NUMBERS = new LongHashSet(new long[0]);
+
+    private final LongHashSet numbers;
+    private final StringHashSet strings;
+    private final Object[] others;
+
+    private InValueSet(LongHashSet numbers, StringHashSet strings, Object[] others) {
+        this.numbers = numbers;
+        this.strings = strings;
+        this.others = others;
+    }
+
+    /**
+     * Normalizes a rule's value list.
+     *
+     * @param values the raw values from the rule
+     * @return the compiled set
+     */
+    static InValueSet of(List<?> values) {
+        Set<Long> numericKeys = new LinkedHashSet<>();
+        Set<String> stringKeys = new LinkedHashSet<>();
+        List<Object> others = new ArrayList<>();
+        for (Object value : values) {
+            if (value instanceof Number n) {
+                double d = n.doubleValue();
+                numericKeys.add(numericKey(d));
+                stringKeys.add(canonicalString(n, d));
+            } else if (value instanceof String s) {
+                stringKeys.add(s);
+                Double parsed = parseNumber(s);
+                if (parsed != null) {
+                    numericKeys.add(numericKey(parsed));
+                }
+            } else if (value != null) {
+                others.add(value);
+            }
+        }
+        long[] keys = new long[numericKeys.size()];
+        int i = 0;
+        for (Long key : numericKeys) {
+            keys[i++] = key;
+        }
+        return new InValueSet(
+                keys.length == 0 ? NO_NUMBERS : new LongHashSet(keys),
+                new StringHashSet(stringKeys),
+                others.toArray());
+    }
+
+    /**
+     * Checks whether the transaction's field value is in the set.
+     *
+     * @param transaction the transaction
+     * @param fieldId the field id
+     * @return true if the value is in the set; a missing value never is
+     */
+    boolean contains(TransactionContext transaction, int fieldId) {
+        if (transaction.hasNumeric(fieldId)) {
+            return numbers.contains(numericKey(transaction.getNumeric(fieldId)));
+        }
+        Object actual = transaction.getField(fieldId);
+        if (actual instanceof String s) {
+            return strings.contains(s);
+        }
+        if (actual == null) {
+            return false;
+        }
+        for (Object other : others) {
+            if (actual.equals(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long numericKey(double value) {
+        // +0.0 folds -0.0 into 0.0 so both hash the same
+        return Double.doubleToLongBits(value + 0.0);
+    }
+
+    private static String canonicalString(Number n, double d) {
+        if (n instanceof BigDecimal bd) {
+            return bd.stripTrailingZeros().toPlainString();
+        }
+        if (d == Math.rint(d) && Math.abs(d) < 0x1p53) {
+            return Long.toString((long) d);
+        }
+        return Double.toString(d);
+    }
+
+    private static Double parseNumber(String s) {
+        if (s.isEmpty() || s.length() > 32) {
+            return null;
+        }
+        char first = s.charAt(0);
+        if (!(Character.isDigit(first) || first == '-' || first == '+' || first == '.')) {
+            return null;
+        }
+        try {
+            return new BigDecimal(s).doubleValue();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.fraud.engine.engine;
 
 import com.fraud.engine.config.EvaluationConfig;
+import com.fraud.engine.domain.ApplicableRules;
 import com.fraud.engine.domain.Condition;
 import com.fraud.engine.domain.DebugInfo;
 import com.fraud.engine.domain.Decision;
+import com.fraud.engine.domain.PredicateIndex;
+import com.fraud.engine.domain.PredicateMemo;
 import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.RulesetProgram;
 import com.fraud.engine.domain.TransactionContext;
 import com.fraud.engine.util.DecisionNormalizer;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
@@ -15,7 +20,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
 
 @ApplicationScoped
 public class MonitoringEvaluator {
@@ -28,115 +32,300 @@ public class MonitoringEvaluator {
     @Inject
     EvaluationConfig evaluationConfig;
 
-    private record PendingMatchedRule(Rule rule, Decision.MatchedRule matchedRule, boolean requiresVelocity) {}
-
+    /**
+     * Evaluates the rules and writes matched rules, velocity results and the decision.
+     * <p>
+     * Intermediate state (match bitset, velocity rule buffer, velocity results, index
+     * and program bitsets) lives in per-thread {@link EvaluationScratch}; the only
+     * steady-state allocations are the decision's matched rules and velocity results.
+     * <p>
+     * Rules from scope traversal ({@link ApplicableRules}) are walked straight from their
+     * bitset over the ruleset's traversal order; positions in the match bitset are
+     * traversal positions. Any other list is treated as a bitset with every position set.
+     */
     public void evaluate(EvaluationContext context) {
-        List<Rule> rules = context.getRulesToEvaluate();
-        // OPT-09: Use array holder instead of AtomicReference for single-threaded lazy init
-        Map<String, Object>[] evalContextHolder = new Map[1];
-        Supplier<Map<String, Object>> evalContextSupplier = () -> {
-            if (evalContextHolder[0] == null) {
-                evalContextHolder[0] = context.evalContext() != null
-                        ? context.evalContext()
-                        : context.transaction().toEvaluationContext();
-            }
-            return evalContextHolder[0];
-        };
+        List<Rule> evaluated = context.getRulesToEvaluate();
 
         if (LOG.isDebugEnabled()) {
-            LOG.debugf("MONITORING evaluation: %d rules to evaluate", rules.size());
+            LOG.debugf("MONITORING evaluation: %d rules to evaluate", evaluated.size());
         }
 
-        List<PendingMatchedRule> pendingMatchedRules = new ArrayList<>();
-        List<Rule> pendingVelocityRules = new ArrayList<>();
-        Map<String, Decision.VelocityResult> replayVelocityCache = context.replayMode() ? new HashMap<>() : null;
-
-        for (Rule rule : rules) {
-            if (!rule.isEnabled()) {
-                continue;
+        List<Rule> rules = evaluated instanceof ApplicableRules applicable
+                ? applicable.traversalOrder()
+                : evaluated;
+        EvaluationScratch scratch = EvaluationScratch.acquire(rules.size());
+        try {
+            int matchedCount = match(context, evaluated, rules, scratch);
+
+            // Batch velocity checks (big lever): turn N Redis RTTs into 1.
+            if (scratch.velocityCount > 0 && !context.replayMode()) {
+                velocityEvaluator.checkVelocityBatch(
+                        context.transaction(),
+                        scratch.velocityConfigs,
+                        scratch.velocityCount,
+                        context.decision(),
+                        scratch.velocityResults
+                );
             }
 
-            if (LOG.isDebugEnabled()) {
-                LOG.debugf("Evaluating rule: %s (%s)", rule.getId(), rule.getName());
-            }
+            List<Decision.MatchedRule> matchedRules = buildMatchedRules(context, rules, scratch, matchedCount);
+            context.decision().setMatchedRules(matchedRules);
+        } finally {
+            scratch.release();
+        }
+        complete(context);
+    }
 
-            boolean ruleMatched = evaluateRule(rule, context.transaction(), evalContextSupplier);
-            if (context.isDebugEnabled()) {
-                trackConditionEvaluations(rule, context.transaction(), evalContextSupplier.get(), ruleMatched, context.debugBuilder());
-            }
+    /**
+     * Non-blocking form of {@link #evaluate(EvaluationContext)}: rules are matched on the
+     * calling thread (the event loop on the reactive endpoint), the batch velocity check is
+     * sent without waiting, and the decision is completed when its reply arrives.
+     * <p>
+     * The scratch state outlives this call, so it is a fresh instance rather than the
+     * thread's pooled one. Replay mode reads velocity per rule and stays synchronous.
+     *
+     * @return a Uni completing once the decision is written
+     */
+    public Uni<Void> evaluateAsync(EvaluationContext context) {
+        if (context.replayMode()) {
+            evaluate(context);
+            return Uni.createFrom().voidItem();
+        }
+        List<Rule> evaluated = context.getRulesToEvaluate();
 
-            if (!ruleMatched) {
-                continue;
-            }
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("MONITORING evaluation (non-blocking): %d rules to evaluate", evaluated.size());
+        }
 
-            if (rule.getVelocity() != null) {
-                Decision.MatchedRule matchedRule = createMatchedRule(rule);
-                pendingVelocityRules.add(rule);
-                pendingMatchedRules.add(new PendingMatchedRule(rule, matchedRule, true));
-                continue;
-            }
+        List<Rule> rules = evaluated instanceof ApplicableRules applicable
+                ? applicable.traversalOrder()
+                : evaluated;
+        EvaluationScratch scratch = EvaluationScratch.detached(rules.size());
+        int matchedCount = match(context, evaluated, rules, scratch);
+        Uni<Void> velocity = scratch.velocityCount > 0
+                ? velocityEvaluator.checkVelocityBatchAsync(
+                        context.transaction(),
+                        scratch.velocityConfigs,
+                        scratch.velocityCount,
+                        context.decision(),
+                        scratch.velocityResults)
+                : Uni.createFrom().voidItem();
+        return velocity.invoke(ignored -> {
+            context.decision().setMatchedRules(buildMatchedRules(context, rules, scratch, matchedCount));
+            scratch.release();
+            complete(context);
+        });
+    }
 
-            if (LOG.isDebugEnabled()) {
-                LOG.debugf("Rule matched: %s (%s) - Action: %s",
-                        rule.getId(), rule.getName(), rule.getAction());
+    /**
+     * Marks matching rules and queues their velocity checks, with shared leaf predicates
+     * and field pattern scans memoized for the transaction.
+     *
+     * @return number of matched rules
+     */
+    private int match(EvaluationContext context, List<Rule> evaluated, List<Rule> rules,
+                      EvaluationScratch scratch) {
+        long[] selected = evaluated instanceof ApplicableRules applicable
+                ? applicable.bits()
+                : scratch.allSelected(rules.size());
+        // Shared leaf predicates and field pattern scans run at most once per transaction.
+        TransactionContext transaction = context.transaction();
+        int predicateCount = context.ruleset() != null ? context.ruleset().getPredicateCount() : 0;
+        boolean useMemo = predicateCount > 0
+                || (context.ruleset() != null && context.ruleset().getPatternGroupCount() > 0);
+        if (useMemo) {
+            transaction.setPredicateMemo(PredicateMemo.acquire(predicateCount));
+        }
+        try {
+            return collectMatches(context, rules, selected, scratch);
+        } finally {
+            if (useMemo) {
+                transaction.setPredicateMemo(null);
             }
-
-            Decision.MatchedRule matchedRule = createMatchedRule(rule);
-            pendingMatchedRules.add(new PendingMatchedRule(rule, matchedRule, false));
         }
+    }
 
-        // Batch velocity checks (big lever): turn N Redis RTTs into 1.
-        Decision.VelocityResult[] velocityResults = new Decision.VelocityResult[0];
-        if (!pendingVelocityRules.isEmpty() && !context.replayMode()) {
-            velocityResults = velocityEvaluator.checkVelocityBatch(
-                    context.transaction(),
-                    pendingVelocityRules,
-                    context.decision()
-            );
+    private void complete(EvaluationContext context) {
+        applyMonitoringDecision(context);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("MONITORING evaluation complete: %d matched, decision: %s",
+                    context.decision().getMatchedRules().size(), context.decision().getDecision());
         }
+    }
 
-        List<Decision.MatchedRule> matchedRules = new ArrayList<>(pendingMatchedRules.size());
+    private List<Decision.MatchedRule> buildMatchedRules(EvaluationContext context, List<Rule> rules,
+                                                         EvaluationScratch scratch, int matchedCount) {
+        if (matchedCount == 0) {
+            return List.of();
+        }
+        List<Decision.MatchedRule> matchedRules = new ArrayList<>(matchedCount);
+        Map<String, Decision.VelocityResult> replayVelocityCache = null;
+        long[] matched = scratch.matched;
         int velocityIndex = 0;
-        for (PendingMatchedRule pending : pendingMatchedRules) {
-            Rule rule = pending.rule();
-            Decision.MatchedRule matchedRule = pending.matchedRule();
-
-            if (pending.requiresVelocity()) {
-                Decision.VelocityResult velocityResult;
-                if (context.replayMode()) {
-                    velocityResult = velocityEvaluator.checkVelocityReadOnly(
-                            context.transaction(), rule, context.decision(), replayVelocityCache);
-                } else {
-                    velocityResult = velocityResults[velocityIndex];
+        int words = (rules.size() + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            long bits = matched[w];
+            while (bits != 0) {
+                int position = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                Rule rule = rules.get(position);
+                Decision.MatchedRule matchedRule = createMatchedRule(rule);
+
+                if (velocityIndex < scratch.velocityCount && scratch.velocityPositions[velocityIndex] == position) {
+                    Decision.VelocityResult velocityResult;
+                    if (context.warmup()) {
+                        // Warm-up replays never reach Redis
+                        velocityResult = VelocityEvaluator.zeroResult(rule.getVelocity());
+                    } else if (context.replayMode()) {
+                        if (replayVelocityCache == null) {
+                            replayVelocityCache = new HashMap<>();
+                        }
+                        velocityResult = velocityEvaluator.checkVelocityReadOnly(
+                                context.transaction(), rule, context.decision(), replayVelocityCache);
+                    } else {
+                        velocityResult = scratch.velocityResults[velocityIndex];
+                    }
+                    velocityIndex++;
+
+                    context.decision().addVelocityResult(rule.getId(), velocityResult);
+                    if (velocityResult.isExceeded()) {
+                        matchedRule.setAction(rule.getVelocity().getAction());
+                    }
                 }
-                velocityIndex++;
 
-                context.decision().addVelocityResult(rule.getId(), velocityResult);
-                if (velocityResult.isExceeded()) {
-                    matchedRule.setAction(rule.getVelocity().getAction());
+                matchedRules.add(matchedRule);
+            }
+        }
+        return matchedRules;
+    }
+
+    /**
+     * Marks matching rules in {@code scratch.matched} and queues their velocity checks.
+     *
+     * @return number of matched rules
+     */
+    private int collectMatches(EvaluationContext context, List<Rule> rules, long[] selected,
+                               EvaluationScratch scratch) {
+        TransactionContext transaction = context.transaction();
+
+        // Skip rules whose required equality cannot hold (kept off in debug so every rule is traced).
+        PredicateIndex index = context.ruleset() != null ? context.ruleset().getPredicateIndex() : null;
+        long[] candidates = null;
+        if (index != null && !context.isDebugEnabled()) {
+            if (scratch.candidates.length < index.words()) {
+                scratch.candidates = new long[index.words()];
+            }
+            candidates = scratch.candidates;
+            index.candidates(transaction, candidates);
+        }
+
+        // Bytecode engine: evaluate every applicable rule in one generated call up front.
+        RulesetProgram program = context.ruleset() != null ? context.ruleset().getProgram() : null;
+        long[] programMatches = program != null
+                ? runProgram(program, rules, selected, candidates, transaction, scratch)
+                : null;
+
+        long[] matched = scratch.matched;
+        int matchedCount = 0;
+        for (int w = 0, words = (rules.size() + 63) >>> 6; w < words; w++) {
+            long bits = selected[w];
+            while (bits != 0) {
+                int position = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (evaluateAt(context, rules.get(position), position, candidates, programMatches, scratch)) {
+                    matched[position >>> 6] |= 1L << position;
+                    matchedCount++;
                 }
             }
+        }
+        return matchedCount;
+    }
 
-            matchedRules.add(matchedRule);
+    /**
+     * Evaluates the rule at one position and queues its velocity check if it matches.
+     *
+     * @return true if the rule matched
+     */
+    private boolean evaluateAt(EvaluationContext context, Rule rule, int position, long[] candidates,
+                               long[] programMatches, EvaluationScratch scratch) {
+        TransactionContext transaction = context.transaction();
+        if (!rule.isEnabled()) {
+            return false;
+        }
+        if (candidates != null && !PredicateIndex.isCandidate(candidates, rule)) {
+            return false;
         }
 
-        context.decision().setMatchedRules(matchedRules);
-        applyMonitoringDecision(context);
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Evaluating rule: %s (%s)", rule.getId(), rule.getName());
+        }
+
+        int programIndex = rule.getProgramIndex();
+        boolean ruleMatched = programMatches != null && programIndex >= 0
+                ? (programMatches[programIndex >>> 6] & (1L << programIndex)) != 0
+                : evaluateRule(rule, context, scratch);
+        if (context.isDebugEnabled()) {
+            trackConditionEvaluations(rule, transaction, evalContext(context, scratch), ruleMatched, context.debugBuilder());
+        }
+
+        if (!ruleMatched) {
+            return false;
+        }
+
+        if (rule.getVelocity() != null) {
+            scratch.addVelocityRule(position, rule.getVelocity());
+            return true;
+        }
 
         if (LOG.isDebugEnabled()) {
-            LOG.debugf("MONITORING evaluation complete: %d matched, decision: %s",
-                    matchedRules.size(), context.decision().getDecision());
+            LOG.debugf("Rule matched: %s (%s) - Action: %s",
+                    rule.getId(), rule.getName(), rule.getAction());
+        }
+        return true;
+    }
+
+    private long[] runProgram(RulesetProgram program, List<Rule> rules, long[] selected, long[] candidates,
+                              TransactionContext transaction, EvaluationScratch scratch) {
+        int words = program.wordCount();
+        long[] applicable = EvaluationScratch.cleared(scratch.applicable, words);
+        scratch.applicable = applicable;
+        for (int w = 0, ruleWords = (rules.size() + 63) >>> 6; w < ruleWords; w++) {
+            long bits = selected[w];
+            while (bits != 0) {
+                Rule rule = rules.get((w << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+                int index = rule.getProgramIndex();
+                if (rule.isEnabled() && index >= 0
+                        && (candidates == null || PredicateIndex.isCandidate(candidates, rule))) {
+                    applicable[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+        long[] matches = EvaluationScratch.cleared(scratch.programMatches, words);
+        scratch.programMatches = matches;
+        program.evaluate(transaction, applicable, matches);
+        return matches;
+    }
+
+    // OPT-09: the evaluation map is built at most once, and only for rules that need it
+    private Map<String, Object> evalContext(EvaluationContext context, EvaluationScratch scratch) {
+        if (scratch.evalContext == null) {
+            scratch.evalContext = context.evalContext() != null
+                    ? context.evalContext()
+                    : context.transaction().asEvaluationContext();
         }
+        return scratch.evalContext;
     }
 
-    private boolean evaluateRule(Rule rule, TransactionContext transaction, Supplier<Map<String, Object>> contextSupplier) {
+    private boolean evaluateRule(Rule rule, EvaluationContext context, EvaluationScratch scratch) {
         if (rule.getCompiledCondition() != null) {
-            return rule.getCompiledCondition().matches(transaction);
+            return rule.getCompiledCondition().matches(context.transaction());
         }
-        Map<String, Object> context = contextSupplier.get();
+        Map<String, Object> evalContext = evalContext(context, scratch);
         if (rule.getConditions() != null) {
             for (Condition condition : rule.getConditions()) {
-                if (!condition.evaluate(context)) {
+                if (!condition.evaluate(evalContext)) {
                     return false;
                 }
             }
@@ -0,0 +1,125 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.FieldRegistry;
+import com.fraud.engine.domain.PredicateMemo;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.TransactionContext;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups CONTAINS / STARTS_WITH / ENDS_WITH leaves per field across a ruleset.
+ * <p>
+ * Every field with at least {@link #MIN_PATTERNS_PER_FIELD} distinct patterns gets one
+ * {@link FieldPatternMatcher}; its leaves are rewritten to {@link PatternPredicate}s
+ * that read their bit from a single per-transaction scan (cached in the
+ * {@link PredicateMemo}). Fields with a single pattern keep the plain
+ * {@code String.contains} lambda, which is cheaper than an automaton.
+ */
+public final class PatternGroups {
+
+    static final int MIN_PATTERNS_PER_FIELD = 2;
+
+    private PatternGroups() {
+    }
+
+    /**
+     * Builds the per-field matchers and rewrites the rules in place.
+     *
+     * @param rules the rules of one ruleset
+     * @return number of scan groups (fields with a matcher)
+     */
+    public static int build(List<Rule> rules) {
+        Map<Integer, FieldPatternMatcher.Builder> builders = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            ConditionNode.forEachLeaf(rule.getConditionTree(), leaf -> {
+                FieldPatternMatcher.Kind kind = kindOf(leaf.condition());
+                if (kind != null) {
+                    int fieldId = FieldRegistry.fromName(leaf.condition().getField());
+                    builders.computeIfAbsent(fieldId, FieldPatternMatcher.Builder::new)
+                            .add(kind, String.valueOf(leaf.condition().getValue()));
+                }
+            });
+        }
+        builders.values().removeIf(builder -> builder.size() < MIN_PATTERNS_PER_FIELD);
+        if (builders.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Group> groups = new LinkedHashMap<>();
+        for (Map.Entry<Integer, FieldPatternMatcher.Builder> entry : builders.entrySet()) {
+            groups.put(entry.getKey(), new Group(groups.size(), entry.getValue().build()));
+        }
+
+        for (Rule rule : rules) {
+            ConditionNode tree = rule.getConditionTree();
+            if (tree == null) {
+                continue;
+            }
+            ConditionNode rewritten = ConditionNode.mapLeaves(tree, leaf -> {
+                FieldPatternMatcher.Kind kind = kindOf(leaf.condition());
+                if (kind == null) {
+                    return leaf;
+                }
+                int fieldId = FieldRegistry.fromName(leaf.condition().getField());
+                Group group = groups.get(fieldId);
+                if (group == null) {
+                    return leaf;
+                }
+                int id = builders.get(fieldId).add(kind, String.valueOf(leaf.condition().getValue()));
+                return new ConditionNode.Leaf(leaf.condition(),
+                        new PatternPredicate(leaf.compiled(), group.matcher(), group.groupId(), id));
+            });
+            if (rewritten != tree) {
+                rule.setConditionTree(rewritten);
+                rule.setCompiledCondition(ConditionCompiler.compileTree(rewritten));
+            }
+        }
+        return groups.size();
+    }
+
+    private static FieldPatternMatcher.Kind kindOf(Condition condition) {
+        if (condition == null || condition.getOperatorEnum() == null || condition.getValue() == null) {
+            return null;
+        }
+        if (!FieldRegistry.isValid(FieldRegistry.fromName(condition.getField()))) {
+            return null;
+        }
+        return switch (condition.getOperatorEnum()) {
+            case CONTAINS -> FieldPatternMatcher.Kind.CONTAINS;
+            case STARTS_WITH -> FieldPatternMatcher.Kind.PREFIX;
+            case ENDS_WITH -> FieldPatternMatcher.Kind.SUFFIX;
+            default -> null;
+        };
+    }
+
+    private record Group(int groupId, FieldPatternMatcher matcher) {
+    }
+
+    /**
+     * One pattern of a field group: reads bit {@code id} of the group's scan. Without an
+     * attached memo it falls back to the original per-pattern lambda.
+     *
+     * @param delegate the original compiled leaf
+     * @param matcher the field's matcher
+     * @param groupId the scan group id in the ruleset
+     * @param id the pattern id within the group
+     */
+    public record PatternPredicate(CompiledCondition delegate, FieldPatternMatcher matcher, int groupId, int id)
+            implements CompiledCondition {
+        @Override
+        public boolean matches(TransactionContext transaction) {
+            PredicateMemo memo = transaction.getPredicateMemo();
+            if (memo == null) {
+                return delegate.matches(transaction);
+            }
+            long[] matches = memo.scanOnce(groupId, matcher, transaction);
+            return (matches[id >>> 6] & (1L << id)) != 0;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.PredicateMemo;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.TransactionContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbered table of leaf predicates shared across the rules of one ruleset.
+ * <p>
+ * MONITORING rulesets repeat the same leaves ({@code country_code == "US"},
+ * {@code amount > 500}) in dozens of rules. {@link #build(List)} finds identical leaves
+ * (same field, operator and value), gives each one that occurs in two or more rules a
+ * dense id, and rewrites the rules so they all share one {@link MemoizedPredicate}.
+ * With a {@link PredicateMemo} attached to the transaction, each shared predicate is
+ * computed at most once per transaction. Leaves used only once are left untouched so
+ * they pay no memo overhead.
+ */
+public final class PredicateTable {
+
+    private final List<Condition> predicates;
+    private final int leafCount;
+
+    private PredicateTable(List<Condition> predicates, int leafCount) {
+        this.predicates = List.copyOf(predicates);
+        this.leafCount = leafCount;
+    }
+
+    /**
+     * Deduplicates leaf conditions across the rules, rewriting each rule's condition
+     * tree and compiled condition in place.
+     *
+     * @param rules the rules of one ruleset (rules without a tree are skipped)
+     * @return the table of shared predicates
+     */
+    public static PredicateTable build(List<Rule> rules) {
+        Map<LeafKey, Integer> occurrences = new HashMap<>();
+        int[] leafCount = new int[1];
+        for (Rule rule : rules) {
+            ConditionNode.forEachLeaf(rule.getConditionTree(), leaf -> {
+                leafCount[0]++;
+                LeafKey key = LeafKey.of(leaf.condition());
+                if (key != null) {
+                    occurrences.merge(key, 1, Integer::sum);
+                }
+            });
+        }
+
+        Map<LeafKey, MemoizedPredicate> shared = new LinkedHashMap<>();
+        List<Condition> predicates = new ArrayList<>();
+        for (Rule rule : rules) {
+            ConditionNode tree = rule.getConditionTree();
+            if (tree == null) {
+                continue;
+            }
+            ConditionNode rewritten = ConditionNode.mapLeaves(tree, leaf -> {
+                LeafKey key = LeafKey.of(leaf.condition());
+                if (key == null || occurrences.getOrDefault(key, 0) < 2) {
+                    return leaf;
+                }
+                MemoizedPredicate predicate = shared.computeIfAbsent(key, k -> {
+                    predicates.add(leaf.condition());
+                    return new MemoizedPredicate(predicates.size() - 1, leaf.compiled());
+                });
+                return new ConditionNode.Leaf(leaf.condition(), predicate);
+            });
+            if (rewritten != tree) {
+                rule.setConditionTree(rewritten);
+                rule.setCompiledCondition(ConditionCompiler.compileTree(rewritten));
+            }
+        }
+        return new PredicateTable(predicates, leafCount[0]);
+    }
+
+    /**
+     * @return number of shared predicates (ids are {@code 0..size()-1})
+     */
+    public int size() {
+        return predicates.size();
+    }
+
+    /**
+     * @return total number of leaf conditions seen across all rules
+     */
+    public int leafCount() {
+        return leafCount;
+    }
+
+    /**
+     * @param id the predicate id
+     * @return the source condition of the shared predicate
+     */
+    public Condition predicate(int id) {
+        return predicates.get(id);
+    }
+
+    /**
+     * Identity of a leaf for deduplication. Values are compared with {@code equals},
+     * so {@code 500} and {@code 500.0} stay distinct; that only costs a missed share.
+     */
+    private record LeafKey(String field, Condition.Operator operator, Object value, Object values) {
+        static LeafKey of(Condition condition) {
+            if (condition == null || condition.getField() == null) {
+                return null;
+            }
+            return new LeafKey(condition.getField(), condition.getOperatorEnum(),
+                    condition.getValue(), condition.getValues());
+        }
+    }
+
+    /**
+     * A shared leaf: consults the transaction's {@link PredicateMemo} when one is attached.
+     *
+     * @param id the predicate id in the table
+     * @param delegate the compiled leaf
+     */
+    public record MemoizedPredicate(int id, CompiledCondition delegate) implements CompiledCondition {
+        @Override
+        public boolean matches(TransactionContext transaction) {
+            PredicateMemo memo = transaction.getPredicateMemo();
+            return memo != null ? memo.matches(id, delegate, transaction) : delegate.matches(transaction);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.fraud.engine.domain.TimingBreakdown;
 import com.fraud.engine.domain.TransactionContext;
 import com.fraud.engine.util.EngineMetrics;
 import com.fraud.engine.velocity.VelocityService;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
@@ -52,74 +53,164 @@ public class RuleEvaluator {
     }
 
     public Decision evaluate(TransactionContext transaction, Ruleset ruleset, boolean replayMode) {
+        return evaluate(transaction, ruleset, replayMode, false);
+    }
+
+    /**
+     * Evaluates one transaction of a pre-swap warm-up sample: replay mode, with every
+     * velocity check stubbed to a zero count (no Redis reads) and adaptive group sampling
+     * paused on this thread, so warm-up neither waits on Redis nor feeds the ordering
+     * statistics of live rulesets.
+     *
+     * @param transaction the sample transaction
+     * @param ruleset the candidate or outgoing ruleset
+     * @return the decision
+     */
+    public Decision evaluateWarmup(TransactionContext transaction, Ruleset ruleset) {
+        return AdaptiveGroup.withoutSampling(() -> evaluate(transaction, ruleset, true, true));
+    }
+
+    private Decision evaluate(TransactionContext transaction, Ruleset ruleset, boolean replayMode,
+                              boolean warmup) {
         // OPT-10+11: Use nanoTime for consistent, high-resolution timing
         long startNanos = System.nanoTime();
 
         Decision decision = createDecision(transaction, ruleset, replayMode);
-        decision.setRulesetKey(ruleset.getKey());
-        decision.setRulesetVersion(ruleset.getVersion());
-        decision.setRulesetId(ruleset.getRulesetId());
-
-        // Initialize timing breakdown
-        com.fraud.engine.domain.TimingBreakdown breakdown = new com.fraud.engine.domain.TimingBreakdown();
-        decision.setTimingBreakdown(breakdown);
-
         DebugInfo.Builder debugBuilder = shouldCaptureDebug()
                 ? createDebugBuilder(ruleset.getKey(), "v" + ruleset.getVersion())
                 : null;
 
         try {
-            Map<String, Object> evalContext = null;
-            // Keep MONITORING/REPLAY map creation: materialize context because it's included in decision payloads.
-            if (EVAL_MONITORING.equalsIgnoreCase(ruleset.getEvaluationType()) || replayMode) {
-                evalContext = transaction.toEvaluationContext();
-                decision.setTransactionContext(evalContext);
-            }
-
-            // Measure scope traversal (ADR-0015)
-            long scopeStart = System.nanoTime();
-            List<Rule> rulesToEvaluate = ruleset.getApplicableRules(
-                    transaction.getCardNetwork(),
-                    transaction.getCardBin(),
-                    transaction.getMerchantCategoryCode(),
-                    transaction.getCardLogo()
-            );
-            long scopeEnd = System.nanoTime();
-            breakdown.setScopeTraversalTimeMs((scopeEnd - scopeStart) / 1_000_000.0);
-
-            if (rulesToEvaluate.isEmpty()) {
-                LOG.warnf("No rules to evaluate for ruleset: %s", ruleset.getFullKey());
-                decision.setDecision(Decision.DECISION_APPROVE);
+            EvaluationContext context = prepare(transaction, ruleset, decision, replayMode, warmup,
+                    startNanos, debugBuilder);
+            if (context == null) {
                 return finalizeDecision(decision, startNanos, debugBuilder);
             }
 
-            // Measure context creation
-            long contextStart = System.nanoTime();
-            EvaluationContext context = EvaluationContext.create(
-                    transaction,
-                    ruleset,
-                    decision,
-                    replayMode,
-                    startNanos,
-                    decision.getEngineMode(),
-                    debugBuilder,
-                    rulesToEvaluate,
-                    evalContext
-            );
-            long contextEnd = System.nanoTime();
-            breakdown.setContextCreationTimeMs((contextEnd - contextStart) / 1_000_000.0);
-
             // Measure dispatch evaluation
             long dispatchStart = System.nanoTime();
             dispatchEvaluation(context);
             long dispatchEnd = System.nanoTime();
-            breakdown.setDispatchEvaluationTimeMs((dispatchEnd - dispatchStart) / 1_000_000.0);
+            decision.getTimingBreakdown().setDispatchEvaluationTimeMs((dispatchEnd - dispatchStart) / 1_000_000.0);
 
         } catch (Exception e) {
             LOG.errorf(e, "Error during rule evaluation");
             handleEvaluationError(decision, transaction, e);
         }
 
+        return complete(decision, startNanos, debugBuilder);
+    }
+
+    /**
+     * Non-blocking form of {@link #evaluate(TransactionContext, Ruleset)}: conditions are
+     * evaluated on the calling thread and the returned Uni completes when the velocity
+     * reply arrives. Errors produce the same DEGRADED / fail-open decision as the blocking
+     * path; the Uni itself does not fail.
+     *
+     * @param transaction the transaction
+     * @param ruleset the ruleset to evaluate
+     * @return the decision
+     */
+    public Uni<Decision> evaluateAsync(TransactionContext transaction, Ruleset ruleset) {
+        long startNanos = System.nanoTime();
+
+        Decision decision = createDecision(transaction, ruleset, false);
+        DebugInfo.Builder debugBuilder = shouldCaptureDebug()
+                ? createDebugBuilder(ruleset.getKey(), "v" + ruleset.getVersion())
+                : null;
+
+        Uni<Void> dispatch;
+        long dispatchStart;
+        try {
+            EvaluationContext context = prepare(transaction, ruleset, decision, false, false,
+                    startNanos, debugBuilder);
+            if (context == null) {
+                return Uni.createFrom().item(finalizeDecision(decision, startNanos, debugBuilder));
+            }
+            dispatchStart = System.nanoTime();
+            dispatch = monitoringEvaluator.evaluateAsync(context);
+        } catch (Exception e) {
+            LOG.errorf(e, "Error during rule evaluation");
+            handleEvaluationError(decision, transaction, e);
+            return Uni.createFrom().item(complete(decision, startNanos, debugBuilder));
+        }
+
+        return dispatch
+                .invoke(ignored -> decision.getTimingBreakdown().setDispatchEvaluationTimeMs(
+                        (System.nanoTime() - dispatchStart) / 1_000_000.0))
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf(e, "Error during rule evaluation");
+                    handleEvaluationError(decision, transaction, e);
+                    return null;
+                })
+                .map(ignored -> complete(decision, startNanos, debugBuilder));
+    }
+
+    /**
+     * Builds the evaluation context: attaches the transaction context to MONITORING and
+     * replay decisions and runs scope traversal.
+     *
+     * @return the context, or null if no rule applies (the decision is then APPROVE)
+     */
+    private EvaluationContext prepare(TransactionContext transaction, Ruleset ruleset, Decision decision,
+                                      boolean replayMode, boolean warmup, long startNanos,
+                                      DebugInfo.Builder debugBuilder) {
+        TimingBreakdown breakdown = decision.getTimingBreakdown();
+        Map<String, Object> evalContext = null;
+        // MONITORING/REPLAY decision payloads include the context: attach an array-backed view, not a copy.
+        if (EVAL_MONITORING.equalsIgnoreCase(ruleset.getEvaluationType()) || replayMode) {
+            evalContext = transaction.asEvaluationContext();
+            decision.setTransactionContext(evalContext);
+        }
+
+        // Measure scope traversal (ADR-0015)
+        long scopeStart = System.nanoTime();
+        List<Rule> rulesToEvaluate = ruleset.getApplicableRules(
+                transaction.getCardNetwork(),
+                transaction.getCardBin(),
+                transaction.getMerchantCategoryCode(),
+                transaction.getCardLogo()
+        );
+        long scopeEnd = System.nanoTime();
+        breakdown.setScopeTraversalTimeMs((scopeEnd - scopeStart) / 1_000_000.0);
+
+        if (rulesToEvaluate.isEmpty()) {
+            LOG.warnf("No rules to evaluate for ruleset: %s", ruleset.getFullKey());
+            decision.setDecision(Decision.DECISION_APPROVE);
+            return null;
+        }
+
+        // Measure context creation
+        long contextStart = System.nanoTime();
+        EvaluationContext context = warmup
+                ? EvaluationContext.createWarmup(
+                        transaction,
+                        ruleset,
+                        decision,
+                        startNanos,
+                        decision.getEngineMode(),
+                        debugBuilder,
+                        rulesToEvaluate,
+                        evalContext)
+                : EvaluationContext.create(
+                        transaction,
+                        ruleset,
+                        decision,
+                        replayMode,
+                        startNanos,
+                        decision.getEngineMode(),
+                        debugBuilder,
+                        rulesToEvaluate,
+                        evalContext);
+        long contextEnd = System.nanoTime();
+        breakdown.setContextCreationTimeMs((contextEnd - contextStart) / 1_000_000.0);
+        return context;
+    }
+
+    /**
+     * Finalizes the decision and records how long finalization took.
+     */
+    private Decision complete(Decision decision, long startNanos, DebugInfo.Builder debugBuilder) {
         // Measure finalization
         long finalizeStart = System.nanoTime();
         Decision finalDecision = finalizeDecision(decision, startNanos, debugBuilder);
@@ -136,6 +227,12 @@ public class RuleEvaluator {
     private Decision createDecision(TransactionContext transaction, Ruleset ruleset, boolean replayMode) {
         Decision decision = new Decision(transaction.getTransactionId(), ruleset.getEvaluationType());
         decision.setEngineMode(replayMode ? Decision.MODE_REPLAY : Decision.MODE_NORMAL);
+        decision.setRulesetKey(ruleset.getKey());
+        decision.setRulesetVersion(ruleset.getVersion());
+        decision.setRulesetId(ruleset.getRulesetId());
+
+        // Initialize timing breakdown
+        decision.setTimingBreakdown(new TimingBreakdown());
         return decision;
     }
 
@@ -200,7 +297,7 @@ public class RuleEvaluator {
         return decision;
     }
 
-    private void handleEvaluationError(Decision decision, TransactionContext transaction, Exception e) {
+    private void handleEvaluationError(Decision decision, TransactionContext transaction, Throwable e) {
         decision.setEngineErrorCode("EVALUATION_ERROR");
         decision.setEngineErrorMessage("Error during rule evaluation: " + e.getMessage());
         if (EVAL_MONITORING.equalsIgnoreCase(decision.getEvaluationType())) {
@@ -0,0 +1,324 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.RulesetProgram;
+import com.fraud.engine.domain.TransactionContext;
+import org.jboss.logging.Logger;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassHierarchyResolver;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.Label;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a whole ruleset into one generated {@link RulesetProgram}.
+ * <p>
+ * The lambda engine evaluates every rule through the same
+ * {@link CompiledCondition#matches} call site, which goes megamorphic as soon as a
+ * ruleset has more than a couple of condition shapes. This compiler instead emits a
+ * hidden class (via the {@code java.lang.classfile} API) with straight-line code per
+ * rule: AND / OR / NOT become branches, and every leaf gets its own call site whose
+ * receiver is a class-data constant, so the JIT sees a monomorphic target it can inline.
+ * <p>
+ * Rules are numbered densely in {@link Ruleset#getRules()} order; the index is stored
+ * on the rule ({@link Rule#setProgramIndex(int)}) so the evaluator can build the
+ * applicable bitset and read the match bitset. Rules without a condition tree are left
+ * at index {@code -1} and evaluated the old way.
+ * <p>
+ * Compilation never fails a load: any error is logged and the ruleset stays on the
+ * lambda engine.
+ */
+public final class RulesetProgramCompiler {
+
+    private static final Logger LOG = Logger.getLogger(RulesetProgramCompiler.class);
+
+    /**
+     * Soft limit on the bytecode size of one generated method. HotSpot refuses to JIT
+     * methods over 8000 bytes ({@code -XX:HugeMethodLimit}), so rules are split into
+     * chunk methods that each stay comfortably under it.
+     */
+    static final int MAX_CHUNK_BYTES = 6000;
+
+    private static final int RULE_OVERHEAD_BYTES = 32;
+    private static final int LEAF_BYTES = 12;
+    private static final int BRANCH_BYTES = 3;
+
+    private static final ClassDesc CD_GENERATED =
+            ClassDesc.of(RulesetProgramCompiler.class.getPackageName() + ".GeneratedRulesetProgram");
+    private static final ClassDesc CD_PROGRAM = ClassDesc.of(RulesetProgram.class.getName());
+    private static final ClassDesc CD_CONDITION = ClassDesc.of(CompiledCondition.class.getName());
+    private static final ClassDesc CD_TRANSACTION = ClassDesc.of(TransactionContext.class.getName());
+    private static final ClassDesc CD_LONG_ARRAY = ConstantDescs.CD_long.arrayType();
+
+    private static final MethodTypeDesc MTD_EVALUATE = MethodTypeDesc.of(
+            ConstantDescs.CD_void, CD_TRANSACTION, CD_LONG_ARRAY, CD_LONG_ARRAY);
+    private static final MethodTypeDesc MTD_MATCHES = MethodTypeDesc.of(ConstantDescs.CD_boolean, CD_TRANSACTION);
+
+    private RulesetProgramCompiler() {
+    }
+
+    /**
+     * Compiles the ruleset and assigns program indexes to its rules.
+     *
+     * @param ruleset the ruleset (rules must already carry their condition trees)
+     * @return the generated program, or null if generation failed
+     */
+    public static RulesetProgram compile(Ruleset ruleset) {
+        long start = System.nanoTime();
+        List<Rule> indexed = new ArrayList<>();
+        for (Rule rule : ruleset.getRules()) {
+            ConditionNode tree = treeOf(rule);
+            if (tree == null) {
+                rule.setProgramIndex(-1);
+                continue;
+            }
+            rule.setProgramIndex(indexed.size());
+            indexed.add(rule);
+        }
+
+        try {
+            Map<CompiledCondition, Integer> leafSlots = new IdentityHashMap<>();
+            List<CompiledCondition> leaves = new ArrayList<>();
+            for (Rule rule : indexed) {
+                collectLeaves(treeOf(rule), leafSlots, leaves);
+            }
+
+            List<List<Rule>> chunks = chunk(indexed);
+            byte[] bytes = generate(indexed.size(), chunks, leafSlots);
+
+            MethodHandles.Lookup hidden = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(bytes, List.copyOf(leaves), true);
+            RulesetProgram program = (RulesetProgram) hidden
+                    .findConstructor(hidden.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+
+            LOG.debugf("Compiled ruleset %s v%d to bytecode: rules=%d, leaves=%d, chunks=%d, bytes=%d in %d us",
+                    ruleset.getKey(), ruleset.getVersion(), indexed.size(), leaves.size(),
+                    chunks.size(), bytes.length, (System.nanoTime() - start) / 1_000);
+            return program;
+        } catch (Throwable e) {
+            LOG.warnf(e, "Failed to compile ruleset %s v%d to bytecode, using lambda engine",
+                    ruleset.getKey(), ruleset.getVersion());
+            for (Rule rule : indexed) {
+                rule.setProgramIndex(-1);
+            }
+            return null;
+        }
+    }
+
+    private static ConditionNode treeOf(Rule rule) {
+        ConditionNode tree = rule.getConditionTree();
+        if (tree != null) {
+            return tree;
+        }
+        CompiledCondition compiled = rule.getCompiledCondition();
+        return compiled != null ? new ConditionNode.Leaf(null, compiled) : null;
+    }
+
+    private static void collectLeaves(ConditionNode node, Map<CompiledCondition, Integer> slots,
+                                      List<CompiledCondition> leaves) {
+        switch (node) {
+            case ConditionNode.Leaf leaf -> {
+                if (!slots.containsKey(leaf.compiled())) {
+                    slots.put(leaf.compiled(), leaves.size());
+                    leaves.add(leaf.compiled());
+                }
+            }
+            case ConditionNode.And and -> and.children().forEach(c -> collectLeaves(c, slots, leaves));
+            case ConditionNode.Or or -> or.children().forEach(c -> collectLeaves(c, slots, leaves));
+            case ConditionNode.Not not -> collectLeaves(not.child(), slots, leaves);
+            case ConditionNode.Constant ignored -> {
+            }
+        }
+    }
+
+    private static List<List<Rule>> chunk(List<Rule> rules) {
+        List<List<Rule>> chunks = new ArrayList<>();
+        List<Rule> current = new ArrayList<>();
+        int size = 0;
+        for (Rule rule : rules) {
+            int ruleSize = RULE_OVERHEAD_BYTES + estimateSize(treeOf(rule));
+            if (!current.isEmpty() && size + ruleSize > MAX_CHUNK_BYTES) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                size = 0;
+            }
+            current.add(rule);
+            size += ruleSize;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private static int estimateSize(ConditionNode node) {
+        return switch (node) {
+            case ConditionNode.Leaf ignored -> LEAF_BYTES;
+            case ConditionNode.Constant ignored -> BRANCH_BYTES;
+            case ConditionNode.Not not -> estimateSize(not.child());
+            case ConditionNode.And and -> and.children().stream()
+                    .mapToInt(RulesetProgramCompiler::estimateSize).sum() + BRANCH_BYTES;
+            case ConditionNode.Or or -> or.children().stream()
+                    .mapToInt(RulesetProgramCompiler::estimateSize).sum() + BRANCH_BYTES;
+        };
+    }
+
+    // ========== Code Generation ==========
+
+    private static byte[] generate(int ruleCount, List<List<Rule>> chunks, Map<CompiledCondition, Integer> leafSlots) {
+        ClassLoader loader = RulesetProgramCompiler.class.getClassLoader();
+        ClassFile classFile = ClassFile.of(ClassFile.ClassHierarchyResolverOption.of(
+                ClassHierarchyResolver.defaultResolver().orElse(ClassHierarchyResolver.ofClassLoading(loader))));
+
+        return classFile.build(CD_GENERATED, cb -> {
+            cb.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC);
+            cb.withInterfaceSymbols(CD_PROGRAM);
+
+            cb.withMethodBody(ConstantDescs.INIT_NAME, ConstantDescs.MTD_void, ClassFile.ACC_PUBLIC, code -> code
+                    .aload(0)
+                    .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                    .return_());
+
+            cb.withMethodBody("ruleCount", MethodTypeDesc.of(ConstantDescs.CD_int), ClassFile.ACC_PUBLIC, code -> code
+                    .loadConstant(ruleCount)
+                    .ireturn());
+
+            for (int i = 0; i < chunks.size(); i++) {
+                List<Rule> chunk = chunks.get(i);
+                cb.withMethodBody("evaluate" + i, MTD_EVALUATE, ClassFile.ACC_PRIVATE | ClassFile.ACC_STATIC,
+                        code -> emitChunk(code, chunk, leafSlots));
+            }
+
+            cb.withMethodBody("evaluate", MTD_EVALUATE, ClassFile.ACC_PUBLIC, code -> {
+                for (int i = 0; i < chunks.size(); i++) {
+                    code.aload(1).aload(2).aload(3)
+                            .invokestatic(CD_GENERATED, "evaluate" + i, MTD_EVALUATE);
+                }
+                code.return_();
+            });
+        });
+    }
+
+    /**
+     * Emits, for each rule: skip unless the applicable bit is set, evaluate the tree
+     * with branches, set the match bit. Locals: 0 = transaction, 1 = applicable, 2 = matches.
+     */
+    private static void emitChunk(CodeBuilder code, List<Rule> rules, Map<CompiledCondition, Integer> leafSlots) {
+        for (Rule rule : rules) {
+            int index = rule.getProgramIndex();
+            int word = index >>> 6;
+            long bit = 1L << (index & 63);
+            Label skip = code.newLabel();
+
+            code.aload(1).loadConstant(word).laload()
+                    .loadConstant(bit).land()
+                    .lconst_0().lcmp()
+                    .ifeq(skip);
+
+            jumpIfFalse(code, treeOf(rule), skip, leafSlots);
+
+            code.aload(2).loadConstant(word).dup2().laload()
+                    .loadConstant(bit).lor()
+                    .lastore();
+            code.labelBinding(skip);
+        }
+        code.return_();
+    }
+
+    private static void jumpIfFalse(CodeBuilder code, ConditionNode node, Label target,
+                                    Map<CompiledCondition, Integer> leafSlots) {
+        switch (node) {
+            case ConditionNode.Constant constant -> {
+                if (!constant.value()) {
+                    code.goto_(target);
+                }
+            }
+            case ConditionNode.Leaf leaf -> {
+                emitLeaf(code, leaf, leafSlots);
+                code.ifeq(target);
+            }
+            case ConditionNode.Not not -> jumpIfTrue(code, not.child(), target, leafSlots);
+            case ConditionNode.And and -> {
+                for (ConditionNode child : and.children()) {
+                    jumpIfFalse(code, child, target, leafSlots);
+                }
+            }
+            case ConditionNode.Or or -> {
+                List<ConditionNode> children = or.children();
+                if (children.isEmpty()) {
+                    return;
+                }
+                Label matched = code.newLabel();
+                for (int i = 0; i < children.size() - 1; i++) {
+                    jumpIfTrue(code, children.get(i), matched, leafSlots);
+                }
+                jumpIfFalse(code, children.get(children.size() - 1), target, leafSlots);
+                code.labelBinding(matched);
+            }
+        }
+    }
+
+    private static void jumpIfTrue(CodeBuilder code, ConditionNode node, Label target,
+                                   Map<CompiledCondition, Integer> leafSlots) {
+        switch (node) {
+            case ConditionNode.Constant constant -> {
+                if (constant.value()) {
+                    code.goto_(target);
+                }
+            }
+            case ConditionNode.Leaf leaf -> {
+                emitLeaf(code, leaf, leafSlots);
+                code.ifne(target);
+            }
+            case ConditionNode.Not not -> jumpIfFalse(code, not.child(), target, leafSlots);
+            case ConditionNode.Or or -> {
+                if (or.children().isEmpty()) {
+                    code.goto_(target);
+                    return;
+                }
+                for (ConditionNode child : or.children()) {
+                    jumpIfTrue(code, child, target, leafSlots);
+                }
+            }
+            case ConditionNode.And and -> {
+                List<ConditionNode> children = and.children();
+                if (children.isEmpty()) {
+                    code.goto_(target);
+                    return;
+                }
+                Label failed = code.newLabel();
+                for (int i = 0; i < children.size() - 1; i++) {
+                    jumpIfFalse(code, children.get(i), failed, leafSlots);
+                }
+                jumpIfTrue(code, children.get(children.size() - 1), target, leafSlots);
+                code.labelBinding(failed);
+            }
+        }
+    }
+
+    /**
+     * Pushes {@code leaves[slot].matches(transaction)}. The receiver is a class-data
+     * constant, resolved once per call site and then treated as a JIT constant.
+     */
+    private static void emitLeaf(CodeBuilder code, ConditionNode.Leaf leaf, Map<CompiledCondition, Integer> leafSlots) {
+        int slot = leafSlots.get(leaf.compiled());
+        code.ldc(DynamicConstantDesc.ofNamed(ConstantDescs.BSM_CLASS_DATA_AT, ConstantDescs.DEFAULT_NAME,
+                        CD_CONDITION, slot))
+                .aload(0)
+                .invokeinterface(CD_CONDITION, "matches", MTD_MATCHES);
+    }
+}
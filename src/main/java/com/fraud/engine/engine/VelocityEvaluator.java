@@ -5,6 +5,7 @@ import com.fraud.engine.domain.TransactionContext;
 import com.fraud.engine.domain.VelocityConfig;
 import com.fraud.engine.domain.Rule;
 import com.fraud.engine.velocity.VelocityService;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
@@ -45,6 +46,68 @@ public class VelocityEvaluator {
         }
     }
 
+    /**
+     * Batch velocity check over the first {@code count} configs into a caller-owned
+     * result array. On failure every result is the safe (not exceeded) value.
+     *
+     * @param transaction the transaction
+     * @param configs velocity configs of the matched rules
+     * @param count number of configs
+     * @param decision decision to mark degraded on failure
+     * @param results output, aligned to {@code configs}
+     */
+    public void checkVelocityBatch(
+            TransactionContext transaction,
+            VelocityConfig[] configs,
+            int count,
+            Decision decision,
+            Decision.VelocityResult[] results) {
+        if (count == 0) {
+            return;
+        }
+        try {
+            velocityService.checkVelocityBatch(transaction, configs, count, results);
+        } catch (Exception e) {
+            LOG.warnf(e, "Velocity batch check failed, skipping");
+            markVelocityDegraded(decision, e);
+            for (int i = 0; i < count; i++) {
+                results[i] = safeVelocityResult(configs[i]);
+            }
+        }
+    }
+
+    /**
+     * Non-blocking form of {@link #checkVelocityBatch(TransactionContext, VelocityConfig[], int,
+     * Decision, Decision.VelocityResult[])}. Never fails: on a Redis failure every result is
+     * the safe (not exceeded) value and the decision is marked degraded.
+     *
+     * @return a Uni completing once {@code results} is filled
+     */
+    public Uni<Void> checkVelocityBatchAsync(
+            TransactionContext transaction,
+            VelocityConfig[] configs,
+            int count,
+            Decision decision,
+            Decision.VelocityResult[] results) {
+        if (count == 0) {
+            return Uni.createFrom().voidItem();
+        }
+        Uni<Void> check;
+        try {
+            check = velocityService.checkVelocityBatchAsync(transaction, configs, count, results);
+        } catch (Exception e) {
+            check = Uni.createFrom().failure(e);
+        }
+        return check.onFailure().recoverWithItem(e -> {
+            LOG.warnf(e, "Velocity batch check failed, skipping");
+            markVelocityDegraded(decision, e);
+            for (int i = 0; i < count; i++) {
+                results[i] = safeVelocityResult(configs[i]);
+            }
+            return null;
+        });
+    }
+
     public Decision.VelocityResult checkVelocity(
             TransactionContext transaction,
             Rule rule,
@@ -72,7 +135,7 @@ public class VelocityEvaluator {
                     return cached;
                 }
             }
-            long currentCount = velocityService.getCurrentCount(key);
+            long currentCount = velocityService.getCurrentCount(transaction, rule.getVelocity());
             String dimensionValue = extractDimensionValue(transaction, rule.getVelocity().getDimension());
 
             Decision.VelocityResult result = new Decision.VelocityResult(
@@ -106,6 +169,13 @@ public class VelocityEvaluator {
     }
 
     private Decision.VelocityResult safeVelocityResult(VelocityConfig config) {
+        return zeroResult(config);
+    }
+
+    /**
+     * @return a result with a zero count for the check, as used when velocity is unavailable
+     */
+    static Decision.VelocityResult zeroResult(VelocityConfig config) {
         return new Decision.VelocityResult(
                 config.getDimension(),
                 null,
@@ -115,7 +185,7 @@ public class VelocityEvaluator {
         );
     }
 
-    private void markVelocityDegraded(Decision decision, Exception e) {
+    private void markVelocityDegraded(Decision decision, Throwable e) {
         if (decision == null) {
             return;
         }
@@ -42,6 +42,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * </ul>
  * <p>
  * This filter only applies to evaluation endpoints (/v1/evaluate/*).
+ * <p>
+ * With {@code app.virtual-threads.enabled} the worker pool no longer caps how many
+ * evaluations run at once, so {@code max-concurrent} is the concurrency bound; size it
+ * against the Redis connection pool rather than the thread count.
  */
 @Provider
 @Priority(Priorities.AUTHENTICATION - 100) // Run very early in the filter chain
@@ -56,6 +60,9 @@ public class LoadSheddingFilter implements ContainerRequestFilter, ContainerResp
     @ConfigProperty(name = "app.load-shedding.max-concurrent", defaultValue = "100")
     int maxConcurrent;
 
+    @ConfigProperty(name = "app.virtual-threads.enabled", defaultValue = "false")
+    boolean virtualThreads;
+
     @Inject
     ObjectMapper objectMapper;
 
@@ -73,6 +80,9 @@ public class LoadSheddingFilter implements ContainerRequestFilter, ContainerResp
     void init() {
         permits = new Semaphore(maxConcurrent, false);
         LOG.infof("LoadSheddingFilter initialized: enabled=%s, maxConcurrent=%d", enabled, maxConcurrent);
+        if (virtualThreads && !enabled) {
+            LOG.warn("Virtual threads are enabled without load shedding: evaluation concurrency is unbounded");
+        }
     }
 
     @Override
@@ -244,7 +254,7 @@ public class LoadSheddingFilter implements ContainerRequestFilter, ContainerResp
                 tx = objectMapper.convertValue(parsed.getOrParseContext(objectMapper), TransactionContext.class);
             }
             if (tx != null) {
-                shedDecision.setTransactionContext(tx.toEvaluationContext());
+                shedDecision.setTransactionContext(tx.asEvaluationContext());
             } else if (parsed != null && parsed.getOrParseContext(objectMapper) != null) {
                 shedDecision.setTransactionContext(parsed.getOrParseContext(objectMapper));
             }
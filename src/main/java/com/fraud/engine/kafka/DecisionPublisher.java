@@ -3,6 +3,7 @@ package com.fraud.engine.kafka;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fraud.engine.domain.Decision;
+import com.fraud.engine.util.WorkerThreads;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -17,8 +18,6 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -51,17 +50,22 @@ public class DecisionPublisher {
     @ConfigProperty(name = "app.decision.publisher.async-threads", defaultValue = "8")
     int asyncThreads;
 
+    @Inject
+    WorkerThreads workerThreads;
+
     private ExecutorService asyncPublisherPool;
 
     @PostConstruct
     void init() {
         int threads = Math.max(1, asyncThreads);
-        ThreadFactory factory = r -> {
-            Thread t = new Thread(r, "decision-publisher-async");
-            t.setDaemon(true);
-            return t;
-        };
-        asyncPublisherPool = Executors.newFixedThreadPool(threads, factory);
+        // Virtual threads: one per publish, scheduled on the shared carrier pool instead of
+        // a dedicated fixed pool
+        boolean virtual = workerThreads != null && workerThreads.isVirtual();
+        asyncPublisherPool = WorkerThreads.newExecutor("decision-publisher-async", threads, virtual);
+        if (virtual) {
+            LOG.info("DecisionPublisher async publishes run on virtual threads");
+            return;
+        }
         LOG.infof("DecisionPublisher async pool initialized with %d thread(s)", threads);
     }
 
@@ -4,8 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fraud.engine.dto.FieldRegistryArtifact;
 import com.fraud.engine.dto.FieldRegistryEntry;
 import com.fraud.engine.dto.FieldRegistryManifest;
+import com.fraud.engine.util.EngineMetrics;
+import com.fraud.engine.util.FetchMemo;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -16,8 +19,10 @@ import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -32,13 +37,20 @@ import java.util.List;
  * fallback when S3 is unavailable. The registry contains field definitions
  * used in rule compilation.
  * <p>
- * Follows the same pattern as RulesetLoader for consistency.
+ * Follows the same pattern as RulesetLoader for consistency, including the shared
+ * manifest memo: the startup validators and the hot-reload coordinator all read the
+ * manifest at startup, and share one S3 request. With the local artifact cache
+ * enabled, verified registries are kept on disk, and the last one is used instead of
+ * the builtin registry when S3 cannot be read.
  */
 @ApplicationScoped
 public class FieldRegistryLoader {
 
     private static final Logger LOG = Logger.getLogger(FieldRegistryLoader.class);
 
+    /** Local artifact cache pointer names for registry versions. */
+    private static final String POINTER_PREFIX = "fields/registry/";
+
     @ConfigProperty(name = "s3.endpoint-url")
     String endpointUrl;
 
@@ -57,11 +69,24 @@ public class FieldRegistryLoader {
     @ConfigProperty(name = "app.field-registry.path-prefix", defaultValue = "fields/")
     String pathPrefix;
 
+    @ConfigProperty(name = "app.field-registry.manifest-reuse-ms", defaultValue = "5000")
+    long manifestReuseMs = 5000;
+
+    @Inject
+    EngineMetrics engineMetrics;
+
+    @Inject
+    LocalArtifactCache artifactCache;
+
     private S3Client s3Client;
     private final ObjectMapper jsonMapper = new ObjectMapper();
+    private FetchMemo<String, FieldRegistryManifest> manifests = new FetchMemo<>(0, new FetchMemo.Stats());
 
     @PostConstruct
     void init() {
+        manifests = new FetchMemo<>(manifestReuseMs,
+                engineMetrics != null ? engineMetrics.manifestFetchStats() : new FetchMemo.Stats());
+
         try {
             LOG.infof("Initializing S3 client for FieldRegistry: %s", endpointUrl);
 
@@ -98,16 +123,19 @@ public class FieldRegistryLoader {
                     .key(objectKey)
                     .build();
 
-            try (InputStream inputStream = s3Client.getObject(getObjectRequest)) {
-                FieldRegistryManifest manifest = jsonMapper.readValue(inputStream, FieldRegistryManifest.class);
+            FieldRegistryManifest manifest = manifests.get(objectKey, () -> {
+                try (InputStream inputStream = s3Client.getObject(getObjectRequest)) {
+                    return jsonMapper.readValue(inputStream, FieldRegistryManifest.class);
+                } catch (NoSuchKeyException e) {
+                    LOG.debugf("Field registry manifest not found: %s", e.getMessage());
+                    return null;
+                }
+            });
+            if (manifest != null) {
                 LOG.debugf("Loaded field registry manifest: version=%d, fields=%d",
                         manifest.registryVersion, manifest.fieldCount);
-                return manifest;
             }
-
-        } catch (NoSuchKeyException e) {
-            LOG.debugf("Field registry manifest not found: %s", e.getMessage());
-            return null;
+            return manifest;
 
         } catch (Exception e) {
             LOG.warnf("Error loading field registry manifest: %s", e.getMessage());
@@ -122,6 +150,14 @@ public class FieldRegistryLoader {
      * @return the field registry artifact, or null if not found
      */
     public FieldRegistryArtifact loadRegistry(int version) {
+        String pointerName = POINTER_PREFIX + "v" + version;
+        if (isLocalCacheEnabled()) {
+            FieldRegistryArtifact cached = loadCached(pointerName);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         try {
             String objectKey = pathPrefix + "registry/v" + version + "/fields.json";
 
@@ -134,23 +170,16 @@ public class FieldRegistryLoader {
 
             try (InputStream inputStream = s3Client.getObject(getObjectRequest)) {
                 byte[] rawContent = inputStream.readAllBytes();
-                String computedChecksum = computeChecksum(rawContent);
-
-                FieldRegistryArtifact artifact = jsonMapper.readValue(rawContent, FieldRegistryArtifact.class);
-
-                if (artifact.checksum != null && !artifact.checksum.isEmpty()) {
-                    if (!computedChecksum.equalsIgnoreCase(artifact.checksum)) {
-                        LOG.errorf("CHECKSUM MISMATCH for field registry v%d. Expected: %s, Computed: %s. " +
-                                   "Artifact may be tampered. Rejecting load.",
-                                version, artifact.checksum, computedChecksum);
-                        return null;
-                    }
-                    LOG.debugf("Checksum validated successfully for field registry v%d", version);
+                FieldRegistryArtifact artifact = parseRegistry(rawContent, version);
+
+                if (artifact != null && isLocalCacheEnabled()) {
+                    String sha256 = LocalArtifactCache.sha256Hex(rawContent);
+                    artifactCache.write(sha256, rawContent);
+                    LocalArtifactCache.Pointer pointer = new LocalArtifactCache.Pointer(sha256, version);
+                    artifactCache.writePointer(pointerName, pointer);
+                    artifactCache.writePointer(POINTER_PREFIX + "latest", pointer);
                 }
 
-                LOG.infof("Field registry v%d loaded successfully with %d fields",
-                        version, artifact.fields != null ? artifact.fields.size() : 0);
-
                 return artifact;
             }
 
@@ -164,6 +193,61 @@ public class FieldRegistryLoader {
         }
     }
 
+    /**
+     * Parses registry JSON and checks its embedded checksum.
+     *
+     * @return the artifact, or null on a checksum mismatch
+     */
+    private FieldRegistryArtifact parseRegistry(byte[] rawContent, int version) throws IOException {
+        String computedChecksum = computeChecksum(rawContent);
+
+        FieldRegistryArtifact artifact = jsonMapper.readValue(rawContent, FieldRegistryArtifact.class);
+
+        if (artifact.checksum != null && !artifact.checksum.isEmpty()) {
+            if (!computedChecksum.equalsIgnoreCase(artifact.checksum)) {
+                LOG.errorf("CHECKSUM MISMATCH for field registry v%d. Expected: %s, Computed: %s. " +
+                           "Artifact may be tampered. Rejecting load.",
+                        version, artifact.checksum, computedChecksum);
+                return null;
+            }
+            LOG.debugf("Checksum validated successfully for field registry v%d", version);
+        }
+
+        LOG.infof("Field registry v%d loaded successfully with %d fields",
+                version, artifact.fields != null ? artifact.fields.size() : 0);
+
+        return artifact;
+    }
+
+    /**
+     * Loads a registry recorded in the local artifact cache.
+     *
+     * @param pointerName cache pointer ({@code fields/registry/v<n>} or {@code .../latest})
+     * @return the registry, or null if not cached
+     */
+    private FieldRegistryArtifact loadCached(String pointerName) {
+        LocalArtifactCache.Pointer pointer = artifactCache.readPointer(pointerName).orElse(null);
+        if (pointer == null) {
+            return null;
+        }
+        ByteBuffer cached = artifactCache.read(pointer.sha256()).orElse(null);
+        if (cached == null) {
+            return null;
+        }
+        try {
+            byte[] rawContent = new byte[cached.remaining()];
+            cached.get(rawContent);
+            return parseRegistry(rawContent, pointer.version() != null ? pointer.version() : 0);
+        } catch (Exception e) {
+            LOG.warnf("Ignoring unreadable cached field registry %s: %s", pointerName, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isLocalCacheEnabled() {
+        return artifactCache != null && artifactCache.isEnabled();
+    }
+
     /**
      * Loads the latest field registry from S3.
      * <p>
@@ -176,23 +260,37 @@ public class FieldRegistryLoader {
         try {
             FieldRegistryManifest manifest = loadManifest();
             if (manifest == null || manifest.registryVersion <= 0) {
-                LOG.debug("No manifest found, using builtin registry");
-                return loadBuiltin();
+                LOG.debug("No manifest found, using cached or builtin registry");
+                return loadLastKnownOrBuiltin();
             }
 
             FieldRegistryArtifact artifact = loadRegistry(manifest.registryVersion);
             if (artifact == null) {
-                LOG.warnf("Failed to load registry version %d from manifest, using builtin",
+                LOG.warnf("Failed to load registry version %d from manifest, using cached or builtin",
                         manifest.registryVersion);
-                return loadBuiltin();
+                return loadLastKnownOrBuiltin();
             }
 
             return artifact;
 
         } catch (Exception e) {
-            LOG.warnf("Error loading latest field registry, using builtin: %s", e.getMessage());
-            return loadBuiltin();
+            LOG.warnf("Error loading latest field registry, using cached or builtin: %s", e.getMessage());
+            return loadLastKnownOrBuiltin();
+        }
+    }
+
+    /**
+     * Falls back to the last registry verified into the local cache, then to builtin.
+     */
+    private FieldRegistryArtifact loadLastKnownOrBuiltin() {
+        if (isLocalCacheEnabled()) {
+            FieldRegistryArtifact cached = loadCached(POINTER_PREFIX + "latest");
+            if (cached != null) {
+                LOG.warnf("Using field registry v%d from local cache", cached.registryVersion);
+                return cached;
+            }
         }
+        return loadBuiltin();
     }
 
     /**
@@ -0,0 +1,424 @@
+package com.fraud.engine.loader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.util.EngineMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Content-addressed local cache of verified S3 artifacts.
+ * <p>
+ * Layout under {@code app.artifact-cache.directory}:
+ * <ul>
+ *   <li>{@code sha256/ab/abcdef...} - artifact bytes, named by their SHA-256</li>
+ *   <li>{@code pointers/<name>.json} - the last artifact seen for a manifest
+ *       (e.g. {@code rulesets/prod/US/CARD_AUTH}), as a {@link Pointer}</li>
+ * </ul>
+ * Files are written to a temp file in the target directory, forced to disk and renamed
+ * into place, so a crash never leaves a partial artifact under its final name. Reads map
+ * the file read-only and re-hash it; a file whose hash does not match its name is deleted
+ * and reported as a miss.
+ * <p>
+ * Artifacts streamed from S3 are written through a {@link Staged} entry while they are
+ * read, and only take their final name once the caller has verified the checksum.
+ * <p>
+ * The cache never throws: an I/O problem is logged and treated as a miss, and the caller
+ * goes to S3 as before.
+ */
+@ApplicationScoped
+public class LocalArtifactCache {
+
+    private static final Logger LOG = Logger.getLogger(LocalArtifactCache.class);
+
+    @ConfigProperty(name = "app.artifact-cache.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "app.artifact-cache.directory", defaultValue = "/tmp/fraud-engine/artifacts")
+    String directory;
+
+    @Inject
+    EngineMetrics engineMetrics;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private Path root;
+
+    /**
+     * Last artifact seen for a manifest.
+     *
+     * @param sha256 hex SHA-256 of the artifact bytes
+     * @param version the artifact version from the manifest (null if unknown)
+     */
+    public record Pointer(String sha256, Integer version) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            root = Files.createDirectories(Path.of(directory));
+            LOG.infof("Local artifact cache enabled: %s", root);
+        } catch (IOException e) {
+            LOG.warnf("Local artifact cache disabled: cannot create %s: %s", directory, e.getMessage());
+            root = null;
+        }
+    }
+
+    /**
+     * @return true if the cache directory is usable
+     */
+    public boolean isEnabled() {
+        return root != null;
+    }
+
+    /**
+     * Maps a cached artifact after checking its hash.
+     *
+     * @param sha256 hex SHA-256 of the wanted artifact ({@code sha256:} prefix allowed)
+     * @return read-only buffer over the file, or empty on a miss
+     */
+    public Optional<ByteBuffer> read(String sha256) {
+        String hex = normalize(sha256);
+        if (root == null || hex == null) {
+            return Optional.empty();
+        }
+        Path file = artifactPath(hex);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!hex.equals(sha256Hex(mapped.duplicate()))) {
+                LOG.warnf("Cached artifact %s is corrupt; deleting it", hex);
+                countCorrupt();
+                Files.deleteIfExists(file);
+                return Optional.empty();
+            }
+            countHit();
+            return Optional.of(mapped.asReadOnlyBuffer());
+        } catch (NoSuchFileException e) {
+            countMiss();
+            return Optional.empty();
+        } catch (IOException e) {
+            LOG.warnf("Failed to read cached artifact %s: %s", hex, e.getMessage());
+            countMiss();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores an artifact that has already been verified. Existing entries are left alone:
+     * the content is the same by construction.
+     *
+     * @param sha256 hex SHA-256 of {@code data}
+     * @param data the artifact bytes
+     */
+    public void write(String sha256, byte[] data) {
+        String hex = normalize(sha256);
+        if (root == null || hex == null) {
+            return;
+        }
+        Path file = artifactPath(hex);
+        if (Files.exists(file)) {
+            return;
+        }
+        if (writeAtomically(file, data)) {
+            countWrite();
+        }
+    }
+
+    /**
+     * Starts an entry whose bytes are copied from a stream as the caller reads it; see
+     * {@link Staged#tee}.
+     *
+     * @return the staged entry, or empty if the cache is disabled or cannot write
+     */
+    public Optional<Staged> stage() {
+        if (root == null) {
+            return Optional.empty();
+        }
+        try {
+            Path dir = Files.createDirectories(root.resolve("sha256"));
+            Path tmp = Files.createTempFile(dir, ".tmp-", null);
+            return Optional.of(new Staged(tmp, Files.newOutputStream(tmp, StandardOpenOption.WRITE)));
+        } catch (IOException e) {
+            LOG.warnf("Failed to stage cache file: %s", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A cache entry being written from a stream. Nothing is visible under an artifact name
+     * until {@link #commit}; closing without committing deletes the temp file.
+     */
+    public final class Staged implements Closeable {
+        private final Path tmp;
+        private final OutputStream out;
+        private boolean failed;
+        private boolean done;
+
+        private Staged(Path tmp, OutputStream out) {
+            this.tmp = tmp;
+            this.out = out;
+        }
+
+        /**
+         * Wraps a stream so that every byte read from it is also written to this entry.
+         * A write failure only abandons the entry; reads carry on.
+         */
+        public InputStream tee(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        copy(new byte[] {(byte) b}, 0, 1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buf, int off, int len) throws IOException {
+                    int n = super.read(buf, off, len);
+                    if (n > 0) {
+                        copy(buf, off, n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        /**
+         * Moves the written bytes into place under their checksum.
+         *
+         * @param sha256 hex SHA-256 of everything read through {@link #tee}
+         */
+        public void commit(String sha256) {
+            String hex = normalize(sha256);
+            if (done || failed || hex == null) {
+                return;
+            }
+            done = true;
+            Path file = artifactPath(hex);
+            try {
+                out.close();
+                if (Files.exists(file)) {
+                    Files.deleteIfExists(tmp);
+                    return;
+                }
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                Files.createDirectories(file.getParent());
+                try {
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                countWrite();
+            } catch (IOException e) {
+                LOG.warnf("Failed to write cache file %s: %s", file, e.getMessage());
+                deleteQuietly(tmp);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // deleted below
+            }
+            deleteQuietly(tmp);
+        }
+
+        private void copy(byte[] buf, int off, int len) {
+            if (failed || done) {
+                return;
+            }
+            try {
+                out.write(buf, off, len);
+            } catch (IOException e) {
+                LOG.warnf("Abandoning cache file %s: %s", tmp, e.getMessage());
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     * Records which artifact a manifest last pointed at.
+     *
+     * @param name manifest name, a {@code /}-separated path of safe segments
+     * @param pointer the artifact
+     */
+    public void writePointer(String name, Pointer pointer) {
+        Path file = pointerPath(name);
+        if (file == null || normalize(pointer.sha256()) == null) {
+            return;
+        }
+        try {
+            writeAtomically(file, jsonMapper.writeValueAsBytes(pointer));
+        } catch (IOException e) {
+            LOG.warnf("Failed to write artifact pointer %s: %s", name, e.getMessage());
+        }
+    }
+
+    /**
+     * @param name manifest name
+     * @return the last artifact recorded for it, or empty
+     */
+    public Optional<Pointer> readPointer(String name) {
+        Path file = pointerPath(name);
+        if (file == null || !Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(jsonMapper.readValue(file.toFile(), Pointer.class));
+        } catch (IOException e) {
+            LOG.warnf("Ignoring unreadable artifact pointer %s: %s", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Hex SHA-256 of a byte array, in the form used as the cache key.
+     */
+    public static String sha256Hex(byte[] data) {
+        return sha256Hex(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Hex SHA-256 of a buffer's remaining bytes (the buffer itself is not consumed).
+     */
+    public static String sha256Hex(ByteBuffer data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data.duplicate());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to compute SHA-256 checksum", e);
+        }
+    }
+
+    private boolean writeAtomically(Path file, byte[] data) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), ".tmp-", null);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            LOG.warnf("Failed to write cache file %s: %s", file, e.getMessage());
+            if (tmp != null) {
+                deleteQuietly(tmp);
+            }
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+
+    private Path artifactPath(String hex) {
+        return root.resolve("sha256").resolve(hex.substring(0, 2)).resolve(hex);
+    }
+
+    private Path pointerPath(String name) {
+        if (root == null || name == null || name.isEmpty()) {
+            return null;
+        }
+        for (String segment : name.split("/")) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")
+                    || !segment.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.')) {
+                LOG.warnf("Ignoring artifact pointer with unsafe name: %s", name);
+                return null;
+            }
+        }
+        return root.resolve("pointers").resolve(name + ".json");
+    }
+
+    /**
+     * @return lower-case hex without {@code sha256:} prefix, or null if not a SHA-256
+     */
+    private static String normalize(String sha256) {
+        if (sha256 == null) {
+            return null;
+        }
+        String hex = sha256.startsWith("sha256:") ? sha256.substring("sha256:".length()) : sha256;
+        hex = hex.toLowerCase(Locale.ROOT);
+        if (hex.length() != 64) {
+            return null;
+        }
+        for (int i = 0; i < hex.length(); i++) {
+            char c = hex.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return null;
+            }
+        }
+        return hex;
+    }
+
+    private void countHit() {
+        if (engineMetrics != null) {
+            engineMetrics.incrementArtifactCacheHit();
+        }
+    }
+
+    private void countMiss() {
+        if (engineMetrics != null) {
+            engineMetrics.incrementArtifactCacheMiss();
+        }
+    }
+
+    private void countWrite() {
+        if (engineMetrics != null) {
+            engineMetrics.incrementArtifactCacheWrite();
+        }
+    }
+
+    private void countCorrupt() {
+        if (engineMetrics != null) {
+            engineMetrics.incrementArtifactCacheCorrupt();
+        }
+    }
+}
@@ -5,8 +5,10 @@ import com.fraud.engine.domain.Ruleset;
 import com.fraud.engine.domain.TransactionContext;
 import com.fraud.engine.engine.RuleEvaluator;
 import com.fraud.engine.kafka.DecisionPublisher;
+import com.fraud.engine.ruleset.RegistrySnapshot;
 import com.fraud.engine.ruleset.RulesetRegistry;
 import com.fraud.engine.util.RulesetKeyResolver;
+import com.fraud.engine.util.WorkerThreads;
 import com.fraud.engine.velocity.VelocityService;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -15,15 +17,23 @@ import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Worker that drains Redis Streams outbox, runs MONITORING evaluation,
  * and publishes auth + monitoring decisions to Kafka.
+ * <p>
+ * Entries are processed one after another on the worker thread. With
+ * {@code app.virtual-threads.enabled} each entry of a batch gets its own virtual thread,
+ * so the batch waits on Redis and the broker acks concurrently rather than in turn.
  */
 @ApplicationScoped
 public class MonitoringOutboxWorker {
@@ -60,9 +70,18 @@ public class MonitoringOutboxWorker {
     @Inject
     VelocityService velocityService;
 
+    @Inject
+    WorkerThreads workerThreads;
+
+    /** Runs the entries of a batch concurrently; null to process them in turn. */
+    private ExecutorService entryExecutor;
+
     @PostConstruct
     void start() {
         if (workerEnabled) {
+            if (workerThreads != null && workerThreads.isVirtual()) {
+                entryExecutor = WorkerThreads.newExecutor("outbox-monitoring-entry", 1, true);
+            }
             scheduler.scheduleWithFixedDelay(this::safePoll, 100, 100, TimeUnit.MILLISECONDS);
         }
     }
@@ -70,6 +89,9 @@ public class MonitoringOutboxWorker {
     @PreDestroy
     void stop() {
         scheduler.shutdownNow();
+        if (entryExecutor != null) {
+            entryExecutor.shutdownNow();
+        }
     }
 
     private void safePoll() {
@@ -84,13 +106,32 @@ public class MonitoringOutboxWorker {
         if (!workerEnabled) {
             return;
         }
-        List<OutboxEntry> reclaimed = outboxClient.claimPendingBatch(pendingMinIdleMs, pendingClaimCount);
-        for (OutboxEntry entry : reclaimed) {
-            processEntry(entry);
+        processBatch(outboxClient.claimPendingBatch(pendingMinIdleMs, pendingClaimCount));
+        processBatch(outboxClient.readBatch());
+    }
+
+    private void processBatch(List<OutboxEntry> entries) {
+        captureVelocitySnapshots(entries);
+        if (entryExecutor == null || entries.size() < 2) {
+            for (OutboxEntry entry : entries) {
+                processEntry(entry);
+            }
+            return;
         }
-        List<OutboxEntry> entries = outboxClient.readBatch();
+        List<Future<?>> pending = new ArrayList<>(entries.size());
         for (OutboxEntry entry : entries) {
-            processEntry(entry);
+            pending.add(entryExecutor.submit(() -> processEntry(entry)));
+        }
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                // Not acked; the entry is reclaimed on a later poll
+                LOG.errorf(e.getCause(), "Monitoring outbox entry failed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
         }
     }
 
@@ -118,7 +159,7 @@ public class MonitoringOutboxWorker {
 
             // Populate transactionContext for Kafka event (moved from AUTH hot path to background worker)
             if (authDecision.getTransactionContext() == null) {
-                authDecision.setTransactionContext(tx.toEvaluationContext());
+                authDecision.setTransactionContext(tx.asEvaluationContext());
             }
 
             // Publish AUTH decision first (as before)
@@ -128,10 +169,16 @@ public class MonitoringOutboxWorker {
             tx.setDecision(authDecision.getDecision());
             String rulesetKey = rulesetKeyResolver.resolve(tx, RuleEvaluator.EVAL_MONITORING);
             String country = tx.getCountryCode();
-            Ruleset ruleset = rulesetRegistry.getRulesetWithFallback(country, rulesetKey);
-            Decision monitoringDecision = ruleset != null
-                    ? ruleEvaluator.evaluate(tx, ruleset, true)
-                    : buildFailOpenDecision(tx, rulesetKey);
+            // Ruleset and field registry from one snapshot
+            RegistrySnapshot registry = rulesetRegistry.snapshot();
+            Ruleset ruleset = registry.getRulesetWithFallback(country, rulesetKey);
+            Decision monitoringDecision;
+            if (ruleset != null) {
+                monitoringDecision = ruleEvaluator.evaluate(tx, ruleset, true);
+                monitoringDecision.setFieldRegistryVersion(registry.fieldRegistryVersion());
+            } else {
+                monitoringDecision = buildFailOpenDecision(tx, rulesetKey);
+            }
             normalizeOutboxEngineMode(monitoringDecision);
 
             // Share velocity snapshot with MONITORING decision
@@ -148,6 +195,40 @@ public class MonitoringOutboxWorker {
         }
     }
 
+    /**
+     * Captures the velocity snapshots of a batch in one Redis round trip (ADR-0017). Entries
+     * left without one are captured individually in {@link #processEntry}.
+     */
+    private void captureVelocitySnapshots(List<OutboxEntry> entries) {
+        List<Decision> decisions = new ArrayList<>(entries.size());
+        List<TransactionContext> transactions = new ArrayList<>(entries.size());
+        for (OutboxEntry entry : entries) {
+            OutboxEvent event = entry.getEvent();
+            if (event == null || event.getTransaction() == null || event.getAuthDecision() == null) {
+                continue;
+            }
+            Decision authDecision = event.getAuthDecision();
+            if (authDecision.getVelocitySnapshot() == null || authDecision.getVelocitySnapshot().isEmpty()) {
+                decisions.add(authDecision);
+                transactions.add(event.getTransaction());
+            }
+        }
+        if (transactions.size() < 2) {
+            return;
+        }
+        try {
+            List<Map<String, Decision.VelocityResult>> snapshots = velocityService.captureVelocitySnapshots(transactions);
+            if (snapshots == null || snapshots.size() != decisions.size()) {
+                return;
+            }
+            for (int i = 0; i < decisions.size(); i++) {
+                decisions.get(i).setVelocitySnapshot(snapshots.get(i));
+            }
+        } catch (Exception ex) {
+            LOG.warnf(ex, "Failed to capture velocity snapshots for %d outbox entries", transactions.size());
+        }
+    }
+
     private void captureVelocitySnapshot(TransactionContext tx, Decision authDecision) {
         try {
             Map<String, Decision.VelocityResult> snapshot = velocityService.captureVelocitySnapshot(tx);
@@ -164,7 +245,7 @@ public class MonitoringOutboxWorker {
         decision.setEngineErrorCode("RULESET_NOT_LOADED");
         decision.setEngineErrorMessage("Ruleset not loaded in registry: " + rulesetKey);
         decision.setRulesetKey(rulesetKey);
-        decision.setTransactionContext(tx.toEvaluationContext());
+        decision.setTransactionContext(tx.asEvaluationContext());
         return decision;
     }
 
@@ -12,10 +12,14 @@ import com.fraud.engine.resource.dto.*;
 import com.fraud.engine.util.DecisionNormalizer;
 import com.fraud.engine.util.EngineMetrics;
 import com.fraud.engine.util.RulesetKeyResolver;
+import com.fraud.engine.util.WorkerThreads;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -53,6 +57,12 @@ public class EvaluationResource {
     @Inject
     EngineMetrics engineMetrics;
 
+    @Inject
+    WorkerThreads workerThreads;
+
+    @ConfigProperty(name = "app.evaluation.monitoring.reactive", defaultValue = "false")
+    boolean reactiveMonitoring;
+
     @POST
     @Path("/monitoring")
     @Operation(
@@ -68,7 +78,7 @@ public class EvaluationResource {
             @APIResponse(responseCode = "400", description = "Invalid request"),
             @APIResponse(responseCode = "500", description = "Internal server error")
     })
-    public Response evaluateMonitoring(
+    public Uni<Response> evaluateMonitoring(
             @RequestBody(
                     description = "Transaction to evaluate",
                     required = true,
@@ -82,13 +92,58 @@ public class EvaluationResource {
 
         String normalizedDecision = DecisionNormalizer.normalizeMONITORINGDecision(transaction.getDecision());
         if (normalizedDecision == null) {
-            return Response.status(Response.Status.BAD_REQUEST)
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse("INVALID_REQUEST", "decision must be APPROVE or DECLINE"))
-                    .build();
+                    .build());
         }
         transaction.setDecision(normalizedDecision);
 
-        return evaluateMonitoringTransaction(transaction);
+        if (reactiveMonitoring) {
+            return evaluateMonitoringTransactionAsync(transaction);
+        }
+        // Blocking mode: the whole evaluation runs on a worker thread, or a virtual thread
+        // when app.virtual-threads.enabled is set
+        return Uni.createFrom().item(() -> evaluateMonitoringTransaction(transaction))
+                .runSubscriptionOn(workerThreads != null
+                        ? workerThreads.requestExecutor()
+                        : Infrastructure.getDefaultWorkerPool());
+    }
+
+    /**
+     * Non-blocking MONITORING evaluation, run on the event loop: conditions are evaluated
+     * in place and the response completes when the velocity reply arrives, so no worker
+     * thread is held while Redis answers.
+     */
+    private Uni<Response> evaluateMonitoringTransactionAsync(TransactionContext transaction) {
+        String rulesetKey;
+        RulesetRegistry.RulesetLookup lookup;
+        double lookupTimeMs;
+        try {
+            rulesetKey = rulesetKeyResolver.resolve(transaction, RuleEvaluator.EVAL_MONITORING);
+
+            String country = transaction != null ? transaction.getCountryCode() : null;
+            long lookupStart = System.nanoTime();
+            lookup = rulesetRegistry.lookup(country, rulesetKey);
+            lookupTimeMs = (System.nanoTime() - lookupStart) / 1_000_000.0;
+        } catch (Exception e) {
+            return Uni.createFrom().item(failureResponse(transaction, e));
+        }
+
+        Ruleset ruleset = lookup.ruleset();
+        if (ruleset == null) {
+            return Uni.createFrom().item(() -> rulesetMissingResponse(transaction, rulesetKey, lookupTimeMs))
+                    .onFailure().recoverWithItem(e -> failureResponse(transaction, e));
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Using ruleset: %s/v%d (non-blocking)", rulesetKey, ruleset.getVersion());
+        }
+        return ruleEvaluator.evaluateAsync(transaction, ruleset)
+                .map(decision -> {
+                    recordTiming(decision, lookup, lookupTimeMs);
+                    persistDecisionOutcome(decision);
+                    return Response.ok(decision).build();
+                })
+                .onFailure().recoverWithItem(e -> failureResponse(transaction, e));
     }
 
     private Response evaluateMonitoringTransaction(TransactionContext transaction) {
@@ -97,7 +152,8 @@ public class EvaluationResource {
 
             String country = transaction != null ? transaction.getCountryCode() : null;
             long lookupStart = System.nanoTime();
-            Ruleset ruleset = rulesetRegistry.getRulesetWithFallback(country, rulesetKey);
+            RulesetRegistry.RulesetLookup lookup = rulesetRegistry.lookup(country, rulesetKey);
+            Ruleset ruleset = lookup.ruleset();
             long lookupEnd = System.nanoTime();
             double lookupTimeMs = (lookupEnd - lookupStart) / 1_000_000.0;
 
@@ -107,53 +163,70 @@ public class EvaluationResource {
                 }
 
                 Decision decision = ruleEvaluator.evaluate(transaction, ruleset);
-
-                com.fraud.engine.domain.TimingBreakdown breakdown = decision.getTimingBreakdown();
-                if (breakdown == null) {
-                    breakdown = new com.fraud.engine.domain.TimingBreakdown();
-                    decision.setTimingBreakdown(breakdown);
-                }
-                breakdown.setRulesetLookupTimeMs(lookupTimeMs);
-                breakdown.setRuleEvaluationTimeMs(decision.getProcessingTimeMs() - lookupTimeMs);
-
-                if (decision.getVelocityResults() != null) {
-                    breakdown.setVelocityCheckCount(decision.getVelocityResults().size());
-                }
+                recordTiming(decision, lookup, lookupTimeMs);
 
                 persistDecisionOutcome(decision);
 
                 return Response.ok(decision).build();
             }
 
-            LOG.errorf("Compiled ruleset not found in registry: %s (was it loaded at startup?)", rulesetKey);
-
-            Decision decision = buildErrorDecision(transaction, rulesetKey);
+            return rulesetMissingResponse(transaction, rulesetKey, lookupTimeMs);
+        } catch (Exception e) {
+            return failureResponse(transaction, e);
+        }
+    }
 
-            com.fraud.engine.domain.TimingBreakdown breakdown = new com.fraud.engine.domain.TimingBreakdown();
-            breakdown.setRulesetLookupTimeMs(lookupTimeMs);
+    private void recordTiming(Decision decision, RulesetRegistry.RulesetLookup lookup, double lookupTimeMs) {
+        com.fraud.engine.domain.TimingBreakdown breakdown = decision.getTimingBreakdown();
+        if (breakdown == null) {
+            breakdown = new com.fraud.engine.domain.TimingBreakdown();
             decision.setTimingBreakdown(breakdown);
+        }
+        breakdown.setRulesetLookupTimeMs(lookupTimeMs);
+        breakdown.setRuleEvaluationTimeMs(decision.getProcessingTimeMs() - lookupTimeMs);
+        if (lookup.fallback()) {
+            breakdown.setRulesetFallbackUsed(true);
+        }
+        // Same snapshot as the ruleset, so this is the registry the ruleset was compiled against
+        decision.setFieldRegistryVersion(lookup.fieldRegistry().version());
 
-            persistDecisionOutcome(decision);
-            return Response.ok(decision).build();
-        } catch (EventPublishException e) {
+        if (decision.getVelocityResults() != null) {
+            breakdown.setVelocityCheckCount(decision.getVelocityResults().size());
+        }
+    }
+
+    private Response rulesetMissingResponse(TransactionContext transaction, String rulesetKey, double lookupTimeMs) {
+        LOG.errorf("Compiled ruleset not found in registry: %s (was it loaded at startup?)", rulesetKey);
+
+        Decision decision = buildErrorDecision(transaction, rulesetKey);
+
+        com.fraud.engine.domain.TimingBreakdown breakdown = new com.fraud.engine.domain.TimingBreakdown();
+        breakdown.setRulesetLookupTimeMs(lookupTimeMs);
+        decision.setTimingBreakdown(breakdown);
+
+        persistDecisionOutcome(decision);
+        return Response.ok(decision).build();
+    }
+
+    private Response failureResponse(TransactionContext transaction, Throwable e) {
+        if (e instanceof EventPublishException) {
             LOG.errorf(e, "Kafka publish failed for MONITORING evaluation");
             Decision degraded = buildErrorDecision(transaction, rulesetKeyResolver.resolve(transaction, RuleEvaluator.EVAL_MONITORING));
             return Response.ok(degraded).build();
-        } catch (Exception e) {
-            LOG.errorf(e, "Error during MONITORING evaluation");
+        }
+        LOG.errorf(e, "Error during MONITORING evaluation");
 
-            Decision decision = buildErrorDecision(transaction, rulesetKeyResolver.resolve(transaction, RuleEvaluator.EVAL_MONITORING));
+        Decision decision = buildErrorDecision(transaction, rulesetKeyResolver.resolve(transaction, RuleEvaluator.EVAL_MONITORING));
 
-            try {
-                persistDecisionOutcome(decision);
-                return Response.ok(decision).build();
-            } catch (EventPublishException persistEx) {
-                LOG.errorf(persistEx, "Kafka publish failed while handling evaluation error");
-                return Response.ok(decision).build();
-            } catch (Exception persistEx) {
-                LOG.errorf(persistEx, "Failed to persist MONITORING decision");
-                return Response.ok(decision).build();
-            }
+        try {
+            persistDecisionOutcome(decision);
+            return Response.ok(decision).build();
+        } catch (EventPublishException persistEx) {
+            LOG.errorf(persistEx, "Kafka publish failed while handling evaluation error");
+            return Response.ok(decision).build();
+        } catch (Exception persistEx) {
+            LOG.errorf(persistEx, "Failed to persist MONITORING decision");
+            return Response.ok(decision).build();
         }
     }
 
@@ -167,7 +240,7 @@ public class EvaluationResource {
         decision.setEngineErrorMessage("Internal evaluation error");
         decision.setRulesetKey(rulesetKey);
         if (transaction != null) {
-            decision.setTransactionContext(transaction.toEvaluationContext());
+            decision.setTransactionContext(transaction.asEvaluationContext());
         }
         engineMetrics.incrementDegraded();
         return decision;
@@ -7,11 +7,14 @@ import com.fraud.engine.engine.RuleEvaluator;
 import com.fraud.engine.resource.dto.*;
 import com.fraud.engine.ruleset.RulesetLoader;
 import com.fraud.engine.util.EngineMetrics;
+import com.fraud.engine.util.WorkerThreads;
 import com.fraud.engine.service.FieldRegistryService;
 import com.fraud.engine.simulation.SimulationService;
 import com.fraud.engine.simulation.SimulationService.SimulationResult;
 import com.fraud.engine.startup.S3StartupValidator;
 import com.fraud.engine.watcher.FieldRegistryWatcher;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -27,6 +30,7 @@ import org.jboss.logging.Logger;
 
 import java.lang.management.ManagementFactory;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Management and Replay API for the card fraud rule engine.
@@ -40,6 +44,10 @@ import java.util.Optional;
  *
  * <p><b>Priority Handling:</b> Replay traffic can be configured with lower priority
  * than production traffic via rate limiting or separate request pools.
+ *
+ * <p>Replay and simulation block on ruleset loads and evaluation, so they run off the
+ * event loop: on the worker pool, or on virtual threads when
+ * {@code app.virtual-threads.enabled} is set.
  */
 @Path("/v1/manage")
 @Produces(MediaType.APPLICATION_JSON)
@@ -70,6 +78,9 @@ public class ManagementResource {
     @Inject
     EngineMetrics engineMetrics;
 
+    @Inject
+    WorkerThreads workerThreads;
+
     /**
      * Replays a transaction against the ruleset without side effects.
      * <p>
@@ -93,14 +104,17 @@ public class ManagementResource {
     @APIResponses({
             @APIResponse(responseCode = "200", description = "Replay successful")
     })
-    public Response replayTransaction(
+    public Uni<Response> replayTransaction(
             @RequestBody(
                     description = "Transaction to replay",
                     required = true,
                     content = @Content(schema = @Schema(implementation = TransactionContext.class))
             )
             ReplayRequest request) {
+        return offload(() -> replay(request));
+    }
 
+    private Response replay(ReplayRequest request) {
         LOG.infof("Replay request: transactionId=%s, rulesetKey=%s, version=%d",
                 request.transactionId, request.rulesetKey, request.version);
 
@@ -150,7 +164,11 @@ public class ManagementResource {
     @Path("/replay/batch")
     @Operation(summary = "Batch replay", description = "Replay multiple transactions")
     @APIResponse(responseCode = "200", description = "Batch replay complete")
-    public Response replayBatch(BatchReplayRequest request) {
+    public Uni<Response> replayBatch(BatchReplayRequest request) {
+        return offload(() -> replayAll(request));
+    }
+
+    private Response replayAll(BatchReplayRequest request) {
         LOG.infof("Batch replay request: %d transactions", request.transactions.size());
 
         BatchReplayResponse response = new BatchReplayResponse();
@@ -199,7 +217,11 @@ public class ManagementResource {
     @Operation(summary = "Simulate with custom ruleset", description = "Test with ad-hoc ruleset content")
     @APIResponse(responseCode = "200", description = "Simulation complete")
     @APIResponse(responseCode = "400", description = "Invalid ruleset YAML")
-    public Response simulate(SimulationRequest request) {
+    public Uni<Response> simulate(SimulationRequest request) {
+        return offload(() -> runSimulation(request));
+    }
+
+    private Response runSimulation(SimulationRequest request) {
         try {
             SimulationService.SimulationResult result = simulationService.simulate(
                     request.getTransaction(),
@@ -241,6 +263,16 @@ public class ManagementResource {
         }
     }
 
+    /**
+     * Runs a blocking handler off the event loop.
+     */
+    private Uni<Response> offload(Supplier<Response> handler) {
+        return Uni.createFrom().item(handler)
+                .runSubscriptionOn(workerThreads != null
+                        ? workerThreads.requestExecutor()
+                        : Infrastructure.getDefaultWorkerPool());
+    }
+
     /**
      * Gets metrics about the rule engine performance.
      */
@@ -268,6 +300,7 @@ public class ManagementResource {
 
         // Engine counters
         metrics.engineCounters = engineMetrics.snapshot();
+        metrics.engineCounters.putAll(Ruleset.scopeCacheMetrics());
 
         return Response.ok(metrics).build();
     }
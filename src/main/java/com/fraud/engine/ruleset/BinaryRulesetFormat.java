@@ -0,0 +1,94 @@
+package com.fraud.engine.ruleset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the binary compiled-ruleset artifact ({@code ruleset.bin}).
+ * <p>
+ * The file is built for {@code FileChannel.map}: every section is found through absolute
+ * offsets, so a reader touches only the pages it decodes and several versions mapped from
+ * the local artifact cache share the OS page cache. All integers are big-endian.
+ *
+ * <pre>
+ * header (64 bytes)
+ *   0  int   magic "FRBR"
+ *   4  u16   major version (readers reject other majors)
+ *   6  u16   minor version (additive changes only)
+ *   8  int   flags (0)
+ *   12 int   string ref: ruleset_key
+ *   16 int   string ref: ruleset_id
+ *   20 int   string ref: execution_mode
+ *   24 int   string ref: evaluation.mode
+ *   28 int   string ref: evaluation engine
+ *   32 int   string ref: rule_type
+ *   36 byte  ruleset_version present (0/1), then 3 bytes padding
+ *   40 int   ruleset_version
+ *   44 int   offset of the string table
+ *   48 int   offset of the predicate table
+ *   52 int   offset of the scope index
+ *   56 int   offset of the rule table
+ *   60 int   total length in bytes
+ *
+ * each table: int count, int[count] absolute entry offsets, entries
+ *
+ * string     int byte length, UTF-8 bytes                     (ref -1 = null)
+ * predicate  string ref field, string ref operator (enum name), value, values
+ * scope      byte scope type, string ref value, values list, dimensions
+ *              values list: int n (-1 = null), n string refs
+ *              dimensions:  int n (-1 = null), n x (string ref key, values list)
+ * rule       string ref id, string ref action, int priority, byte enabled,
+ *            string ref rule_version_id, byte+int rule_version,
+ *            int scope index (-1 = GLOBAL),
+ *            byte velocity present [string ref dimension, int window_seconds,
+ *                                   int threshold, string ref action],
+ *            int n, n predicate indexes (leaf conditions in authoring order),
+ *            condition tree
+ *
+ * value      byte tag, then: STRING string ref | INT int | LONG long | DOUBLE double |
+ *            BIG_INTEGER string ref (decimal) | LIST int n, n values |
+ *            MAP int n, n x (string ref key, value) | NULL, TRUE, FALSE: nothing
+ * tree node  byte kind, then: LEAF int predicate index | AND, OR int n, n nodes |
+ *            NOT one node | TRUE, FALSE: nothing
+ * </pre>
+ * Identical strings, predicates and scopes are stored once, so a leaf repeated across
+ * rules is decoded and compiled once.
+ */
+final class BinaryRulesetFormat {
+
+    static final int MAGIC = 0x46524252; // "FRBR"
+    static final int MAJOR_VERSION = 1;
+    static final int MINOR_VERSION = 0;
+    static final int HEADER_SIZE = 64;
+
+    static final int NO_REF = -1;
+
+    static final byte VALUE_NULL = 0;
+    static final byte VALUE_STRING = 1;
+    static final byte VALUE_INT = 2;
+    static final byte VALUE_LONG = 3;
+    static final byte VALUE_DOUBLE = 4;
+    static final byte VALUE_TRUE = 5;
+    static final byte VALUE_FALSE = 6;
+    static final byte VALUE_BIG_INTEGER = 7;
+    static final byte VALUE_LIST = 8;
+    static final byte VALUE_MAP = 9;
+
+    static final byte NODE_FALSE = 0;
+    static final byte NODE_TRUE = 1;
+    static final byte NODE_LEAF = 2;
+    static final byte NODE_AND = 3;
+    static final byte NODE_OR = 4;
+    static final byte NODE_NOT = 5;
+
+    private BinaryRulesetFormat() {
+    }
+
+    /**
+     * @param artifact artifact bytes (not consumed)
+     * @return true if the bytes start with the binary artifact magic
+     */
+    static boolean isBinary(ByteBuffer artifact) {
+        return artifact.remaining() >= HEADER_SIZE
+                && artifact.getInt(artifact.position()) == MAGIC;
+    }
+}
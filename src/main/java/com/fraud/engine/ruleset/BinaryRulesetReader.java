@@ -0,0 +1,331 @@
+package com.fraud.engine.ruleset;
+
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.RuleScope;
+import com.fraud.engine.domain.VelocityConfig;
+import com.fraud.engine.engine.ConditionCompiler;
+
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+
+import static com.fraud.engine.ruleset.BinaryRulesetFormat.*;
+
+/**
+ * Decodes a {@link BinaryRulesetFormat} artifact, typically a read-only mapped file.
+ * <p>
+ * Everything is read with absolute gets straight from the buffer; nothing is copied up
+ * front. Strings, predicates and scopes are decoded on first reference and then shared,
+ * so a leaf repeated across rules becomes one {@link Condition} and one compiled lambda
+ * (the same sharing {@code PredicateTable} would otherwise set up after the fact). Rules
+ * themselves are all decoded, since the load-time passes need every rule.
+ */
+final class BinaryRulesetReader {
+
+    private final ByteBuffer buf;
+    private final int stringsAt;
+    private final int predicatesAt;
+    private final int scopesAt;
+
+    private final String[] strings;
+    private final Condition[] conditions;
+    private final ConditionNode.Leaf[] leaves;
+    private final RuleScope[] scopes;
+
+    /** Read position for sequential decoding of one entry. */
+    private final class Cursor {
+        int pos;
+
+        Cursor(int pos) {
+            this.pos = pos;
+        }
+
+        byte u8() {
+            return buf.get(pos++);
+        }
+
+        int i32() {
+            int v = buf.getInt(pos);
+            pos += 4;
+            return v;
+        }
+
+        long i64() {
+            long v = buf.getLong(pos);
+            pos += 8;
+            return v;
+        }
+
+        double f64() {
+            double v = buf.getDouble(pos);
+            pos += 8;
+            return v;
+        }
+
+        String str() {
+            return string(i32());
+        }
+    }
+
+    private BinaryRulesetReader(ByteBuffer buffer) {
+        this.buf = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        if (buf.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a binary ruleset artifact");
+        }
+        int major = Short.toUnsignedInt(buf.getShort(4));
+        if (major != MAJOR_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary ruleset format version " + major
+                    + " (supported: " + MAJOR_VERSION + ")");
+        }
+        int length = buf.getInt(60);
+        if (length != buf.remaining()) {
+            throw new IllegalArgumentException("Binary ruleset artifact is " + buf.remaining()
+                    + " bytes, header says " + length);
+        }
+        this.stringsAt = buf.getInt(44);
+        this.predicatesAt = buf.getInt(48);
+        this.scopesAt = buf.getInt(52);
+        this.strings = new String[count(stringsAt)];
+        this.conditions = new Condition[count(predicatesAt)];
+        this.leaves = new ConditionNode.Leaf[conditions.length];
+        this.scopes = new RuleScope[count(scopesAt)];
+    }
+
+    /**
+     * @param buffer the artifact, positioned at its first byte (not consumed)
+     * @return the decoded artifact
+     * @throws IllegalArgumentException if the bytes are not a supported binary artifact,
+     *         are truncated, or hold an invalid REGEX pattern
+     */
+    static ParsedArtifact read(ByteBuffer buffer) {
+        try {
+            return new BinaryRulesetReader(buffer).readArtifact();
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Corrupt binary ruleset artifact: " + e, e);
+        }
+    }
+
+    private ParsedArtifact readArtifact() {
+        int rulesAt = buf.getInt(56);
+        int ruleCount = count(rulesAt);
+        List<Rule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(readRule(new Cursor(entryOffset(rulesAt, i))));
+        }
+        Integer version = buf.get(36) != 0 ? buf.getInt(40) : null;
+        return new ParsedArtifact(
+                string(buf.getInt(12)),
+                version,
+                string(buf.getInt(16)),
+                string(buf.getInt(20)),
+                string(buf.getInt(24)),
+                string(buf.getInt(28)),
+                string(buf.getInt(32)),
+                rules);
+    }
+
+    private Rule readRule(Cursor in) {
+        String id = in.str();
+        String action = in.str();
+        int priority = in.i32();
+        boolean enabled = in.u8() != 0;
+        String ruleVersionId = in.str();
+        boolean hasRuleVersion = in.u8() != 0;
+        int ruleVersion = in.i32();
+        int scopeIndex = in.i32();
+
+        VelocityConfig velocity = null;
+        if (in.u8() != 0) {
+            String dimension = in.str();
+            int windowSeconds = in.i32();
+            int threshold = in.i32();
+            velocity = new VelocityConfig(dimension, windowSeconds, threshold, in.str());
+        }
+
+        int leafCount = in.i32();
+        List<Condition> ruleConditions = new ArrayList<>(leafCount);
+        for (int i = 0; i < leafCount; i++) {
+            ruleConditions.add(condition(in.i32()));
+        }
+        ConditionNode tree;
+        try {
+            tree = readNode(in);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Rule " + id + " has an invalid REGEX pattern: "
+                    + e.getMessage(), e);
+        }
+
+        Rule rule = new Rule(id, id, action);
+        rule.setPriority(priority);
+        rule.setEnabled(enabled);
+        rule.setConditions(ruleConditions);
+        rule.setConditionTree(tree);
+        rule.setCompiledCondition(ConditionCompiler.compileTree(tree));
+        rule.setVelocity(velocity);
+        rule.setScope(scopeIndex < 0 ? RuleScope.GLOBAL : scope(scopeIndex));
+        rule.setRuleVersionId(ruleVersionId);
+        rule.setRuleVersion(hasRuleVersion ? ruleVersion : null);
+        return rule;
+    }
+
+    private ConditionNode readNode(Cursor in) {
+        byte kind = in.u8();
+        return switch (kind) {
+            case NODE_TRUE -> ConditionNode.ALWAYS_TRUE;
+            case NODE_FALSE -> new ConditionNode.Constant(false);
+            case NODE_LEAF -> leaf(in.i32());
+            case NODE_AND, NODE_OR -> {
+                int n = in.i32();
+                List<ConditionNode> children = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    children.add(readNode(in));
+                }
+                yield kind == NODE_AND ? new ConditionNode.And(children) : new ConditionNode.Or(children);
+            }
+            case NODE_NOT -> new ConditionNode.Not(readNode(in));
+            default -> throw new IllegalArgumentException("Unknown condition node kind " + kind);
+        };
+    }
+
+    private ConditionNode.Leaf leaf(int index) {
+        ConditionNode.Leaf leaf = leaves[index];
+        if (leaf == null) {
+            Condition condition = condition(index);
+            leaf = new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+            leaves[index] = leaf;
+        }
+        return leaf;
+    }
+
+    private Condition condition(int index) {
+        Condition condition = conditions[index];
+        if (condition == null) {
+            Cursor in = new Cursor(entryOffset(predicatesAt, index));
+            condition = new Condition();
+            condition.setField(in.str());
+            String operator = in.str();
+            condition.setOperatorEnum(operator != null ? Condition.Operator.valueOf(operator) : null);
+            Object value = readValue(in);
+            if (value != null) {
+                condition.setValue(value);
+            }
+            Object values = readValue(in);
+            if (values != null) {
+                condition.setValues(values);
+            }
+            conditions[index] = condition;
+        }
+        return condition;
+    }
+
+    private RuleScope scope(int index) {
+        RuleScope scope = scopes[index];
+        if (scope == null) {
+            Cursor in = new Cursor(entryOffset(scopesAt, index));
+            RuleScope.Type type = RuleScope.Type.values()[in.u8()];
+            String value = in.str();
+            Set<String> values = readStringSet(in);
+            int dimensionCount = in.i32();
+            Map<String, Set<String>> dimensions = null;
+            if (dimensionCount >= 0) {
+                dimensions = new LinkedHashMap<>();
+                for (int i = 0; i < dimensionCount; i++) {
+                    String key = in.str();
+                    dimensions.put(key, readStringSet(in));
+                }
+            }
+            if (type == RuleScope.Type.GLOBAL) {
+                scope = RuleScope.GLOBAL;
+            } else if (type == RuleScope.Type.COMBINED) {
+                scope = RuleScope.combined(dimensions);
+            } else if (value != null) {
+                scope = new RuleScope(type, value);
+            } else {
+                scope = new RuleScope(type, values);
+            }
+            scopes[index] = scope;
+        }
+        return scope;
+    }
+
+    private Set<String> readStringSet(Cursor in) {
+        int n = in.i32();
+        if (n < 0) {
+            return null;
+        }
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            values.add(in.str());
+        }
+        return values;
+    }
+
+    private Object readValue(Cursor in) {
+        byte tag = in.u8();
+        return switch (tag) {
+            case VALUE_NULL -> null;
+            case VALUE_STRING -> in.str();
+            case VALUE_INT -> in.i32();
+            case VALUE_LONG -> in.i64();
+            case VALUE_DOUBLE -> in.f64();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_BIG_INTEGER -> new BigInteger(in.str());
+            case VALUE_LIST -> {
+                int n = in.i32();
+                List<Object> list = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    list.add(readValue(in));
+                }
+                yield list;
+            }
+            case VALUE_MAP -> {
+                int n = in.i32();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < n; i++) {
+                    String key = in.str();
+                    map.put(key, readValue(in));
+                }
+                yield map;
+            }
+            default -> throw new IllegalArgumentException("Unknown value tag " + tag);
+        };
+    }
+
+    private String string(int ref) {
+        if (ref == NO_REF) {
+            return null;
+        }
+        String s = strings[ref];
+        if (s == null) {
+            int at = entryOffset(stringsAt, ref);
+            byte[] utf8 = new byte[buf.getInt(at)];
+            buf.get(at + 4, utf8);
+            s = new String(utf8, StandardCharsets.UTF_8);
+            strings[ref] = s;
+        }
+        return s;
+    }
+
+    private int count(int tableAt) {
+        return buf.getInt(tableAt);
+    }
+
+    private int entryOffset(int tableAt, int index) {
+        if (index < 0 || index >= count(tableAt)) {
+            throw new IndexOutOfBoundsException("Entry " + index + " of table at " + tableAt);
+        }
+        return buf.getInt(tableAt + 4 + 4 * index);
+    }
+}
@@ -0,0 +1,311 @@
+package com.fraud.engine.ruleset;
+
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.RuleScope;
+import com.fraud.engine.domain.VelocityConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.fraud.engine.ruleset.BinaryRulesetFormat.*;
+
+/**
+ * Encodes a {@link ParsedArtifact} in the {@link BinaryRulesetFormat}.
+ * <p>
+ * Takes the rules as the JSON parser produced them (before the load-time passes rewrite
+ * their condition trees). Strings, predicates and scopes are interned so each distinct one
+ * is written once.
+ */
+final class BinaryRulesetWriter {
+
+    private record PredicateKey(String field, Condition.Operator operator, Object value, Object values) {
+        static PredicateKey of(Condition condition) {
+            return new PredicateKey(condition.getField(), condition.getOperatorEnum(),
+                    condition.getValue(), condition.getValues());
+        }
+    }
+
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<PredicateKey, Integer> predicateIds = new HashMap<>();
+    private final List<Condition> predicates = new ArrayList<>();
+    private final Map<RuleScope, Integer> scopeIds = new HashMap<>();
+    private final List<RuleScope> scopes = new ArrayList<>();
+
+    private BinaryRulesetWriter() {
+    }
+
+    /**
+     * @param artifact parsed artifact whose rules still carry their authored condition trees
+     * @return the binary artifact
+     * @throws IllegalArgumentException if a condition value has a type the format cannot hold
+     */
+    static byte[] write(ParsedArtifact artifact) {
+        return new BinaryRulesetWriter().encode(artifact);
+    }
+
+    private byte[] encode(ParsedArtifact artifact) {
+        // Rules first: encoding them interns the predicates, scopes and strings they use
+        List<byte[]> ruleEntries = new ArrayList<>(artifact.rules().size());
+        for (Rule rule : artifact.rules()) {
+            ruleEntries.add(entry(out -> writeRule(out, rule)));
+        }
+        List<byte[]> predicateEntries = new ArrayList<>(predicates.size());
+        for (int i = 0; i < predicates.size(); i++) {
+            Condition condition = predicates.get(i);
+            predicateEntries.add(entry(out -> writePredicate(out, condition)));
+        }
+        List<byte[]> scopeEntries = new ArrayList<>(scopes.size());
+        for (int i = 0; i < scopes.size(); i++) {
+            RuleScope scope = scopes.get(i);
+            scopeEntries.add(entry(out -> writeScope(out, scope)));
+        }
+        int[] header = {
+                ref(artifact.rulesetKey()), ref(artifact.rulesetId()), ref(artifact.executionMode()),
+                ref(artifact.evaluationMode()), ref(artifact.evaluationEngine()), ref(artifact.ruleType())
+        };
+        List<byte[]> stringEntries = new ArrayList<>(strings.size());
+        for (String s : strings) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            stringEntries.add(entry(out -> {
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }));
+        }
+
+        int stringsAt = HEADER_SIZE;
+        int predicatesAt = stringsAt + sectionSize(stringEntries);
+        int scopesAt = predicatesAt + sectionSize(predicateEntries);
+        int rulesAt = scopesAt + sectionSize(scopeEntries);
+        int length = rulesAt + sectionSize(ruleEntries);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(MINOR_VERSION);
+            out.writeInt(0);
+            for (int ref : header) {
+                out.writeInt(ref);
+            }
+            out.writeByte(artifact.version() != null ? 1 : 0);
+            out.write(new byte[3]);
+            out.writeInt(artifact.version() != null ? artifact.version() : 0);
+            out.writeInt(stringsAt);
+            out.writeInt(predicatesAt);
+            out.writeInt(scopesAt);
+            out.writeInt(rulesAt);
+            out.writeInt(length);
+            writeSection(out, stringsAt, stringEntries);
+            writeSection(out, predicatesAt, predicateEntries);
+            writeSection(out, scopesAt, scopeEntries);
+            writeSection(out, rulesAt, ruleEntries);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeRule(DataOutputStream out, Rule rule) throws IOException {
+        out.writeInt(ref(rule.getId()));
+        out.writeInt(ref(rule.getAction()));
+        out.writeInt(rule.getPriority());
+        out.writeByte(rule.isEnabled() ? 1 : 0);
+        out.writeInt(ref(rule.getRuleVersionId()));
+        out.writeByte(rule.getRuleVersion() != null ? 1 : 0);
+        out.writeInt(rule.getRuleVersion() != null ? rule.getRuleVersion() : 0);
+
+        RuleScope scope = rule.getScope();
+        out.writeInt(scope == null || scope.isGlobal() ? NO_REF : scopeId(scope));
+
+        VelocityConfig velocity = rule.getVelocity();
+        out.writeByte(velocity != null ? 1 : 0);
+        if (velocity != null) {
+            out.writeInt(ref(velocity.getDimension()));
+            out.writeInt(velocity.getWindowSeconds());
+            out.writeInt(velocity.getThreshold());
+            out.writeInt(ref(velocity.getAction()));
+        }
+
+        List<Condition> conditions = rule.getConditions() != null ? rule.getConditions() : List.of();
+        out.writeInt(conditions.size());
+        for (Condition condition : conditions) {
+            out.writeInt(predicateId(condition));
+        }
+        writeNode(out, rule.getConditionTree() != null ? rule.getConditionTree() : ConditionNode.ALWAYS_TRUE);
+    }
+
+    private void writeNode(DataOutputStream out, ConditionNode node) throws IOException {
+        switch (node) {
+            case ConditionNode.Constant constant -> out.writeByte(constant.value() ? NODE_TRUE : NODE_FALSE);
+            case ConditionNode.Leaf leaf -> {
+                out.writeByte(NODE_LEAF);
+                out.writeInt(predicateId(leaf.condition()));
+            }
+            case ConditionNode.And and -> writeChildren(out, NODE_AND, and.children());
+            case ConditionNode.Or or -> writeChildren(out, NODE_OR, or.children());
+            case ConditionNode.Not not -> {
+                out.writeByte(NODE_NOT);
+                writeNode(out, not.child());
+            }
+        }
+    }
+
+    private void writeChildren(DataOutputStream out, byte kind, List<ConditionNode> children) throws IOException {
+        out.writeByte(kind);
+        out.writeInt(children.size());
+        for (ConditionNode child : children) {
+            writeNode(out, child);
+        }
+    }
+
+    private void writePredicate(DataOutputStream out, Condition condition) throws IOException {
+        out.writeInt(ref(condition.getField()));
+        out.writeInt(ref(condition.getOperatorEnum() != null ? condition.getOperatorEnum().name() : null));
+        writeValue(out, condition.getValue());
+        writeValue(out, condition.getValues());
+    }
+
+    private void writeScope(DataOutputStream out, RuleScope scope) throws IOException {
+        out.writeByte(scope.getType().ordinal());
+        out.writeInt(ref(scope.getValue()));
+        writeStringSet(out, scope.getValues());
+        Map<String, Set<String>> dimensions = scope.getDimensions();
+        if (dimensions == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(dimensions.size());
+        for (String key : new TreeSet<>(dimensions.keySet())) {
+            out.writeInt(ref(key));
+            writeStringSet(out, dimensions.get(key));
+        }
+    }
+
+    private void writeStringSet(DataOutputStream out, Set<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        // Sorted so equal scopes always encode to the same bytes
+        for (String value : new TreeSet<>(values)) {
+            out.writeInt(ref(value));
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(VALUE_NULL);
+            case String s -> {
+                out.writeByte(VALUE_STRING);
+                out.writeInt(ref(s));
+            }
+            case Integer i -> {
+                out.writeByte(VALUE_INT);
+                out.writeInt(i);
+            }
+            case Long l -> {
+                out.writeByte(VALUE_LONG);
+                out.writeLong(l);
+            }
+            case Double d -> {
+                out.writeByte(VALUE_DOUBLE);
+                out.writeDouble(d);
+            }
+            case Boolean b -> out.writeByte(b ? VALUE_TRUE : VALUE_FALSE);
+            case BigInteger big -> {
+                out.writeByte(VALUE_BIG_INTEGER);
+                out.writeInt(ref(big.toString()));
+            }
+            case List<?> list -> {
+                out.writeByte(VALUE_LIST);
+                out.writeInt(list.size());
+                for (Object item : list) {
+                    writeValue(out, item);
+                }
+            }
+            case Map<?, ?> map -> {
+                out.writeByte(VALUE_MAP);
+                out.writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    out.writeInt(ref(String.valueOf(entry.getKey())));
+                    writeValue(out, entry.getValue());
+                }
+            }
+            default -> throw new IllegalArgumentException(
+                    "Unsupported condition value type: " + value.getClass().getName());
+        }
+    }
+
+    private int ref(String s) {
+        if (s == null) {
+            return NO_REF;
+        }
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    private int predicateId(Condition condition) {
+        return predicateIds.computeIfAbsent(PredicateKey.of(condition), k -> {
+            predicates.add(condition);
+            return predicates.size() - 1;
+        });
+    }
+
+    private int scopeId(RuleScope scope) {
+        return scopeIds.computeIfAbsent(scope, k -> {
+            scopes.add(scope);
+            return scopes.size() - 1;
+        });
+    }
+
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] entry(EntryWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int sectionSize(List<byte[]> entries) {
+        int size = 4 + 4 * entries.size();
+        for (byte[] entry : entries) {
+            size += entry.length;
+        }
+        return size;
+    }
+
+    private static void writeSection(DataOutputStream out, int sectionAt, List<byte[]> entries) throws IOException {
+        out.writeInt(entries.size());
+        int offset = sectionAt + 4 + 4 * entries.size();
+        for (byte[] entry : entries) {
+            out.writeInt(offset);
+            offset += entry.length;
+        }
+        for (byte[] entry : entries) {
+            out.write(entry);
+        }
+    }
+}
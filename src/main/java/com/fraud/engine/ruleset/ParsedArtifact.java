@@ -0,0 +1,30 @@
+package com.fraud.engine.ruleset;
+
+import com.fraud.engine.domain.Rule;
+
+import java.util.List;
+
+/**
+ * Contents of a compiled ruleset artifact, JSON or binary, before the load-time passes
+ * (pattern groups, shared predicates, predicate index, pre-sort) that
+ * {@link RulesetLoader} runs on it. Evaluation type and engine are resolved by the loader,
+ * which owns the defaults.
+ *
+ * @param rulesetKey {@code ruleset_key}, or null
+ * @param version {@code ruleset_version}, or null
+ * @param rulesetId {@code ruleset_id}, or null
+ * @param executionMode {@code execution_mode}, or null
+ * @param evaluationMode {@code evaluation.mode}, or null
+ * @param evaluationEngine {@code evaluation_engine} / {@code evaluation.engine}, or null
+ * @param ruleType {@code rule_type}, or null
+ * @param rules the rules, with condition trees and compiled conditions
+ */
+record ParsedArtifact(String rulesetKey,
+                      Integer version,
+                      String rulesetId,
+                      String executionMode,
+                      String evaluationMode,
+                      String evaluationEngine,
+                      String ruleType,
+                      List<Rule> rules) {
+}
@@ -0,0 +1,212 @@
+package com.fraud.engine.ruleset;
+
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.service.FieldRegistrySnapshot;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of every registered ruleset, published by {@link RulesetRegistry} as a
+ * whole.
+ * <p>
+ * Holds the field registry the rulesets were compiled against and two flat tables:
+ * <ul>
+ *   <li>{@code exact}: (country, key) to the ruleset registered under that country</li>
+ *   <li>{@code resolved}: (country, key) to the country's ruleset or, if it has none for
+ *       the key, the global one (ADR-0016 fallback, computed once here instead of per
+ *       request)</li>
+ * </ul>
+ * A reader that grabs one snapshot sees rulesets and field registry from the same
+ * publication. Writers never modify a snapshot; they build the next one and the registry
+ * swaps it in with a single volatile write.
+ */
+public final class RegistrySnapshot {
+
+    /** Namespace used when no country is given and for fallback. */
+    public static final String GLOBAL = "global";
+
+    static final RegistrySnapshot EMPTY = new RegistrySnapshot(Map.of(), FieldRegistrySnapshot.EMPTY);
+
+    private record Key(String country, String rulesetKey) {
+    }
+
+    private final Map<String, Map<String, Ruleset>> byCountry;
+    private final Map<Key, Ruleset> exact;
+    private final Map<Key, Ruleset> resolved;
+    private final FieldRegistrySnapshot fieldRegistry;
+    private final int size;
+
+    private RegistrySnapshot(Map<String, Map<String, Ruleset>> byCountry, FieldRegistrySnapshot fieldRegistry) {
+        this.byCountry = byCountry;
+        this.fieldRegistry = fieldRegistry;
+
+        Map<Key, Ruleset> exactTable = new HashMap<>();
+        Map<Key, Ruleset> resolvedTable = new HashMap<>();
+        Map<String, Ruleset> global = byCountry.getOrDefault(GLOBAL, Map.of());
+        int count = 0;
+        for (Map.Entry<String, Map<String, Ruleset>> country : byCountry.entrySet()) {
+            for (Map.Entry<String, Ruleset> entry : country.getValue().entrySet()) {
+                exactTable.put(new Key(country.getKey(), entry.getKey()), entry.getValue());
+                count++;
+            }
+            if (!GLOBAL.equals(country.getKey())) {
+                for (Map.Entry<String, Ruleset> entry : global.entrySet()) {
+                    resolvedTable.put(new Key(country.getKey(), entry.getKey()), entry.getValue());
+                }
+                for (Map.Entry<String, Ruleset> entry : country.getValue().entrySet()) {
+                    resolvedTable.put(new Key(country.getKey(), entry.getKey()), entry.getValue());
+                }
+            }
+        }
+        this.exact = Map.copyOf(exactTable);
+        this.resolved = Map.copyOf(resolvedTable);
+        this.size = count;
+    }
+
+    /**
+     * Gets the ruleset registered under exactly this country and key.
+     *
+     * @param country the country namespace
+     * @param rulesetKey the ruleset key
+     * @return the ruleset, or null
+     */
+    public Ruleset getRuleset(String country, String rulesetKey) {
+        if (country == null || rulesetKey == null) {
+            return null;
+        }
+        return exact.get(new Key(country, rulesetKey));
+    }
+
+    /**
+     * Gets the country's ruleset, falling back to the global namespace (ADR-0016).
+     * One table lookup for countries with registered rulesets; countries without any go
+     * straight to the global entry.
+     *
+     * @param country the transaction's country code (any case), may be null
+     * @param rulesetKey the ruleset key
+     * @return the ruleset, or null if neither namespace has it
+     */
+    public Ruleset getRulesetWithFallback(String country, String rulesetKey) {
+        if (rulesetKey == null) {
+            return null;
+        }
+        if (country != null && !country.isBlank() && !GLOBAL.equalsIgnoreCase(country)) {
+            // OPT-16: Add Locale.ROOT to toUpperCase for locale-independent conversion
+            Ruleset ruleset = resolved.get(new Key(country.toUpperCase(Locale.ROOT), rulesetKey));
+            if (ruleset != null) {
+                return ruleset;
+            }
+        }
+        return exact.get(new Key(GLOBAL, rulesetKey));
+    }
+
+    /**
+     * @return field registry published together with these rulesets (empty if never set)
+     */
+    public FieldRegistrySnapshot fieldRegistry() {
+        return fieldRegistry;
+    }
+
+    /**
+     * @return version of {@link #fieldRegistry()} (0 if never set)
+     */
+    public int fieldRegistryVersion() {
+        return fieldRegistry.version();
+    }
+
+    /**
+     * @return country namespaces that hold at least one ruleset
+     */
+    public Set<String> countries() {
+        return byCountry.keySet();
+    }
+
+    /**
+     * @param country the country namespace
+     * @return ruleset keys registered under it
+     */
+    public Set<String> rulesetKeys(String country) {
+        Map<String, Ruleset> rulesets = byCountry.get(country);
+        return rulesets != null ? rulesets.keySet() : Set.of();
+    }
+
+    /**
+     * @return country namespace to key to ruleset
+     */
+    public Map<String, Map<String, Ruleset>> rulesetsByCountry() {
+        return byCountry;
+    }
+
+    /**
+     * @return total number of registered rulesets
+     */
+    public int size() {
+        return size;
+    }
+
+    // ========== Copy-on-write updates ==========
+
+    RegistrySnapshot with(String country, Ruleset ruleset) {
+        Map<String, Map<String, Ruleset>> next = mutableCopy();
+        next.computeIfAbsent(country, k -> new LinkedHashMap<>()).put(ruleset.getKey(), ruleset);
+        return new RegistrySnapshot(freeze(next), fieldRegistry);
+    }
+
+    RegistrySnapshot withAll(Map<String, ? extends Map<String, Ruleset>> rulesets,
+                             FieldRegistrySnapshot newFieldRegistry) {
+        Map<String, Map<String, Ruleset>> next = mutableCopy();
+        for (Map.Entry<String, ? extends Map<String, Ruleset>> country : rulesets.entrySet()) {
+            next.computeIfAbsent(country.getKey(), k -> new LinkedHashMap<>()).putAll(country.getValue());
+        }
+        return new RegistrySnapshot(freeze(next), newFieldRegistry);
+    }
+
+    RegistrySnapshot without(String country, String rulesetKey) {
+        Map<String, Map<String, Ruleset>> next = mutableCopy();
+        Map<String, Ruleset> rulesets = next.get(country);
+        if (rulesets == null || rulesets.remove(rulesetKey) == null) {
+            return this;
+        }
+        if (rulesets.isEmpty()) {
+            next.remove(country);
+        }
+        return new RegistrySnapshot(freeze(next), fieldRegistry);
+    }
+
+    RegistrySnapshot withoutCountry(String country) {
+        if (!byCountry.containsKey(country)) {
+            return this;
+        }
+        Map<String, Map<String, Ruleset>> next = mutableCopy();
+        next.remove(country);
+        return new RegistrySnapshot(freeze(next), fieldRegistry);
+    }
+
+    RegistrySnapshot withFieldRegistry(FieldRegistrySnapshot newFieldRegistry) {
+        return new RegistrySnapshot(byCountry, newFieldRegistry);
+    }
+
+    RegistrySnapshot cleared() {
+        return new RegistrySnapshot(Map.of(), fieldRegistry);
+    }
+
+    private Map<String, Map<String, Ruleset>> mutableCopy() {
+        Map<String, Map<String, Ruleset>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Ruleset>> country : byCountry.entrySet()) {
+            copy.put(country.getKey(), new LinkedHashMap<>(country.getValue()));
+        }
+        return copy;
+    }
+
+    private static Map<String, Map<String, Ruleset>> freeze(Map<String, Map<String, Ruleset>> byCountry) {
+        Map<String, Map<String, Ruleset>> frozen = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Ruleset>> country : byCountry.entrySet()) {
+            frozen.put(country.getKey(), Map.copyOf(country.getValue()));
+        }
+        return Map.copyOf(frozen);
+    }
+}
@@ -0,0 +1,52 @@
+package com.fraud.engine.ruleset;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.loader.LocalArtifactCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts a compiled {@code ruleset.json} artifact to the {@link BinaryRulesetFormat}.
+ * <p>
+ * Run at publish time next to the JSON artifact:
+ * <pre>
+ * java -cp fraud-engine.jar com.fraud.engine.ruleset.RulesetArtifactConverter ruleset.json ruleset.bin
+ * </pre>
+ * It prints the {@code binary_checksum} to put in the manifest with the
+ * {@code binary_artifact_uri}.
+ */
+public final class RulesetArtifactConverter {
+
+    private RulesetArtifactConverter() {
+    }
+
+    /**
+     * @param json compiled ruleset JSON (not closed)
+     * @return the same ruleset in the binary format
+     * @throws IOException if the JSON cannot be read
+     * @throws IllegalArgumentException if the artifact is empty or invalid
+     */
+    public static byte[] toBinary(InputStream json) throws IOException {
+        ParsedArtifact parsed = new StreamingRulesetParser(new ObjectMapper()).parse(json);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Ruleset artifact is empty");
+        }
+        return BinaryRulesetWriter.write(parsed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: RulesetArtifactConverter <ruleset.json> <ruleset.bin>");
+            System.exit(2);
+        }
+        byte[] binary;
+        try (InputStream in = Files.newInputStream(Path.of(args[0]))) {
+            binary = toBinary(in);
+        }
+        Files.write(Path.of(args[1]), binary);
+        System.out.println("sha256:" + LocalArtifactCache.sha256Hex(binary));
+    }
+}
@@ -1,35 +1,47 @@
 package com.fraud.engine.ruleset;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fraud.engine.dto.RulesetManifest;
-import com.fraud.engine.domain.Condition;
-import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.PredicateIndex;
 import com.fraud.engine.domain.Rule;
-import com.fraud.engine.domain.RuleScope;
 import com.fraud.engine.domain.Ruleset;
-import com.fraud.engine.domain.VelocityConfig;
-import com.fraud.engine.engine.ConditionCompiler;
-import com.fraud.engine.util.DecisionNormalizer;
+import com.fraud.engine.engine.PatternGroups;
+import com.fraud.engine.engine.PredicateTable;
+import com.fraud.engine.engine.RulesetProgramCompiler;
+import com.fraud.engine.loader.LocalArtifactCache;
+import com.fraud.engine.util.AllocationMeter;
+import com.fraud.engine.util.EngineMetrics;
+import com.fraud.engine.util.EngineMetrics.LoadPhase;
+import com.fraud.engine.util.FetchMemo;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
+import java.nio.file.StandardOpenOption;
 import java.net.URI;
-import java.util.ArrayList;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -40,6 +52,32 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * Production runtime uses manifest.json pointers to immutable ruleset.json artifacts.
  * YAML loading is supported only for local dev testing when explicitly enabled.
+ * <p>
+ * Manifest reads go through a {@link FetchMemo}: callers asking for the same manifest at
+ * the same time (parallel startup loads, the startup validators) share one S3 request, and
+ * the answer is reused for {@code app.ruleset.manifest-reuse-ms}. Each load stage
+ * (manifest, artifact, checksum, parse, compile) is timed into {@link EngineMetrics}.
+ * <p>
+ * With {@code app.artifact-cache.enabled}, verified artifacts are also kept in a
+ * {@link LocalArtifactCache} keyed by checksum: a manifest whose checksum is already on
+ * disk is served from the cache instead of S3, and {@link #loadCachedRuleset} can start a
+ * ruleset from the last manifest seen without reaching S3 at all.
+ * <p>
+ * Auto-reload polls with {@link #pollManifest}, a conditional GET ({@code If-None-Match})
+ * that costs a 304 with no body while a manifest is unchanged; artifacts are only
+ * downloaded, through {@link #loadFromManifest(String, String, RulesetManifest)}, when the
+ * polled version is newer than the one loaded.
+ * <p>
+ * Artifacts are never held whole: the download is streamed through a SHA-256 digest (and
+ * the local cache, when enabled) into a {@link StreamingRulesetParser}, which builds rules
+ * and compiled conditions token by token. The bytes each load allocated are reported to
+ * {@link EngineMetrics}.
+ * <p>
+ * A manifest may also name a {@code binary_artifact_uri} ({@link BinaryRulesetFormat}).
+ * With {@code app.ruleset.binary-artifacts.enabled} that artifact is tried first: it is
+ * memory-mapped (from the local cache, or the file itself for {@code file:} URIs) and
+ * decoded without a JSON parse. If it is missing, fails its checksum or cannot be
+ * decoded, the JSON artifact is loaded as before.
  */
 @ApplicationScoped
 public class RulesetLoader {
@@ -70,9 +108,32 @@ public class RulesetLoader {
     @ConfigProperty(name = "app.ruleset.yaml-fallback-enabled", defaultValue = "false")
     boolean yamlFallbackEnabled;
 
+    @ConfigProperty(name = "app.ruleset.evaluation-engine", defaultValue = "lambda")
+    String defaultEvaluationEngine;
+
+    @ConfigProperty(name = "app.ruleset.manifest-reuse-ms", defaultValue = "5000")
+    long manifestReuseMs = 5000;
+
+    @ConfigProperty(name = "app.ruleset.binary-artifacts.enabled", defaultValue = "true")
+    boolean binaryArtifactsEnabled = true;
+
+    @Inject
+    EngineMetrics engineMetrics;
+
+    @Inject
+    LocalArtifactCache artifactCache;
+
     private S3Client s3Client;
+    private FetchMemo<String, RulesetManifest> manifests = new FetchMemo<>(0, new FetchMemo.Stats());
+
+    /** Last manifest polled per object key, with its ETag, for conditional GETs. */
+    private final Map<String, PolledManifest> polledManifests = new ConcurrentHashMap<>();
+
+    private record PolledManifest(String etag, RulesetManifest manifest) {
+    }
     private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
     private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final StreamingRulesetParser artifactParser = new StreamingRulesetParser(jsonMapper);
     private final Map<String, Ruleset> rulesetCache = new ConcurrentHashMap<>();
 
     @PostConstruct
@@ -82,6 +143,9 @@ public class RulesetLoader {
             jsonMapper.registerModule(new JavaTimeModule());
             jsonMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+            manifests = new FetchMemo<>(manifestReuseMs,
+                    engineMetrics != null ? engineMetrics.manifestFetchStats() : new FetchMemo.Stats());
+
             LOG.infof("Initializing S3 client for MinIO: %s", endpointUrl);
 
             s3Client = S3Client.builder()
@@ -110,45 +174,43 @@ public class RulesetLoader {
      * @return manifest or null if not found
      */
     public RulesetManifest loadManifest(String country, String rulesetKey) {
-        // Try country-partitioned path first
+        long start = System.nanoTime();
         try {
-            String objectKey = buildRulesetPrefix(country, rulesetKey) + "manifest.json";
-
-            GetObjectRequest request = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .build();
-
-            try (InputStream inputStream = s3Client.getObject(request)) {
-                return jsonMapper.readValue(inputStream, RulesetManifest.class);
+            // Try country-partitioned path first
+            RulesetManifest countryManifest = fetchCountryManifest(country, rulesetKey);
+            if (countryManifest != null) {
+                return countryManifest;
             }
-
-        } catch (NoSuchKeyException e) {
             LOG.debugf("Country-partitioned manifest not found, trying fallback: country=%s, key=%s", country, rulesetKey);
-        } catch (Exception e) {
-            LOG.warnf("Error loading country-partitioned manifest for %s/%s: %s", country, rulesetKey, e.getMessage());
-        }
-
-        // Fallback to legacy path (no country in path)
-        try {
-            String objectKey = buildRulesetPrefix(rulesetKey) + "manifest.json";
 
-            GetObjectRequest request = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .build();
-
-            try (InputStream inputStream = s3Client.getObject(request)) {
-                RulesetManifest manifest = jsonMapper.readValue(inputStream, RulesetManifest.class);
+            // Fallback to legacy path (no country in path)
+            try {
+                RulesetManifest manifest = fetchManifest(buildRulesetPrefix(rulesetKey) + "manifest.json");
+                if (manifest == null) {
+                    LOG.debugf("Ruleset manifest not found (tried both country and legacy paths): country=%s, key=%s", country, rulesetKey);
+                    return null;
+                }
                 LOG.warnf("Using legacy manifest path for %s (migration to country-partitioned paths recommended)", rulesetKey);
                 return manifest;
+            } catch (Exception e) {
+                LOG.warnf("Failed to load ruleset manifest for %s: %s", rulesetKey, e.getMessage());
+                return null;
             }
+        } finally {
+            recordPhase(LoadPhase.MANIFEST, start);
+        }
+    }
 
-        } catch (NoSuchKeyException e) {
-            LOG.debugf("Ruleset manifest not found (tried both country and legacy paths): country=%s, key=%s", country, rulesetKey);
-            return null;
+    /**
+     * Reads the country-partitioned manifest only.
+     *
+     * @return the manifest, or null if it does not exist or S3 could not be read
+     */
+    private RulesetManifest fetchCountryManifest(String country, String rulesetKey) {
+        try {
+            return fetchManifest(buildRulesetPrefix(country, rulesetKey) + "manifest.json");
         } catch (Exception e) {
-            LOG.warnf("Failed to load ruleset manifest for %s: %s", rulesetKey, e.getMessage());
+            LOG.warnf("Error loading country-partitioned manifest for %s/%s: %s", country, rulesetKey, e.getMessage());
             return null;
         }
     }
@@ -164,9 +226,91 @@ public class RulesetLoader {
      * @return manifest or null if not found
      */
     public RulesetManifest loadManifest(String rulesetKey) {
+        long start = System.nanoTime();
         try {
-            String objectKey = buildRulesetPrefix(rulesetKey) + "manifest.json";
+            RulesetManifest manifest = fetchManifest(buildRulesetPrefix(rulesetKey) + "manifest.json");
+            if (manifest == null) {
+                LOG.debugf("Ruleset manifest not found: %s", rulesetKey);
+            }
+            return manifest;
+        } catch (Exception e) {
+            LOG.warnf("Failed to load ruleset manifest for %s: %s", rulesetKey, e.getMessage());
+            return null;
+        } finally {
+            recordPhase(LoadPhase.MANIFEST, start);
+        }
+    }
+
+    /**
+     * Polls the manifest for a country and key with a conditional GET.
+     * <p>
+     * Like {@link #loadManifest(String, String)} (country path, then legacy path), but each
+     * request carries the ETag of the last response for that object, so an unchanged
+     * manifest costs a 304 and the previous manifest is returned. Used by auto-reload to
+     * detect new versions without downloading artifacts.
+     *
+     * @param country the country code
+     * @param rulesetKey the ruleset key
+     * @return the current manifest, or null if none exists or S3 could not be read
+     */
+    public RulesetManifest pollManifest(String country, String rulesetKey) {
+        long start = System.nanoTime();
+        try {
+            RulesetManifest manifest = pollObject(buildRulesetPrefix(country, rulesetKey) + "manifest.json");
+            return manifest != null ? manifest : pollObject(buildRulesetPrefix(rulesetKey) + "manifest.json");
+        } catch (Exception e) {
+            LOG.warnf("Failed to poll ruleset manifest for %s/%s: %s", country, rulesetKey, e.getMessage());
+            return null;
+        } finally {
+            recordPhase(LoadPhase.MANIFEST, start);
+        }
+    }
+
+    private RulesetManifest pollObject(String objectKey) throws Exception {
+        PolledManifest previous = polledManifests.get(objectKey);
+        GetObjectRequest.Builder request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey);
+        if (previous != null) {
+            request.ifNoneMatch(previous.etag());
+        }
+
+        try (ResponseInputStream<GetObjectResponse> inputStream = s3Client.getObject(request.build())) {
+            RulesetManifest manifest = jsonMapper.readValue(inputStream, RulesetManifest.class);
+            String etag = inputStream.response().eTag();
+            if (etag != null) {
+                polledManifests.put(objectKey, new PolledManifest(etag, manifest));
+            } else {
+                polledManifests.remove(objectKey);
+            }
+            recordManifestPoll(false);
+            return manifest;
+        } catch (NoSuchKeyException e) {
+            polledManifests.remove(objectKey);
+            recordManifestPoll(false);
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 304 && previous != null) {
+                recordManifestPoll(true);
+                return previous.manifest();
+            }
+            throw e;
+        }
+    }
 
+    private void recordManifestPoll(boolean notModified) {
+        if (engineMetrics != null) {
+            engineMetrics.recordManifestPoll(notModified);
+        }
+    }
+
+    /**
+     * Reads a manifest object through the memo.
+     *
+     * @return the manifest, or null if the object does not exist
+     */
+    private RulesetManifest fetchManifest(String objectKey) throws Exception {
+        return manifests.get(objectKey, () -> {
             GetObjectRequest request = GetObjectRequest.builder()
                     .bucket(bucketName)
                     .key(objectKey)
@@ -174,15 +318,10 @@ public class RulesetLoader {
 
             try (InputStream inputStream = s3Client.getObject(request)) {
                 return jsonMapper.readValue(inputStream, RulesetManifest.class);
+            } catch (NoSuchKeyException e) {
+                return null;
             }
-
-        } catch (NoSuchKeyException e) {
-            LOG.debugf("Ruleset manifest not found: %s", rulesetKey);
-            return null;
-        } catch (Exception e) {
-            LOG.warnf("Failed to load ruleset manifest for %s: %s", rulesetKey, e.getMessage());
-            return null;
-        }
+        });
     }
 
     /**
@@ -200,27 +339,34 @@ public class RulesetLoader {
             LOG.warnf("Ruleset manifest missing or invalid for country=%s, key=%s", country, rulesetKey);
             return Optional.empty();
         }
+        return loadFromManifest(manifest, rulesetKey, pointerName(country, rulesetKey),
+                "country=" + country + ", key=" + rulesetKey);
+    }
 
+    /**
+     * Loads the latest compiled ruleset from the country-partitioned path only.
+     * <p>
+     * Unlike {@link #loadLatestCompiledRuleset(String, String)}, a missing country manifest
+     * is not replaced by the legacy one, whose ruleset is not specific to the country.
+     *
+     * @param country the country code
+     * @param rulesetKey the ruleset key
+     * @return compiled ruleset or empty if the country has none
+     */
+    public Optional<Ruleset> loadLatestCountryRuleset(String country, String rulesetKey) {
+        long start = System.nanoTime();
+        RulesetManifest manifest;
         try {
-            byte[] artifact = loadArtifactBytes(manifest.getArtifactUri());
-            if (artifact == null || artifact.length == 0) {
-                LOG.warnf("Ruleset artifact is empty for country=%s, key=%s", country, rulesetKey);
-                return Optional.empty();
-            }
-
-            if (!verifyChecksum(artifact, manifest.getChecksum())) {
-                LOG.errorf("Checksum mismatch for ruleset country=%s, key=%s (version %s)",
-                        country, rulesetKey, manifest.getRulesetVersion());
-                return Optional.empty();
-            }
-
-            Ruleset ruleset = parseRuleset(artifact, rulesetKey, manifest.getRulesetVersion());
-            return Optional.of(ruleset);
-
-        } catch (Exception e) {
-            LOG.errorf(e, "Failed to load compiled ruleset for country=%s, key=%s", country, rulesetKey);
+            manifest = fetchCountryManifest(country, rulesetKey);
+        } finally {
+            recordPhase(LoadPhase.MANIFEST, start);
+        }
+        if (manifest == null || manifest.getArtifactUri() == null) {
+            LOG.debugf("No country-partitioned manifest for country=%s, key=%s", country, rulesetKey);
             return Optional.empty();
         }
+        return loadFromManifest(manifest, rulesetKey, pointerName(country, rulesetKey),
+                "country=" + country + ", key=" + rulesetKey);
     }
 
     /**
@@ -239,29 +385,226 @@ public class RulesetLoader {
             LOG.warnf("Ruleset manifest missing or invalid for key: %s", rulesetKey);
             return Optional.empty();
         }
+        return loadFromManifest(manifest, rulesetKey, pointerName(null, rulesetKey), "key=" + rulesetKey);
+    }
+
+    /**
+     * Loads the ruleset a manifest (e.g. from {@link #pollManifest}) points at.
+     *
+     * @param country the country code
+     * @param rulesetKey the ruleset key
+     * @param manifest the manifest
+     * @return compiled ruleset or empty if it could not be loaded
+     */
+    public Optional<Ruleset> loadFromManifest(String country, String rulesetKey, RulesetManifest manifest) {
+        if (manifest == null || manifest.getArtifactUri() == null) {
+            return Optional.empty();
+        }
+        return loadFromManifest(manifest, rulesetKey, pointerName(country, rulesetKey),
+                "country=" + country + ", key=" + rulesetKey);
+    }
 
+    /**
+     * Loads the artifact a manifest points at: the binary artifact when there is one and
+     * it loads, otherwise the JSON artifact; each from the local cache when it holds the
+     * checksum, otherwise from S3 (verified, then written to the cache).
+     *
+     * @param where country/key description for log messages
+     */
+    private Optional<Ruleset> loadFromManifest(RulesetManifest manifest, String rulesetKey,
+                                               String pointerName, String where) {
+        if (binaryArtifactsEnabled && !isBlank(manifest.getBinaryArtifactUri())) {
+            try {
+                Optional<Ruleset> binary = loadBinaryArtifact(manifest, rulesetKey, pointerName, where);
+                if (binary.isPresent()) {
+                    if (engineMetrics != null) {
+                        engineMetrics.incrementRulesetBinaryLoad();
+                    }
+                    return binary;
+                }
+            } catch (Exception e) {
+                LOG.warnf("Failed to load binary ruleset artifact for %s: %s", where, e.getMessage());
+            }
+            LOG.warnf("Falling back to JSON ruleset artifact for %s", where);
+            if (engineMetrics != null) {
+                engineMetrics.incrementRulesetBinaryFallback();
+            }
+        }
         try {
-            byte[] artifact = loadArtifactBytes(manifest.getArtifactUri());
-            if (artifact == null || artifact.length == 0) {
-                LOG.warnf("Ruleset artifact is empty for key: %s", rulesetKey);
-                return Optional.empty();
+            long phaseStart = System.nanoTime();
+            Optional<ByteBuffer> cached = isLocalCacheEnabled()
+                    ? artifactCache.read(manifest.getChecksum())
+                    : Optional.empty();
+            if (cached.isPresent()) {
+                recordPhase(LoadPhase.ARTIFACT, phaseStart);
+                Ruleset ruleset = parseRuleset(cached.get(), rulesetKey, manifest.getRulesetVersion());
+                LOG.debugf("Ruleset artifact for %s served from local cache", where);
+                return Optional.of(ruleset);
             }
 
-            if (!verifyChecksum(artifact, manifest.getChecksum())) {
-                LOG.errorf("Checksum mismatch for ruleset %s (version %s)",
-                        rulesetKey, manifest.getRulesetVersion());
-                return Optional.empty();
+            try (InputStream artifact = openArtifact(manifest.getArtifactUri())) {
+                recordPhase(LoadPhase.ARTIFACT, phaseStart);
+                if (artifact == null) {
+                    LOG.warnf("Ruleset artifact is empty for %s", where);
+                    return Optional.empty();
+                }
+                return streamArtifact(artifact, rulesetKey, manifest.getRulesetVersion(), manifest.getChecksum(),
+                        pointerName, where);
             }
 
-            Ruleset ruleset = parseRuleset(artifact, rulesetKey, manifest.getRulesetVersion());
-            return Optional.of(ruleset);
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to load compiled ruleset for %s", where);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Loads the binary artifact a manifest points at, mapped read-only: from the local
+     * cache, directly from the file for {@code file:} URIs, or downloaded from S3,
+     * verified, written to the cache and mapped from there.
+     *
+     * @return the ruleset, or empty if the artifact is missing or fails its checksum
+     */
+    private Optional<Ruleset> loadBinaryArtifact(RulesetManifest manifest, String rulesetKey,
+                                                 String pointerName, String where) throws Exception {
+        String checksum = manifest.getBinaryChecksum();
+        Integer version = manifest.getRulesetVersion();
+        long phaseStart = System.nanoTime();
+        Optional<ByteBuffer> artifact = isLocalCacheEnabled() && !isBlank(checksum)
+                ? artifactCache.read(checksum)
+                : Optional.empty();
+        boolean fromCache = artifact.isPresent();
+        if (!fromCache) {
+            artifact = mapBinaryArtifact(manifest.getBinaryArtifactUri());
+        }
+        phaseStart = recordPhase(LoadPhase.ARTIFACT, phaseStart);
+        if (artifact.isEmpty()) {
+            LOG.warnf("Binary ruleset artifact is missing for %s", where);
+            return Optional.empty();
+        }
+
+        String computed = LocalArtifactCache.sha256Hex(artifact.get());
+        boolean checksumOk = checksumMatches(computed, checksum);
+        recordPhase(LoadPhase.CHECKSUM, phaseStart);
+        if (!checksumOk) {
+            LOG.errorf("Checksum mismatch for binary ruleset %s (version %s)", where, version);
+            return Optional.empty();
+        }
+        if (!fromCache && isLocalCacheEnabled()) {
+            byte[] bytes = new byte[artifact.get().remaining()];
+            artifact.get().duplicate().get(bytes);
+            artifactCache.write(computed, bytes);
+            // Serve from the cached file so the heap copy can go
+            artifact = artifactCache.read(computed).or(() -> Optional.of(ByteBuffer.wrap(bytes)));
+        }
+
+        Ruleset ruleset = parseRuleset(artifact.get(), rulesetKey, version);
+        if (isLocalCacheEnabled()) {
+            artifactCache.writePointer(pointerName, new LocalArtifactCache.Pointer(computed, version));
+        }
+        LOG.debugf("Binary ruleset artifact for %s loaded%s", where, fromCache ? " from local cache" : "");
+        return Optional.of(ruleset);
+    }
+
+    /**
+     * Maps a {@code file:} binary artifact directly; any other URI is read whole.
+     *
+     * @return the artifact bytes, or empty if the URI is unsupported
+     */
+    private Optional<ByteBuffer> mapBinaryArtifact(String artifactUri) throws Exception {
+        URI uri = URI.create(artifactUri);
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            try (FileChannel channel = FileChannel.open(Path.of(uri), StandardOpenOption.READ)) {
+                return Optional.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+        try (InputStream in = openArtifact(artifactUri)) {
+            return in == null ? Optional.empty() : Optional.of(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
 
+    /**
+     * @return true if verified artifacts are kept in a local on-disk cache
+     */
+    public boolean isLocalCacheEnabled() {
+        return artifactCache != null && artifactCache.isEnabled();
+    }
+
+    /**
+     * Loads the ruleset the local cache last recorded for a country and key, without
+     * touching S3. Used to start serving immediately; the caller revalidates against S3
+     * afterwards with {@link #loadLatestIfChanged}.
+     *
+     * @param country the country code
+     * @param rulesetKey the ruleset key
+     * @return the cached ruleset, or empty if the cache has none
+     */
+    public Optional<Ruleset> loadCachedRuleset(String country, String rulesetKey) {
+        if (!isLocalCacheEnabled()) {
+            return Optional.empty();
+        }
+        Optional<LocalArtifactCache.Pointer> pointer = artifactCache.readPointer(pointerName(country, rulesetKey));
+        if (pointer.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<ByteBuffer> artifact = artifactCache.read(pointer.get().sha256());
+        if (artifact.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            Ruleset ruleset = parseRuleset(artifact.get(), rulesetKey, pointer.get().version());
+            if (engineMetrics != null) {
+                engineMetrics.incrementArtifactCacheStartupServed();
+            }
+            LOG.infof("Loaded ruleset from local cache: country=%s, key=%s, version=%d",
+                    country, rulesetKey, ruleset.getVersion());
+            return Optional.of(ruleset);
         } catch (Exception e) {
-            LOG.errorf(e, "Failed to load compiled ruleset for %s", rulesetKey);
+            LOG.warnf("Failed to parse cached ruleset country=%s, key=%s: %s", country, rulesetKey, e.getMessage());
             return Optional.empty();
         }
     }
 
+    /**
+     * Checks S3 for a ruleset that was served from the local cache.
+     *
+     * @param country the country code
+     * @param rulesetKey the ruleset key
+     * @return the S3 ruleset if its manifest points at a different artifact than the cache
+     *         did; empty if unchanged or S3 could not be read
+     */
+    public Optional<Ruleset> loadLatestIfChanged(String country, String rulesetKey) {
+        String name = pointerName(country, rulesetKey);
+        String cachedSha = isLocalCacheEnabled()
+                ? artifactCache.readPointer(name).map(LocalArtifactCache.Pointer::sha256).orElse(null)
+                : null;
+        RulesetManifest manifest = loadManifest(country, rulesetKey);
+        if (manifest == null || manifest.getArtifactUri() == null) {
+            LOG.warnf("Could not revalidate cached ruleset country=%s, key=%s against S3; keeping it",
+                    country, rulesetKey);
+            return Optional.empty();
+        }
+        if (cachedSha != null && (checksumMatches(cachedSha, manifest.getChecksum())
+                || (!isBlank(manifest.getBinaryChecksum()) && checksumMatches(cachedSha, manifest.getBinaryChecksum())))) {
+            recordRevalidation(false);
+            return Optional.empty();
+        }
+        Optional<Ruleset> latest = loadFromManifest(manifest, rulesetKey, name,
+                "country=" + country + ", key=" + rulesetKey);
+        recordRevalidation(latest.isPresent());
+        return latest;
+    }
+
+    private void recordRevalidation(boolean changed) {
+        if (engineMetrics != null) {
+            engineMetrics.recordArtifactCacheRevalidation(changed);
+        }
+    }
+
     /**
      * Loads a specific compiled ruleset version (direct artifact path).
      *
@@ -270,6 +613,21 @@ public class RulesetLoader {
      * @return compiled ruleset or empty if not found
      */
     public Optional<Ruleset> loadCompiledRuleset(String rulesetKey, int version) {
+        // Versioned artifacts are immutable, so a cached copy never needs revalidation
+        String pointerName = pointerName(null, rulesetKey) + "/v" + version;
+        if (isLocalCacheEnabled()) {
+            Optional<ByteBuffer> cached = artifactCache.readPointer(pointerName)
+                    .flatMap(pointer -> artifactCache.read(pointer.sha256()));
+            if (cached.isPresent()) {
+                try {
+                    return Optional.of(parseRuleset(cached.get(), rulesetKey, version));
+                } catch (Exception e) {
+                    LOG.warnf("Failed to parse cached ruleset %s/v%d, loading from S3: %s",
+                            rulesetKey, version, e.getMessage());
+                }
+            }
+        }
+
         try {
             String objectKey = buildRulesetPrefix(rulesetKey) + "v" + version + "/ruleset.json";
             GetObjectRequest request = GetObjectRequest.builder()
@@ -277,14 +635,11 @@ public class RulesetLoader {
                     .key(objectKey)
                     .build();
 
+            long phaseStart = System.nanoTime();
             try (InputStream inputStream = s3Client.getObject(request)) {
-                byte[] artifact = inputStream.readAllBytes();
-                if (artifact.length == 0) {
-                    LOG.warnf("Ruleset artifact is empty: %s/v%d", rulesetKey, version);
-                    return Optional.empty();
-                }
-                Ruleset ruleset = parseRuleset(artifact, rulesetKey, version);
-                return Optional.of(ruleset);
+                recordPhase(LoadPhase.ARTIFACT, phaseStart);
+                return streamArtifact(inputStream, rulesetKey, version, null, pointerName,
+                        rulesetKey + "/v" + version);
             }
 
         } catch (NoSuchKeyException e) {
@@ -494,7 +849,12 @@ public class RulesetLoader {
         return prefix + rulesetEnvironment + "/" + rulesetKey + "/";
     }
 
-    private byte[] loadArtifactBytes(String artifactUri) throws Exception {
+    /**
+     * Opens an artifact by URI ({@code s3://bucket/key} or {@code file:}).
+     *
+     * @return the artifact stream, or null if the URI is missing or unsupported
+     */
+    private InputStream openArtifact(String artifactUri) throws Exception {
         if (artifactUri == null || artifactUri.isBlank()) {
             return null;
         }
@@ -514,392 +874,251 @@ public class RulesetLoader {
                     .bucket(bucket)
                     .key(key)
                     .build();
-            try (InputStream inputStream = s3Client.getObject(request)) {
-                return inputStream.readAllBytes();
-            }
+            return s3Client.getObject(request);
         }
 
         if ("file".equalsIgnoreCase(scheme)) {
-            Path path = Path.of(uri);
-            return Files.readAllBytes(path);
+            return Files.newInputStream(Path.of(uri));
         }
 
         LOG.warnf("Unsupported artifact URI scheme: %s", artifactUri);
         return null;
     }
 
-    private boolean verifyChecksum(byte[] data, String checksum) {
+    /**
+     * @param computed hex SHA-256 of the artifact
+     * @param checksum the manifest checksum ({@code sha256:} prefix allowed; blank = not checked)
+     */
+    private boolean checksumMatches(String computed, String checksum) {
         if (checksum == null || checksum.isBlank()) {
             return true;
         }
         String normalized = checksum.startsWith("sha256:") ? checksum.substring("sha256:".length()) : checksum;
-        String computed = sha256Hex(data);
         return computed.equalsIgnoreCase(normalized);
     }
 
-    private String sha256Hex(byte[] data) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data);
-            StringBuilder hex = new StringBuilder(hash.length * 2);
-            for (byte b : hash) {
-                hex.append(String.format("%02x", b));
-            }
-            return hex.toString();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to compute SHA-256 checksum", e);
-        }
+    /**
+     * Local cache pointer name for a manifest (country null = legacy path).
+     */
+    private String pointerName(String country, String rulesetKey) {
+        return country != null
+                ? "rulesets/" + rulesetEnvironment + "/" + country + "/" + rulesetKey
+                : "rulesets/" + rulesetEnvironment + "/" + rulesetKey;
     }
 
-    private Ruleset parseRuleset(byte[] artifactBytes, String rulesetKeyHint, Integer versionHint) throws Exception {
-        JsonNode root = jsonMapper.readTree(artifactBytes);
-
-        String rulesetKey = readString(root, "ruleset_key", "rulesetKey");
-        if (rulesetKey == null) {
-            rulesetKey = rulesetKeyHint;
-        }
-
-        Integer version = readInt(root, "ruleset_version", "rulesetVersion", "version");
-        if (version == null) {
-            version = versionHint;
+    /**
+     * Adds the time since {@code start} to a load phase.
+     *
+     * @return the current time, the start of the next phase
+     */
+    private long recordPhase(LoadPhase phase, long start) {
+        long now = System.nanoTime();
+        if (engineMetrics != null) {
+            engineMetrics.recordLoadPhase(phase, now - start);
         }
+        return now;
+    }
 
-        String rulesetId = readString(root, "ruleset_id", "rulesetId");
-
-        String executionMode = readString(root, "execution_mode");
-        String evaluationMode = readString(root.path("evaluation"), "mode");
-        String evaluationType = toEvaluationType(rulesetKey, executionMode, evaluationMode);
-        if (executionMode == null && evaluationMode == null) {
-            String ruleType = readString(root, "rule_type", "ruleType");
-            if (ruleType != null && ruleType.toUpperCase().contains("MONITORING")) {
-                evaluationType = "MONITORING";
+    /**
+     * Reads an artifact stream once, feeding it at the same time through a SHA-256
+     * digest, the local cache (if enabled) and the {@link StreamingRulesetParser}.
+     * <p>
+     * The parser compiles each rule's conditions (regex patterns included) as it reads
+     * them, so condition compilation happens before the checksum is known and is timed
+     * in the PARSE phase. The checksum is compared once the stream is drained: on a
+     * mismatch the compiled rules are discarded, and only a verified artifact gets the
+     * ruleset-level build (pattern groups, predicate table) and is committed to the cache.
+     *
+     * @param expectedChecksum manifest checksum ({@code sha256:} prefix allowed; null = not checked)
+     * @param where description for log messages
+     * @return the ruleset, or empty if the artifact is empty or fails its checksum
+     */
+    private Optional<Ruleset> streamArtifact(InputStream artifact, String rulesetKey, Integer version,
+                                             String expectedChecksum, String pointerName, String where)
+            throws Exception {
+        long allocStart = AllocationMeter.currentThreadAllocatedBytes();
+        long phaseStart = System.nanoTime();
+        Optional<LocalArtifactCache.Staged> staged = isLocalCacheEnabled()
+                ? artifactCache.stage()
+                : Optional.empty();
+        try (HashingInputStream in = new HashingInputStream(
+                staged.isPresent() ? staged.get().tee(artifact) : artifact)) {
+            ParsedArtifact parsed = null;
+            Exception parseFailure = null;
+            try {
+                parsed = artifactParser.parse(in);
+            } catch (IOException | IllegalArgumentException e) {
+                // A corrupt download is reported as a checksum mismatch, not a parse error
+                parseFailure = e;
+            }
+            in.transferTo(OutputStream.nullOutputStream());
+            phaseStart = recordPhase(LoadPhase.PARSE, phaseStart);
+
+            String computed = in.sha256Hex();
+            boolean checksumOk = checksumMatches(computed, expectedChecksum);
+            phaseStart = recordPhase(LoadPhase.CHECKSUM, phaseStart);
+            if (!checksumOk) {
+                LOG.errorf("Checksum mismatch for ruleset %s (version %s)", where, version);
+                return Optional.empty();
+            }
+            if (parseFailure != null) {
+                throw parseFailure;
+            }
+            if (parsed == null) {
+                LOG.warnf("Ruleset artifact is empty for %s", where);
+                return Optional.empty();
             }
-        }
 
-        List<Rule> rules = new ArrayList<>();
-        JsonNode rulesNode = root.get("rules");
-        if (rulesNode != null && rulesNode.isArray()) {
-            for (JsonNode ruleNode : rulesNode) {
-                Rule rule = parseRule(ruleNode);
-                if (rule != null) {
-                    rules.add(rule);
-                }
+            Ruleset ruleset = buildRuleset(parsed, rulesetKey, version, phaseStart);
+            if (staged.isPresent()) {
+                staged.get().commit(computed);
+                artifactCache.writePointer(pointerName, new LocalArtifactCache.Pointer(computed, version));
             }
+            recordLoadMemory(allocStart, in.size());
+            return Optional.of(ruleset);
+        } finally {
+            staged.ifPresent(LocalArtifactCache.Staged::close);
         }
-
-        Ruleset ruleset = new Ruleset(rulesetKey, version != null ? version : 0);
-        ruleset.setName(rulesetKey);
-        ruleset.setEvaluationType(evaluationType);
-        ruleset.setRulesetId(rulesetId);
-        ruleset.setRules(rules);
-        ruleset.preSort();
-
-        return ruleset;
     }
 
-    private Rule parseRule(JsonNode ruleNode) {
-        String ruleId = readString(ruleNode, "rule_id", "ruleId");
-        if (ruleId == null) {
-            LOG.warn("Skipping rule with missing rule_id");
-            return null;
-        }
-
-        boolean enabled = readBoolean(ruleNode, "enabled", true);
-        Integer priorityValue = readInt(ruleNode, "priority");
-        int priority = priorityValue != null ? priorityValue : 0;
-
-        String action = DecisionNormalizer.normalizeRuleAction(parseAction(ruleNode.get("action")));
-        if (action == null) {
-            action = "APPROVE";
-        }
-
-        String ruleVersionId = readString(ruleNode, "rule_version_id", "ruleVersionId");
-        Integer ruleVersion = readInt(ruleNode, "rule_version", "ruleVersion");
-
-        JsonNode conditionNode = ruleNode.get("condition");
-        if (conditionNode == null || conditionNode.isNull()) {
-            conditionNode = ruleNode.get("when");
+    /**
+     * Decodes a mapped artifact in either format: binary when it starts with the
+     * {@link BinaryRulesetFormat} magic, otherwise JSON.
+     */
+    private Ruleset parseRuleset(ByteBuffer artifact, String rulesetKeyHint, Integer versionHint) throws Exception {
+        if (BinaryRulesetFormat.isBinary(artifact)) {
+            long allocStart = AllocationMeter.currentThreadAllocatedBytes();
+            long phaseStart = System.nanoTime();
+            ParsedArtifact parsed = BinaryRulesetReader.read(artifact);
+            phaseStart = recordPhase(LoadPhase.PARSE, phaseStart);
+            Ruleset ruleset = buildRuleset(parsed, rulesetKeyHint, versionHint, phaseStart);
+            recordLoadMemory(allocStart, artifact.remaining());
+            return ruleset;
+        }
+        try (InputStream in = new ByteBufferBackedInputStream(artifact.duplicate())) {
+            return parseRuleset(in, artifact.remaining(), rulesetKeyHint, versionHint);
         }
-
-        List<Condition> conditions = extractLeafConditions(conditionNode);
-        CompiledCondition compiledCondition = parseConditionNode(conditionNode);
-        VelocityConfig velocity = parseVelocity(ruleNode.get("velocity"), action);
-        RuleScope scope = parseScope(ruleNode.get("scope"));
-
-        Rule rule = new Rule(ruleId, ruleId, action);
-        rule.setPriority(priority);
-        rule.setEnabled(enabled);
-        rule.setConditions(conditions);
-        rule.setCompiledCondition(compiledCondition);
-        rule.setVelocity(velocity);
-        rule.setScope(scope != null ? scope : RuleScope.GLOBAL);
-        rule.setRuleVersionId(ruleVersionId);
-        rule.setRuleVersion(ruleVersion);
-
-        return rule;
     }
 
-    private CompiledCondition parseConditionNode(JsonNode node) {
-        if (node == null || node.isNull()) {
-            return tx -> true;
-        }
-
-        if (node.has("and")) {
-            return combineConditions(node.get("and"), true);
-        }
-        if (node.has("or")) {
-            return combineConditions(node.get("or"), false);
-        }
-        if (node.has("not")) {
-            return parseNotCondition(node.get("not"));
-        }
-
-        String type = readString(node, "type");
-        if (type != null) {
-            String normalizedType = type.trim().toLowerCase();
-            return switch (normalizedType) {
-                case "and" -> combineConditions(node.get("conditions"), true);
-                case "or" -> combineConditions(node.get("conditions"), false);
-                case "not" -> parseNotCondition(node.get("conditions"));
-                case "condition" -> {
-                    String operator = readString(node, "operator", "op");
-                    if (operator == null) {
-                        yield tx -> true;
-                    }
-                    yield compileLeafCondition(node, operator);
-                }
-                default -> tx -> true;
-            };
-        }
-
-        String op = readString(node, "op", "operator");
-        if (op == null) {
-            return tx -> true;
-        }
-
-        String normalized = op.trim().toLowerCase();
-        return switch (normalized) {
-            case "and" -> combineConditions(node, true);
-            case "or" -> combineConditions(node, false);
-            case "not" -> parseNotCondition(node);
-            default -> compileLeafCondition(node, normalized);
-        };
+    private Ruleset parseRuleset(InputStream in, long size, String rulesetKeyHint, Integer versionHint)
+            throws Exception {
+        long allocStart = AllocationMeter.currentThreadAllocatedBytes();
+        long phaseStart = System.nanoTime();
+        ParsedArtifact parsed = artifactParser.parse(in);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Ruleset artifact is empty");
+        }
+        phaseStart = recordPhase(LoadPhase.PARSE, phaseStart);
+        Ruleset ruleset = buildRuleset(parsed, rulesetKeyHint, versionHint, phaseStart);
+        recordLoadMemory(allocStart, size);
+        return ruleset;
     }
 
-    private CompiledCondition combineConditions(JsonNode node, boolean useAnd) {
-        List<CompiledCondition> children = new ArrayList<>();
-        JsonNode args = node;
-        if (args != null && !args.isArray()) {
-            args = node.get("args");
-            if (args == null) {
-                args = node.get("conditions");
-            }
-        }
-        if (args != null && args.isArray()) {
-            for (JsonNode child : args) {
-                children.add(parseConditionNode(child));
-            }
-        }
-        if (children.isEmpty()) {
-            return tx -> true;
+    private void recordLoadMemory(long allocStart, long artifactBytes) {
+        if (engineMetrics != null) {
+            engineMetrics.recordRulesetLoadMemory(AllocationMeter.allocatedSince(allocStart), artifactBytes);
         }
-        CompiledCondition combined = children.get(0);
-        for (int i = 1; i < children.size(); i++) {
-            combined = useAnd ? combined.and(children.get(i)) : combined.or(children.get(i));
-        }
-        return combined;
     }
 
-    private CompiledCondition parseNotCondition(JsonNode node) {
-        if (node == null || node.isNull()) {
-            return tx -> true;
-        }
-        JsonNode args = node;
-        if (!node.isArray()) {
-            JsonNode candidate = node.get("args");
-            if (candidate == null) {
-                candidate = node.get("conditions");
-            }
-            if (candidate != null) {
-                args = candidate;
+    /**
+     * Turns a parsed artifact into a ready-to-serve ruleset: header defaults, pattern
+     * groups, shared predicates, predicate index, pre-sort and (for the bytecode engine)
+     * compilation.
+     */
+    private Ruleset buildRuleset(ParsedArtifact parsed, String rulesetKeyHint, Integer versionHint,
+                                 long phaseStart) {
+        String rulesetKey = parsed.rulesetKey() != null ? parsed.rulesetKey() : rulesetKeyHint;
+        Integer version = parsed.version() != null ? parsed.version() : versionHint;
+
+        String executionMode = parsed.executionMode();
+        String evaluationMode = parsed.evaluationMode();
+        String evaluationType = toEvaluationType(rulesetKey, executionMode, evaluationMode);
+        if (executionMode == null && evaluationMode == null) {
+            String ruleType = parsed.ruleType();
+            if (ruleType != null && ruleType.toUpperCase().contains("MONITORING")) {
+                evaluationType = "MONITORING";
             }
         }
-        if (args != null && args.isArray() && args.size() > 0) {
-            return parseConditionNode(args.get(0)).not();
-        }
-        return parseConditionNode(args).not();
-    }
 
-    private CompiledCondition compileLeafCondition(JsonNode node, String operator) {
-        Condition condition = buildConditionFromNode(node, operator);
-        if (condition == null) {
-            return tx -> true;
-        }
-        return ConditionCompiler.compile(condition);
-    }
+        List<Rule> rules = parsed.rules();
+        Ruleset ruleset = new Ruleset(rulesetKey, version != null ? version : 0);
+        ruleset.setName(rulesetKey);
+        ruleset.setEvaluationType(evaluationType);
+        ruleset.setRulesetId(parsed.rulesetId());
 
-    private Condition buildConditionFromNode(JsonNode node, String operator) {
-        String field = readString(node, "field");
-        if (field == null) {
-            return null;
+        // Pattern groups first: the shared-predicate table then dedupes the rewritten leaves.
+        int patternGroups = PatternGroups.build(rules);
+        PredicateTable predicateTable = PredicateTable.build(rules);
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Ruleset %s: %d leaf conditions, %d shared predicates, %d pattern groups",
+                    rulesetKey, predicateTable.leafCount(), predicateTable.size(), patternGroups);
         }
 
-        Condition condition = new Condition();
-        condition.setField(field);
-        condition.setOperator(operator);
+        ruleset.setRules(rules);
+        ruleset.setPredicateCount(predicateTable.size());
+        ruleset.setPatternGroupCount(patternGroups);
 
-        JsonNode valueNode = node.get("value");
-        if (valueNode != null && !valueNode.isNull()) {
-            condition.setValue(jsonMapper.convertValue(valueNode, Object.class));
-        }
+        PredicateIndex predicateIndex = PredicateIndex.build(ruleset.getRules());
+        ruleset.setPredicateIndex(predicateIndex);
+        LOG.infof("Ruleset %s predicate index: %s", rulesetKey, predicateIndex.describe());
+        ruleset.setEvaluationEngine(resolveEvaluationEngine(parsed.evaluationEngine()));
+        ruleset.preSort();
 
-        JsonNode valuesNode = node.get("values");
-        if (valuesNode != null && valuesNode.isArray()) {
-            condition.setValues(jsonMapper.convertValue(valuesNode, List.class));
+        if (Ruleset.ENGINE_BYTECODE.equals(ruleset.getEvaluationEngine())) {
+            ruleset.setProgram(RulesetProgramCompiler.compile(ruleset));
         }
+        recordPhase(LoadPhase.COMPILE, phaseStart);
 
-        return condition;
-    }
-
-    private List<Condition> extractLeafConditions(JsonNode node) {
-        List<Condition> conditions = new ArrayList<>();
-        collectLeafConditions(node, conditions);
-        return conditions;
+        return ruleset;
     }
 
-    private void collectLeafConditions(JsonNode node, List<Condition> out) {
-        if (node == null || node.isNull()) {
-            return;
-        }
-        if (node.has("and")) {
-            collectLeafConditions(node.get("and"), out);
-            return;
-        }
-        if (node.has("or")) {
-            collectLeafConditions(node.get("or"), out);
-            return;
-        }
-        if (node.has("not")) {
-            collectLeafConditions(node.get("not"), out);
-            return;
-        }
-
-        String type = readString(node, "type");
-        if (type != null) {
-            String normalizedType = type.trim().toLowerCase();
-            if ("and".equals(normalizedType) || "or".equals(normalizedType) || "not".equals(normalizedType)) {
-                JsonNode conditions = node.get("conditions");
-                collectLeafConditions(conditions, out);
-                return;
-            }
-            if ("condition".equals(normalizedType)) {
-                String operator = readString(node, "operator", "op");
-                Condition condition = buildConditionFromNode(node, operator);
-                if (condition != null) {
-                    out.add(condition);
-                }
-                return;
-            }
-        }
-
-        if (node.isArray()) {
-            for (JsonNode child : node) {
-                collectLeafConditions(child, out);
-            }
-            return;
-        }
-
-        String op = readString(node, "op", "operator");
-        if (op == null) {
-            return;
-        }
-        String normalized = op.trim().toLowerCase();
-        if ("and".equals(normalized) || "or".equals(normalized) || "not".equals(normalized)) {
-            JsonNode args = node.get("args");
-            if (args == null) {
-                args = node.get("conditions");
-            }
-            if (args != null && args.isArray()) {
-                for (JsonNode child : args) {
-                    collectLeafConditions(child, out);
-                }
-            }
-            return;
-        }
-        Condition condition = buildConditionFromNode(node, normalized);
-        if (condition != null) {
-            out.add(condition);
+    /**
+     * Resolves the evaluation engine: the artifact's {@code evaluation_engine} (or
+     * {@code evaluation.engine}) wins, otherwise {@code app.ruleset.evaluation-engine}.
+     */
+    private String resolveEvaluationEngine(String artifactEngine) {
+        String engine = artifactEngine != null ? artifactEngine : defaultEvaluationEngine;
+        if (engine != null && Ruleset.ENGINE_BYTECODE.equalsIgnoreCase(engine.trim())) {
+            return Ruleset.ENGINE_BYTECODE;
         }
+        return Ruleset.ENGINE_LAMBDA;
     }
 
-    private VelocityConfig parseVelocity(JsonNode velocityNode, String ruleAction) {
-        if (velocityNode == null || velocityNode.isNull()) {
-            return null;
-        }
-        VelocityConfig config = jsonMapper.convertValue(velocityNode, VelocityConfig.class);
-        String velocityAction = DecisionNormalizer.normalizeRuleAction(config.getAction());
-        if (velocityAction != null) {
-            config.setAction(velocityAction);
-        }
-        if (config.getAction() == null) {
-            config.setAction(ruleAction);
-        }
-        return config;
-    }
+    /**
+     * Artifact stream that hashes (SHA-256) and counts every byte read through it.
+     */
+    private static final class HashingInputStream extends DigestInputStream {
+        private long size;
 
-    private RuleScope parseScope(JsonNode scopeNode) {
-        if (scopeNode == null || scopeNode.isNull() || scopeNode.isEmpty()) {
-            return RuleScope.GLOBAL;
+        HashingInputStream(InputStream in) throws NoSuchAlgorithmException {
+            super(in, MessageDigest.getInstance("SHA-256"));
         }
 
-        RuleScope scope = RuleScope.fromScopeNode(scopeNode, jsonMapper);
-        return scope != null ? scope : RuleScope.GLOBAL;
-    }
-
-    private String parseAction(JsonNode actionNode) {
-        if (actionNode == null || actionNode.isNull()) {
-            return null;
-        }
-        if (actionNode.isTextual()) {
-            return actionNode.asText().toUpperCase();
-        }
-        JsonNode decisionNode = actionNode.get("decision");
-        if (decisionNode != null && decisionNode.isTextual()) {
-            return decisionNode.asText().toUpperCase();
-        }
-        JsonNode actionField = actionNode.get("action");
-        if (actionField != null && actionField.isTextual()) {
-            return actionField.asText().toUpperCase();
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                size++;
+            }
+            return b;
         }
-        return null;
-    }
 
-    private Integer readInt(JsonNode node, String... names) {
-        for (String name : names) {
-            JsonNode value = node.get(name);
-            if (value != null && value.isNumber()) {
-                return value.asInt();
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) {
+                size += n;
             }
+            return n;
         }
-        return null;
-    }
 
-    private boolean readBoolean(JsonNode node, String name, boolean defaultValue) {
-        JsonNode value = node.get(name);
-        if (value == null || value.isNull()) {
-            return defaultValue;
+        long size() {
+            return size;
         }
-        return value.asBoolean(defaultValue);
-    }
 
-    private String readString(JsonNode node, String... names) {
-        for (String name : names) {
-            JsonNode value = node.get(name);
-            if (value != null && value.isTextual()) {
-                return value.asText();
-            }
+        String sha256Hex() {
+            return HexFormat.of().formatHex(getMessageDigest().digest());
         }
-        return null;
     }
 
     private String toEvaluationType(String rulesetKey, String executionMode, String evaluationMode) {
@@ -922,13 +1141,24 @@ public class RulesetLoader {
      * Loads a compiled ruleset from a local file path.
      * Used for testing without MinIO.
      *
-     * @param filePath the path to the compiled ruleset JSON file
+     * @param filePath the path to the compiled ruleset JSON file, or a binary artifact
+     *                 (detected by its header and memory-mapped)
      * @param rulesetKeyHint hint for the ruleset key
      * @return the parsed ruleset
      * @throws Exception if parsing fails
      */
     public Ruleset loadRulesetFromFile(String filePath, String rulesetKeyHint) throws Exception {
-        byte[] content = java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(filePath));
-        return parseRuleset(content, rulesetKeyHint, null);
+        Path path = Path.of(filePath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(BinaryRulesetFormat.HEADER_SIZE);
+            channel.read(header, 0);
+            if (BinaryRulesetFormat.isBinary(header.flip())) {
+                return parseRuleset(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                        rulesetKeyHint, null);
+            }
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            return parseRuleset(in, Files.size(path), rulesetKeyHint, null);
+        }
     }
 }
@@ -3,6 +3,9 @@ package com.fraud.engine.ruleset;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.dto.RulesetManifest;
+import com.fraud.engine.service.FieldRegistryService;
+import com.fraud.engine.service.FieldRegistrySnapshot;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -10,48 +13,146 @@ import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Registry of compiled rulesets by country namespace and key.
+ * <p>
+ * All state lives in one immutable {@link RegistrySnapshot}. Reads take the current
+ * snapshot (one volatile read) and never lock; writes build the next snapshot under a
+ * writer lock and publish it with a single volatile write, so a reader never sees a
+ * half-applied swap or a ruleset paired with the wrong field registry.
+ * <p>
+ * Loads from S3 are single-flight per (country, key): concurrent callers share one fetch.
+ * With lazy loading enabled, a request for a country that has no ruleset yet is served
+ * from the global fallback while one background fetch runs; countries with nothing in S3,
+ * or whose load failed, are not retried until {@code app.ruleset.lazy-load.retry-seconds}
+ * have passed.
+ * <p>
+ * When the loader has a local artifact cache, a load first registers the ruleset the
+ * cache last saw for that country and key, then checks S3 in the background and swaps in
+ * the S3 version if it differs. A restart during an S3 outage therefore comes up on the
+ * last known rulesets instead of failing.
+ * <p>
+ * Hot swaps and auto-reloads are warmed up by the {@link RulesetWarmer} (scope cache
+ * seeded from the outgoing version, sample replayed) before the new version is published.
+ * <p>
+ * Every load compiles against the field registry of the snapshot it started from and is
+ * registered only if that is still the snapshot's field registry; a hot reload that
+ * publishes another one in between makes the load compile again, so field IDs always
+ * match the field registry they are published with.
+ */
 @ApplicationScoped
 public class RulesetRegistry {
 
     private static final Logger LOG = Logger.getLogger(RulesetRegistry.class);
 
-    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Ruleset>> registry =
-            new ConcurrentHashMap<>();
+    /** Compiles of one load before giving up on field registries that keep changing under it. */
+    private static final int MAX_COMPILE_ATTEMPTS = 3;
+
+    private volatile RegistrySnapshot snapshot = RegistrySnapshot.EMPTY;
+
+    /** Serializes writers; readers only read {@link #snapshot}. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /** Loads in progress, by {@code country/key}. */
+    private final ConcurrentHashMap<String, CompletableFuture<Ruleset>> inFlight = new ConcurrentHashMap<>();
+
+    /** Keys with nothing in S3 or whose load failed, to the time (nanoTime) a lazy load may be tried again. */
+    private final ConcurrentHashMap<String, Long> missingUntil = new ConcurrentHashMap<>();
 
     @Inject
     RulesetLoader loader;
 
+    @Inject
+    RulesetWarmer warmer;
+
+    @Inject
+    FieldRegistryService fieldRegistryService;
+
     @ConfigProperty(name = "app.ruleset.auto-reload.enabled", defaultValue = "false")
     boolean autoReloadEnabled;
 
     @ConfigProperty(name = "app.ruleset.auto-reload.interval-seconds", defaultValue = "60")
     int autoReloadIntervalSeconds;
 
+    @ConfigProperty(name = "app.ruleset.lazy-load.enabled", defaultValue = "false")
+    boolean lazyLoadEnabled;
+
+    @ConfigProperty(name = "app.ruleset.lazy-load.max-concurrency", defaultValue = "4")
+    int lazyLoadMaxConcurrency = 4;
+
+    @ConfigProperty(name = "app.ruleset.lazy-load.retry-seconds", defaultValue = "300")
+    int lazyLoadRetrySeconds = 300;
+
+    @ConfigProperty(name = "app.ruleset.startup.max-concurrency", defaultValue = "8")
+    int bulkLoadMaxConcurrency = 8;
+
     private ScheduledExecutorService reloadScheduler;
 
+    private ExecutorService lazyLoadExecutor;
+
+    private ExecutorService revalidateExecutor;
+
     @PostConstruct
     void init() {
         LOG.info("Initializing RulesetRegistry");
 
+        // Loads compile against the snapshot's field registry, so it must start as the installed one
+        if (fieldRegistryService != null) {
+            setFieldRegistry(fieldRegistryService.current());
+        }
+
         if (autoReloadEnabled) {
             startReloadScheduler();
             LOG.infof("Auto-reload enabled: checking every %d seconds", autoReloadIntervalSeconds);
         } else {
             LOG.info("Auto-reload disabled (manual reload only)");
         }
+
+        if (lazyLoadEnabled) {
+            lazyLoadExecutor = Executors.newFixedThreadPool(Math.max(1, lazyLoadMaxConcurrency), r -> {
+                Thread thread = new Thread(r, "ruleset-lazy-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            LOG.infof("Lazy country ruleset loading enabled (max %d concurrent loads)", lazyLoadMaxConcurrency);
+        }
+
+        if (loader != null && loader.isLocalCacheEnabled()) {
+            revalidateExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "ruleset-cache-revalidator");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 
     @PreDestroy
     void destroy() {
+        if (lazyLoadExecutor != null) {
+            lazyLoadExecutor.shutdownNow();
+        }
+        if (revalidateExecutor != null) {
+            revalidateExecutor.shutdownNow();
+        }
         if (reloadScheduler != null) {
             reloadScheduler.shutdown();
             try {
@@ -68,6 +169,16 @@ public class RulesetRegistry {
 
     // ========== Lookup Operations ==========
 
+    /**
+     * Gets the current snapshot. Callers that need several lookups, or a ruleset together
+     * with its field registry, should read them all from one snapshot.
+     *
+     * @return the current immutable snapshot
+     */
+    public RegistrySnapshot snapshot() {
+        return snapshot;
+    }
+
     /**
      * Gets a ruleset for the specified country and key.
      * <p>
@@ -78,11 +189,7 @@ public class RulesetRegistry {
      * @return the compiled ruleset, or null if not found
      */
     public Ruleset getRuleset(String country, String rulesetKey) {
-        ConcurrentHashMap<String, Ruleset> countryRulesets = registry.get(country);
-        if (countryRulesets == null) {
-            return null;
-        }
-        return countryRulesets.get(rulesetKey);
+        return snapshot.getRuleset(country, rulesetKey);
     }
 
     /**
@@ -99,21 +206,173 @@ public class RulesetRegistry {
     /**
      * Gets a ruleset with country-specific lookup and global fallback (ADR-0016).
      * <p>
-     * Tries country-specific first, then falls back to global namespace.
+     * Tries country-specific first, then falls back to global namespace. The fallback is
+     * precomputed in the snapshot, so this is a single table lookup.
      *
      * @param country the country code from the transaction
      * @param rulesetKey the ruleset key
      * @return the compiled ruleset, or null if not found in either namespace
      */
     public Ruleset getRulesetWithFallback(String country, String rulesetKey) {
-        if (country != null && !country.isBlank() && !"global".equalsIgnoreCase(country)) {
-            // OPT-16: Add Locale.ROOT to toUpperCase for locale-independent conversion
-            Ruleset countrySpecific = getRuleset(country.toUpperCase(java.util.Locale.ROOT), rulesetKey);
-            if (countrySpecific != null) {
-                return countrySpecific;
+        return snapshot.getRulesetWithFallback(country, rulesetKey);
+    }
+
+    /**
+     * Result of {@link #lookup(String, String)}.
+     *
+     * @param ruleset the ruleset to evaluate with, or null if none is registered
+     * @param fallback true when the transaction's country has no ruleset for the key and
+     *                 the global one was returned instead
+     * @param fieldRegistry the field registry published in the same snapshot as the ruleset
+     */
+    public record RulesetLookup(Ruleset ruleset, boolean fallback, FieldRegistrySnapshot fieldRegistry) {
+    }
+
+    /**
+     * Hot-path lookup with global fallback that never blocks on S3.
+     * <p>
+     * When the country has no ruleset for the key, the global one is returned and tagged
+     * as a fallback; with lazy loading enabled, the first such request also starts one
+     * background load of the country's ruleset ({@link #loadLatestAsync}).
+     *
+     * @param country the country code from the transaction
+     * @param rulesetKey the ruleset key
+     * @return the ruleset and whether the global fallback was used
+     */
+    public RulesetLookup lookup(String country, String rulesetKey) {
+        RegistrySnapshot current = snapshot;
+        if (country == null || country.isBlank() || RegistrySnapshot.GLOBAL.equalsIgnoreCase(country)) {
+            return new RulesetLookup(current.getRuleset(RegistrySnapshot.GLOBAL, rulesetKey), false,
+                    current.fieldRegistry());
+        }
+        // OPT-16: Add Locale.ROOT to toUpperCase for locale-independent conversion
+        String normalized = country.toUpperCase(java.util.Locale.ROOT);
+        Ruleset own = current.getRuleset(normalized, rulesetKey);
+        if (own != null) {
+            return new RulesetLookup(own, false, current.fieldRegistry());
+        }
+        if (lazyLoadExecutor != null) {
+            loadLatestAsync(normalized, rulesetKey);
+        }
+        Ruleset global = current.getRuleset(RegistrySnapshot.GLOBAL, rulesetKey);
+        return new RulesetLookup(global, global != null, current.fieldRegistry());
+    }
+
+    /**
+     * Loads and registers the latest version of a country's ruleset in the background.
+     * <p>
+     * Single-flight: while a load for the same country and key is running, callers get
+     * the same future. Only the country-partitioned path is read: a country without its
+     * own manifest keeps the global fallback instead of registering the legacy ruleset
+     * under its code. A key found missing, or whose load failed, completes with null
+     * without another fetch until the retry interval has passed.
+     *
+     * @param country the country namespace
+     * @param rulesetKey the ruleset key
+     * @return future of the registered ruleset, or of null if none exists
+     */
+    public CompletableFuture<Ruleset> loadLatestAsync(String country, String rulesetKey) {
+        Ruleset cached = getRuleset(country, rulesetKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        Long retryAt = missingUntil.get(country + "/" + rulesetKey);
+        if (retryAt != null && System.nanoTime() - retryAt < 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ExecutorService executor = lazyLoadExecutor;
+        return singleFlight(country, rulesetKey, true, executor != null ? executor : Runnable::run);
+    }
+
+    /**
+     * @param countryPathOnly read only the country-partitioned manifest, without the
+     *        legacy path fallback
+     */
+    private CompletableFuture<Ruleset> singleFlight(String country, String rulesetKey, boolean countryPathOnly,
+                                                    Executor executor) {
+        String flightKey = country + "/" + rulesetKey;
+        CompletableFuture<Ruleset> created = new CompletableFuture<>();
+        CompletableFuture<Ruleset> existing = inFlight.putIfAbsent(flightKey, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    Ruleset loaded = getRuleset(country, rulesetKey);
+                    if (loaded == null) {
+                        loaded = loadFromLocalCache(country, rulesetKey);
+                    }
+                    if (loaded == null) {
+                        loaded = loadAndRegister(country, rulesetKey, () -> countryPathOnly
+                                ? loader.loadLatestCountryRuleset(country, rulesetKey)
+                                : loader.loadLatestCompiledRuleset(country, rulesetKey));
+                        if (loaded != null) {
+                            missingUntil.remove(flightKey);
+                        } else {
+                            backOff(flightKey);
+                            LOG.debugf("No ruleset in S3 for country=%s, key=%s; using global fallback",
+                                    country, rulesetKey);
+                        }
+                    }
+                    created.complete(loaded);
+                } catch (Exception e) {
+                    // A corrupt artifact or compile error would fail the same way on the next request
+                    backOff(flightKey);
+                    LOG.warnf(e, "Failed to load ruleset: country=%s, key=%s", country, rulesetKey);
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(flightKey, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(flightKey, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private void backOff(String flightKey) {
+        missingUntil.put(flightKey, System.nanoTime() + TimeUnit.SECONDS.toNanos(lazyLoadRetrySeconds));
+    }
+
+    /**
+     * Registers the ruleset the local artifact cache last saw and schedules a check
+     * against S3.
+     *
+     * @return the cached ruleset, or null if the cache has none
+     */
+    private Ruleset loadFromLocalCache(String country, String rulesetKey) {
+        if (!loader.isLocalCacheEnabled()) {
+            return null;
+        }
+        Ruleset cached = loadAndRegister(country, rulesetKey, () -> loader.loadCachedRuleset(country, rulesetKey));
+        if (cached == null) {
+            return null;
+        }
+        ExecutorService executor = revalidateExecutor;
+        if (executor != null) {
+            try {
+                executor.execute(() -> revalidate(country, rulesetKey));
+            } catch (RejectedExecutionException e) {
+                LOG.debugf("Skipping revalidation of cached ruleset country=%s, key=%s: shutting down",
+                        country, rulesetKey);
             }
         }
-        return getRuleset("global", rulesetKey);
+        return cached;
+    }
+
+    private void revalidate(String country, String rulesetKey) {
+        try {
+            Ruleset latest = loadAndRegister(country, rulesetKey,
+                    () -> loader.loadLatestIfChanged(country, rulesetKey));
+            if (latest != null) {
+                LOG.infof("Cached ruleset replaced after S3 revalidation: country=%s, key=%s, version=%d",
+                        country, rulesetKey, latest.getVersion());
+            }
+        } catch (Exception e) {
+            LOG.warnf(e, "Failed to revalidate cached ruleset: country=%s, key=%s", country, rulesetKey);
+        }
     }
 
     /**
@@ -129,20 +388,23 @@ public class RulesetRegistry {
      * @param rulesetKey the ruleset key
      * @return the compiled ruleset, or null if not found
      */
-    public synchronized Ruleset getOrLoadLatest(String country, String rulesetKey) {
+    public Ruleset getOrLoadLatest(String country, String rulesetKey) {
         // Check cache first
         Ruleset cached = getRuleset(country, rulesetKey);
         if (cached != null) {
             return cached;
         }
 
-        // Load from S3 with country-partitioned path support
-        return loader.loadLatestCompiledRuleset(country, rulesetKey)
-                .map(compiled -> {
-                    register(country, compiled);
-                    return compiled;
-                })
-                .orElse(null);
+        // Load from S3 with country-partitioned path support; single-flight per key, so
+        // loads of other countries and keys are not blocked
+        try {
+            return singleFlight(country, rulesetKey, false, Runnable::run).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     /**
@@ -157,29 +419,112 @@ public class RulesetRegistry {
      * @param rulesetKey the ruleset key
      * @return the compiled ruleset, or null if not found
      */
-    public synchronized Ruleset getOrLoadLatest(String rulesetKey) {
+    public Ruleset getOrLoadLatest(String rulesetKey) {
         return getOrLoadLatest("global", rulesetKey);
     }
 
     // ========== Registration Operations ==========
 
+    /**
+     * Builds and publishes the next snapshot.
+     *
+     * @param change maps the current snapshot to the next (must not have side effects)
+     * @return the snapshot that was replaced
+     */
+    private RegistrySnapshot update(UnaryOperator<RegistrySnapshot> change) {
+        return update(change, null);
+    }
+
+    /**
+     * Builds and publishes the next snapshot, installing {@code fieldRegistry} in the
+     * {@link FieldRegistryService} under the same lock.
+     *
+     * @param change maps the current snapshot to the next (must not have side effects)
+     * @param fieldRegistry the field registry to install, or null to leave it alone
+     * @return the snapshot that was replaced
+     */
+    private RegistrySnapshot update(UnaryOperator<RegistrySnapshot> change, FieldRegistrySnapshot fieldRegistry) {
+        writeLock.lock();
+        try {
+            RegistrySnapshot current = snapshot;
+            RegistrySnapshot next = change.apply(current);
+            if (fieldRegistry != null && fieldRegistryService != null) {
+                fieldRegistryService.install(fieldRegistry);
+            }
+            if (next != current) {
+                snapshot = next;
+            }
+            return current;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     /**
      * Registers a compiled ruleset.
      * <p>
-     * Thread-safe: Uses atomic ConcurrentHashMap operations.
+     * Thread-safe: publishes a new snapshot.
      *
      * @param country the country code
      * @param compiled the compiled ruleset to register
      */
     public void register(String country, Ruleset compiled) {
-        registry
-                .computeIfAbsent(country, k -> new ConcurrentHashMap<>())
-                .put(compiled.getKey(), compiled);
+        update(current -> current.with(country, compiled));
 
         LOG.infof("Registered ruleset: country=%s, key=%s, version=%d",
                 country, compiled.getKey(), compiled.getVersion());
     }
 
+    /**
+     * Registers a compiled ruleset if {@code compiledAgainst} is still the snapshot's
+     * field registry.
+     *
+     * @param country the country code
+     * @param compiled the compiled ruleset to register
+     * @param compiledAgainst the field registry {@code compiled} resolved its field IDs with
+     * @return false if another field registry was published since, leaving the registry unchanged
+     */
+    private boolean register(String country, Ruleset compiled, FieldRegistrySnapshot compiledAgainst) {
+        RegistrySnapshot previous = update(current -> current.fieldRegistry() == compiledAgainst
+                ? current.with(country, compiled)
+                : current);
+        if (previous.fieldRegistry() != compiledAgainst) {
+            return false;
+        }
+
+        LOG.infof("Registered ruleset: country=%s, key=%s, version=%d",
+                country, compiled.getKey(), compiled.getVersion());
+        return true;
+    }
+
+    /**
+     * Loads a ruleset against the snapshot's field registry and registers it, compiling
+     * again if a hot reload publishes another field registry in between.
+     *
+     * @param country the country code
+     * @param rulesetKey the ruleset key (for logging)
+     * @param load loads and compiles the ruleset
+     * @return the registered ruleset, or null if {@code load} found none
+     * @throws IllegalStateException if the field registry changed on every attempt
+     */
+    private Ruleset loadAndRegister(String country, String rulesetKey, Supplier<Optional<Ruleset>> load) {
+        for (int attempt = 1; attempt <= MAX_COMPILE_ATTEMPTS; attempt++) {
+            FieldRegistrySnapshot fieldRegistry = snapshot.fieldRegistry();
+            Ruleset compiled = compileAgainst(fieldRegistry, load).orElse(null);
+            if (compiled == null || register(country, compiled, fieldRegistry)) {
+                return compiled;
+            }
+            LOG.infof("Field registry changed while loading country=%s, key=%s; compiling again",
+                    country, rulesetKey);
+        }
+        throw new IllegalStateException("Field registry kept changing while loading country=" + country
+                + ", key=" + rulesetKey);
+    }
+
+    private <T> T compileAgainst(FieldRegistrySnapshot fieldRegistry, Supplier<T> work) {
+        return fieldRegistryService != null ? fieldRegistryService.compileAgainst(fieldRegistry, work) : work.get();
+    }
+
     /**
      * Registers a compiled ruleset in the global namespace.
      *
@@ -200,13 +545,13 @@ public class RulesetRegistry {
      */
     public boolean loadAndRegister(String country, String rulesetKey, int version) {
         try {
-            Ruleset compiled = loader.loadCompiledRuleset(rulesetKey, version).orElse(null);
+            Ruleset compiled = loadAndRegister(country, rulesetKey,
+                    () -> loader.loadCompiledRuleset(rulesetKey, version));
             if (compiled == null) {
                 LOG.errorf("Failed to load ruleset: %s v%d", rulesetKey, version);
                 return false;
             }
 
-            register(country, compiled);
             LOG.infof("Loaded and registered: country=%s, key=%s, version=%d",
                     country, rulesetKey, version);
             return true;
@@ -230,22 +575,52 @@ public class RulesetRegistry {
 
     /**
      * Bulk loads multiple rulesets at startup.
+     * <p>
+     * Specs are loaded in parallel, at most {@code app.ruleset.startup.max-concurrency} at
+     * a time; a spec listed more than once is loaded once.
      *
      * @param rulesets list of ruleset specifications to load
      * @return count of successfully loaded rulesets
      */
     public int bulkLoad(List<RulesetSpec> rulesets) {
         LOG.infof("Bulk loading %d rulesets", rulesets.size());
-        int successCount = 0;
 
+        Set<String> seen = new LinkedHashSet<>();
+        List<RulesetSpec> unique = new ArrayList<>(rulesets.size());
         for (RulesetSpec spec : rulesets) {
             String country = spec.country != null ? spec.country : "global";
-            if (loadAndRegister(country, spec.key, spec.version)) {
-                successCount++;
+            if (seen.add(country + "/" + spec.key + "/v" + spec.version)) {
+                unique.add(spec);
             }
         }
+        if (unique.isEmpty()) {
+            return 0;
+        }
 
-        LOG.infof("Bulk load complete: %d/%d rulesets loaded", successCount, rulesets.size());
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(bulkLoadMaxConcurrency, unique.size())), r -> {
+                    Thread thread = new Thread(r, "ruleset-bulk-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        int successCount = 0;
+        try {
+            List<CompletableFuture<Boolean>> loads = new ArrayList<>(unique.size());
+            for (RulesetSpec spec : unique) {
+                String country = spec.country != null ? spec.country : "global";
+                loads.add(CompletableFuture.supplyAsync(
+                        () -> loadAndRegister(country, spec.key, spec.version), executor));
+            }
+            for (CompletableFuture<Boolean> load : loads) {
+                if (load.join()) {
+                    successCount++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LOG.infof("Bulk load complete: %d/%d rulesets loaded", successCount, unique.size());
         return successCount;
     }
 
@@ -258,6 +633,7 @@ public class RulesetRegistry {
      * <ol>
      *   <li>Load new ruleset (don't modify registry yet)</li>
      *   <li>Validate it</li>
+     *   <li>Warm it up ({@link RulesetWarmer}) while the old version keeps serving</li>
      *   <li>Swap atomically (single map operation)</li>
      *   <li>If any step fails, keep old version</li>
      * </ol>
@@ -272,9 +648,11 @@ public class RulesetRegistry {
                 country, rulesetKey, newVersion);
 
         // Step 1: Load new ruleset (don't modify registry yet)
+        FieldRegistrySnapshot fieldRegistry = snapshot.fieldRegistry();
         Ruleset newRuleset;
         try {
-            newRuleset = loader.loadCompiledRuleset(rulesetKey, newVersion).orElse(null);
+            newRuleset = compileAgainst(fieldRegistry,
+                    () -> loader.loadCompiledRuleset(rulesetKey, newVersion)).orElse(null);
 
             if (newRuleset == null) {
                 LOG.errorf("Hot swap failed: could not load %s v%d", rulesetKey, newVersion);
@@ -286,37 +664,46 @@ public class RulesetRegistry {
             return new HotSwapResult(false, "LOAD_ERROR", "Failed to load ruleset", -1);
         }
 
+        return swapIn(country, rulesetKey, newRuleset, fieldRegistry);
+    }
+
+    /**
+     * Validates a loaded ruleset, warms it up and swaps it in (hot swap steps 2 to 4),
+     * unless a field registry other than {@code compiledAgainst} was published since it
+     * was compiled.
+     */
+    private HotSwapResult swapIn(String country, String rulesetKey, Ruleset newRuleset,
+                                 FieldRegistrySnapshot compiledAgainst) {
+        int newVersion = newRuleset.getVersion();
+
         // Step 2: Validate (basic sanity check)
         if (newRuleset.getRules().isEmpty()) {
             LOG.warnf("Hot swap failed: new ruleset has no rules: %s v%d", rulesetKey, newVersion);
             return new HotSwapResult(false, "VALIDATION_FAILED", "Ruleset has no rules", -1);
         }
 
-        // Step 3: Atomic swap (single map operation)
+        // Step 3: Warm up against the version being replaced, before anyone can see it
+        RulesetWarmer.WarmupReport warmup = warmUp(snapshot.getRuleset(country, rulesetKey), newRuleset);
+
+        // Step 4: Atomic swap (single snapshot publication)
         try {
-            ConcurrentHashMap<String, Ruleset> countryRulesets =
-                    registry.get(country);
-
-            if (countryRulesets == null) {
-                countryRulesets = new ConcurrentHashMap<>();
-                ConcurrentHashMap<String, Ruleset> existing =
-                        registry.putIfAbsent(country, countryRulesets);
-                if (existing != null) {
-                    countryRulesets = existing;
-                }
+            RegistrySnapshot previous = update(current -> current.fieldRegistry() == compiledAgainst
+                    ? current.with(country, newRuleset)
+                    : current);
+            if (previous.fieldRegistry() != compiledAgainst) {
+                LOG.warnf("Hot swap skipped: field registry changed while loading %s v%d", rulesetKey, newVersion);
+                return new HotSwapResult(false, "FIELD_REGISTRY_CHANGED",
+                        "Field registry changed during load; retry the swap", -1);
             }
 
             // Get old version for logging
-            Ruleset oldRuleset = countryRulesets.get(rulesetKey);
+            Ruleset oldRuleset = previous.getRuleset(country, rulesetKey);
             int oldVersion = oldRuleset != null ? oldRuleset.getVersion() : -1;
 
-            // Atomic replace
-            countryRulesets.put(rulesetKey, newRuleset);
-
-            LOG.infof("Hot swap successful: country=%s, key=%s, oldVersion=%d, newVersion=%d",
-                    country, rulesetKey, oldVersion, newVersion);
+            LOG.infof("Hot swap successful: country=%s, key=%s, oldVersion=%d, newVersion=%d, warmupMs=%d",
+                    country, rulesetKey, oldVersion, newVersion, warmup.durationMs());
 
-            return new HotSwapResult(true, "SUCCESS", "Hot swap completed", oldVersion);
+            return new HotSwapResult(true, "SUCCESS", "Hot swap completed", oldVersion, warmup);
 
         } catch (Exception e) {
             LOG.errorf(e, "Hot swap failed: error during swap for %s v%d", rulesetKey, newVersion);
@@ -324,6 +711,10 @@ public class RulesetRegistry {
         }
     }
 
+    private RulesetWarmer.WarmupReport warmUp(Ruleset outgoing, Ruleset candidate) {
+        return warmer != null ? warmer.warm(candidate, outgoing) : RulesetWarmer.WarmupReport.SKIPPED;
+    }
+
     /**
      * Hot-swaps a ruleset in the global namespace.
      *
@@ -335,6 +726,41 @@ public class RulesetRegistry {
         return hotSwap("global", rulesetKey, newVersion);
     }
 
+    /**
+     * Publishes a field registry together with the rulesets compiled against it, in one
+     * snapshot. This is where hot reload installs a new field registry: the
+     * {@link FieldRegistryService} is switched under the same writer lock, so requests never
+     * pair new rulesets with the old field registry or the reverse.
+     *
+     * @param fieldRegistry the prepared field registry
+     * @param rulesets country namespace to key to ruleset; replaces those entries, keeps others
+     * @return the number of rulesets swapped in
+     */
+    public int publish(FieldRegistrySnapshot fieldRegistry, Map<String, ? extends Map<String, Ruleset>> rulesets) {
+        RegistrySnapshot live = snapshot;
+        for (Map.Entry<String, ? extends Map<String, Ruleset>> country : rulesets.entrySet()) {
+            for (Map.Entry<String, Ruleset> entry : country.getValue().entrySet()) {
+                warmUp(live.getRuleset(country.getKey(), entry.getKey()), entry.getValue());
+            }
+        }
+        RegistrySnapshot previous = update(current -> current.withAll(rulesets, fieldRegistry), fieldRegistry);
+        int swapped = rulesets.values().stream().mapToInt(Map::size).sum();
+        LOG.infof("Published registry snapshot: fieldRegistryVersion=%d (was %d), rulesets swapped=%d",
+                fieldRegistry.version(), previous.fieldRegistryVersion(), swapped);
+        return swapped;
+    }
+
+    /**
+     * Records the field registry the current rulesets were loaded against (at startup).
+     *
+     * @param fieldRegistry the installed field registry
+     */
+    public void setFieldRegistry(FieldRegistrySnapshot fieldRegistry) {
+        update(current -> current.fieldRegistry() == fieldRegistry
+                ? current
+                : current.withFieldRegistry(fieldRegistry));
+    }
+
     // ========== Management Operations ==========
 
     /**
@@ -343,7 +769,7 @@ public class RulesetRegistry {
      * @return set of country codes
      */
     public Set<String> getCountries() {
-        return Set.copyOf(registry.keySet());
+        return snapshot.countries();
     }
 
     /**
@@ -353,8 +779,7 @@ public class RulesetRegistry {
      * @return set of ruleset keys
      */
     public Set<String> getRulesetKeys(String country) {
-        ConcurrentHashMap<String, Ruleset> countryRulesets = registry.get(country);
-        return countryRulesets != null ? Set.copyOf(countryRulesets.keySet()) : Set.of();
+        return snapshot.rulesetKeys(country);
     }
 
     /**
@@ -363,16 +788,14 @@ public class RulesetRegistry {
      * @return total count
      */
     public int size() {
-        return registry.values().stream()
-                .mapToInt(Map::size)
-                .sum();
+        return snapshot.size();
     }
 
     /**
      * Clears all cached rulesets.
      */
     public void clear() {
-        registry.clear();
+        update(RegistrySnapshot::cleared);
         LOG.info("RulesetRegistry cleared");
     }
 
@@ -382,7 +805,7 @@ public class RulesetRegistry {
      * @param country the country code
      */
     public void clearCountry(String country) {
-        registry.remove(country);
+        update(current -> current.withoutCountry(country));
         LOG.infof("Cleared rulesets for country: %s", country);
     }
 
@@ -394,11 +817,8 @@ public class RulesetRegistry {
      * @return true if the ruleset was removed
      */
     public boolean invalidate(String country, String rulesetKey) {
-        ConcurrentHashMap<String, Ruleset> countryRulesets = registry.get(country);
-        if (countryRulesets == null) {
-            return false;
-        }
-        boolean removed = countryRulesets.remove(rulesetKey) != null;
+        boolean removed = update(current -> current.without(country, rulesetKey))
+                .getRuleset(country, rulesetKey) != null;
         if (removed) {
             LOG.infof("Invalidated ruleset: country=%s, key=%s", country, rulesetKey);
         }
@@ -422,32 +842,44 @@ public class RulesetRegistry {
         );
     }
 
-    private void checkForUpdates() {
+    /**
+     * Polls the manifest of every registered ruleset (conditional GET, so unchanged
+     * manifests cost a 304) and downloads an artifact only when its country's manifest
+     * names a newer version.
+     */
+    void checkForUpdates() {
         try {
             LOG.debug("Checking for ruleset updates...");
-            AtomicInteger updateCount = new AtomicInteger(0);
+            int count = 0;
 
-            for (Map.Entry<String, ConcurrentHashMap<String, Ruleset>> countryEntry : registry.entrySet()) {
+            for (Map.Entry<String, Map<String, Ruleset>> countryEntry : snapshot.rulesetsByCountry().entrySet()) {
                 String country = countryEntry.getKey();
                 for (Map.Entry<String, Ruleset> entry : countryEntry.getValue().entrySet()) {
                     String key = entry.getKey();
                     int currentVersion = entry.getValue().getVersion();
 
-                    // Check if there's a newer version
-                    loader.loadLatestCompiledRuleset(key).ifPresent(latest -> {
-                        if (latest.getVersion() > currentVersion) {
-                            LOG.infof("New version available: %s v%d (current: v%d)",
-                                    key, latest.getVersion(), currentVersion);
-                            HotSwapResult result = hotSwap(country, key, latest.getVersion());
-                            if (result.success()) {
-                                updateCount.incrementAndGet();
-                            }
-                        }
-                    });
+                    RulesetManifest manifest = loader.pollManifest(country, key);
+                    Integer latestVersion = manifest != null ? manifest.getRulesetVersion() : null;
+                    if (latestVersion == null || latestVersion <= currentVersion) {
+                        continue;
+                    }
+
+                    LOG.infof("New version available: country=%s, key=%s v%d (current: v%d)",
+                            country, key, latestVersion, currentVersion);
+                    FieldRegistrySnapshot fieldRegistry = snapshot.fieldRegistry();
+                    Ruleset latest = compileAgainst(fieldRegistry,
+                            () -> loader.loadFromManifest(country, key, manifest)).orElse(null);
+                    if (latest == null) {
+                        LOG.warnf("Auto-reload could not load country=%s, key=%s v%d; keeping v%d",
+                                country, key, latestVersion, currentVersion);
+                        continue;
+                    }
+                    if (swapIn(country, key, latest, fieldRegistry).success()) {
+                        count++;
+                    }
                 }
             }
 
-            int count = updateCount.get();
             if (count > 0) {
                 LOG.infof("Auto-reload complete: %d rulesets updated", count);
             }
@@ -497,12 +929,19 @@ public class RulesetRegistry {
         private final String status;
         private final String message;
         private final int oldVersion;
+        private final RulesetWarmer.WarmupReport warmup;
 
         public HotSwapResult(boolean success, String status, String message, int oldVersion) {
+            this(success, status, message, oldVersion, RulesetWarmer.WarmupReport.SKIPPED);
+        }
+
+        public HotSwapResult(boolean success, String status, String message, int oldVersion,
+                             RulesetWarmer.WarmupReport warmup) {
             this.success = success;
             this.status = status;
             this.message = message;
             this.oldVersion = oldVersion;
+            this.warmup = warmup;
         }
 
         public boolean success() {
@@ -521,6 +960,13 @@ public class RulesetRegistry {
             return oldVersion;
         }
 
+        /**
+         * @return how the new version was warmed up before the swap
+         */
+        public RulesetWarmer.WarmupReport warmup() {
+            return warmup;
+        }
+
         @Override
         public String toString() {
             return "HotSwapResult{" +
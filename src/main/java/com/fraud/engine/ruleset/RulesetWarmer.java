@@ -0,0 +1,240 @@
+package com.fraud.engine.ruleset;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.engine.RuleEvaluator;
+import com.fraud.engine.util.EngineMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms a ruleset up before a hot swap publishes it.
+ * <p>
+ * A freshly loaded ruleset starts with an empty applicable-rules cache and compiled
+ * conditions (or a generated program class) the JIT has never seen, so the first seconds
+ * after a swap are slow. Before the swap, the warmer
+ * <ol>
+ *   <li>copies the outgoing version's hottest scope keys into the candidate's
+ *       applicable-rules cache, and</li>
+ *   <li>evaluates a transaction sample against the candidate in replay mode for a few
+ *       passes, within a time budget. Velocity is stubbed to a zero count (no Redis reads
+ *       or increments, so Redis latency stays out of the timings), nothing is written to
+ *       the outbox, and adaptive groups do not sample these evaluations.</li>
+ * </ol>
+ * The sample is read from {@code app.ruleset.warmup.sample-file} (a JSON array of
+ * recorded transactions) when set, otherwise built from the hot scope keys.
+ * <p>
+ * The same sample is also timed against the outgoing ruleset, so the report shows the
+ * latency the swap will cause: the candidate's first (cold) and last (warm) pass against
+ * the outgoing version.
+ */
+@ApplicationScoped
+public class RulesetWarmer {
+
+    private static final Logger LOG = Logger.getLogger(RulesetWarmer.class);
+
+    private static final String[] COUNTRIES = {"US", "GB", "DE", "FR", "BR"};
+    private static final String[] CURRENCIES = {"USD", "GBP", "EUR", "EUR", "BRL"};
+    private static final long[] AMOUNTS = {1, 25, 99, 150, 500, 1_000, 5_000, 25_000};
+
+    @ConfigProperty(name = "app.ruleset.warmup.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    @ConfigProperty(name = "app.ruleset.warmup.sample-size", defaultValue = "512")
+    int sampleSize = 512;
+
+    @ConfigProperty(name = "app.ruleset.warmup.passes", defaultValue = "5")
+    int passes = 5;
+
+    @ConfigProperty(name = "app.ruleset.warmup.max-duration-ms", defaultValue = "2000")
+    long maxDurationMs = 2000;
+
+    @ConfigProperty(name = "app.ruleset.warmup.hot-scope-keys", defaultValue = "1024")
+    int hotScopeKeys = 1024;
+
+    @ConfigProperty(name = "app.ruleset.warmup.sample-file")
+    Optional<String> sampleFile = Optional.empty();
+
+    @Inject
+    RuleEvaluator ruleEvaluator;
+
+    @Inject
+    EngineMetrics engineMetrics;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private volatile List<TransactionContext> recordedSample;
+
+    /**
+     * Outcome of one warm-up.
+     *
+     * @param durationMs total warm-up time (scope keys, sample passes and baseline)
+     * @param scopeKeys scope keys copied from the outgoing version
+     * @param transactions transactions in the sample
+     * @param passes sample passes run against the candidate
+     * @param coldMeanNanos mean evaluation time of the candidate's first pass
+     * @param warmMeanNanos mean evaluation time of the candidate's last pass
+     * @param baselineMeanNanos mean evaluation time of the outgoing ruleset (-1 if none)
+     */
+    public record WarmupReport(long durationMs, int scopeKeys, int transactions, int passes,
+                               long coldMeanNanos, long warmMeanNanos, long baselineMeanNanos) {
+
+        static final WarmupReport SKIPPED = new WarmupReport(0, 0, 0, 0, -1, -1, -1);
+
+        /**
+         * @return expected per-evaluation latency change once the candidate is live
+         *         (warm candidate minus outgoing), or 0 if there is no outgoing version
+         */
+        public long latencyDeltaNanos() {
+            return baselineMeanNanos >= 0 && warmMeanNanos >= 0 ? warmMeanNanos - baselineMeanNanos : 0;
+        }
+    }
+
+    /**
+     * @return true if hot swaps are warmed up before they are published
+     */
+    public boolean isEnabled() {
+        return enabled && ruleEvaluator != null;
+    }
+
+    /**
+     * Warms a candidate ruleset. Never throws: a failed warm-up is logged and the swap
+     * goes ahead cold.
+     *
+     * @param candidate the ruleset about to be published
+     * @param outgoing the ruleset it replaces (null if none)
+     * @return the warm-up report ({@link WarmupReport#SKIPPED} if disabled)
+     */
+    public WarmupReport warm(Ruleset candidate, Ruleset outgoing) {
+        if (!isEnabled() || candidate == null) {
+            return WarmupReport.SKIPPED;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        try {
+            List<Ruleset.ScopeCacheKey> hotKeys = outgoing != null
+                    ? outgoing.hottestScopeKeys(hotScopeKeys)
+                    : List.of();
+            int scopeKeys = candidate.warmScopeCache(hotKeys);
+
+            List<TransactionContext> sample = sample(hotKeys);
+            long coldMean = -1;
+            long warmMean = -1;
+            int passesRun = 0;
+            while (passesRun < passes && !sample.isEmpty()) {
+                long mean = timePass(candidate, sample);
+                if (passesRun == 0) {
+                    coldMean = mean;
+                }
+                warmMean = mean;
+                passesRun++;
+                if (System.nanoTime() - deadline > 0) {
+                    break;
+                }
+            }
+            long baselineMean = outgoing != null && !sample.isEmpty() ? timePass(outgoing, sample) : -1;
+
+            WarmupReport report = new WarmupReport(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    scopeKeys, sample.size(), passesRun, coldMean, warmMean, baselineMean);
+            if (engineMetrics != null) {
+                engineMetrics.recordRulesetWarmup(report.durationMs(), report.latencyDeltaNanos());
+            }
+            LOG.infof("Warmed ruleset %s v%d in %d ms: %d scope keys, %d transactions x %d passes, "
+                            + "mean eval %d ns cold / %d ns warm / %d ns outgoing (delta %+d ns)",
+                    candidate.getKey(), candidate.getVersion(), report.durationMs(), scopeKeys,
+                    sample.size(), passesRun, coldMean, warmMean, baselineMean, report.latencyDeltaNanos());
+            return report;
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Warm-up of ruleset %s v%d failed; publishing it cold",
+                    candidate.getKey(), candidate.getVersion());
+            return WarmupReport.SKIPPED;
+        }
+    }
+
+    /**
+     * Evaluates every transaction once as a warm-up replay (velocity stubbed).
+     *
+     * @return mean nanoseconds per evaluation
+     */
+    private long timePass(Ruleset ruleset, List<TransactionContext> sample) {
+        long start = System.nanoTime();
+        for (TransactionContext transaction : sample) {
+            ruleEvaluator.evaluateWarmup(transaction, ruleset);
+        }
+        return (System.nanoTime() - start) / sample.size();
+    }
+
+    private List<TransactionContext> sample(List<Ruleset.ScopeCacheKey> hotKeys) {
+        List<TransactionContext> recorded = recordedSample();
+        return recorded != null ? recorded : syntheticSample(hotKeys, sampleSize);
+    }
+
+    /**
+     * @return the recorded sample, read once; null if none is configured or readable
+     */
+    private List<TransactionContext> recordedSample() {
+        if (sampleFile.isEmpty() || sampleFile.get().isBlank()) {
+            return null;
+        }
+        List<TransactionContext> sample = recordedSample;
+        if (sample == null) {
+            try {
+                List<TransactionContext> read = jsonMapper.readValue(
+                        Files.readAllBytes(Path.of(sampleFile.get())), new TypeReference<>() {
+                        });
+                sample = List.copyOf(read.subList(0, Math.min(read.size(), sampleSize)));
+                recordedSample = sample;
+                LOG.infof("Loaded %d recorded warm-up transactions from %s", sample.size(), sampleFile.get());
+            } catch (Exception e) {
+                LOG.warnf("Cannot read warm-up sample %s, using a synthetic sample: %s",
+                        sampleFile.get(), e.getMessage());
+                return null;
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Builds transactions that cycle through the hot scope keys and a spread of amounts,
+     * countries and channels, so both matching and non-matching paths are exercised.
+     */
+    static List<TransactionContext> syntheticSample(List<Ruleset.ScopeCacheKey> hotKeys, int size) {
+        List<TransactionContext> sample = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TransactionContext transaction = new TransactionContext();
+            transaction.setTransactionId("warmup-" + i);
+            transaction.setCardHash("warmup-card-" + (i % 64));
+            transaction.setAmount(BigDecimal.valueOf(AMOUNTS[i % AMOUNTS.length]));
+            transaction.setCountryCode(COUNTRIES[i % COUNTRIES.length]);
+            transaction.setCurrency(CURRENCIES[i % CURRENCIES.length]);
+            transaction.setCardPresent(i % 2 == 0);
+            transaction.setMerchantId("warmup-merchant-" + (i % 16));
+            if (!hotKeys.isEmpty()) {
+                Ruleset.ScopeCacheKey key = hotKeys.get(i % hotKeys.size());
+                transaction.setCardNetwork(key.network());
+                transaction.setCardBin(key.bin());
+                transaction.setMerchantCategoryCode(key.mcc());
+                transaction.setCardLogo(key.logo());
+            }
+            sample.add(transaction);
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,577 @@
+package com.fraud.engine.ruleset;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.RuleScope;
+import com.fraud.engine.domain.VelocityConfig;
+import com.fraud.engine.engine.ConditionCompiler;
+import com.fraud.engine.util.DecisionNormalizer;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Token-level reader for compiled ruleset artifacts ({@code ruleset.json}).
+ * <p>
+ * Reads the artifact straight off the stream and builds each {@link Rule}, with its
+ * condition tree and {@link CompiledCondition}, as soon as the rule's object has been
+ * read, so no {@link JsonNode} tree of the whole artifact is ever held. Condition values
+ * become plain Java values ({@code String}, {@code Integer}/{@code Long}/{@code BigInteger},
+ * {@code Double}, {@code Boolean}, {@code List}, {@code Map}) as they are read, with no
+ * per-leaf {@code convertValue}. {@code velocity} is bound straight from the stream; only
+ * the small {@code scope} object of each rule is read as a tree.
+ * <p>
+ * The accepted shapes, key aliases and precedence are those of the tree-based reader this
+ * replaced: keys may appear in any order, the first alias listed wins when several are
+ * present, and a key whose value has the wrong JSON type is treated as absent.
+ * <p>
+ * The parser never closes the input stream, so a caller hashing the stream can drain it
+ * afterwards.
+ */
+final class StreamingRulesetParser {
+
+    private static final Logger LOG = Logger.getLogger(StreamingRulesetParser.class);
+
+    private final ObjectMapper mapper;
+
+    StreamingRulesetParser(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Reads one artifact.
+     *
+     * @param in the artifact bytes; left open
+     * @return the parsed artifact, or null if the stream holds no JSON value
+     * @throws IOException on malformed JSON
+     * @throws IllegalArgumentException if the artifact is not an object or a rule is invalid
+     */
+    ParsedArtifact parse(InputStream in) throws IOException {
+        try (JsonParser p = mapper.createParser(in)) {
+            p.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken first = p.nextToken();
+            if (first == null) {
+                return null;
+            }
+            if (first != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Ruleset artifact must be a JSON object, got " + first);
+            }
+            return readRuleset(p);
+        }
+    }
+
+    private ParsedArtifact readRuleset(JsonParser p) throws IOException {
+        Map<String, String> strings = new HashMap<>();
+        Map<String, Integer> ints = new HashMap<>();
+        String evaluationMode = null;
+        String evaluationEngine = null;
+        List<Rule> rules = new ArrayList<>();
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken token = p.nextToken();
+            switch (name) {
+                case "ruleset_key", "rulesetKey", "ruleset_id", "rulesetId", "execution_mode",
+                     "rule_type", "ruleType", "evaluation_engine", "evaluationEngine" ->
+                        readString(p, token, strings, name);
+                case "ruleset_version", "rulesetVersion", "version" -> readInt(p, token, ints, name);
+                case "evaluation" -> {
+                    if (token != JsonToken.START_OBJECT) {
+                        p.skipChildren();
+                        break;
+                    }
+                    Map<String, String> evaluation = new HashMap<>();
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = p.currentName();
+                        readString(p, p.nextToken(), evaluation, field);
+                    }
+                    evaluationMode = evaluation.get("mode");
+                    evaluationEngine = evaluation.get("engine");
+                }
+                case "rules" -> {
+                    if (token != JsonToken.START_ARRAY) {
+                        p.skipChildren();
+                        break;
+                    }
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        Rule rule = readRule(p);
+                        if (rule != null) {
+                            rules.add(rule);
+                        }
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+
+        String engine = first(strings, "evaluation_engine", "evaluationEngine");
+        return new ParsedArtifact(
+                first(strings, "ruleset_key", "rulesetKey"),
+                first(ints, "ruleset_version", "rulesetVersion", "version"),
+                first(strings, "ruleset_id", "rulesetId"),
+                strings.get("execution_mode"),
+                evaluationMode,
+                engine != null ? engine : evaluationEngine,
+                first(strings, "rule_type", "ruleType"),
+                rules);
+    }
+
+    private Rule readRule(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            LOG.warn("Skipping rule with missing rule_id");
+            return null;
+        }
+
+        Map<String, String> strings = new HashMap<>();
+        Map<String, Integer> ints = new HashMap<>();
+        boolean enabled = true;
+        String action = null;
+        RawCondition condition = null;
+        RawCondition when = null;
+        VelocityConfig velocity = null;
+        JsonNode scopeNode = null;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken token = p.nextToken();
+            switch (name) {
+                case "rule_id", "ruleId", "rule_version_id", "ruleVersionId" -> readString(p, token, strings, name);
+                case "priority", "rule_version", "ruleVersion" -> readInt(p, token, ints, name);
+                case "enabled" -> enabled = readBoolean(p, token, true);
+                case "action" -> action = readAction(p, token);
+                case "condition" -> condition = readCondition(p, token);
+                case "when" -> when = readCondition(p, token);
+                case "velocity" -> velocity = token == JsonToken.VALUE_NULL ? null : p.readValueAs(VelocityConfig.class);
+                case "scope" -> scopeNode = p.readValueAsTree();
+                default -> p.skipChildren();
+            }
+        }
+
+        String ruleId = first(strings, "rule_id", "ruleId");
+        if (ruleId == null) {
+            LOG.warn("Skipping rule with missing rule_id");
+            return null;
+        }
+
+        Integer priority = ints.get("priority");
+        action = DecisionNormalizer.normalizeRuleAction(action);
+        if (action == null) {
+            action = "APPROVE";
+        }
+
+        RawCondition conditionSpec = condition == null || condition == RawCondition.JSON_NULL ? when : condition;
+        List<Condition> conditions = new ArrayList<>();
+        collectLeafConditions(conditionSpec, conditions);
+        ConditionNode conditionTree;
+        try {
+            conditionTree = toConditionNode(conditionSpec);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Rule " + ruleId + " has an invalid REGEX pattern: "
+                    + e.getMessage(), e);
+        }
+        CompiledCondition compiledCondition = ConditionCompiler.compileTree(conditionTree);
+
+        Rule rule = new Rule(ruleId, ruleId, action);
+        rule.setPriority(priority != null ? priority : 0);
+        rule.setEnabled(enabled);
+        rule.setConditions(conditions);
+        rule.setCompiledCondition(compiledCondition);
+        rule.setConditionTree(conditionTree);
+        rule.setVelocity(withAction(velocity, action));
+        rule.setScope(toScope(scopeNode));
+        rule.setRuleVersionId(first(strings, "rule_version_id", "ruleVersionId"));
+        rule.setRuleVersion(first(ints, "rule_version", "ruleVersion"));
+        return rule;
+    }
+
+    private static VelocityConfig withAction(VelocityConfig config, String ruleAction) {
+        if (config == null) {
+            return null;
+        }
+        String velocityAction = DecisionNormalizer.normalizeRuleAction(config.getAction());
+        if (velocityAction != null) {
+            config.setAction(velocityAction);
+        }
+        if (config.getAction() == null) {
+            config.setAction(ruleAction);
+        }
+        return config;
+    }
+
+    private RuleScope toScope(JsonNode scopeNode) {
+        if (scopeNode == null || scopeNode.isNull() || scopeNode.isEmpty()) {
+            return RuleScope.GLOBAL;
+        }
+        RuleScope scope = RuleScope.fromScopeNode(scopeNode, mapper);
+        return scope != null ? scope : RuleScope.GLOBAL;
+    }
+
+    /**
+     * Reads {@code action}: a string, or an object with a {@code decision} (preferred) or
+     * {@code action} string.
+     */
+    private static String readAction(JsonParser p, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return p.getText().toUpperCase();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        Map<String, String> strings = new HashMap<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            readString(p, p.nextToken(), strings, name);
+        }
+        String action = first(strings, "decision", "action");
+        return action != null ? action.toUpperCase() : null;
+    }
+
+    // ========== Conditions ==========
+
+    /**
+     * A condition value as read from the stream: an object's known keys, an array's
+     * elements, or a marker for JSON null / any other scalar. Interpreted into
+     * {@link ConditionNode}s once the whole value has been read, because the keys that
+     * decide its shape may come in any order.
+     */
+    private static final class RawCondition {
+        static final RawCondition JSON_NULL = new RawCondition();
+        static final RawCondition SCALAR = new RawCondition();
+
+        List<RawCondition> items;
+        RawCondition and;
+        RawCondition or;
+        RawCondition not;
+        RawCondition args;
+        RawCondition conditions;
+        String type;
+        String op;
+        String operator;
+        String field;
+        Object value;
+        List<Object> values;
+
+        boolean isArray() {
+            return items != null;
+        }
+    }
+
+    private RawCondition readCondition(JsonParser p, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return RawCondition.JSON_NULL;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            RawCondition array = new RawCondition();
+            array.items = new ArrayList<>();
+            JsonToken next;
+            while ((next = p.nextToken()) != JsonToken.END_ARRAY) {
+                array.items.add(readCondition(p, next));
+            }
+            return array;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return RawCondition.SCALAR;
+        }
+
+        RawCondition node = new RawCondition();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken valueToken = p.nextToken();
+            switch (name) {
+                case "and" -> node.and = readCondition(p, valueToken);
+                case "or" -> node.or = readCondition(p, valueToken);
+                case "not" -> node.not = readCondition(p, valueToken);
+                case "args" -> node.args = readCondition(p, valueToken);
+                case "conditions" -> node.conditions = readCondition(p, valueToken);
+                case "type" -> node.type = textOrSkip(p, valueToken);
+                case "op" -> node.op = textOrSkip(p, valueToken);
+                case "operator" -> node.operator = textOrSkip(p, valueToken);
+                case "field" -> node.field = textOrSkip(p, valueToken);
+                case "value" -> node.value = readPlainValue(p, valueToken);
+                case "values" -> node.values = valueToken == JsonToken.START_ARRAY ? readPlainArray(p) : skip(p);
+                default -> p.skipChildren();
+            }
+        }
+        return node;
+    }
+
+    private ConditionNode toConditionNode(RawCondition node) {
+        if (node == null || node == RawCondition.JSON_NULL) {
+            return ConditionNode.ALWAYS_TRUE;
+        }
+
+        if (node.and != null) {
+            return combineConditions(node.and, true);
+        }
+        if (node.or != null) {
+            return combineConditions(node.or, false);
+        }
+        if (node.not != null) {
+            return notCondition(node.not);
+        }
+
+        if (node.type != null) {
+            return switch (node.type.trim().toLowerCase()) {
+                case "and" -> combineConditions(node.conditions, true);
+                case "or" -> combineConditions(node.conditions, false);
+                case "not" -> notCondition(node.conditions);
+                case "condition" -> {
+                    String operator = node.operator != null ? node.operator : node.op;
+                    if (operator == null) {
+                        yield ConditionNode.ALWAYS_TRUE;
+                    }
+                    yield leafCondition(node, operator);
+                }
+                default -> ConditionNode.ALWAYS_TRUE;
+            };
+        }
+
+        String op = node.op != null ? node.op : node.operator;
+        if (op == null) {
+            return ConditionNode.ALWAYS_TRUE;
+        }
+
+        String normalized = op.trim().toLowerCase();
+        return switch (normalized) {
+            case "and" -> combineConditions(node, true);
+            case "or" -> combineConditions(node, false);
+            case "not" -> notCondition(node);
+            default -> leafCondition(node, normalized);
+        };
+    }
+
+    private ConditionNode combineConditions(RawCondition node, boolean useAnd) {
+        RawCondition args = node;
+        if (args != null && !args.isArray()) {
+            args = node.args != null ? node.args : node.conditions;
+        }
+        List<ConditionNode> children = new ArrayList<>();
+        if (args != null && args.isArray()) {
+            for (RawCondition child : args.items) {
+                children.add(toConditionNode(child));
+            }
+        }
+        if (children.isEmpty()) {
+            return ConditionNode.ALWAYS_TRUE;
+        }
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        return useAnd ? new ConditionNode.And(children) : new ConditionNode.Or(children);
+    }
+
+    private ConditionNode notCondition(RawCondition node) {
+        if (node == null || node == RawCondition.JSON_NULL) {
+            return ConditionNode.ALWAYS_TRUE;
+        }
+        RawCondition args = node;
+        if (!node.isArray()) {
+            RawCondition candidate = node.args != null ? node.args : node.conditions;
+            if (candidate != null) {
+                args = candidate;
+            }
+        }
+        if (args.isArray() && !args.items.isEmpty()) {
+            return new ConditionNode.Not(toConditionNode(args.items.get(0)));
+        }
+        return new ConditionNode.Not(toConditionNode(args));
+    }
+
+    private ConditionNode leafCondition(RawCondition node, String operator) {
+        Condition condition = toCondition(node, operator);
+        if (condition == null) {
+            return ConditionNode.ALWAYS_TRUE;
+        }
+        return new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+    }
+
+    private static Condition toCondition(RawCondition node, String operator) {
+        if (node.field == null) {
+            return null;
+        }
+        Condition condition = new Condition();
+        condition.setField(node.field);
+        condition.setOperator(operator);
+        if (node.value != null) {
+            condition.setValue(node.value);
+        }
+        if (node.values != null) {
+            condition.setValues(node.values);
+        }
+        return condition;
+    }
+
+    /**
+     * Collects the leaf conditions of a condition value into {@link Rule#getConditions()}.
+     */
+    private void collectLeafConditions(RawCondition node, List<Condition> out) {
+        if (node == null || node == RawCondition.JSON_NULL) {
+            return;
+        }
+        if (node.and != null) {
+            collectLeafConditions(node.and, out);
+            return;
+        }
+        if (node.or != null) {
+            collectLeafConditions(node.or, out);
+            return;
+        }
+        if (node.not != null) {
+            collectLeafConditions(node.not, out);
+            return;
+        }
+
+        if (node.type != null) {
+            String normalizedType = node.type.trim().toLowerCase();
+            if ("and".equals(normalizedType) || "or".equals(normalizedType) || "not".equals(normalizedType)) {
+                collectLeafConditions(node.conditions, out);
+                return;
+            }
+            if ("condition".equals(normalizedType)) {
+                Condition condition = toCondition(node, node.operator != null ? node.operator : node.op);
+                if (condition != null) {
+                    out.add(condition);
+                }
+                return;
+            }
+        }
+
+        if (node.isArray()) {
+            for (RawCondition child : node.items) {
+                collectLeafConditions(child, out);
+            }
+            return;
+        }
+
+        String op = node.op != null ? node.op : node.operator;
+        if (op == null) {
+            return;
+        }
+        String normalized = op.trim().toLowerCase();
+        if ("and".equals(normalized) || "or".equals(normalized) || "not".equals(normalized)) {
+            RawCondition args = node.args != null ? node.args : node.conditions;
+            if (args != null && args.isArray()) {
+                for (RawCondition child : args.items) {
+                    collectLeafConditions(child, out);
+                }
+            }
+            return;
+        }
+        Condition condition = toCondition(node, normalized);
+        if (condition != null) {
+            out.add(condition);
+        }
+    }
+
+    // ========== Scalars ==========
+
+    /**
+     * Reads any JSON value as the plain Java value untyped Jackson binding would give.
+     */
+    private static Object readPlainValue(JsonParser p, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> p.getText();
+            case VALUE_NUMBER_INT -> p.getNumberValue();
+            case VALUE_NUMBER_FLOAT -> p.getDoubleValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case START_ARRAY -> readPlainArray(p);
+            case START_OBJECT -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = p.currentName();
+                    map.put(name, readPlainValue(p, p.nextToken()));
+                }
+                yield map;
+            }
+            default -> null;
+        };
+    }
+
+    private static List<Object> readPlainArray(JsonParser p) throws IOException {
+        List<Object> list = new ArrayList<>();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            list.add(readPlainValue(p, token));
+        }
+        return list;
+    }
+
+    private static void readString(JsonParser p, JsonToken token, Map<String, String> out, String name)
+            throws IOException {
+        String text = textOrSkip(p, token);
+        if (text != null) {
+            out.put(name, text);
+        } else {
+            out.remove(name);
+        }
+    }
+
+    private static void readInt(JsonParser p, JsonToken token, Map<String, Integer> out, String name)
+            throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            out.put(name, p.getNumberValue().intValue());
+        } else {
+            p.skipChildren();
+            out.remove(name);
+        }
+    }
+
+    /**
+     * Same coercions as {@code JsonNode.asBoolean(default)}: booleans, non-zero integers,
+     * and the strings {@code "true"} / {@code "false"}.
+     */
+    private static boolean readBoolean(JsonParser p, JsonToken token, boolean defaultValue) throws IOException {
+        return switch (token) {
+            case VALUE_TRUE -> true;
+            case VALUE_FALSE -> false;
+            case VALUE_NUMBER_INT -> p.getNumberValue().longValue() != 0;
+            case VALUE_STRING -> {
+                String text = p.getText().trim();
+                yield "true".equals(text) || (!"false".equals(text) && defaultValue);
+            }
+            default -> {
+                p.skipChildren();
+                yield defaultValue;
+            }
+        };
+    }
+
+    private static String textOrSkip(JsonParser p, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return p.getText();
+        }
+        p.skipChildren();
+        return null;
+    }
+
+    private static <T> T skip(JsonParser p) throws IOException {
+        p.skipChildren();
+        return null;
+    }
+
+    private static <T> T first(Map<String, T> values, String... names) {
+        for (String name : names) {
+            T value = values.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
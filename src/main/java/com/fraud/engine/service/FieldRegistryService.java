@@ -9,10 +9,8 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
-import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Service for managing field registry with in-memory caching.
@@ -21,11 +19,14 @@ import java.util.concurrent.ConcurrentHashMap;
  * fast lookup by field ID or field name. It includes hot-reload support
  * and builtin fallback for S3 unavailability.
  * <p>
- * The service maintains two indexes for fast lookup:
+ * Each loaded version is an immutable {@link FieldRegistrySnapshot} holding two indexes:
  * <ul>
  *   <li>byId: field ID -> FieldRegistryEntry</li>
  *   <li>keyToId: normalized field name -> field ID</li>
  * </ul>
+ * Hot reloads {@link #prepare() prepare} a snapshot, compile rulesets against it with
+ * {@link #compileAgainst}, and leave installing it to {@code RulesetRegistry.publish},
+ * which swaps the registry and the rulesets together.
  */
 @ApplicationScoped
 public class FieldRegistryService {
@@ -35,11 +36,10 @@ public class FieldRegistryService {
     private final FieldRegistryLoader loader;
 
     // Current registry (volatile for safe publication)
-    private volatile FieldRegistryArtifact registry;
+    private volatile FieldRegistrySnapshot registry;
 
-    // Indexes for fast lookup
-    private final Map<Integer, FieldRegistryEntry> byId = new ConcurrentHashMap<>();
-    private final Map<String, Integer> keyToId = new ConcurrentHashMap<>();
+    // Candidate registry rulesets are being compiled against on this thread, if any
+    private final ThreadLocal<FieldRegistrySnapshot> compiling = new ThreadLocal<>();
 
     @Inject
     public FieldRegistryService(FieldRegistryLoader loader) {
@@ -52,13 +52,12 @@ public class FieldRegistryService {
             LOG.info("Initializing FieldRegistryService...");
             reload();
             LOG.infof("FieldRegistryService initialized with %d fields (version %d)",
-                    getRegistryVersion(), getFieldCount());
+                    getFieldCount(), getRegistryVersion());
         } catch (Exception e) {
             LOG.error("Failed to initialize FieldRegistryService", e);
             // Ensure we have a working registry even on init failure
             if (registry == null) {
-                registry = loader.loadBuiltin();
-                rebuildIndexes();
+                registry = FieldRegistrySnapshot.of(loader.loadBuiltin());
             }
         }
     }
@@ -66,8 +65,8 @@ public class FieldRegistryService {
     /**
      * Gets the field ID for a given field name.
      * <p>
-     * First checks the dynamic registry, then falls back to the
-     * static {@link FieldRegistry} constants for backward compatibility.
+     * First checks the dynamic registry (the candidate one inside {@link #compileAgainst}),
+     * then falls back to the static {@link FieldRegistry} constants for backward compatibility.
      *
      * @param fieldName the field name (e.g., "card_hash", "amount")
      * @return the field ID, or {@link FieldRegistry#UNKNOWN} if not found
@@ -78,7 +77,8 @@ public class FieldRegistryService {
         }
 
         // Try dynamic registry first
-        Integer id = keyToId.get(normalize(fieldName));
+        FieldRegistrySnapshot candidate = compiling.get();
+        Integer id = (candidate != null ? candidate : current()).fieldId(fieldName);
         if (id != null) {
             return id;
         }
@@ -94,7 +94,7 @@ public class FieldRegistryService {
      * @return the field entry, or empty if not found
      */
     public Optional<FieldRegistryEntry> getField(int fieldId) {
-        return Optional.ofNullable(byId.get(fieldId));
+        return Optional.ofNullable(current().field(fieldId));
     }
 
     /**
@@ -104,9 +104,10 @@ public class FieldRegistryService {
      * @return the field entry, or empty if not found
      */
     public Optional<FieldRegistryEntry> getFieldByName(String fieldName) {
-        Integer id = keyToId.get(normalize(fieldName));
+        FieldRegistrySnapshot snapshot = current();
+        Integer id = snapshot.fieldId(fieldName);
         if (id != null) {
-            return Optional.ofNullable(byId.get(id));
+            return Optional.ofNullable(snapshot.field(id));
         }
         return Optional.empty();
     }
@@ -117,8 +118,7 @@ public class FieldRegistryService {
      * @return the registry version
      */
     public int getRegistryVersion() {
-        FieldRegistryArtifact current = registry;
-        return current != null ? current.registryVersion : 0;
+        return current().version();
     }
 
     /**
@@ -127,7 +127,7 @@ public class FieldRegistryService {
      * @return the field count
      */
     public int getFieldCount() {
-        return byId.size();
+        return current().fieldCount();
     }
 
     /**
@@ -136,106 +136,101 @@ public class FieldRegistryService {
      * @return true if loaded from S3, false if using builtin
      */
     public boolean isLoadedFromS3() {
-        FieldRegistryArtifact current = registry;
+        FieldRegistryArtifact current = current().artifact();
         return current != null && !"builtin".equals(current.createdBy);
     }
 
     /**
-     * Reloads the field registry from S3.
-     * <p>
-     * Called by the watcher on version changes or can be called manually.
-     * Performs atomic swap of the in-memory registry.
+     * Returns the installed registry.
+     *
+     * @return the current snapshot, or {@link FieldRegistrySnapshot#EMPTY} before the first load
      */
-    public void reload() {
-        LOG.info("Reloading field registry...");
+    public FieldRegistrySnapshot current() {
+        FieldRegistrySnapshot current = registry;
+        return current != null ? current : FieldRegistrySnapshot.EMPTY;
+    }
 
+    /**
+     * Loads the latest field registry from S3 and indexes it without installing it.
+     *
+     * @return the loaded registry
+     */
+    public FieldRegistrySnapshot prepare() {
         try {
-            FieldRegistryArtifact newRegistry = loader.loadLatest();
-
-            // Build new indexes first (fail fast if there's an issue)
-            Map<Integer, FieldRegistryEntry> newById = new ConcurrentHashMap<>();
-            Map<String, Integer> newKeyToId = new ConcurrentHashMap<>();
-
-            buildIndexes(newRegistry.getFields(), newById, newKeyToId);
-
-            // Atomic swap
-            registry = newRegistry;
-            byId.clear();
-            byId.putAll(newById);
-            keyToId.clear();
-            keyToId.putAll(newKeyToId);
-
-            LOG.infof("Field registry reloaded: version=%d, fields=%d, source=%s",
-                    newRegistry.getRegistryVersion(),
-                    newById.size(),
-                    newRegistry.getCreatedBy());
-
+            return FieldRegistrySnapshot.of(loader.loadLatest());
         } catch (Exception e) {
-            LOG.errorf(e, "Failed to reload field registry, keeping current version");
+            LOG.errorf(e, "Failed to load field registry, keeping current version");
             throw e;
         }
     }
 
     /**
-     * Gets the source of the current registry (S3 or builtin).
+     * Installs a prepared registry as the current one. Hot reloads go through
+     * {@code RulesetRegistry.publish}, which calls this under its writer lock.
      *
-     * @return the source description
+     * @param snapshot the registry to install
      */
-    public String getSource() {
-        FieldRegistryArtifact current = registry;
-        if (current == null) {
-            return "unknown";
-        }
-        return "builtin".equals(current.getCreatedBy()) ? "builtin" : "s3";
+    public void install(FieldRegistrySnapshot snapshot) {
+        registry = snapshot;
+        FieldRegistryArtifact artifact = snapshot.artifact();
+        LOG.infof("Field registry installed: version=%d, fields=%d, source=%s",
+                snapshot.version(), snapshot.fieldCount(), artifact != null ? artifact.getCreatedBy() : null);
     }
 
     /**
-     * Checks if the S3 storage is accessible.
+     * Runs {@code work} on the calling thread with field names resolved against
+     * {@code candidate} instead of the installed registry, so rulesets can be compiled
+     * for a registry that is not live yet.
      *
-     * @return true if S3 is accessible, false otherwise
+     * @param candidate the registry to compile against
+     * @param work the loading/compiling work
+     * @param <T> result type
+     * @return the result of {@code work}
      */
-    public boolean isStorageAccessible() {
-        return loader.isStorageAccessible();
+    public <T> T compileAgainst(FieldRegistrySnapshot candidate, Supplier<T> work) {
+        FieldRegistrySnapshot outer = compiling.get();
+        compiling.set(candidate);
+        try {
+            return work.get();
+        } finally {
+            if (outer != null) {
+                compiling.set(outer);
+            } else {
+                compiling.remove();
+            }
+        }
     }
 
-    // ========== Helper Methods ==========
-
     /**
-     * Normalizes a field name for case-insensitive lookup.
-     *
-     * @param fieldName the field name to normalize
-     * @return the normalized (lowercase) field name
+     * Reloads the field registry from S3 and installs it immediately.
+     * <p>
+     * Used at startup and by tests; hot reloads prepare and publish through the ruleset
+     * registry instead.
      */
-    private String normalize(String fieldName) {
-        return fieldName.toLowerCase().trim();
+    public void reload() {
+        LOG.info("Reloading field registry...");
+        install(prepare());
     }
 
-    private void buildIndexes(List<FieldRegistryEntry> fields,
-                              Map<Integer, FieldRegistryEntry> byIdMap,
-                              Map<String, Integer> keyToIdMap) {
-        if (fields == null) {
-            return;
-        }
-        for (FieldRegistryEntry entry : fields) {
-            byIdMap.put(entry.getFieldId(), entry);
-            keyToIdMap.put(normalize(entry.getFieldKey()), entry.getFieldId());
-
-            String staticName = FieldRegistry.getName(entry.getFieldId());
-            if (!"UNKNOWN".equals(staticName)) {
-                keyToIdMap.put(normalize(staticName), entry.getFieldId());
-            }
+    /**
+     * Gets the source of the current registry (S3 or builtin).
+     *
+     * @return the source description
+     */
+    public String getSource() {
+        FieldRegistrySnapshot current = registry;
+        if (current == null || current.artifact() == null) {
+            return "unknown";
         }
+        return "builtin".equals(current.artifact().getCreatedBy()) ? "builtin" : "s3";
     }
 
     /**
-     * Rebuilds the indexes from the current registry.
-     * Called during initialization and reload.
+     * Checks if the S3 storage is accessible.
+     *
+     * @return true if S3 is accessible, false otherwise
      */
-    private void rebuildIndexes() {
-        byId.clear();
-        keyToId.clear();
-
-        FieldRegistryArtifact current = registry;
-        buildIndexes(current != null ? current.getFields() : null, byId, keyToId);
+    public boolean isStorageAccessible() {
+        return loader.isStorageAccessible();
     }
 }
@@ -0,0 +1,101 @@
+package com.fraud.engine.service;
+
+import com.fraud.engine.dto.FieldRegistryArtifact;
+import com.fraud.engine.dto.FieldRegistryEntry;
+import com.fraud.engine.domain.FieldRegistry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One loaded field registry version with its lookup indexes, immutable once built.
+ * <p>
+ * {@link FieldRegistryService} swaps whole snapshots, so a reader never sees the indexes
+ * of one version with the artifact of another. The same instance is published in the
+ * ruleset {@code RegistrySnapshot} together with the rulesets compiled against it.
+ */
+public final class FieldRegistrySnapshot {
+
+    /** No registry loaded yet (version 0, no fields). */
+    public static final FieldRegistrySnapshot EMPTY = new FieldRegistrySnapshot(null, Map.of(), Map.of());
+
+    private final FieldRegistryArtifact artifact;
+    private final Map<Integer, FieldRegistryEntry> byId;
+    private final Map<String, Integer> keyToId;
+
+    private FieldRegistrySnapshot(FieldRegistryArtifact artifact,
+                                  Map<Integer, FieldRegistryEntry> byId,
+                                  Map<String, Integer> keyToId) {
+        this.artifact = artifact;
+        this.byId = byId;
+        this.keyToId = keyToId;
+    }
+
+    /**
+     * Indexes an artifact by field ID and by normalized field name (the artifact's key and
+     * the builtin name for the same ID).
+     *
+     * @param artifact the loaded artifact
+     * @return the snapshot
+     */
+    public static FieldRegistrySnapshot of(FieldRegistryArtifact artifact) {
+        Map<Integer, FieldRegistryEntry> byId = new HashMap<>();
+        Map<String, Integer> keyToId = new HashMap<>();
+        List<FieldRegistryEntry> fields = artifact != null ? artifact.getFields() : null;
+        if (fields != null) {
+            for (FieldRegistryEntry entry : fields) {
+                byId.put(entry.getFieldId(), entry);
+                keyToId.put(normalize(entry.getFieldKey()), entry.getFieldId());
+
+                String staticName = FieldRegistry.getName(entry.getFieldId());
+                if (!"UNKNOWN".equals(staticName)) {
+                    keyToId.put(normalize(staticName), entry.getFieldId());
+                }
+            }
+        }
+        return new FieldRegistrySnapshot(artifact, Map.copyOf(byId), Map.copyOf(keyToId));
+    }
+
+    /**
+     * @param fieldName the field name (any case)
+     * @return the field ID, or null if this registry does not define the field
+     */
+    public Integer fieldId(String fieldName) {
+        return fieldName != null ? keyToId.get(normalize(fieldName)) : null;
+    }
+
+    /**
+     * @param fieldId the field ID
+     * @return the entry, or null
+     */
+    public FieldRegistryEntry field(int fieldId) {
+        return byId.get(fieldId);
+    }
+
+    /**
+     * @return the registry version (0 if none is loaded)
+     */
+    public int version() {
+        return artifact != null ? artifact.getRegistryVersion() : 0;
+    }
+
+    /**
+     * @return number of fields
+     */
+    public int fieldCount() {
+        return byId.size();
+    }
+
+    /**
+     * @return the artifact, or null for {@link #EMPTY}
+     */
+    public FieldRegistryArtifact artifact() {
+        return artifact;
+    }
+
+    static String normalize(String fieldName) {
+        return fieldName.toLowerCase(Locale.ROOT).trim();
+    }
+}
@@ -15,6 +15,8 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Executors;
@@ -35,7 +37,9 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * <b>Hot-Reload Behavior:</b>
  * <ul>
- *   <li>Versions compatible → Reload both</li>
+ *   <li>Versions compatible → Reload both; new rulesets are compiled against the new
+ *       field registry before it is live, and both are published in one
+ *       {@link RulesetRegistry} snapshot</li>
  *   <li>Versions mismatch → Continue with current versions, alert</li>
  *   <li>S3 error → Continue with current versions, alert</li>
  * </ul>
@@ -86,7 +90,9 @@ public class HotReloadCoordinator {
         validateStartup();
 
         // Initialize versions
-        lastFieldRegistryVersion = fieldRegistryService.getRegistryVersion();
+        FieldRegistrySnapshot fieldRegistry = fieldRegistryService.current();
+        lastFieldRegistryVersion = fieldRegistry.version();
+        rulesetRegistry.setFieldRegistry(fieldRegistry);
 
         running = true;
         scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
@@ -258,9 +264,10 @@ public class HotReloadCoordinator {
         try {
             LOG.info("Performing coordinated hot-reload...");
 
-            // Reload field registry first
-            fieldRegistryService.reload();
-            int actualRegistryVersion = fieldRegistryService.getRegistryVersion();
+            // Load the field registry without installing it; publish() installs it together
+            // with the rulesets compiled against it
+            FieldRegistrySnapshot fieldRegistry = fieldRegistryService.prepare();
+            int actualRegistryVersion = fieldRegistry.version();
 
             if (actualRegistryVersion != newFieldRegistryVersion) {
                 LOG.warnf("Field registry reload resulted in version %d (expected %d)",
@@ -268,36 +275,10 @@ public class HotReloadCoordinator {
                 return;
             }
 
-            // Reload all rulesets using hotSwap for each
             Set<String> reloadedKeys = new HashSet<>();
-            for (String country : rulesetRegistry.getCountries()) {
-                for (String key : rulesetRegistry.getRulesetKeys(country)) {
-                    Ruleset current =
-                            rulesetRegistry.getRuleset(country, key);
-                    if (current != null) {
-                        // Check if there's a newer version
-                        Optional<Ruleset> latestOpt =
-                                rulesetLoader.loadLatestCompiledRuleset(key);
-                        if (latestOpt.isPresent()) {
-                            Ruleset latest = latestOpt.get();
-                            if (latest.getVersion() > current.getVersion()) {
-                                // Check compatibility before swapping
-                                Optional<Ruleset> rulesetOpt = rulesetLoader.loadCompiledRuleset(key, latest.getVersion());
-                                if (rulesetOpt.isPresent()) {
-                                    Ruleset ruleset = rulesetOpt.get();
-                                    if (ruleset.isCompatibleWith(actualRegistryVersion)) {
-                                        RulesetRegistry.HotSwapResult result =
-                                                rulesetRegistry.hotSwap(country, key, latest.getVersion());
-                                        if (result.success()) {
-                                            reloadedKeys.add(key);
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            Map<String, Map<String, Ruleset>> swaps = fieldRegistryService.compileAgainst(fieldRegistry,
+                    () -> loadCompatibleRulesets(actualRegistryVersion, reloadedKeys));
+            rulesetRegistry.publish(fieldRegistry, swaps);
 
             // Update tracked version
             lastFieldRegistryVersion = actualRegistryVersion;
@@ -311,6 +292,42 @@ public class HotReloadCoordinator {
         }
     }
 
+    /**
+     * Loads every newer ruleset that is compatible with the given field registry version.
+     *
+     * @param fieldRegistryVersion the field registry version being reloaded to
+     * @param reloadedKeys receives the keys of the rulesets loaded
+     * @return country namespace to key to ruleset, to publish together with the registry
+     */
+    private Map<String, Map<String, Ruleset>> loadCompatibleRulesets(int fieldRegistryVersion,
+                                                                     Set<String> reloadedKeys) {
+        Map<String, Map<String, Ruleset>> swaps = new LinkedHashMap<>();
+        for (String country : rulesetRegistry.getCountries()) {
+            for (String key : rulesetRegistry.getRulesetKeys(country)) {
+                Ruleset current =
+                        rulesetRegistry.getRuleset(country, key);
+                if (current != null) {
+                    // Check the country's manifest for a newer version; download only then
+                    RulesetManifest manifest = rulesetLoader.pollManifest(country, key);
+                    Integer latestVersion = manifest != null ? manifest.getRulesetVersion() : null;
+                    if (latestVersion != null && latestVersion > current.getVersion()) {
+                        // Check compatibility before swapping
+                        Optional<Ruleset> rulesetOpt = rulesetLoader.loadFromManifest(country, key, manifest);
+                        if (rulesetOpt.isPresent()) {
+                            Ruleset ruleset = rulesetOpt.get();
+                            if (ruleset.isCompatibleWith(fieldRegistryVersion)
+                                    && !ruleset.getRules().isEmpty()) {
+                                swaps.computeIfAbsent(country, c -> new LinkedHashMap<>()).put(key, ruleset);
+                                reloadedKeys.add(key);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return swaps;
+    }
+
     /**
      * Manually triggers a check for updates.
      *
@@ -10,7 +10,15 @@ import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Startup bean that pre-loads rulesets into the registry at application startup.
@@ -18,6 +26,10 @@ import java.util.List;
  * This ensures rulesets are available in memory before the application accepts
      * traffic, eliminating S3 I/O from the hot path and achieving low-latency evaluation.
  * <p>
+ * Rulesets load in parallel, at most {@code app.ruleset.startup.max-concurrency} at a
+ * time; each load runs manifest, artifact, checksum, parse and compile, and the time spent
+ * in each phase is reported in {@link EngineMetrics} as the startup timeline.
+ * <p>
  * <b>Fail-Fast Behavior:</b> If startup loading is enabled and any ruleset fails
  * to load, the application will fail to start. This prevents running with degraded
  * fraud detection capabilities.
@@ -48,6 +60,16 @@ public class StartupRulesetLoader {
     @ConfigProperty(name = "app.ruleset.startup.country", defaultValue = "US")
     String country;
 
+    /** Countries to load; when unset only {@link #country} is loaded. */
+    @ConfigProperty(name = "app.ruleset.startup.countries")
+    Optional<List<String>> countries = Optional.empty();
+
+    @ConfigProperty(name = "app.ruleset.startup.max-concurrency", defaultValue = "8")
+    int maxConcurrency = 8;
+
+    private record Target(String country, String rulesetKey) {
+    }
+
     /**
      * Loads rulesets at application startup.
      * <p>
@@ -63,19 +85,46 @@ public class StartupRulesetLoader {
             return;
         }
 
-        LOG.info("Beginning startup ruleset loading...");
+        List<Target> targets = targets();
+        LOG.infof("Beginning startup ruleset loading: %d rulesets, max concurrency %d",
+                targets.size(), maxConcurrency);
         long loadStart = System.currentTimeMillis();
 
         int successCount = 0;
         int failCount = 0;
 
-        for (String rulesetKey : startupRulesets) {
-            try {
-                LOG.infof("Loading ruleset at startup: country=%s, key=%s", country, rulesetKey);
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(maxConcurrency, targets.size())), r -> {
+                    Thread thread = new Thread(r, "ruleset-startup-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            List<CompletableFuture<Ruleset>> loads = new ArrayList<>(targets.size());
+            for (Target target : targets) {
+                loads.add(CompletableFuture.supplyAsync(() -> {
+                    LOG.infof("Loading ruleset at startup: country=%s, key=%s", target.country(), target.rulesetKey());
+                    // Load latest version via manifest with country-partitioned path support
+                    return rulesetRegistry.getOrLoadLatest(target.country(), target.rulesetKey());
+                }, executor));
+            }
 
-                // Load latest version via manifest with country-partitioned path support
-                Ruleset compiled =
-                        rulesetRegistry.getOrLoadLatest(country, rulesetKey);
+            for (int i = 0; i < targets.size(); i++) {
+                Target target = targets.get(i);
+                String rulesetKey = target.rulesetKey();
+                Ruleset compiled;
+                try {
+                    compiled = join(loads.get(i));
+                } catch (Exception e) {
+                    LOG.errorf(e, "Error loading ruleset at startup: %s", rulesetKey);
+                    engineMetrics.incrementStartupRulesetFailure();
+
+                    if (failFast) {
+                        throw new IllegalStateException("Startup ruleset loading failed for: " + rulesetKey, e);
+                    }
+                    failCount++;
+                    continue;
+                }
 
                 if (compiled == null) {
                     String error = String.format("Failed to load ruleset: %s (not found in S3/MinIO)", rulesetKey);
@@ -90,17 +139,11 @@ public class StartupRulesetLoader {
                 }
 
                 successCount++;
-                LOG.infof("Successfully loaded ruleset: %s v%d", rulesetKey, compiled.getVersion());
-
-            } catch (Exception e) {
-                LOG.errorf(e, "Error loading ruleset at startup: %s", rulesetKey);
-                engineMetrics.incrementStartupRulesetFailure();
-
-                if (failFast) {
-                    throw new IllegalStateException("Startup ruleset loading failed for: " + rulesetKey, e);
-                }
-                failCount++;
+                LOG.infof("Successfully loaded ruleset: country=%s, key=%s v%d",
+                        target.country(), rulesetKey, compiled.getVersion());
             }
+        } finally {
+            executor.shutdownNow();
         }
 
         engineMetrics.recordStartupLoadTime(System.currentTimeMillis() - loadStart);
@@ -114,4 +157,29 @@ public class StartupRulesetLoader {
             throw new IllegalStateException("Startup ruleset loading had failures");
         }
     }
+
+    /**
+     * Every configured (country, key) pair once, in configuration order.
+     */
+    private List<Target> targets() {
+        List<String> configured = countries.filter(list -> !list.isEmpty()).orElse(List.of(country));
+        Set<Target> targets = new LinkedHashSet<>();
+        for (String c : configured) {
+            for (String rulesetKey : startupRulesets) {
+                targets.add(new Target(c.trim(), rulesetKey.trim()));
+            }
+        }
+        return new ArrayList<>(targets);
+    }
+
+    private static Ruleset join(CompletableFuture<Ruleset> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 }
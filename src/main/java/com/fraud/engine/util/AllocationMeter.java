@@ -0,0 +1,59 @@
+package com.fraud.engine.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the current thread, from the JVM's per-thread allocation counter.
+ * <p>
+ * Differences between two readings on the same thread give what a piece of work
+ * allocated, including garbage that was already collected, which is what drives GC
+ * pressure during a ruleset load. Returns -1 on JVMs without the counter.
+ */
+public final class AllocationMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * @return bytes allocated so far by the calling thread, or -1 if not measurable
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+        try {
+            return THREADS.getCurrentThreadAllocatedBytes();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @param start a reading taken earlier on this thread
+     * @return bytes allocated since {@code start}, or -1 if not measurable
+     */
+    public static long allocatedSince(long start) {
+        if (start < 0) {
+            return -1;
+        }
+        long now = currentThreadAllocatedBytes();
+        return now < 0 ? -1 : now - start;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()) {
+                if (!bean.isThreadAllocatedMemoryEnabled()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                }
+                return bean;
+            }
+        } catch (RuntimeException e) {
+            // not available on this JVM
+        }
+        return null;
+    }
+}
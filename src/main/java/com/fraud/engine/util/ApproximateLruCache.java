@@ -0,0 +1,211 @@
+package com.fraud.engine.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free cache with approximate LRU eviction.
+ * <p>
+ * Set-associative: a key hashes to one set of {@link #WAYS} slots and can only live
+ * there. A lookup scans those slots; an insert fills an empty slot or replaces the
+ * least recently used one in the set. That is LRU within each set, which tracks global
+ * LRU closely once there are more than a few hundred sets, and it never evicts the
+ * whole cache at once.
+ * <p>
+ * Slots hold immutable entries published through an {@link AtomicReferenceArray}.
+ * Recency is a coarse clock that advances on inserts only: a hit stamps its entry with
+ * the current tick (skipping the write when unchanged), so hits never contend on a shared
+ * counter and concurrent readers only race on recency, never on content. Two threads
+ * inserting into the same set may overwrite each other's entry; the loser is simply
+ * recomputed on its next miss.
+ *
+ * @param <K> key type (must implement {@code equals}/{@code hashCode})
+ * @param <V> value type
+ */
+public final class ApproximateLruCache<K, V> {
+
+    /** Slots per set. */
+    public static final int WAYS = 8;
+
+    private final AtomicReferenceArray<Entry<K, V>> slots;
+    private final int setMask;
+    private final AtomicLong clock = new AtomicLong();
+    private final Stats stats;
+
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        final int hash;
+        volatile long lastAccess;
+
+        Entry(K key, V value, int hash, long lastAccess) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Hit / miss / eviction counters. One instance can be shared by many caches to
+     * report them together.
+     */
+    public static final class Stats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public long hits() {
+            return hits.sum();
+        }
+
+        public long misses() {
+            return misses.sum();
+        }
+
+        public long evictions() {
+            return evictions.sum();
+        }
+
+        /**
+         * @param prefix metric name prefix, e.g. {@code scope_cache}
+         * @return counter name to value
+         */
+        public Map<String, Long> snapshot(String prefix) {
+            Map<String, Long> m = new LinkedHashMap<>();
+            m.put(prefix + "_hits_total", hits());
+            m.put(prefix + "_misses_total", misses());
+            m.put(prefix + "_evictions_total", evictions());
+            return m;
+        }
+    }
+
+    /**
+     * @param capacity maximum entries (rounded up to a power-of-two multiple of {@link #WAYS})
+     * @param stats counters to update
+     */
+    public ApproximateLruCache(int capacity, Stats stats) {
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS));
+        if (sets * WAYS < capacity) {
+            sets <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(sets * WAYS);
+        this.setMask = sets - 1;
+        this.stats = stats;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Looks up a key and marks it recently used.
+     *
+     * @param key the key
+     * @return the cached value, or null (counted as a miss)
+     */
+    public V get(K key) {
+        int hash = spread(key.hashCode());
+        int base = (hash & setMask) * WAYS;
+        for (int i = 0; i < WAYS; i++) {
+            Entry<K, V> e = slots.get(base + i);
+            if (e != null && e.hash == hash && e.key.equals(key)) {
+                long now = clock.get();
+                if (e.lastAccess != now) {
+                    e.lastAccess = now;
+                }
+                stats.hits.increment();
+                return e.value;
+            }
+        }
+        stats.misses.increment();
+        return null;
+    }
+
+    /**
+     * Inserts a value, replacing an existing entry for the key or the set's least
+     * recently used entry.
+     *
+     * @param key the key
+     * @param value the value (not null)
+     */
+    public void put(K key, V value) {
+        int hash = spread(key.hashCode());
+        int base = (hash & setMask) * WAYS;
+        int victim = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < WAYS; i++) {
+            Entry<K, V> e = slots.get(base + i);
+            if (e == null) {
+                if (oldest != Long.MIN_VALUE) {
+                    victim = i;
+                    oldest = Long.MIN_VALUE;
+                }
+                continue;
+            }
+            if (e.hash == hash && e.key.equals(key)) {
+                victim = i;
+                oldest = Long.MIN_VALUE;
+                break;
+            }
+            if (e.lastAccess < oldest) {
+                victim = i;
+                oldest = e.lastAccess;
+            }
+        }
+        Entry<K, V> previous = slots.getAndSet(base + victim,
+                new Entry<>(key, value, hash, clock.incrementAndGet()));
+        if (previous != null && !(previous.hash == hash && previous.key.equals(key))) {
+            stats.evictions.increment();
+        }
+    }
+
+    /**
+     * Keys ordered by recency, most recently used first (a scan; for warming a successor
+     * cache, not for the hot path).
+     *
+     * @param limit maximum number of keys
+     * @return up to {@code limit} keys
+     */
+    public List<K> hottestKeys(int limit) {
+        List<Entry<K, V>> entries = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Entry<K, V> e = slots.get(i);
+            if (e != null) {
+                entries.add(e);
+            }
+        }
+        entries.sort(Comparator.comparingLong((Entry<K, V> e) -> e.lastAccess).reversed());
+        List<K> keys = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && keys.size() < limit; i++) {
+            keys.add(entries.get(i).key);
+        }
+        return keys;
+    }
+
+    /**
+     * @return number of entries currently cached (a scan; for diagnostics)
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return maximum number of entries
+     */
+    public int capacity() {
+        return slots.length();
+    }
+}
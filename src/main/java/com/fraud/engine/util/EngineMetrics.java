@@ -3,8 +3,11 @@ package com.fraud.engine.util;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Lightweight in-process counters for engine observability.
@@ -15,12 +18,71 @@ import java.util.concurrent.atomic.AtomicLong;
 @ApplicationScoped
 public class EngineMetrics {
 
+    /**
+     * Stages of loading a ruleset artifact, in pipeline order. Artifacts are streamed, so
+     * for them ARTIFACT is the time to open the object and PARSE includes the download and
+     * hashing that happen while it is parsed; CHECKSUM is only the final comparison.
+     */
+    public enum LoadPhase {
+        MANIFEST, ARTIFACT, CHECKSUM, PARSE, COMPILE
+    }
+
+    private static final LoadPhase[] LOAD_PHASES = LoadPhase.values();
+
     private final AtomicLong failOpenTotal = new AtomicLong();
     private final AtomicLong degradedResponseTotal = new AtomicLong();
     private final AtomicLong hotReloadSuccessTotal = new AtomicLong();
     private final AtomicLong hotReloadFailureTotal = new AtomicLong();
     private final AtomicLong startupRulesetFailures = new AtomicLong();
     private final AtomicLong startupRulesetLoadTimeMs = new AtomicLong();
+    private final AtomicLongArray startupPhaseNanos = new AtomicLongArray(LOAD_PHASES.length);
+
+    private final AtomicLongArray loadPhaseNanosTotal = new AtomicLongArray(LOAD_PHASES.length);
+    private final AtomicLongArray loadPhaseCountTotal = new AtomicLongArray(LOAD_PHASES.length);
+    private final FetchMemo.Stats manifestFetchStats = new FetchMemo.Stats();
+
+    private final AtomicLong rulesetLoadAllocatedBytesLast = new AtomicLong();
+    private final AtomicLong rulesetLoadAllocatedBytesMax = new AtomicLong();
+    private final AtomicLong rulesetLoadAllocatedBytesTotal = new AtomicLong();
+    private final AtomicLong rulesetLoadArtifactBytesMax = new AtomicLong();
+    private final AtomicLong rulesetBinaryLoadTotal = new AtomicLong();
+    private final AtomicLong rulesetBinaryFallbackTotal = new AtomicLong();
+    private final AtomicLong rulesetWarmupTotal = new AtomicLong();
+    private final AtomicLong rulesetWarmupMsLast = new AtomicLong();
+    private final AtomicLong rulesetWarmupMsTotal = new AtomicLong();
+    private final AtomicLong rulesetWarmupLatencyDeltaNsLast = new AtomicLong();
+    private final AtomicLong regexFallbackTotal = new AtomicLong();
+    private final AtomicLong adaptiveGroupsCreatedTotal = new AtomicLong();
+    private final AtomicLong adaptiveSamplesTotal = new AtomicLong();
+    private final AtomicLong adaptiveRankingsTotal = new AtomicLong();
+    private final AtomicLong adaptiveReordersTotal = new AtomicLong();
+    private final AtomicLong adaptiveGroupsReorderedTotal = new AtomicLong();
+
+    private final AtomicLong velocityBatchFlushTotal = new AtomicLong();
+    private final AtomicLong velocityBatchRequestsTotal = new AtomicLong();
+    private final AtomicLong velocityBatchOpsTotal = new AtomicLong();
+    private final AtomicLong velocityBatchOpsMax = new AtomicLong();
+    private final AtomicLong velocityBatchQueueDelayNanosTotal = new AtomicLong();
+    private final AtomicLong velocityBatchQueueDelayNanosMax = new AtomicLong();
+    private final AtomicLong velocityBatchFailureTotal = new AtomicLong();
+    private final AtomicLong velocityBatchBypassTotal = new AtomicLong();
+    private final AtomicLong velocityKeysDeduplicatedTotal = new AtomicLong();
+    private final AtomicLong velocityBatchSecond = new AtomicLong();
+    private final AtomicLong velocityBatchOpsThisSecond = new AtomicLong();
+    private final AtomicLong velocityBatchFlushesThisSecond = new AtomicLong();
+    private final AtomicLong velocityBatchOpsPerSecLast = new AtomicLong();
+    private final AtomicLong velocityBatchFlushesPerSecLast = new AtomicLong();
+
+    private final AtomicLong manifestPollTotal = new AtomicLong();
+    private final AtomicLong manifestPollNotModifiedTotal = new AtomicLong();
+
+    private final AtomicLong artifactCacheHitTotal = new AtomicLong();
+    private final AtomicLong artifactCacheMissTotal = new AtomicLong();
+    private final AtomicLong artifactCacheWriteTotal = new AtomicLong();
+    private final AtomicLong artifactCacheCorruptTotal = new AtomicLong();
+    private final AtomicLong artifactCacheStartupServedTotal = new AtomicLong();
+    private final AtomicLong artifactCacheRevalidatedTotal = new AtomicLong();
+    private final AtomicLong artifactCacheRevalidateChangedTotal = new AtomicLong();
 
     private final AtomicLong authAsyncDurabilityEnqueuedTotal = new AtomicLong();
     private final AtomicLong authAsyncDurabilityPersistedTotal = new AtomicLong();
@@ -66,8 +128,200 @@ public class EngineMetrics {
         startupRulesetFailures.incrementAndGet();
     }
 
+    /**
+     * Records the startup load wall time and freezes the per-phase totals accumulated so
+     * far as the startup timeline.
+     */
     public void recordStartupLoadTime(long ms) {
         startupRulesetLoadTimeMs.set(ms);
+        for (int i = 0; i < LOAD_PHASES.length; i++) {
+            startupPhaseNanos.set(i, loadPhaseNanosTotal.get(i));
+        }
+    }
+
+    /**
+     * Adds time spent in one ruleset load phase. Phases of parallel loads overlap, so the
+     * totals can exceed the wall time.
+     */
+    public void recordLoadPhase(LoadPhase phase, long nanos) {
+        loadPhaseNanosTotal.addAndGet(phase.ordinal(), nanos);
+        loadPhaseCountTotal.incrementAndGet(phase.ordinal());
+    }
+
+    /**
+     * Records the memory cost of one ruleset artifact load: the bytes the loading thread
+     * allocated (download, parse and compile; see {@link AllocationMeter}) and the
+     * artifact's size. The maxima are the peak load seen since startup.
+     *
+     * @param allocatedBytes bytes allocated by the load, or -1 if not measurable
+     * @param artifactBytes size of the artifact
+     */
+    public void recordRulesetLoadMemory(long allocatedBytes, long artifactBytes) {
+        if (allocatedBytes >= 0) {
+            rulesetLoadAllocatedBytesLast.set(allocatedBytes);
+            rulesetLoadAllocatedBytesMax.accumulateAndGet(allocatedBytes, Math::max);
+            rulesetLoadAllocatedBytesTotal.addAndGet(allocatedBytes);
+        }
+        rulesetLoadArtifactBytesMax.accumulateAndGet(artifactBytes, Math::max);
+    }
+
+    public void incrementRulesetBinaryLoad() {
+        rulesetBinaryLoadTotal.incrementAndGet();
+    }
+
+    /**
+     * Counts a manifest whose binary artifact could not be used, so the JSON artifact was
+     * loaded instead.
+     */
+    public void incrementRulesetBinaryFallback() {
+        rulesetBinaryFallbackTotal.incrementAndGet();
+    }
+
+    /**
+     * Counts a REGEX condition compiled to {@code java.util.regex} because the linear-time
+     * matcher does not support its pattern (only with the backtracking fallback enabled).
+     */
+    public void incrementRegexFallback() {
+        regexFallbackTotal.incrementAndGet();
+    }
+
+    public void incrementAdaptiveGroupCreated() {
+        adaptiveGroupsCreatedTotal.incrementAndGet();
+    }
+
+    public void incrementAdaptiveSample() {
+        adaptiveSamplesTotal.incrementAndGet();
+    }
+
+    /**
+     * Records one ranking of an adaptive AND / OR group.
+     *
+     * @param reordered true if the ranking published a new child order
+     * @param firstReorder true if it was the group's first reorder
+     */
+    public void recordAdaptiveRanking(boolean reordered, boolean firstReorder) {
+        adaptiveRankingsTotal.incrementAndGet();
+        if (reordered) {
+            adaptiveReordersTotal.incrementAndGet();
+        }
+        if (firstReorder) {
+            adaptiveGroupsReorderedTotal.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records one flush of the cross-request velocity batcher.
+     *
+     * @param requests requests (script calls) in the batch
+     * @param ops velocity keys incremented by the batch
+     * @param queueDelayNanosTotal summed time the requests waited before the flush
+     * @param queueDelayNanosMax longest wait in the batch
+     */
+    public void recordVelocityBatch(int requests, int ops, long queueDelayNanosTotal, long queueDelayNanosMax) {
+        velocityBatchFlushTotal.incrementAndGet();
+        velocityBatchRequestsTotal.addAndGet(requests);
+        velocityBatchOpsTotal.addAndGet(ops);
+        velocityBatchOpsMax.accumulateAndGet(ops, Math::max);
+        velocityBatchQueueDelayNanosTotal.addAndGet(queueDelayNanosTotal);
+        velocityBatchQueueDelayNanosMax.accumulateAndGet(queueDelayNanosMax, Math::max);
+
+        // Per-second rates: roll the counters over when the wall-clock second changes
+        long second = System.currentTimeMillis() / 1000;
+        long current = velocityBatchSecond.get();
+        if (second != current && velocityBatchSecond.compareAndSet(current, second)) {
+            long ops1s = velocityBatchOpsThisSecond.getAndSet(0);
+            long flushes1s = velocityBatchFlushesThisSecond.getAndSet(0);
+            boolean consecutive = second == current + 1;
+            velocityBatchOpsPerSecLast.set(consecutive ? ops1s : 0);
+            velocityBatchFlushesPerSecLast.set(consecutive ? flushes1s : 0);
+        }
+        velocityBatchOpsThisSecond.addAndGet(ops);
+        velocityBatchFlushesThisSecond.incrementAndGet();
+    }
+
+    public void incrementVelocityBatchFailure() {
+        velocityBatchFailureTotal.incrementAndGet();
+    }
+
+    /**
+     * Counts a velocity check that skipped the batcher because its queue was full.
+     */
+    public void incrementVelocityBatchBypass() {
+        velocityBatchBypassTotal.incrementAndGet();
+    }
+
+    /**
+     * Records velocity checks that shared another check's counter within one request.
+     *
+     * @param checks number of checks that did not need their own increment
+     */
+    public void addVelocityKeysDeduplicated(long checks) {
+        velocityKeysDeduplicatedTotal.addAndGet(checks);
+    }
+
+    /**
+     * Records a pre-swap ruleset warm-up.
+     *
+     * @param durationMs how long the warm-up took
+     * @param latencyDeltaNanos warmed candidate's mean evaluation time minus the outgoing
+     *        ruleset's, on the warm-up sample (negative = faster)
+     */
+    public void recordRulesetWarmup(long durationMs, long latencyDeltaNanos) {
+        rulesetWarmupTotal.incrementAndGet();
+        rulesetWarmupMsLast.set(durationMs);
+        rulesetWarmupMsTotal.addAndGet(durationMs);
+        rulesetWarmupLatencyDeltaNsLast.set(latencyDeltaNanos);
+    }
+
+    /**
+     * @return fetch/reuse counters shared by the ruleset and field registry manifest memos
+     */
+    public FetchMemo.Stats manifestFetchStats() {
+        return manifestFetchStats;
+    }
+
+    /**
+     * Counts a conditional manifest poll.
+     *
+     * @param notModified true if S3 answered 304 (no body transferred)
+     */
+    public void recordManifestPoll(boolean notModified) {
+        manifestPollTotal.incrementAndGet();
+        if (notModified) {
+            manifestPollNotModifiedTotal.incrementAndGet();
+        }
+    }
+
+    public void incrementArtifactCacheHit() {
+        artifactCacheHitTotal.incrementAndGet();
+    }
+
+    public void incrementArtifactCacheMiss() {
+        artifactCacheMissTotal.incrementAndGet();
+    }
+
+    public void incrementArtifactCacheWrite() {
+        artifactCacheWriteTotal.incrementAndGet();
+    }
+
+    public void incrementArtifactCacheCorrupt() {
+        artifactCacheCorruptTotal.incrementAndGet();
+    }
+
+    public void incrementArtifactCacheStartupServed() {
+        artifactCacheStartupServedTotal.incrementAndGet();
+    }
+
+    /**
+     * Counts a background check of a cache-served ruleset against S3.
+     *
+     * @param changed true if S3 had a different artifact and it was swapped in
+     */
+    public void recordArtifactCacheRevalidation(boolean changed) {
+        artifactCacheRevalidatedTotal.incrementAndGet();
+        if (changed) {
+            artifactCacheRevalidateChangedTotal.incrementAndGet();
+        }
     }
 
     public void incrementAuthAsyncDurabilityEnqueued() {
@@ -147,6 +401,55 @@ public class EngineMetrics {
         m.put("hot_reload_failure_total", hotReloadFailureTotal.get());
         m.put("startup_ruleset_failures", startupRulesetFailures.get());
         m.put("startup_ruleset_load_time_ms", startupRulesetLoadTimeMs.get());
+        for (LoadPhase phase : LOAD_PHASES) {
+            String name = phase.name().toLowerCase(Locale.ROOT);
+            m.put("startup_phase_" + name + "_ms", TimeUnit.NANOSECONDS.toMillis(startupPhaseNanos.get(phase.ordinal())));
+        }
+        for (LoadPhase phase : LOAD_PHASES) {
+            String name = phase.name().toLowerCase(Locale.ROOT);
+            m.put("ruleset_load_" + name + "_ms_total",
+                    TimeUnit.NANOSECONDS.toMillis(loadPhaseNanosTotal.get(phase.ordinal())));
+            m.put("ruleset_load_" + name + "_count_total", loadPhaseCountTotal.get(phase.ordinal()));
+        }
+        m.put("ruleset_load_allocated_bytes_last", rulesetLoadAllocatedBytesLast.get());
+        m.put("ruleset_load_allocated_bytes_max", rulesetLoadAllocatedBytesMax.get());
+        m.put("ruleset_load_allocated_bytes_total", rulesetLoadAllocatedBytesTotal.get());
+        m.put("ruleset_load_artifact_bytes_max", rulesetLoadArtifactBytesMax.get());
+        m.put("ruleset_binary_load_total", rulesetBinaryLoadTotal.get());
+        m.put("ruleset_binary_fallback_total", rulesetBinaryFallbackTotal.get());
+        m.put("ruleset_warmup_total", rulesetWarmupTotal.get());
+        m.put("ruleset_warmup_ms_last", rulesetWarmupMsLast.get());
+        m.put("ruleset_warmup_ms_total", rulesetWarmupMsTotal.get());
+        m.put("ruleset_warmup_latency_delta_ns_last", rulesetWarmupLatencyDeltaNsLast.get());
+        m.put("regex_fallback_total", regexFallbackTotal.get());
+        m.put("adaptive_ordering_groups_created_total", adaptiveGroupsCreatedTotal.get());
+        m.put("adaptive_ordering_samples_total", adaptiveSamplesTotal.get());
+        m.put("adaptive_ordering_rankings_total", adaptiveRankingsTotal.get());
+        m.put("adaptive_ordering_reorders_total", adaptiveReordersTotal.get());
+        m.put("adaptive_ordering_groups_reordered_total", adaptiveGroupsReorderedTotal.get());
+        m.put("velocity_batch_flush_total", velocityBatchFlushTotal.get());
+        m.put("velocity_batch_requests_total", velocityBatchRequestsTotal.get());
+        m.put("velocity_batch_ops_total", velocityBatchOpsTotal.get());
+        m.put("velocity_batch_ops_max", velocityBatchOpsMax.get());
+        m.put("velocity_batch_queue_delay_us_total",
+                TimeUnit.NANOSECONDS.toMicros(velocityBatchQueueDelayNanosTotal.get()));
+        m.put("velocity_batch_queue_delay_us_max",
+                TimeUnit.NANOSECONDS.toMicros(velocityBatchQueueDelayNanosMax.get()));
+        m.put("velocity_batch_failure_total", velocityBatchFailureTotal.get());
+        m.put("velocity_batch_bypass_total", velocityBatchBypassTotal.get());
+        m.put("velocity_batch_ops_per_sec", velocityBatchOpsPerSecLast.get());
+        m.put("velocity_batch_round_trips_per_sec", velocityBatchFlushesPerSecLast.get());
+        m.put("velocity_keys_deduplicated_total", velocityKeysDeduplicatedTotal.get());
+        m.putAll(manifestFetchStats.snapshot("manifest"));
+        m.put("manifest_poll_total", manifestPollTotal.get());
+        m.put("manifest_poll_not_modified_total", manifestPollNotModifiedTotal.get());
+        m.put("artifact_cache_hit_total", artifactCacheHitTotal.get());
+        m.put("artifact_cache_miss_total", artifactCacheMissTotal.get());
+        m.put("artifact_cache_write_total", artifactCacheWriteTotal.get());
+        m.put("artifact_cache_corrupt_total", artifactCacheCorruptTotal.get());
+        m.put("artifact_cache_startup_served_total", artifactCacheStartupServedTotal.get());
+        m.put("artifact_cache_revalidated_total", artifactCacheRevalidatedTotal.get());
+        m.put("artifact_cache_revalidate_changed_total", artifactCacheRevalidateChangedTotal.get());
 
         m.put("auth_async_durability_enqueued_total", authAsyncDurabilityEnqueuedTotal.get());
         m.put("auth_async_durability_persisted_total", authAsyncDurabilityPersistedTotal.get());
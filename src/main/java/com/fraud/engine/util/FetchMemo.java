@@ -0,0 +1,143 @@
+package com.fraud.engine.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight memo for remote fetches such as S3 manifests.
+ * <p>
+ * Concurrent callers asking for the same key share one fetch, and a completed result
+ * (including {@code null}, i.e. "not found") is handed out again for a short reuse window,
+ * so startup checks that read the same manifest one after another cost one request.
+ * A fetch that throws is not kept: every waiter gets the exception and the next caller
+ * fetches again.
+ *
+ * @param <K> key type
+ * @param <V> value type (may be null)
+ */
+public final class FetchMemo<K, V> {
+
+    /**
+     * A remote fetch.
+     *
+     * @param <V> value type
+     */
+    @FunctionalInterface
+    public interface Fetch<V> {
+        V fetch() throws Exception;
+    }
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile long completedAt;
+    }
+
+    /**
+     * Fetch / reuse counters. One instance can be shared by several memos to report them
+     * together.
+     */
+    public static final class Stats {
+        private final LongAdder fetches = new LongAdder();
+        private final LongAdder reused = new LongAdder();
+
+        public long fetches() {
+            return fetches.sum();
+        }
+
+        public long reused() {
+            return reused.sum();
+        }
+
+        /**
+         * @param prefix metric name prefix, e.g. {@code manifest}
+         * @return counter name to value
+         */
+        public Map<String, Long> snapshot(String prefix) {
+            Map<String, Long> m = new LinkedHashMap<>();
+            m.put(prefix + "_fetch_total", fetches());
+            m.put(prefix + "_reused_total", reused());
+            return m;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long reuseNanos;
+    private final Stats stats;
+
+    /**
+     * @param reuseMillis how long a completed result is reused (0 = only share in-flight fetches)
+     * @param stats counters to update
+     */
+    public FetchMemo(long reuseMillis, Stats stats) {
+        this.reuseNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, reuseMillis));
+        this.stats = stats;
+    }
+
+    /**
+     * Returns the in-flight or recently completed result for a key, or runs the fetch.
+     *
+     * @param key the key
+     * @param fetch fetches the value when there is nothing to share
+     * @return the value
+     * @throws Exception whatever the (shared) fetch threw
+     */
+    public V get(K key, Fetch<V> fetch) throws Exception {
+        while (true) {
+            Entry<V> existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.future.isDone() || System.nanoTime() - existing.completedAt < reuseNanos) {
+                    stats.reused.increment();
+                    return join(existing.future);
+                }
+                entries.remove(key, existing);
+                continue;
+            }
+
+            Entry<V> created = new Entry<>();
+            if (entries.putIfAbsent(key, created) != null) {
+                continue;
+            }
+            stats.fetches.increment();
+            V value;
+            try {
+                value = fetch.fetch();
+            } catch (Exception | Error e) {
+                entries.remove(key, created);
+                created.future.completeExceptionally(e);
+                throw e;
+            }
+            created.completedAt = System.nanoTime();
+            if (reuseNanos == 0) {
+                entries.remove(key, created);
+            }
+            created.future.complete(value);
+            return value;
+        }
+    }
+
+    /**
+     * Drops every remembered result; in-flight fetches still complete for their waiters.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
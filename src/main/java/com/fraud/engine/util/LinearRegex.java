@@ -0,0 +1,1150 @@
+package com.fraud.engine.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Full-match regular expressions evaluated in time linear in the input.
+ * <p>
+ * {@code java.util.regex} backtracks, so a pattern like {@code (a+)+$} can take
+ * exponential time on a crafted input. This matcher compiles the pattern into a
+ * Thompson NFA and, at compile time, into a DFA over ASCII input (subset construction,
+ * bounded by {@link #MAX_DFA_STATES}). ASCII input runs one table lookup per char;
+ * non-ASCII input continues as an NFA simulation from the current DFA state. Neither
+ * path ever backtracks.
+ * <p>
+ * Before the automaton runs, the literals every match must contain (e.g. {@code "@"}
+ * and {@code ".com"} in {@code .*@example\.com}) are checked with
+ * {@link String#contains}, which rejects most inputs without touching the automaton.
+ * A pattern that is only a literal is compared with {@link String#equals}.
+ * <p>
+ * Semantics follow {@code Pattern.compile(p).matcher(s).matches()} for the supported
+ * subset: literals, {@code .}, classes with ranges and negation, {@code \d \w \s}
+ * and their negations, {@code \p{..}} for general categories and POSIX names,
+ * {@code \Q..\E}, groups, alternation, greedy and lazy quantifiers including
+ * {@code {n,m}}, {@code ^} / {@code $} at the ends of a top-level alternative, the
+ * inline flags {@code i}, {@code u} and {@code s} (as {@code (?i)} or {@code (?i:..)}),
+ * and the word boundaries {@code \b} / {@code \B}. A pattern with a word boundary
+ * needs the neighbouring chars at each step, so it always runs as an NFA simulation.
+ * Backreferences, lookaround, atomic groups, possessive quantifiers, other boundary
+ * matchers and flags, and class intersections cannot be matched in linear time (or are
+ * not implemented) and are rejected by {@link #compile(String)}.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class LinearRegex {
+
+    /** Max NFA states; large counted repetitions ({@code x{1000}}) hit this first. */
+    static final int MAX_NFA_STATES = 10_000;
+
+    /** Max DFA states built at compile time; beyond this the NFA is simulated directly. */
+    static final int MAX_DFA_STATES = 512;
+
+    /** Max bound of a counted repetition. */
+    static final int MAX_REPEAT = 1000;
+
+    private static final int ASCII = 128;
+    private static final int DEAD = -1;
+
+    private static final int OP_CLASS = 0;
+    private static final int OP_SPLIT = 1;
+    private static final int OP_MATCH = 2;
+    private static final int OP_ASSERT = 3;
+
+    private static final int ASSERT_WORD_BOUNDARY = 0;
+    private static final int ASSERT_NOT_WORD_BOUNDARY = 1;
+
+    private static final int FOLD_NONE = 0;
+    private static final int FOLD_ASCII = 1;
+    private static final int FOLD_UNICODE = 2;
+
+    private final String pattern;
+    private final String literal;
+    private final String[] requiredLiterals;
+
+    private final int[] op;
+    private final int[] out1;
+    private final int[] out2;
+    private final CharClass[] classes;
+    private final int start;
+    private final boolean assertions;
+    private final int[] startSet;
+
+    private final int[][] dfa;
+    private final boolean[] accepting;
+    private final int[][] dfaSets;
+
+    private LinearRegex(String pattern, String literal, String[] requiredLiterals, Nfa nfa) {
+        this.pattern = pattern;
+        this.literal = literal;
+        this.requiredLiterals = requiredLiterals;
+        this.op = Arrays.copyOf(nfa.op, nfa.size);
+        this.out1 = Arrays.copyOf(nfa.out1, nfa.size);
+        this.out2 = Arrays.copyOf(nfa.out2, nfa.size);
+        this.classes = Arrays.copyOf(nfa.classes, nfa.size);
+        this.start = nfa.start;
+        this.assertions = nfa.assertions;
+        this.startSet = closureSet(new int[]{nfa.start}, 1, new int[nfa.size], 1);
+
+        List<int[]> sets = new ArrayList<>();
+        List<int[]> table = new ArrayList<>();
+        if (!assertions && buildDfa(sets, table)) {
+            this.dfa = table.toArray(int[][]::new);
+            this.dfaSets = sets.toArray(int[][]::new);
+            this.accepting = new boolean[dfaSets.length];
+            for (int d = 0; d < dfaSets.length; d++) {
+                accepting[d] = containsMatch(dfaSets[d]);
+            }
+        } else {
+            this.dfa = null;
+            this.dfaSets = null;
+            this.accepting = null;
+        }
+    }
+
+    /**
+     * Compiles a pattern.
+     *
+     * @param pattern the regular expression
+     * @return the compiled matcher
+     * @throws PatternSyntaxException if the pattern is invalid or uses a construct
+     *                                that cannot be matched in linear time
+     */
+    public static LinearRegex compile(String pattern) {
+        Parser parser = new Parser(pattern);
+        Node root = parser.parse();
+        Nfa nfa = new Nfa(pattern);
+        int match = nfa.add(OP_MATCH, -1, -1, null);
+        nfa.start = nfa.compile(root, match);
+
+        String literal = literalOf(root);
+        List<String> required = new ArrayList<>(new LinkedHashSet<>(requiredLiterals(root)));
+        required.sort(Comparator.comparingInt(String::length).reversed());
+        return new LinearRegex(pattern, literal, required.toArray(String[]::new), nfa);
+    }
+
+    /**
+     * Checks whether the whole input matches, like {@code Matcher.matches()}.
+     *
+     * @param input the input
+     * @return true if the entire input matches the pattern
+     */
+    public boolean matches(String input) {
+        if (literal != null) {
+            return literal.equals(input);
+        }
+        for (String required : requiredLiterals) {
+            if (!input.contains(required)) {
+                return false;
+            }
+        }
+        if (dfa == null) {
+            return simulate(assertions ? startClosure(input) : startSet, input, 0);
+        }
+        int state = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            char c = input.charAt(i);
+            if (c >= ASCII) {
+                return simulate(dfaSets[state], input, i);
+            }
+            state = dfa[state][c];
+            if (state == DEAD) {
+                return false;
+            }
+        }
+        return accepting[state];
+    }
+
+    /**
+     * @return the source pattern
+     */
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * @return literals every match contains, longest first (used as an {@code indexOf} prefilter)
+     */
+    public List<String> requiredLiterals() {
+        return List.of(requiredLiterals);
+    }
+
+    /**
+     * @return true if ASCII input runs on the precomputed DFA
+     */
+    public boolean hasDfa() {
+        return dfa != null;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    // ========== Automaton ==========
+
+    /**
+     * Epsilon closure of the given states: writes the reachable CLASS and MATCH states
+     * into {@code result} and returns how many there are. Word boundaries are checked
+     * against the code points before and after the current position (-1 at either end).
+     */
+    private int closure(int[] states, int count, int[] marks, int stamp, int[] result, int[] stack,
+                        int prev, int next) {
+        int top = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            stack[top++] = states[i];
+        }
+        int size = 0;
+        while (top > 0) {
+            int s = stack[--top];
+            if (marks[s] == stamp) {
+                continue;
+            }
+            marks[s] = stamp;
+            if (op[s] == OP_SPLIT) {
+                stack[top++] = out2[s];
+                stack[top++] = out1[s];
+            } else if (op[s] == OP_ASSERT) {
+                boolean boundary = isWord(prev) != isWord(next);
+                if (boundary == (out2[s] == ASSERT_WORD_BOUNDARY)) {
+                    stack[top++] = out1[s];
+                }
+            } else {
+                result[size++] = s;
+            }
+        }
+        return size;
+    }
+
+    private static boolean isWord(int cp) {
+        return cp >= 0 && WORD.matches(cp);
+    }
+
+    /** Closure as a sorted array, the canonical form used as a DFA state. */
+    private int[] closureSet(int[] states, int count, int[] marks, int stamp) {
+        int[] result = new int[op.length];
+        int size = closure(states, count, marks, stamp, result, new int[2 * op.length + count], -1, -1);
+        int[] sorted = Arrays.copyOf(result, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /** Start states for a pattern with word boundaries, which depend on the first char. */
+    private int[] startClosure(String input) {
+        int[] result = new int[op.length];
+        int next = input.isEmpty() ? -1 : input.codePointAt(0);
+        int size = closure(new int[]{start}, 1, new int[op.length], 1, result, new int[2 * op.length + 1], -1, next);
+        return Arrays.copyOf(result, size);
+    }
+
+    private boolean containsMatch(int[] set) {
+        for (int s : set) {
+            if (op[s] == OP_MATCH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean buildDfa(List<int[]> sets, List<int[]> table) {
+        Map<StateKey, Integer> ids = new HashMap<>();
+        int[] marks = new int[op.length];
+        int stamp = 0;
+        int[] targets = new int[op.length];
+        sets.add(startSet);
+        ids.put(new StateKey(startSet), 0);
+        for (int d = 0; d < sets.size(); d++) {
+            int[] set = sets.get(d);
+            int[] row = new int[ASCII];
+            for (int c = 0; c < ASCII; c++) {
+                int count = 0;
+                for (int s : set) {
+                    if (op[s] == OP_CLASS && classes[s].matches(c)) {
+                        targets[count++] = out1[s];
+                    }
+                }
+                if (count == 0) {
+                    row[c] = DEAD;
+                    continue;
+                }
+                int[] next = closureSet(targets, count, marks, ++stamp);
+                Integer id = ids.get(new StateKey(next));
+                if (id == null) {
+                    if (sets.size() >= MAX_DFA_STATES) {
+                        return false;
+                    }
+                    id = sets.size();
+                    sets.add(next);
+                    ids.put(new StateKey(next), id);
+                }
+                row[c] = id;
+            }
+            table.add(row);
+        }
+        return true;
+    }
+
+    /**
+     * Lock-step NFA simulation from {@code from}, starting in the given state set.
+     */
+    private boolean simulate(int[] initial, String input, int from) {
+        int[] marks = new int[op.length];
+        int[] stack = new int[3 * op.length + 1];
+        int[] current = Arrays.copyOf(initial, op.length);
+        int[] next = new int[op.length];
+        int[] targets = new int[op.length];
+        int size = initial.length;
+        int stamp = 0;
+        int i = from;
+        int n = input.length();
+        while (i < n) {
+            int cp = input.codePointAt(i);
+            i += Character.charCount(cp);
+            int count = 0;
+            for (int k = 0; k < size; k++) {
+                int s = current[k];
+                if (op[s] == OP_CLASS && classes[s].matches(cp)) {
+                    targets[count++] = out1[s];
+                }
+            }
+            if (count == 0) {
+                return false;
+            }
+            size = closure(targets, count, marks, ++stamp, next, stack, cp, i < n ? input.codePointAt(i) : -1);
+            int[] swap = current;
+            current = next;
+            next = swap;
+        }
+        for (int k = 0; k < size; k++) {
+            if (op[current[k]] == OP_MATCH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record StateKey(int[] states) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey other && Arrays.equals(states, other.states);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(states);
+        }
+    }
+
+    /**
+     * Growable NFA under construction. {@link #compile(Node, int)} builds backwards:
+     * each node is compiled with its continuation state already known.
+     */
+    private static final class Nfa {
+        private final String pattern;
+        int[] op = new int[16];
+        int[] out1 = new int[16];
+        int[] out2 = new int[16];
+        CharClass[] classes = new CharClass[16];
+        int size;
+        int start;
+        boolean assertions;
+
+        Nfa(String pattern) {
+            this.pattern = pattern;
+        }
+
+        int add(int kind, int next1, int next2, CharClass cls) {
+            if (size >= MAX_NFA_STATES) {
+                throw new PatternSyntaxException("Pattern too large for linear-time matching", pattern, -1);
+            }
+            if (size == op.length) {
+                op = Arrays.copyOf(op, size * 2);
+                out1 = Arrays.copyOf(out1, size * 2);
+                out2 = Arrays.copyOf(out2, size * 2);
+                classes = Arrays.copyOf(classes, size * 2);
+            }
+            op[size] = kind;
+            out1[size] = next1;
+            out2[size] = next2;
+            classes[size] = cls;
+            return size++;
+        }
+
+        int compile(Node node, int next) {
+            return switch (node) {
+                case Lit lit -> add(OP_CLASS, next, -1, CharClass.single(lit.cp()));
+                case Cls cls -> add(OP_CLASS, next, -1, cls.cls());
+                case Seq seq -> {
+                    int state = next;
+                    for (int i = seq.items().size() - 1; i >= 0; i--) {
+                        state = compile(seq.items().get(i), state);
+                    }
+                    yield state;
+                }
+                case Alt alt -> {
+                    int state = compile(alt.options().get(alt.options().size() - 1), next);
+                    for (int i = alt.options().size() - 2; i >= 0; i--) {
+                        state = add(OP_SPLIT, compile(alt.options().get(i), next), state, null);
+                    }
+                    yield state;
+                }
+                case Rep rep -> compileRepeat(rep, next);
+                case Assert assertion -> {
+                    assertions = true;
+                    yield add(OP_ASSERT, next, assertion.kind(), null);
+                }
+            };
+        }
+
+        private int compileRepeat(Rep rep, int next) {
+            int state;
+            if (rep.max() < 0) {
+                // x*: split -> (x -> split) | next
+                int loop = add(OP_SPLIT, -1, next, null);
+                int body = compile(rep.node(), loop);
+                out1[loop] = body;
+                state = loop;
+            } else {
+                // optional copies: (x (x ...)?)?
+                state = next;
+                for (int i = rep.min(); i < rep.max(); i++) {
+                    state = add(OP_SPLIT, compile(rep.node(), state), next, null);
+                }
+            }
+            for (int i = 0; i < rep.min(); i++) {
+                state = compile(rep.node(), state);
+            }
+            return state;
+        }
+    }
+
+    // ========== Syntax Tree ==========
+
+    private sealed interface Node permits Lit, Cls, Seq, Alt, Rep, Assert {
+    }
+
+    private static final Node EMPTY = new Seq(List.of());
+
+    private record Lit(int cp) implements Node {
+    }
+
+    private record Cls(CharClass cls) implements Node {
+    }
+
+    private record Seq(List<Node> items) implements Node {
+    }
+
+    private record Alt(List<Node> options) implements Node {
+    }
+
+    /** Repetition; {@code max < 0} means unbounded. */
+    private record Rep(Node node, int min, int max) implements Node {
+    }
+
+    /** Zero-width word boundary ({@code ASSERT_WORD_BOUNDARY} or {@code ASSERT_NOT_WORD_BOUNDARY}). */
+    private record Assert(int kind) implements Node {
+    }
+
+    /** The whole pattern as a literal string, or null if it is not a plain literal. */
+    private static String literalOf(Node node) {
+        if (node instanceof Lit lit) {
+            return Character.toString(lit.cp());
+        }
+        if (node instanceof Seq seq) {
+            StringBuilder sb = new StringBuilder();
+            for (Node item : seq.items()) {
+                String part = literalOf(item);
+                if (part == null) {
+                    return null;
+                }
+                sb.append(part);
+            }
+            return sb.toString();
+        }
+        return null;
+    }
+
+    /** Literals that occur in every match; alternations contribute nothing. */
+    private static List<String> requiredLiterals(Node node) {
+        List<String> out = new ArrayList<>();
+        switch (node) {
+            case Lit lit -> out.add(Character.toString(lit.cp()));
+            case Seq seq -> {
+                StringBuilder run = new StringBuilder();
+                for (Node item : seq.items()) {
+                    if (item instanceof Lit lit) {
+                        run.appendCodePoint(lit.cp());
+                        continue;
+                    }
+                    if (!run.isEmpty()) {
+                        out.add(run.toString());
+                        run.setLength(0);
+                    }
+                    out.addAll(requiredLiterals(item));
+                }
+                if (!run.isEmpty()) {
+                    out.add(run.toString());
+                }
+            }
+            case Rep rep -> {
+                if (rep.min() > 0) {
+                    out.addAll(requiredLiterals(rep.node()));
+                }
+            }
+            case Cls ignored -> {
+            }
+            case Alt ignored -> {
+            }
+            case Assert ignored -> {
+            }
+        }
+        return out;
+    }
+
+    // ========== Character Classes ==========
+
+    /**
+     * Union of code point ranges, Unicode general categories and nested negated
+     * classes (for {@code [\D\s]}), optionally negated as a whole. Under {@code (?i)}
+     * a char also matches if one of its case variants is in the class, as in
+     * {@code java.util.regex}: ASCII letters only, or all of Unicode with {@code (?iu)}.
+     */
+    private static final class CharClass {
+        private final int[] ranges;
+        private final long categories;
+        private final CharClass[] parts;
+        private final boolean negated;
+        private final int fold;
+
+        CharClass(int[] ranges, long categories, CharClass[] parts, boolean negated, int fold) {
+            this.ranges = ranges;
+            this.categories = categories;
+            this.parts = parts;
+            this.negated = negated;
+            this.fold = fold;
+        }
+
+        static CharClass single(int cp) {
+            return new CharClass(new int[]{cp, cp}, 0L, new CharClass[0], false, FOLD_NONE);
+        }
+
+        static CharClass ranges(boolean negated, int... ranges) {
+            return new CharClass(ranges, 0L, new CharClass[0], negated, FOLD_NONE);
+        }
+
+        static CharClass categories(int... types) {
+            long mask = 0L;
+            for (int type : types) {
+                mask |= 1L << type;
+            }
+            return new CharClass(new int[0], mask, new CharClass[0], false, FOLD_NONE);
+        }
+
+        CharClass negate() {
+            return new CharClass(ranges, categories, parts, !negated, fold);
+        }
+
+        CharClass folded(int mode) {
+            return mode == fold ? this : new CharClass(ranges, categories, parts, negated, mode);
+        }
+
+        boolean matches(int cp) {
+            return containsFolded(cp) != negated;
+        }
+
+        private boolean containsFolded(int cp) {
+            if (contains(cp)) {
+                return true;
+            }
+            if (fold == FOLD_ASCII) {
+                return (cp >= 'a' && cp <= 'z' || cp >= 'A' && cp <= 'Z') && contains(cp ^ 0x20);
+            }
+            if (fold == FOLD_UNICODE) {
+                int upper = Character.toUpperCase(cp);
+                return contains(upper) || contains(Character.toLowerCase(cp))
+                        || contains(Character.toLowerCase(upper));
+            }
+            return false;
+        }
+
+        private boolean contains(int cp) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (cp >= ranges[i] && cp <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+            if (categories != 0L && (categories & (1L << Character.getType(cp))) != 0) {
+                return true;
+            }
+            for (CharClass part : parts) {
+                if (part.matches(cp)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final CharClass DIGIT = CharClass.ranges(false, '0', '9');
+    private static final CharClass WORD = CharClass.ranges(false, 'a', 'z', 'A', 'Z', '0', '9', '_', '_');
+    private static final CharClass SPACE = CharClass.ranges(false, ' ', ' ', '\t', '\r');
+    private static final CharClass DOT = CharClass.ranges(true, '\n', '\n', '\r', '\r',
+            '\u0085', '\u0085', '\u2028', '\u2029');
+    private static final CharClass ANY = CharClass.ranges(false, 0, Character.MAX_CODE_POINT);
+
+    private static final Map<String, CharClass> PROPERTIES = properties();
+
+    private static Map<String, CharClass> properties() {
+        Map<String, CharClass> map = new HashMap<>();
+        map.put("L", CharClass.categories(Character.UPPERCASE_LETTER, Character.LOWERCASE_LETTER,
+                Character.TITLECASE_LETTER, Character.MODIFIER_LETTER, Character.OTHER_LETTER));
+        map.put("Lu", CharClass.categories(Character.UPPERCASE_LETTER));
+        map.put("Ll", CharClass.categories(Character.LOWERCASE_LETTER));
+        map.put("Lt", CharClass.categories(Character.TITLECASE_LETTER));
+        map.put("Lm", CharClass.categories(Character.MODIFIER_LETTER));
+        map.put("Lo", CharClass.categories(Character.OTHER_LETTER));
+        map.put("N", CharClass.categories(Character.DECIMAL_DIGIT_NUMBER, Character.LETTER_NUMBER,
+                Character.OTHER_NUMBER));
+        map.put("Nd", CharClass.categories(Character.DECIMAL_DIGIT_NUMBER));
+        map.put("P", CharClass.categories(Character.DASH_PUNCTUATION, Character.START_PUNCTUATION,
+                Character.END_PUNCTUATION, Character.CONNECTOR_PUNCTUATION, Character.OTHER_PUNCTUATION,
+                Character.INITIAL_QUOTE_PUNCTUATION, Character.FINAL_QUOTE_PUNCTUATION));
+        map.put("S", CharClass.categories(Character.MATH_SYMBOL, Character.CURRENCY_SYMBOL,
+                Character.MODIFIER_SYMBOL, Character.OTHER_SYMBOL));
+        map.put("Sc", CharClass.categories(Character.CURRENCY_SYMBOL));
+        map.put("Z", CharClass.categories(Character.SPACE_SEPARATOR, Character.LINE_SEPARATOR,
+                Character.PARAGRAPH_SEPARATOR));
+        map.put("Zs", CharClass.categories(Character.SPACE_SEPARATOR));
+        map.put("Lower", CharClass.ranges(false, 'a', 'z'));
+        map.put("Upper", CharClass.ranges(false, 'A', 'Z'));
+        map.put("ASCII", CharClass.ranges(false, 0x00, 0x7F));
+        map.put("Alpha", CharClass.ranges(false, 'a', 'z', 'A', 'Z'));
+        map.put("Digit", DIGIT);
+        map.put("Alnum", CharClass.ranges(false, 'a', 'z', 'A', 'Z', '0', '9'));
+        map.put("Punct", CharClass.ranges(false, '!', '/', ':', '@', '[', '`', '{', '~'));
+        map.put("Graph", CharClass.ranges(false, '!', '~'));
+        map.put("Print", CharClass.ranges(false, ' ', '~'));
+        map.put("Blank", CharClass.ranges(false, ' ', ' ', '\t', '\t'));
+        map.put("Cntrl", CharClass.ranges(false, 0x00, 0x1F, 0x7F, 0x7F));
+        map.put("XDigit", CharClass.ranges(false, '0', '9', 'a', 'f', 'A', 'F'));
+        map.put("Space", SPACE);
+        return Map.copyOf(map);
+    }
+
+    // ========== Parser ==========
+
+    /**
+     * Recursive-descent parser for the supported subset. Errors use the same
+     * {@link PatternSyntaxException} as {@code java.util.regex}.
+     */
+    private static final class Parser {
+        private static final int CASE_INSENSITIVE = 1;
+        private static final int UNICODE_CASE = 2;
+        private static final int DOTALL = 4;
+
+        private final String p;
+        private int pos;
+        private int depth;
+        /** Inline flags in effect; a group restores the outer flags when it closes. */
+        private int flags;
+
+        Parser(String pattern) {
+            this.p = pattern;
+        }
+
+        Node parse() {
+            Node node = parseAlternation();
+            if (pos < p.length()) {
+                throw error("Unmatched closing ')'", pos);
+            }
+            return node;
+        }
+
+        private Node parseAlternation() {
+            List<Node> options = new ArrayList<>();
+            options.add(parseSequence());
+            while (pos < p.length() && p.charAt(pos) == '|') {
+                pos++;
+                options.add(parseSequence());
+            }
+            return options.size() == 1 ? options.get(0) : new Alt(options);
+        }
+
+        private Node parseSequence() {
+            List<Node> items = new ArrayList<>();
+            while (pos < p.length()) {
+                char c = p.charAt(pos);
+                if (c == '|' || c == ')') {
+                    break;
+                }
+                if (c == '^' && depth == 0 && items.stream().allMatch(item -> item == EMPTY)) {
+                    // matches() is anchored anyway; only flag groups like (?i) may precede it
+                    pos++;
+                    continue;
+                }
+                if (c == '$') {
+                    if (depth == 0 && (pos + 1 == p.length() || p.charAt(pos + 1) == '|')) {
+                        pos++;
+                        continue;
+                    }
+                    throw unsupported("'$' is only supported at the end of the pattern", pos);
+                }
+                if (c == '^') {
+                    throw unsupported("'^' is only supported at the start of the pattern", pos);
+                }
+                items.add(parseQuantifier(parseAtom()));
+            }
+            return items.size() == 1 ? items.get(0) : new Seq(items);
+        }
+
+        private Node parseQuantifier(Node atom) {
+            if (pos >= p.length()) {
+                return atom;
+            }
+            int start = pos;
+            int min;
+            int max;
+            switch (p.charAt(pos)) {
+                case '*' -> {
+                    min = 0;
+                    max = -1;
+                    pos++;
+                }
+                case '+' -> {
+                    min = 1;
+                    max = -1;
+                    pos++;
+                }
+                case '?' -> {
+                    min = 0;
+                    max = 1;
+                    pos++;
+                }
+                case '{' -> {
+                    pos++;
+                    min = readInt(start);
+                    max = min;
+                    if (pos < p.length() && p.charAt(pos) == ',') {
+                        pos++;
+                        max = pos < p.length() && p.charAt(pos) == '}' ? -1 : readInt(start);
+                    }
+                    if (pos >= p.length() || p.charAt(pos) != '}') {
+                        throw error("Unclosed counted closure", pos);
+                    }
+                    pos++;
+                    if (max >= 0 && max < min) {
+                        throw error("Illegal repetition range", start);
+                    }
+                    if (min > MAX_REPEAT || max > MAX_REPEAT) {
+                        throw unsupported("Repetition bound above " + MAX_REPEAT, start);
+                    }
+                }
+                default -> {
+                    return atom;
+                }
+            }
+            if (pos < p.length() && p.charAt(pos) == '?') {
+                // lazy: same outcome for a full match
+                pos++;
+            } else if (pos < p.length() && p.charAt(pos) == '+') {
+                throw unsupported("Possessive quantifiers are not supported", pos);
+            }
+            return new Rep(atom, min, max);
+        }
+
+        private int readInt(int quantifierStart) {
+            int begin = pos;
+            while (pos < p.length() && Character.isDigit(p.charAt(pos)) && pos - begin < 9) {
+                pos++;
+            }
+            if (pos == begin) {
+                throw error("Illegal repetition", quantifierStart);
+            }
+            return Integer.parseInt(p, begin, pos, 10);
+        }
+
+        private Node parseAtom() {
+            char c = p.charAt(pos);
+            switch (c) {
+                case '(' -> {
+                    return parseGroup();
+                }
+                case '[' -> {
+                    return new Cls(parseClass());
+                }
+                case '.' -> {
+                    pos++;
+                    return new Cls((flags & DOTALL) != 0 ? ANY : DOT);
+                }
+                case '\\' -> {
+                    return parseEscape();
+                }
+                case '*', '+', '?' -> throw error("Dangling meta character '" + c + "'", pos);
+                case '{' -> throw error("Illegal repetition", pos);
+                default -> {
+                    int cp = p.codePointAt(pos);
+                    pos += Character.charCount(cp);
+                    return literal(cp);
+                }
+            }
+        }
+
+        /** A literal, or a class of its case variants under {@code (?i)}. */
+        private Node literal(int cp) {
+            int mode = foldMode();
+            boolean cased = mode == FOLD_UNICODE ? Character.isLetter(cp)
+                    : mode == FOLD_ASCII && (cp >= 'a' && cp <= 'z' || cp >= 'A' && cp <= 'Z');
+            return cased ? new Cls(CharClass.single(cp).folded(mode)) : new Lit(cp);
+        }
+
+        private CharClass fold(CharClass cls) {
+            int mode = foldMode();
+            return mode == FOLD_NONE ? cls : cls.folded(mode);
+        }
+
+        private int foldMode() {
+            if ((flags & CASE_INSENSITIVE) == 0) {
+                return FOLD_NONE;
+            }
+            return (flags & UNICODE_CASE) != 0 ? FOLD_UNICODE : FOLD_ASCII;
+        }
+
+        private Node parseGroup() {
+            int open = pos;
+            pos++;
+            int outerFlags = flags;
+            if (pos < p.length() && p.charAt(pos) == '?') {
+                if (p.startsWith("?:", pos)) {
+                    pos += 2;
+                } else if (p.startsWith("?<", pos) && pos + 2 < p.length()
+                        && Character.isLetter(p.charAt(pos + 2))) {
+                    int close = p.indexOf('>', pos);
+                    if (close < 0) {
+                        throw error("Named capturing group is missing trailing '>'", pos);
+                    }
+                    pos = close + 1;
+                } else if (p.startsWith("?=", pos) || p.startsWith("?!", pos)
+                        || p.startsWith("?<=", pos) || p.startsWith("?<!", pos)) {
+                    throw unsupported("Lookaround is not supported", open);
+                } else if (p.startsWith("?>", pos)) {
+                    throw unsupported("Atomic groups are not supported", open);
+                } else if (!parseFlags()) {
+                    // (?i): applies to the rest of the enclosing group
+                    return EMPTY;
+                }
+            }
+            depth++;
+            Node inner = parseAlternation();
+            depth--;
+            flags = outerFlags;
+            if (pos >= p.length() || p.charAt(pos) != ')') {
+                throw error("Unclosed group", p.length());
+            }
+            pos++;
+            return inner;
+        }
+
+        /**
+         * Parses inline flags with {@code pos} on the {@code ?}: {@code (?i-s)} or
+         * {@code (?i-s:}. Returns true if the flags open a group ({@code :}), false if
+         * they end at {@code )}; either way {@code pos} is past the terminator.
+         */
+        private boolean parseFlags() {
+            pos++;
+            boolean on = true;
+            while (pos < p.length()) {
+                char c = p.charAt(pos);
+                int flag;
+                switch (c) {
+                    case ')', ':' -> {
+                        pos++;
+                        return c == ':';
+                    }
+                    case '-' -> {
+                        on = false;
+                        pos++;
+                        continue;
+                    }
+                    case 'i' -> flag = CASE_INSENSITIVE;
+                    case 'u' -> flag = UNICODE_CASE;
+                    case 's' -> flag = DOTALL;
+                    case 'm', 'x', 'd', 'c', 'U' -> throw unsupported("Inline flag " + c + " is not supported", pos);
+                    default -> throw error("Unknown inline modifier", pos);
+                }
+                flags = on ? flags | flag : flags & ~flag;
+                pos++;
+            }
+            throw error("Unclosed group", p.length());
+        }
+
+        private Node parseEscape() {
+            int start = pos;
+            pos++;
+            if (pos >= p.length()) {
+                throw error("Unexpected internal error", start);
+            }
+            char c = p.charAt(pos);
+            if (c == 'Q') {
+                pos++;
+                int end = p.indexOf("\\E", pos);
+                String quoted = end < 0 ? p.substring(pos) : p.substring(pos, end);
+                pos = end < 0 ? p.length() : end + 2;
+                List<Node> items = new ArrayList<>();
+                quoted.codePoints().forEach(cp -> items.add(literal(cp)));
+                return items.size() == 1 ? items.get(0) : new Seq(items);
+            }
+            if (c == 'b' || c == 'B') {
+                pos++;
+                return new Assert(c == 'b' ? ASSERT_WORD_BOUNDARY : ASSERT_NOT_WORD_BOUNDARY);
+            }
+            CharClass predefined = predefinedClass(c, start);
+            if (predefined != null) {
+                return new Cls(fold(predefined));
+            }
+            return literal(escapedCodePoint(start));
+        }
+
+        /**
+         * Parses a predefined class escape ({@code \d}, {@code \p{L}}, ...) with {@code pos}
+         * on the letter; returns null (pos unchanged) if it is not one.
+         */
+        private CharClass predefinedClass(char c, int start) {
+            switch (c) {
+                case 'd' -> {
+                    pos++;
+                    return DIGIT;
+                }
+                case 'D' -> {
+                    pos++;
+                    return DIGIT.negate();
+                }
+                case 'w' -> {
+                    pos++;
+                    return WORD;
+                }
+                case 'W' -> {
+                    pos++;
+                    return WORD.negate();
+                }
+                case 's' -> {
+                    pos++;
+                    return SPACE;
+                }
+                case 'S' -> {
+                    pos++;
+                    return SPACE.negate();
+                }
+                case 'p', 'P' -> {
+                    pos++;
+                    String name;
+                    if (pos < p.length() && p.charAt(pos) == '{') {
+                        int close = p.indexOf('}', pos);
+                        if (close < 0) {
+                            throw error("Unclosed character family", pos);
+                        }
+                        name = p.substring(pos + 1, close);
+                        pos = close + 1;
+                    } else if (pos < p.length()) {
+                        name = String.valueOf(p.charAt(pos++));
+                    } else {
+                        throw error("Illegal character family", start);
+                    }
+                    if (name.startsWith("Is") && PROPERTIES.containsKey(name.substring(2))) {
+                        name = name.substring(2);
+                    }
+                    CharClass property = PROPERTIES.get(name);
+                    if (property == null) {
+                        throw unsupported("Unsupported character property " + name, start);
+                    }
+                    return c == 'P' ? property.negate() : property;
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+
+        /** Parses a literal escape with {@code pos} on the char after the backslash. */
+        private int escapedCodePoint(int start) {
+            char c = p.charAt(pos++);
+            switch (c) {
+                case 't' -> {
+                    return '\t';
+                }
+                case 'n' -> {
+                    return '\n';
+                }
+                case 'r' -> {
+                    return '\r';
+                }
+                case 'f' -> {
+                    return '\f';
+                }
+                case 'a' -> {
+                    return '\u0007';
+                }
+                case 'e' -> {
+                    return '\u001B';
+                }
+                case 'x' -> {
+                    if (pos < p.length() && p.charAt(pos) == '{') {
+                        int close = p.indexOf('}', pos);
+                        if (close < 0) {
+                            throw error("Unclosed hexadecimal escape sequence", pos);
+                        }
+                        int cp = hex(pos + 1, close, start);
+                        pos = close + 1;
+                        return cp;
+                    }
+                    int cp = hex(pos, pos + 2, start);
+                    pos += 2;
+                    return cp;
+                }
+                case 'u' -> {
+                    int cp = hex(pos, pos + 4, start);
+                    pos += 4;
+                    return cp;
+                }
+                case '0' -> {
+                    int value = 0;
+                    int digits = 0;
+                    while (pos < p.length() && digits < 3 && p.charAt(pos) >= '0' && p.charAt(pos) <= '7'
+                            && value * 8 + (p.charAt(pos) - '0') <= 0377) {
+                        value = value * 8 + (p.charAt(pos++) - '0');
+                        digits++;
+                    }
+                    if (digits == 0) {
+                        throw error("Illegal octal escape sequence", start);
+                    }
+                    return value;
+                }
+                default -> {
+                    if (c >= '1' && c <= '9') {
+                        throw unsupported("Backreferences are not supported", start);
+                    }
+                    if (c == 'b' || c == 'B' || c == 'A' || c == 'z' || c == 'Z' || c == 'G') {
+                        throw unsupported("Boundary matcher \\" + c + " is not supported", start);
+                    }
+                    if (Character.isLetterOrDigit(c)) {
+                        throw unsupported("Unsupported escape sequence \\" + c, start);
+                    }
+                    return c;
+                }
+            }
+        }
+
+        private int hex(int from, int to, int start) {
+            if (to > p.length() || to <= from) {
+                throw error("Illegal hexadecimal escape sequence", start);
+            }
+            try {
+                int cp = Integer.parseInt(p, from, to, 16);
+                if (!Character.isValidCodePoint(cp)) {
+                    throw error("Hexadecimal codepoint is too big", start);
+                }
+                return cp;
+            } catch (NumberFormatException e) {
+                throw error("Illegal hexadecimal escape sequence", start);
+            }
+        }
+
+        private CharClass parseClass() {
+            int open = pos;
+            pos++;
+            boolean negated = false;
+            if (pos < p.length() && p.charAt(pos) == '^') {
+                negated = true;
+                pos++;
+            }
+            int[] ranges = new int[8];
+            int rangeCount = 0;
+            List<CharClass> parts = new ArrayList<>();
+            boolean first = true;
+            while (true) {
+                if (pos >= p.length()) {
+                    throw error("Unclosed character class", open);
+                }
+                char c = p.charAt(pos);
+                if (c == ']' && !first) {
+                    pos++;
+                    break;
+                }
+                first = false;
+                if (c == '[') {
+                    throw unsupported("Nested character classes are not supported", pos);
+                }
+                if (c == '&' && p.startsWith("&&", pos)) {
+                    throw unsupported("Character class intersection is not supported", pos);
+                }
+                int lo;
+                if (c == '\\') {
+                    int start = pos;
+                    pos++;
+                    if (pos >= p.length()) {
+                        throw error("Unclosed character class", open);
+                    }
+                    CharClass predefined = predefinedClass(p.charAt(pos), start);
+                    if (predefined != null) {
+                        if (predefined.negated || predefined.categories != 0L || predefined.parts.length > 0) {
+                            parts.add(predefined);
+                        } else {
+                            for (int i = 0; i < predefined.ranges.length; i++) {
+                                ranges = add(ranges, rangeCount++, predefined.ranges[i]);
+                            }
+                        }
+                        continue;
+                    }
+                    lo = escapedCodePoint(start);
+                } else {
+                    lo = p.codePointAt(pos);
+                    pos += Character.charCount(lo);
+                }
+                int hi = lo;
+                if (pos + 1 < p.length() && p.charAt(pos) == '-' && p.charAt(pos + 1) != ']') {
+                    int dash = pos;
+                    pos++;
+                    if (p.charAt(pos) == '\\') {
+                        int start = pos;
+                        pos++;
+                        if (pos >= p.length() || predefinedClass(p.charAt(pos), start) != null) {
+                            throw error("Illegal character range", dash);
+                        }
+                        hi = escapedCodePoint(start);
+                    } else if (p.charAt(pos) == '[') {
+                        throw unsupported("Nested character classes are not supported", pos);
+                    } else {
+                        hi = p.codePointAt(pos);
+                        pos += Character.charCount(hi);
+                    }
+                    if (hi < lo) {
+                        throw error("Illegal character range", dash);
+                    }
+                }
+                ranges = add(ranges, rangeCount++, lo);
+                ranges = add(ranges, rangeCount++, hi);
+            }
+            return new CharClass(Arrays.copyOf(ranges, rangeCount), 0L,
+                    parts.toArray(CharClass[]::new), negated, foldMode());
+        }
+
+        private static int[] add(int[] array, int index, int value) {
+            int[] target = index < array.length ? array : Arrays.copyOf(array, array.length * 2);
+            target[index] = value;
+            return target;
+        }
+
+        private PatternSyntaxException error(String description, int index) {
+            return new PatternSyntaxException(description, p, index);
+        }
+
+        private PatternSyntaxException unsupported(String description, int index) {
+            return new PatternSyntaxException(description + " (linear-time matcher)", p, index);
+        }
+    }
+}
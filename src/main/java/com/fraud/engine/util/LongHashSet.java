@@ -0,0 +1,85 @@
+package com.fraud.engine.util;
+
+/**
+ * Immutable open-addressing set of primitive {@code long} keys.
+ * <p>
+ * Linear probing over a power-of-two table kept at most half full, so a miss stops
+ * within a couple of slots. {@code 0} marks an empty slot; the key {@code 0} itself is
+ * tracked with a separate flag. Built once at rule compile time, read lock-free on the
+ * hot path with no boxing.
+ */
+public final class LongHashSet {
+
+    private final long[] table;
+    private final int mask;
+    private final boolean containsZero;
+    private final int size;
+
+    /**
+     * Builds a set from the given keys (duplicates are ignored).
+     *
+     * @param keys the keys
+     */
+    public LongHashSet(long[] keys) {
+        int capacity = tableSizeFor(keys.length);
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+        boolean zero = false;
+        int count = 0;
+        for (long key : keys) {
+            if (key == 0L) {
+                if (!zero) {
+                    zero = true;
+                    count++;
+                }
+                continue;
+            }
+            int slot = mix(key) & mask;
+            while (table[slot] != 0L && table[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == 0L) {
+                table[slot] = key;
+                count++;
+            }
+        }
+        this.containsZero = zero;
+        this.size = count;
+    }
+
+    /**
+     * @param key the key
+     * @return true if the key is in the set
+     */
+    public boolean contains(long key) {
+        if (key == 0L) {
+            return containsZero;
+        }
+        int slot = mix(key) & mask;
+        long candidate;
+        while ((candidate = table[slot]) != 0L) {
+            if (candidate == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of distinct keys
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int tableSizeFor(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+        return Math.max(capacity, 4);
+    }
+}
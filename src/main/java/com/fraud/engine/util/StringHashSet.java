@@ -0,0 +1,82 @@
+package com.fraud.engine.util;
+
+/**
+ * Immutable open-addressing set of strings with precomputed hashes.
+ * <p>
+ * Each slot stores the key and its hash side by side, so a probe compares the
+ * {@code int} hash first and only calls {@code equals} on a hash hit. The probe key's
+ * own hash is cached by {@link String} after the first call, so repeated lookups of
+ * the same transaction value do not rehash. Built once at rule compile time.
+ */
+public final class StringHashSet {
+
+    private final String[] keys;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Builds a set from the given keys (nulls and duplicates are ignored).
+     *
+     * @param values the keys
+     */
+    public StringHashSet(Iterable<String> values) {
+        int expected = 0;
+        for (String ignored : values) {
+            expected++;
+        }
+        int capacity = LongHashSet.tableSizeFor(expected);
+        this.keys = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        int count = 0;
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            int hash = value.hashCode();
+            int slot = spread(hash) & mask;
+            while (keys[slot] != null && !(hashes[slot] == hash && keys[slot].equals(value))) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == null) {
+                keys[slot] = value;
+                hashes[slot] = hash;
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * @param value the value (null is never contained)
+     * @return true if the value is in the set
+     */
+    public boolean contains(String value) {
+        if (value == null) {
+            return false;
+        }
+        int hash = value.hashCode();
+        int slot = spread(hash) & mask;
+        String candidate;
+        while ((candidate = keys[slot]) != null) {
+            if (hashes[slot] == hash && candidate.equals(value)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of distinct keys
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,118 @@
+package com.fraud.engine.util;
+
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Chooses where blocking work runs: the platform worker pool (default) or one virtual
+ * thread per task ({@code app.virtual-threads.enabled}).
+ * <p>
+ * With virtual threads a request parked on Redis or Kafka releases its carrier, so the
+ * worker pool size ({@code quarkus.thread-pool.max-threads}) no longer caps concurrency;
+ * {@code LoadSheddingFilter}'s semaphore does.
+ */
+@ApplicationScoped
+public class WorkerThreads {
+
+    private static final Logger LOG = Logger.getLogger(WorkerThreads.class);
+
+    @ConfigProperty(name = "app.virtual-threads.enabled", defaultValue = "false")
+    boolean virtualThreads;
+
+    private ExecutorService requestExecutor;
+
+    @PostConstruct
+    void init() {
+        if (virtualThreads) {
+            requestExecutor = Executors.newThreadPerTaskExecutor(factory("request-vt", true));
+            LOG.info("Blocking request handling runs on virtual threads");
+        }
+    }
+
+    /**
+     * @return true if blocking work runs on virtual threads
+     */
+    public boolean isVirtual() {
+        return virtualThreads;
+    }
+
+    /**
+     * Executor for blocking request handling (evaluation, replay, simulation).
+     *
+     * @return a virtual-thread-per-task executor, or the default worker pool
+     */
+    public Executor requestExecutor() {
+        return requestExecutor != null ? requestExecutor : Infrastructure.getDefaultWorkerPool();
+    }
+
+    /**
+     * Gets the calling thread's instance of per-thread reusable state, or a fresh one on a
+     * virtual thread: a virtual thread serves one request, so a thread-local would never
+     * be reused and would only keep the instance alive.
+     *
+     * @param perThread the thread-local holding each platform thread's instance
+     * @param fresh creates an instance for a virtual thread
+     * @return the instance to use on this thread
+     */
+    public static <T> T perThread(ThreadLocal<T> perThread, Supplier<T> fresh) {
+        return Thread.currentThread().isVirtual() ? fresh.get() : perThread.get();
+    }
+
+    /**
+     * Creates an executor for a component's background work.
+     *
+     * @param name thread name prefix
+     * @param platformThreads pool size when {@code virtual} is false
+     * @param virtual whether to run each task on its own virtual thread
+     * @return a virtual-thread-per-task executor, or a fixed pool of daemon threads
+     */
+    public static ExecutorService newExecutor(String name, int platformThreads, boolean virtual) {
+        if (virtual) {
+            return Executors.newThreadPerTaskExecutor(factory(name, true));
+        }
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads), factory(name, false));
+    }
+
+    /**
+     * @param name thread name (virtual threads get a numeric suffix)
+     * @param virtual whether to create virtual threads
+     * @return factory for daemon threads
+     */
+    public static ThreadFactory factory(String name, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name + "-", 0).factory();
+        }
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @PreDestroy
+    void destroy() {
+        if (requestExecutor == null) {
+            return;
+        }
+        requestExecutor.shutdown();
+        try {
+            if (!requestExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                requestExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            requestExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
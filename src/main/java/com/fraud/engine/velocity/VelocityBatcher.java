@@ -0,0 +1,270 @@
+package com.fraud.engine.velocity;
+
+import com.fraud.engine.util.EngineMetrics;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces velocity increments from concurrent requests into pipelined Redis batches.
+ * <p>
+ * Each request still sends its checks as one multi-key script call, but instead of one
+ * round trip per request the calls are queued and a dispatcher thread flushes them
+ * together: as soon as the queued checks reach {@code maxBatchOps} keys, or
+ * {@code maxDelayMicros} after the oldest one was queued. Each flush is a single
+ * pipelined write on one connection; the replies are fanned back out to the waiting
+ * requests in order.
+ * <p>
+ * Per-request atomicity is unchanged (one script call per request). What changes is
+ * latency: a request can wait up to {@code maxDelayMicros} for its batch, which pays off
+ * only when many requests are in flight at once.
+ */
+final class VelocityBatcher implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(VelocityBatcher.class);
+
+    private static final long IDLE_POLL_MS = 100;
+
+    /**
+     * One request's velocity keys, queued until its batch is flushed.
+     */
+    static final class PendingCheck {
+        final String[] keys;
+        final String[] windows;
+        final String[] thresholds;
+        final long enqueuedNanos;
+        final CompletableFuture<long[]> result = new CompletableFuture<>();
+
+        PendingCheck(String[] keys, String[] windows, String[] thresholds, long enqueuedNanos) {
+            this.keys = keys;
+            this.windows = windows;
+            this.thresholds = thresholds;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * Sends a batch of checks to Redis in one round trip.
+     */
+    @FunctionalInterface
+    interface BatchExecutor {
+        /**
+         * @param batch queued checks, oldest first
+         * @return a stage completing with one counts array per check, in batch order
+         */
+        CompletionStage<List<long[]>> execute(List<PendingCheck> batch);
+    }
+
+    private final BatchExecutor executor;
+    private final EngineMetrics engineMetrics;
+    private final int maxBatchOps;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final Semaphore inFlight;
+    private final BlockingQueue<PendingCheck> queue;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    /**
+     * @param executor sends a batch to Redis
+     * @param maxBatchOps flush once the queued checks hold this many keys
+     * @param maxDelayMicros flush this long after the oldest queued check at the latest
+     * @param maxInFlight batches that may be awaiting replies at once
+     * @param queueCapacity checks that may be queued; further checks bypass the batcher
+     * @param timeoutMs how long a request waits for its batch
+     * @param engineMetrics batch metrics (nullable)
+     */
+    VelocityBatcher(BatchExecutor executor, int maxBatchOps, long maxDelayMicros, int maxInFlight,
+                    int queueCapacity, long timeoutMs, EngineMetrics engineMetrics) {
+        this.executor = executor;
+        this.engineMetrics = engineMetrics;
+        this.maxBatchOps = Math.max(1, maxBatchOps);
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxDelayMicros));
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMs));
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        this.dispatcher = new Thread(this::dispatchLoop, "velocity-batch-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queues one request's increments and waits for its batch.
+     *
+     * @param keys script keys: velocity keys, optionally followed by one legacy key each
+     * @param windows window seconds, one per velocity key
+     * @param thresholds thresholds, one per velocity key
+     * @return counts aligned to {@code windows}, or null if the check was not sent (batcher
+     *         closed, queue full, or the script is missing from Redis) and the caller
+     *         should run it directly
+     * @throws IllegalStateException if the batch failed or timed out; the increments may
+     *         already have been applied, so the check must not be retried
+     */
+    long[] submit(String[] keys, String[] windows, String[] thresholds) {
+        try {
+            return submitAsync(keys, windows, thresholds).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IllegalStateException failure) {
+                throw failure;
+            }
+            throw new IllegalStateException("Velocity batch failed", e.getCause());
+        }
+    }
+
+    /**
+     * Queues one request's increments without waiting. The returned stage completes on
+     * the Redis client's thread, or on the caller's if the check is not queued.
+     *
+     * @return a stage completing as {@link #submit} returns: with the counts, with null
+     *         if the caller should run the check directly, or exceptionally with an
+     *         {@link IllegalStateException} if it must not be retried
+     */
+    CompletableFuture<long[]> submitAsync(String[] keys, String[] windows, String[] thresholds) {
+        if (!running) {
+            return CompletableFuture.completedFuture(null);
+        }
+        PendingCheck check = new PendingCheck(keys, windows, thresholds, System.nanoTime());
+        if (!queue.offer(check)) {
+            if (engineMetrics != null) {
+                engineMetrics.incrementVelocityBatchBypass();
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!running) {
+            // Closed while queuing: the dispatcher may already have drained the queue
+            releaseQueued();
+        }
+        return check.result
+                .orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                .handle((counts, error) -> {
+                    if (error == null) {
+                        return counts;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    if (cause instanceof TimeoutException) {
+                        throw new IllegalStateException("Velocity batch timed out after "
+                                + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms", cause);
+                    }
+                    if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                        // No script ran, so the direct path can reload it and retry safely
+                        return null;
+                    }
+                    throw new IllegalStateException("Velocity batch failed", cause);
+                });
+    }
+
+    /**
+     * Stops the dispatcher. Checks still queued complete with null, so their callers run
+     * them directly.
+     */
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        releaseQueued();
+    }
+
+    private void dispatchLoop() {
+        List<PendingCheck> batch = new ArrayList<>();
+        try {
+            while (running) {
+                PendingCheck first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int ops = first.keys.length;
+                long deadline = first.enqueuedNanos + maxDelayNanos;
+                while (ops < maxBatchOps) {
+                    PendingCheck next = queue.poll();
+                    if (next == null) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                    }
+                    batch.add(next);
+                    ops += next.keys.length;
+                }
+                inFlight.acquire();
+                flush(List.copyOf(batch), ops);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (PendingCheck check : batch) {
+                check.result.complete(null);
+            }
+            releaseQueued();
+        }
+    }
+
+    private void flush(List<PendingCheck> batch, int ops) {
+        long now = System.nanoTime();
+        long delayTotal = 0;
+        long delayMax = 0;
+        for (PendingCheck check : batch) {
+            long delay = now - check.enqueuedNanos;
+            delayTotal += delay;
+            delayMax = Math.max(delayMax, delay);
+        }
+        if (engineMetrics != null) {
+            engineMetrics.recordVelocityBatch(batch.size(), ops, delayTotal, delayMax);
+        }
+
+        CompletionStage<List<long[]>> stage;
+        try {
+            stage = executor.execute(batch);
+        } catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+        stage.whenComplete((counts, error) -> {
+            inFlight.release();
+            Throwable failure = error;
+            if (failure == null && (counts == null || counts.size() != batch.size())) {
+                failure = new IllegalStateException("Unexpected velocity batch response");
+            }
+            if (failure != null) {
+                if (engineMetrics != null) {
+                    engineMetrics.incrementVelocityBatchFailure();
+                }
+                LOG.warnf("Velocity batch of %d checks failed: %s", batch.size(), failure.getMessage());
+                for (PendingCheck check : batch) {
+                    check.result.completeExceptionally(failure);
+                }
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(counts.get(i));
+            }
+        });
+    }
+
+    private void releaseQueued() {
+        PendingCheck check;
+        while ((check = queue.poll()) != null) {
+            check.result.complete(null);
+        }
+    }
+}
@@ -3,11 +3,17 @@ package com.fraud.engine.velocity;
 import com.fraud.engine.domain.Decision;
 import com.fraud.engine.domain.TransactionContext;
 import com.fraud.engine.domain.VelocityConfig;
+import com.fraud.engine.util.EngineMetrics;
 import io.quarkus.redis.datasource.RedisDataSource;
 import io.quarkus.redis.datasource.value.ValueCommands;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import io.vertx.mutiny.redis.client.RedisAPI;
+import io.vertx.mutiny.redis.client.Request;
 import io.vertx.mutiny.redis.client.Response;
+import io.vertx.redis.client.Command;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
@@ -20,8 +26,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -41,6 +53,10 @@ public class VelocityService {
 
     private static final Logger LOG = Logger.getLogger(VelocityService.class);
     private static final String VELOCITY_KEY_PREFIX = "vel:";
+    private static final String GLOBAL_NAMESPACE = "global";
+    private static final String DEFAULT_SNAPSHOT_WINDOWS = "card_5min:card_hash:300:10,card_1h:card_hash:3600:20,"
+            + "card_24h:card_hash:86400:50,ip_1h:ip_address:3600:20,ip_24h:ip_address:86400:100,"
+            + "device_1h:device_id:3600:15,device_24h:device_id:86400:50";
     private static final String LUA_SCRIPT_PATH = "/lua/velocity_check.lua";
     private static final String LUA_MULTI_SCRIPT_PATH = "/lua/velocity_check_multi.lua";
     private static final Pattern INVALID_KEY_CHARS = Pattern.compile("[^a-zA-Z0-9._-]");
@@ -60,6 +76,39 @@ public class VelocityService {
     @ConfigProperty(name = "app.velocity.use-lua-script", defaultValue = "true")
     boolean useLuaScript;
 
+    @ConfigProperty(name = "app.velocity.key-format", defaultValue = "windowed")
+    String keyFormat;
+
+    @ConfigProperty(name = "app.velocity.legacy-key-reads.enabled", defaultValue = "true")
+    boolean legacyKeyReads;
+
+    @ConfigProperty(name = "app.velocity.key-scope", defaultValue = "global")
+    String keyScope;
+
+    @ConfigProperty(name = "app.velocity.snapshot.windows", defaultValue = DEFAULT_SNAPSHOT_WINDOWS)
+    List<String> snapshotWindowSpecs;
+
+    @ConfigProperty(name = "app.velocity.micro-batch.enabled", defaultValue = "false")
+    boolean microBatchEnabled;
+
+    @ConfigProperty(name = "app.velocity.micro-batch.max-batch-ops", defaultValue = "64")
+    int microBatchMaxOps;
+
+    @ConfigProperty(name = "app.velocity.micro-batch.max-delay-micros", defaultValue = "200")
+    long microBatchMaxDelayMicros;
+
+    @ConfigProperty(name = "app.velocity.micro-batch.max-in-flight", defaultValue = "4")
+    int microBatchMaxInFlight;
+
+    @ConfigProperty(name = "app.velocity.micro-batch.queue-capacity", defaultValue = "4096")
+    int microBatchQueueCapacity;
+
+    @ConfigProperty(name = "app.velocity.micro-batch.timeout-ms", defaultValue = "50")
+    long microBatchTimeoutMs;
+
+    @Inject
+    EngineMetrics engineMetrics;
+
     private ValueCommands<String, Long> valueCommands;
     private String luaScript;
     private String luaScriptSha;
@@ -67,8 +116,55 @@ public class VelocityService {
     private String luaMultiScriptSha;
     private RedisAPI redisAPI;
     private String defaultThresholdStr;
+    private VelocityBatcher batcher;
+    KeyFormat format = KeyFormat.WINDOWED;
+    KeyScope scope = KeyScope.GLOBAL;
+    List<SnapshotWindow> snapshotWindows = List.copyOf(parseSnapshotWindows(
+            List.of(DEFAULT_SNAPSHOT_WINDOWS.split(","))));
+
+    /**
+     * Velocity key layout. WINDOWED gives each window (and key scope) its own counter.
+     * LEGACY keeps the old {@code vel:global:{dimension}:{value}} counter shared by every
+     * window, for rolling back only.
+     */
+    enum KeyFormat {
+        LEGACY, WINDOWED;
+
+        static KeyFormat parse(String value) {
+            if (value == null || value.isBlank()) {
+                return WINDOWED;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                LOG.warnf("Unknown app.velocity.key-format '%s', using windowed", value);
+                return WINDOWED;
+            }
+        }
+    }
+
+    /**
+     * Which counters rules share: all rules on the same dimension and window (GLOBAL),
+     * only rules of the same ruleset (RULESET), or none (RULE).
+     */
+    enum KeyScope {
+        GLOBAL, RULESET, RULE;
+
+        static KeyScope parse(String value) {
+            if (value == null || value.isBlank()) {
+                return GLOBAL;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                LOG.warnf("Unknown app.velocity.key-scope '%s', using global", value);
+                return GLOBAL;
+            }
+        }
+    }
 
     private static final String LUA_NUMKEYS_ONE = "1";
+    private static final String LUA_NUMKEYS_TWO = "2";
 
     private static String luaNumKeys(int numKeys) {
         // Avoid allocating via String.valueOf in hot paths.
@@ -81,6 +177,10 @@ public class VelocityService {
         valueCommands = redisDataSource.value(Long.class);
         redisAPI = RedisAPI.api(redis);
         defaultThresholdStr = String.valueOf(defaultThreshold);
+        format = KeyFormat.parse(keyFormat);
+        scope = KeyScope.parse(keyScope);
+        snapshotWindows = List.copyOf(parseSnapshotWindows(snapshotWindowSpecs));
+        checkKeyLayout();
 
         // Load Lua script
         try {
@@ -107,7 +207,37 @@ public class VelocityService {
             useLuaScript = false;
         }
 
-        LOG.infof("VelocityService initialized (useLuaScript=%s)", useLuaScript);
+        if (microBatchEnabled && useLuaScript && luaMultiScriptSha != null) {
+            batcher = new VelocityBatcher(this::executePipelined, microBatchMaxOps, microBatchMaxDelayMicros,
+                    microBatchMaxInFlight, microBatchQueueCapacity, microBatchTimeoutMs, engineMetrics);
+        }
+
+        LOG.infof("VelocityService initialized (useLuaScript=%s, microBatch=%s, keyFormat=%s, keyScope=%s, "
+                + "legacyKeyReads=%s)", useLuaScript, batcher != null, format, scope, readsLegacyKeys());
+    }
+
+    /**
+     * Reconciles key settings that cannot work together: legacy keys carry no scope, so a
+     * non-global scope falls back to global, and snapshots only read global counters.
+     */
+    void checkKeyLayout() {
+        if (format == KeyFormat.LEGACY && scope != KeyScope.GLOBAL) {
+            LOG.warnf("app.velocity.key-scope=%s requires app.velocity.key-format=windowed, using global",
+                    scope);
+            scope = KeyScope.GLOBAL;
+        }
+        if (scope != KeyScope.GLOBAL && !snapshotWindows.isEmpty()) {
+            LOG.warnf("Velocity snapshots read global counters, which are not incremented with "
+                    + "app.velocity.key-scope=%s: all %d snapshot windows will read zero",
+                    scope, snapshotWindows.size());
+        }
+    }
+
+    @PreDestroy
+    void destroy() {
+        if (batcher != null) {
+            batcher.close();
+        }
     }
 
     /**
@@ -142,48 +272,171 @@ public class VelocityService {
         if (velocityConfigs == null || velocityConfigs.isEmpty()) {
             return new Decision.VelocityResult[0];
         }
+        Decision.VelocityResult[] results = new Decision.VelocityResult[velocityConfigs.size()];
+        checkVelocityBatch(transaction, velocityConfigs.toArray(VelocityConfig[]::new), results.length, results);
+        return results;
+    }
 
-        String[] keys = new String[velocityConfigs.size()];
-        String[] windows = new String[velocityConfigs.size()];
-        String[] thresholds = new String[velocityConfigs.size()];
-        String[] dimensions = new String[velocityConfigs.size()];
-        String[] dimensionValues = new String[velocityConfigs.size()];
+    /**
+     * Batch velocity check over the first {@code count} configs, writing into a
+     * caller-owned result array (reused by the evaluator across requests).
+     *
+     * @param transaction the transaction
+     * @param velocityConfigs configs to check; only the first {@code count} are read
+     * @param count number of configs
+     * @param results output, aligned to {@code velocityConfigs}; at least {@code count} long
+     */
+    public void checkVelocityBatch(TransactionContext transaction, VelocityConfig[] velocityConfigs, int count,
+                                   Decision.VelocityResult[] results) {
+        if (count == 0) {
+            return;
+        }
 
-        for (int i = 0; i < velocityConfigs.size(); i++) {
-            VelocityConfig velocityConfig = velocityConfigs.get(i);
+        BatchKeys batch = prepareBatch(transaction, velocityConfigs, count);
 
-            String dimension = velocityConfig.getDimension();
-            int windowSeconds = velocityConfig.getWindowSeconds() > 0
-                    ? velocityConfig.getWindowSeconds()
-                    : defaultWindowSeconds;
-            int threshold = velocityConfig.getThreshold() > 0
-                    ? velocityConfig.getThreshold()
-                    : defaultThreshold;
+        long[] counts;
+        if (useLuaScript && luaMultiScriptSha != null) {
+            // With micro-batching on, this request's script call shares a pipelined round
+            // trip with other in-flight requests; null means it was not sent
+            counts = batcher != null ? batcher.submit(batch.scriptKeys, batch.windows, batch.thresholds) : null;
+            if (counts == null) {
+                counts = incrementAndGetWithLuaBatch(batch.scriptKeys, batch.windows, batch.thresholds);
+            }
+        } else {
+            counts = new long[batch.keys.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = incrementAndGet(batch.keys[i], batch.legacyKeys[i], Integer.parseInt(batch.windows[i]),
+                        Integer.parseInt(batch.thresholds[i]));
+            }
+        }
 
-            Object dimValue = getDimensionValue(transaction, dimension);
-            String dimensionValueStr = dimValue != null ? String.valueOf(dimValue) : null;
-            String key = buildVelocityKeyDirect(dimension, dimensionValueStr);
+        batch.fillResults(counts, results);
+    }
 
-            keys[i] = key;
-            windows[i] = Integer.toString(windowSeconds);
-            thresholds[i] = threshold == defaultThreshold ? defaultThresholdStr : Integer.toString(threshold);
-            dimensions[i] = dimension;
-            dimensionValues[i] = dimensionValueStr;
+    /**
+     * Non-blocking form of {@link #checkVelocityBatch(TransactionContext, VelocityConfig[], int,
+     * Decision.VelocityResult[])}: the script call is sent with the reactive Redis client and
+     * {@code results} is filled when the reply arrives, on the client's event-loop thread.
+     * <p>
+     * A missing script is reloaded without blocking. Without the multi-key script the
+     * per-key commands are blocking, so they run on a worker thread instead.
+     *
+     * @return a Uni completing once {@code results} is filled, or failing if Redis failed
+     */
+    public Uni<Void> checkVelocityBatchAsync(TransactionContext transaction, VelocityConfig[] velocityConfigs,
+                                             int count, Decision.VelocityResult[] results) {
+        if (count == 0) {
+            return Uni.createFrom().voidItem();
+        }
+        if (!useLuaScript || luaMultiScriptSha == null) {
+            return Uni.createFrom().<Void>item(() -> {
+                checkVelocityBatch(transaction, velocityConfigs, count, results);
+                return null;
+            }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
         }
 
-        long[] counts;
-        if (useLuaScript && luaMultiScriptSha != null) {
-            counts = incrementAndGetWithLuaBatch(keys, windows, thresholds);
-        } else {
-            counts = new long[keys.length];
-            for (int i = 0; i < keys.length; i++) {
-                counts[i] = incrementAndGet(keys[i], Integer.parseInt(windows[i]), Integer.parseInt(thresholds[i]));
+        BatchKeys batch = prepareBatch(transaction, velocityConfigs, count);
+        Uni<long[]> counts = batcher != null
+                ? Uni.createFrom().completionStage(batcher.submitAsync(batch.scriptKeys, batch.windows, batch.thresholds))
+                        .flatMap(batched -> batched != null
+                                ? Uni.createFrom().item(batched)
+                                : executeLuaBatchAsync(batch.scriptKeys, batch.windows, batch.thresholds, true))
+                : executeLuaBatchAsync(batch.scriptKeys, batch.windows, batch.thresholds, true);
+        return counts.invoke(values -> batch.fillResults(values, results))
+                .map(values -> null);
+    }
+
+    /**
+     * Keys and arguments of one request's velocity checks. Checks that resolve to the same
+     * counter (same dimension, value and window, within the key scope) share one key, so
+     * the counter is incremented once and its count fanned out to each of them.
+     */
+    static final class BatchKeys {
+        /** Distinct keys and their script arguments, in first-seen order. */
+        String[] keys;
+        /** Per key: the legacy key whose count it merges, or null. */
+        String[] legacyKeys;
+        String[] windows;
+        String[] thresholds;
+        /** Script KEYS: {@code keys}, followed by {@code legacyKeys} when they are read. */
+        String[] scriptKeys;
+        /** Per config: index of its key in {@code keys}. */
+        final int[] slots;
+        final int[] windowSeconds;
+        final int[] thresholdValues;
+        final String[] dimensions;
+        final String[] dimensionValues;
+        private int keyCount;
+
+        BatchKeys(int count) {
+            keys = new String[count];
+            legacyKeys = new String[count];
+            windows = new String[count];
+            thresholds = new String[count];
+            slots = new int[count];
+            windowSeconds = new int[count];
+            thresholdValues = new int[count];
+            dimensions = new String[count];
+            dimensionValues = new String[count];
+        }
+
+        /**
+         * @return the slot of {@code key}, adding it if this request has not seen it yet
+         */
+        int slot(String key, String legacyKey, String window, String threshold) {
+            for (int i = 0; i < keyCount; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
             }
+            keys[keyCount] = key;
+            legacyKeys[keyCount] = legacyKey;
+            windows[keyCount] = window;
+            thresholds[keyCount] = threshold;
+            return keyCount++;
         }
 
-        Decision.VelocityResult[] results = new Decision.VelocityResult[velocityConfigs.size()];
-        for (int i = 0; i < velocityConfigs.size(); i++) {
-            VelocityConfig velocityConfig = velocityConfigs.get(i);
+        /**
+         * Trims the key arrays to the distinct keys and builds the script keys.
+         *
+         * @return number of checks that reused another check's key
+         */
+        int seal() {
+            int shared = slots.length - keyCount;
+            if (shared > 0) {
+                keys = Arrays.copyOf(keys, keyCount);
+                legacyKeys = Arrays.copyOf(legacyKeys, keyCount);
+                windows = Arrays.copyOf(windows, keyCount);
+                thresholds = Arrays.copyOf(thresholds, keyCount);
+            }
+            if (keyCount > 0 && legacyKeys[0] != null) {
+                scriptKeys = Arrays.copyOf(keys, keyCount * 2);
+                System.arraycopy(legacyKeys, 0, scriptKeys, keyCount, keyCount);
+            } else {
+                scriptKeys = keys;
+            }
+            return shared;
+        }
+
+        void fillResults(long[] counts, Decision.VelocityResult[] results) {
+            for (int i = 0; i < slots.length; i++) {
+                results[i] = new Decision.VelocityResult(
+                        dimensions[i],
+                        dimensionValues[i],
+                        counts[slots[i]],
+                        thresholdValues[i],
+                        windowSeconds[i]
+                );
+            }
+        }
+    }
+
+    BatchKeys prepareBatch(TransactionContext transaction, VelocityConfig[] velocityConfigs, int count) {
+        BatchKeys batch = new BatchKeys(count);
+        for (int i = 0; i < count; i++) {
+            VelocityConfig velocityConfig = velocityConfigs[i];
+
+            String dimension = velocityConfig.getDimension();
             int windowSeconds = velocityConfig.getWindowSeconds() > 0
                     ? velocityConfig.getWindowSeconds()
                     : defaultWindowSeconds;
@@ -191,17 +444,31 @@ public class VelocityService {
                     ? velocityConfig.getThreshold()
                     : defaultThreshold;
 
-            results[i] = new Decision.VelocityResult(
-                    dimensions[i],
-                    dimensionValues[i],
-                    counts[i],
-                    threshold,
-                    windowSeconds
-            );
+            Object dimValue = getDimensionValue(transaction, dimension);
+            String dimensionValueStr = dimValue != null ? String.valueOf(dimValue) : null;
+
+            // The script only uses the threshold for its exceeded flag, which is not read:
+            // each check compares the shared count against its own threshold
+            batch.slots[i] = batch.slot(
+                    buildVelocityKeyDirect(velocityConfig, dimension, windowSeconds, dimensionValueStr),
+                    legacyKeyToRead(dimension, dimensionValueStr),
+                    Integer.toString(windowSeconds),
+                    threshold == defaultThreshold ? defaultThresholdStr : Integer.toString(threshold));
+            batch.windowSeconds[i] = windowSeconds;
+            batch.thresholdValues[i] = threshold;
+            batch.dimensions[i] = dimension;
+            batch.dimensionValues[i] = dimensionValueStr;
         }
-        return results;
+        int shared = batch.seal();
+        if (shared > 0 && engineMetrics != null) {
+            engineMetrics.addVelocityKeysDeduplicated(shared);
+        }
+        return batch;
     }
 
+    /**
+     * @param keys the script keys: counters, optionally followed by one legacy key each
+     */
     private long[] incrementAndGetWithLuaBatch(String[] keys, String[] windows, String[] thresholds) {
         try {
             return executeLuaBatch(keys, windows, thresholds);
@@ -220,17 +487,46 @@ public class VelocityService {
                 LOG.warnf(e, "Multi Lua execution failed, falling back to per-key ops");
             }
 
-            long[] fallbackCounts = new long[keys.length];
-            for (int i = 0; i < keys.length; i++) {
-                fallbackCounts[i] = incrementAndGet(keys[i], Integer.parseInt(windows[i]), Integer.parseInt(thresholds[i]));
+            int numCounters = windows.length;
+            long[] fallbackCounts = new long[numCounters];
+            for (int i = 0; i < numCounters; i++) {
+                String legacyKey = keys.length > numCounters ? keys[numCounters + i] : null;
+                fallbackCounts[i] = incrementAndGet(keys[i], legacyKey, Integer.parseInt(windows[i]),
+                        Integer.parseInt(thresholds[i]));
             }
             return fallbackCounts;
         }
     }
 
     private long[] executeLuaBatch(String[] keys, String[] windows, String[] thresholds) {
+        return multiScriptCounts(redisAPI.evalshaAndAwait(multiScriptArgs(keys, windows, thresholds)), windows.length);
+    }
+
+    /**
+     * Runs the multi-key script without blocking. On NOSCRIPT the script is reloaded
+     * (also without blocking) and the call retried once.
+     */
+    private Uni<long[]> executeLuaBatchAsync(String[] keys, String[] windows, String[] thresholds,
+                                             boolean reloadOnNoScript) {
+        return redisAPI.evalsha(multiScriptArgs(keys, windows, thresholds))
+                .map(response -> multiScriptCounts(response, windows.length))
+                .onFailure().recoverWithUni(e -> {
+                    if (reloadOnNoScript && luaMultiScript != null
+                            && e.getMessage() != null && e.getMessage().contains("NOSCRIPT")) {
+                        LOG.info("Multi Lua script not found in Redis, reloading...");
+                        return redisAPI.script(List.of("LOAD", luaMultiScript))
+                                .flatMap(sha -> {
+                                    luaMultiScriptSha = sha.toString();
+                                    return executeLuaBatchAsync(keys, windows, thresholds, false);
+                                });
+                    }
+                    return Uni.createFrom().failure(e);
+                });
+    }
+
+    private List<String> multiScriptArgs(String[] keys, String[] windows, String[] thresholds) {
         int numKeys = keys.length;
-        List<String> args = new java.util.ArrayList<>(2 + numKeys + numKeys + numKeys);
+        List<String> args = new ArrayList<>(2 + numKeys + windows.length + thresholds.length);
         args.add(luaMultiScriptSha);
         args.add(luaNumKeys(numKeys));
 
@@ -243,8 +539,43 @@ public class VelocityService {
         for (String threshold : thresholds) {
             args.add(threshold);
         }
+        return args;
+    }
 
-        Response response = redisAPI.evalshaAndAwait(args);
+    /**
+     * Sends one multi-key script call per queued request as a single pipelined batch.
+     */
+    private CompletionStage<List<long[]>> executePipelined(List<VelocityBatcher.PendingCheck> batch) {
+        String sha = luaMultiScriptSha;
+        List<Request> requests = new ArrayList<>(batch.size());
+        for (VelocityBatcher.PendingCheck check : batch) {
+            Request request = Request.cmd(Command.EVALSHA).arg(sha).arg(check.keys.length);
+            for (String key : check.keys) {
+                request.arg(key);
+            }
+            for (String window : check.windows) {
+                request.arg(window);
+            }
+            for (String threshold : check.thresholds) {
+                request.arg(threshold);
+            }
+            requests.add(request);
+        }
+        return redis.batch(requests)
+                .map(responses -> {
+                    List<long[]> counts = new ArrayList<>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        counts.add(multiScriptCounts(responses.get(i), batch.get(i).windows.length));
+                    }
+                    return counts;
+                })
+                .subscribeAsCompletionStage();
+    }
+
+    /**
+     * Reads the counts out of a multi-key script reply (flat {@code [count, exceeded]} pairs).
+     */
+    private static long[] multiScriptCounts(Response response, int numKeys) {
         if (response == null || response.size() < numKeys * 2) {
             throw new IllegalStateException("Unexpected multi Lua response");
         }
@@ -293,14 +624,15 @@ public class VelocityService {
 
         Object dimValue = getDimensionValue(transaction, dimension);
         String dimensionValueStr = dimValue != null ? String.valueOf(dimValue) : null;
-        String key = buildVelocityKeyDirect(dimension, dimensionValueStr);
+        String key = buildVelocityKeyDirect(velocityConfig, dimension, windowSeconds, dimensionValueStr);
 
         if (LOG.isDebugEnabled()) {
             LOG.debugf("Velocity check: key=%s, window=%ds, threshold=%d", key, windowSeconds, threshold);
         }
 
         try {
-            long count = incrementAndGet(key, windowSeconds, threshold);
+            long count = incrementAndGet(key, legacyKeyToRead(dimension, dimensionValueStr), windowSeconds,
+                    threshold);
 
             Decision.VelocityResult result = new Decision.VelocityResult(
                     dimension,
@@ -353,8 +685,16 @@ public class VelocityService {
 
     /**
      * Builds a velocity key for the given transaction and config.
-     *
-     * Key format: vel:{ruleset_key}:{rule_id}:{dimension}:{encoded_value}
+     * <p>
+     * Key format: {@code vel:{scope}:{dimension}:{window_seconds}:{encoded_value}}, where
+     * scope is {@code global}, {@code {ruleset_key}} or {@code {ruleset_key}:{rule_id}}
+     * depending on {@code app.velocity.key-scope}. Each window has its own counter, so
+     * rules on the same dimension with different windows do not share one.
+     * <p>
+     * While {@code app.velocity.legacy-key-reads.enabled} is on, each count is at least the
+     * count of the pre-window key {@code vel:global:{dimension}:{encoded_value}}, so counters
+     * carry over the rollout. With {@code app.velocity.key-format=legacy} (rollback only)
+     * that legacy key is the counter.
      *
      * @param transaction the transaction context
      * @param config the velocity configuration
@@ -363,12 +703,58 @@ public class VelocityService {
     public String buildVelocityKey(TransactionContext transaction, VelocityConfig config) {
         Object dimValue = getDimensionValue(transaction, config.getDimension());
         String dimensionValueStr = dimValue != null ? String.valueOf(dimValue) : null;
-        return buildVelocityKeyDirect(config.getDimension(), dimensionValueStr);
+        int windowSeconds = config.getWindowSeconds() > 0 ? config.getWindowSeconds() : defaultWindowSeconds;
+        return buildVelocityKeyDirect(config, config.getDimension(), windowSeconds, dimensionValueStr);
     }
 
-    private String buildVelocityKeyDirect(String dimension, String dimensionValueStr) {
+    private String buildVelocityKeyDirect(VelocityConfig config, String dimension, int windowSeconds,
+                                          String dimensionValueStr) {
+        return buildVelocityKeyDirect(keyNamespace(config), dimension, windowSeconds, dimensionValueStr);
+    }
+
+    private String buildVelocityKeyDirect(String namespace, String dimension, int windowSeconds,
+                                          String dimensionValueStr) {
+        if (format == KeyFormat.LEGACY) {
+            return legacyKey(dimension, dimensionValueStr);
+        }
         String encoded = dimensionValueStr != null ? encodeKeyPart(dimensionValueStr) : "unknown";
-        return VELOCITY_KEY_PREFIX + "global:" + dimension + ":" + encoded;
+        return VELOCITY_KEY_PREFIX + namespace + ":" + dimension + ":" + windowSeconds + ":" + encoded;
+    }
+
+    private String legacyKey(String dimension, String dimensionValueStr) {
+        String encoded = dimensionValueStr != null ? encodeKeyPart(dimensionValueStr) : "unknown";
+        return VELOCITY_KEY_PREFIX + GLOBAL_NAMESPACE + ":" + dimension + ":" + encoded;
+    }
+
+    /**
+     * Whether windowed counts are merged with the legacy counters. Those keys are no longer
+     * written and expire on their TTL, so the merge only spans the rollout.
+     */
+    private boolean readsLegacyKeys() {
+        return legacyKeyReads && format == KeyFormat.WINDOWED;
+    }
+
+    /**
+     * @return the legacy key whose count a windowed counter merges, or null when legacy
+     *         keys are not read
+     */
+    private String legacyKeyToRead(String dimension, String dimensionValueStr) {
+        return readsLegacyKeys() ? legacyKey(dimension, dimensionValueStr) : null;
+    }
+
+    /**
+     * Key scope of a config. Configs not bound to a ruleset (ad-hoc checks) fall back to
+     * the global counters.
+     */
+    private String keyNamespace(VelocityConfig config) {
+        if (scope == KeyScope.GLOBAL || config == null || config.getRulesetKey() == null) {
+            return GLOBAL_NAMESPACE;
+        }
+        String rulesetKey = encodeKeyPart(config.getRulesetKey());
+        if (scope == KeyScope.RULESET || config.getRuleId() == null) {
+            return rulesetKey;
+        }
+        return rulesetKey + ":" + encodeKeyPart(config.getRuleId());
     }
 
     /**
@@ -384,37 +770,29 @@ public class VelocityService {
      * process that evicts keys once their TTL reaches zero.
      *
      * @param key the Redis key
+     * @param legacyKey legacy key whose count is merged (the higher count wins), or null
      * @param windowSeconds expiry time in seconds
      * @return the new counter value (always accurate due to atomic INCR)
      */
-    long incrementAndGet(String key, int windowSeconds, int threshold) {
+    long incrementAndGet(String key, String legacyKey, int windowSeconds, int threshold) {
         if (useLuaScript && luaScriptSha != null) {
-            return incrementAndGetWithLua(key, windowSeconds, threshold);
+            return incrementAndGetWithLua(key, legacyKey, windowSeconds, threshold);
         }
-        return incrementAndGetFallback(key, windowSeconds);
+        return incrementAndGetFallback(key, legacyKey, windowSeconds);
     }
 
     /**
      * Increments counter using Lua script (single round-trip).
      */
-    private long incrementAndGetWithLua(String key, int windowSeconds, int threshold) {
+    private long incrementAndGetWithLua(String key, String legacyKey, int windowSeconds, int threshold) {
         try {
-            // EVALSHA sha numkeys key [key ...] arg [arg ...]
-            Response response = redisAPI.evalshaAndAwait(List.of(
-                    luaScriptSha,
-                    LUA_NUMKEYS_ONE,                  // numkeys
-                    key,                              // KEYS[1]
-                    String.valueOf(windowSeconds),    // ARGV[1]
-                    threshold == defaultThreshold
-                            ? defaultThresholdStr
-                            : String.valueOf(threshold) // ARGV[2]
-            ));
+            Response response = redisAPI.evalshaAndAwait(singleScriptArgs(key, legacyKey, windowSeconds, threshold));
 
             if (response != null && response.size() >= 1) {
                 return response.get(0).toLong();
             }
             LOG.warn("Unexpected Lua script response, falling back");
-            return incrementAndGetFallback(key, windowSeconds);
+            return incrementAndGetFallback(key, legacyKey, windowSeconds);
         } catch (Exception e) {
             // Script might have been flushed, try reloading
             if (e.getMessage() != null && e.getMessage().contains("NOSCRIPT")) {
@@ -422,15 +800,8 @@ public class VelocityService {
                 reloadLuaScript();
                 // Retry once with reloaded script
                 try {
-                    Response response = redisAPI.evalshaAndAwait(List.of(
-                            luaScriptSha,
-                            LUA_NUMKEYS_ONE,
-                            key,
-                            String.valueOf(windowSeconds),
-                            threshold == defaultThreshold
-                                    ? defaultThresholdStr
-                                    : String.valueOf(threshold)
-                    ));
+                    Response response = redisAPI.evalshaAndAwait(
+                            singleScriptArgs(key, legacyKey, windowSeconds, threshold));
                     if (response != null && response.size() >= 1) {
                         return response.get(0).toLong();
                     }
@@ -440,8 +811,17 @@ public class VelocityService {
             } else {
                 LOG.warnf(e, "Lua script execution failed, falling back to non-script mode");
             }
-            return incrementAndGetFallback(key, windowSeconds);
+            return incrementAndGetFallback(key, legacyKey, windowSeconds);
+        }
+    }
+
+    private List<String> singleScriptArgs(String key, String legacyKey, int windowSeconds, int threshold) {
+        String thresholdArg = threshold == defaultThreshold ? defaultThresholdStr : String.valueOf(threshold);
+        // EVALSHA sha numkeys key [key ...] arg [arg ...]
+        if (legacyKey == null) {
+            return List.of(luaScriptSha, LUA_NUMKEYS_ONE, key, String.valueOf(windowSeconds), thresholdArg);
         }
+        return List.of(luaScriptSha, LUA_NUMKEYS_TWO, key, legacyKey, String.valueOf(windowSeconds), thresholdArg);
     }
 
     /**
@@ -476,7 +856,7 @@ public class VelocityService {
     /**
      * Fallback increment using separate INCR and EXPIRE commands.
      */
-    private long incrementAndGetFallback(String key, int windowSeconds) {
+    private long incrementAndGetFallback(String key, String legacyKey, int windowSeconds) {
         ValueCommands<String, Long> commands = getValueCommands();
 
         // Redis INCR is atomic - guaranteed unique incrementing values
@@ -491,6 +871,12 @@ public class VelocityService {
             }
         }
 
+        if (legacyKey != null) {
+            Long legacy = commands.get(legacyKey);
+            if (legacy != null && legacy > count) {
+                return legacy;
+            }
+        }
         return count;
     }
 
@@ -508,6 +894,25 @@ public class VelocityService {
         }
     }
 
+    /**
+     * Gets the current count of a config's counter without incrementing, merged with the
+     * legacy counter like the script does.
+     *
+     * @param transaction the transaction context
+     * @param config the velocity configuration
+     * @return the count, 0 if the counter does not exist or Redis fails
+     */
+    public long getCurrentCount(TransactionContext transaction, VelocityConfig config) {
+        String key = buildVelocityKey(transaction, config);
+        Object dimValue = getDimensionValue(transaction, config.getDimension());
+        String legacyKey = legacyKeyToRead(config.getDimension(), dimValue != null ? String.valueOf(dimValue) : null);
+        if (legacyKey == null) {
+            return getCurrentCount(key);
+        }
+        Map<String, Long> counts = readCounts(new LinkedHashSet<>(List.of(key, legacyKey)));
+        return Math.max(countOf(counts, key), countOf(counts, legacyKey));
+    }
+
     /**
      * Resets the velocity counter for a specific key.
      */
@@ -592,80 +997,142 @@ public class VelocityService {
     }
 
     /**
-     * Captures a complete velocity snapshot using read-only operations.
-     * <p>
-     * <b>IMPORTANT:</b> This method uses getCurrentCount() which does NOT increment counters.
-     * It is safe to call for snapshot purposes without affecting velocity enforcement.
+     * Captures a velocity snapshot using read-only operations.
      * <p>
-     * Captures velocity across all standard dimensions and time windows:
-     * <ul>
-     *   <li>Card: 5min, 1h, 24h</li>
-     *   <li>IP: 1h, 24h</li>
-     *   <li>Device: 1h, 24h</li>
-     * </ul>
+     * <b>IMPORTANT:</b> This reads counters without incrementing them. It is safe to call
+     * for snapshot purposes without affecting velocity enforcement.
      *
      * @param transaction the transaction context
      * @return a map of snapshot key to VelocityResult
+     * @see #captureVelocitySnapshots(List)
      */
     public Map<String, Decision.VelocityResult> captureVelocitySnapshot(TransactionContext transaction) {
-        Map<String, Decision.VelocityResult> snapshot = new java.util.LinkedHashMap<>();
-
-        String cardHash = transaction.getCardHash();
-        String ipAddress = transaction.getIpAddress();
-        String deviceId = transaction.getDeviceId();
+        return captureVelocitySnapshots(List.of(transaction)).get(0);
+    }
 
-        // Card velocity (multiple windows)
-        if (cardHash != null) {
-            snapshot.put("card_5min", captureVelocityForDimension("card_hash", cardHash, 300, 10));
-            snapshot.put("card_1h", captureVelocityForDimension("card_hash", cardHash, 3600, 20));
-            snapshot.put("card_24h", captureVelocityForDimension("card_hash", cardHash, 86400, 50));
+    /**
+     * Captures velocity snapshots for several transactions in one Redis round trip.
+     * <p>
+     * Each transaction gets one entry per configured snapshot window
+     * ({@code app.velocity.snapshot.windows}) whose dimension it has a value for. All
+     * counters of all transactions are read with a single MGET, so an outbox batch costs
+     * one round trip instead of one GET per window per event.
+     * <p>
+     * Each entry reads the globally scoped counter for its dimension (and window, with
+     * windowed keys), the one rules increment under the default
+     * {@code app.velocity.key-scope=global}, merged with its legacy counter while those are
+     * read. With ruleset or rule scope the global counters are not maintained and the
+     * snapshot reads zero; startup logs a warning for that setup. If Redis fails, counts
+     * read zero.
+     *
+     * @param transactions the transactions
+     * @return one snapshot map per transaction, in order
+     */
+    public List<Map<String, Decision.VelocityResult>> captureVelocitySnapshots(List<TransactionContext> transactions) {
+        List<SnapshotWindow> windows = snapshotWindows;
+        String[][] keys = new String[transactions.size()][windows.size()];
+        String[][] legacyKeys = new String[transactions.size()][windows.size()];
+        String[][] values = new String[transactions.size()][windows.size()];
+        Set<String> distinct = new LinkedHashSet<>();
+        for (int t = 0; t < transactions.size(); t++) {
+            TransactionContext transaction = transactions.get(t);
+            for (int w = 0; w < windows.size(); w++) {
+                SnapshotWindow window = windows.get(w);
+                Object value = transaction != null ? getDimensionValue(transaction, window.dimension()) : null;
+                if (value == null) {
+                    continue;
+                }
+                values[t][w] = String.valueOf(value);
+                keys[t][w] = buildVelocityKeyDirect(GLOBAL_NAMESPACE, window.dimension(), window.windowSeconds(),
+                        values[t][w]);
+                distinct.add(keys[t][w]);
+                legacyKeys[t][w] = legacyKeyToRead(window.dimension(), values[t][w]);
+                if (legacyKeys[t][w] != null) {
+                    distinct.add(legacyKeys[t][w]);
+                }
+            }
         }
 
-        // IP velocity
-        if (ipAddress != null) {
-            snapshot.put("ip_1h", captureVelocityForDimension("ip_address", ipAddress, 3600, 20));
-            snapshot.put("ip_24h", captureVelocityForDimension("ip_address", ipAddress, 86400, 100));
-        }
+        Map<String, Long> counts = readCounts(distinct);
 
-        // Device velocity
-        if (deviceId != null) {
-            snapshot.put("device_1h", captureVelocityForDimension("device_id", deviceId, 3600, 15));
-            snapshot.put("device_24h", captureVelocityForDimension("device_id", deviceId, 86400, 50));
+        List<Map<String, Decision.VelocityResult>> snapshots = new ArrayList<>(transactions.size());
+        for (int t = 0; t < transactions.size(); t++) {
+            Map<String, Decision.VelocityResult> snapshot = new LinkedHashMap<>();
+            for (int w = 0; w < windows.size(); w++) {
+                if (keys[t][w] == null) {
+                    continue;
+                }
+                SnapshotWindow window = windows.get(w);
+                long count = countOf(counts, keys[t][w]);
+                if (legacyKeys[t][w] != null) {
+                    count = Math.max(count, countOf(counts, legacyKeys[t][w]));
+                }
+                snapshot.put(window.name(), new Decision.VelocityResult(
+                        window.dimension(),
+                        values[t][w],
+                        count,
+                        window.threshold(),
+                        window.windowSeconds()
+                ));
+            }
+            snapshots.add(snapshot);
         }
-
-        return snapshot;
+        return snapshots;
     }
 
     /**
-     * Captures velocity for a specific dimension/window using read-only get.
-     *
-     * @param dimension the dimension name
-     * @param dimensionValue the dimension value
-     * @param windowSeconds the time window
-     * @param threshold the threshold for this window
-     * @return a VelocityResult with current count
-     */
-    private Decision.VelocityResult captureVelocityForDimension(
-            String dimension, String dimensionValue, int windowSeconds, int threshold) {
+     * Reads counters with one MGET (read-only; missing keys are absent from the result).
+     */
+    private Map<String, Long> readCounts(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
         try {
-            // Build the key the same way checkVelocity does
-            String key = VELOCITY_KEY_PREFIX + "global:" + dimension + ":" + encodeKeyPart(dimensionValue);
+            Map<String, Long> counts = getValueCommands().mget(keys.toArray(String[]::new));
+            return counts != null ? counts : Map.of();
+        } catch (Exception e) {
+            LOG.warnf("Failed to read velocity snapshot (%d keys): %s", keys.size(), e.getMessage());
+            return Map.of();
+        }
+    }
 
-            // Read-only get - does NOT increment
-            long count = getCurrentCount(key);
+    private static long countOf(Map<String, Long> counts, String key) {
+        Long count = counts.get(key);
+        return count != null ? count : 0;
+    }
 
-            return new Decision.VelocityResult(
-                    dimension,
-                    dimensionValue,
-                    count,
-                    threshold,
-                    windowSeconds
-            );
-        } catch (Exception e) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debugf("Failed to capture velocity for %s: %s", dimension, e.getMessage());
+    /**
+     * One entry of the velocity snapshot: a named dimension/window with the threshold
+     * reported alongside its count.
+     */
+    record SnapshotWindow(String name, String dimension, int windowSeconds, int threshold) {
+    }
+
+    /**
+     * Parses {@code name:dimension:window_seconds:threshold} entries; malformed entries are
+     * logged and skipped.
+     */
+    static List<SnapshotWindow> parseSnapshotWindows(List<String> specs) {
+        List<SnapshotWindow> windows = new ArrayList<>();
+        if (specs == null) {
+            return windows;
+        }
+        for (String spec : specs) {
+            String[] parts = spec.trim().split(":");
+            try {
+                if (parts.length != 4 || parts[0].isBlank() || parts[1].isBlank()) {
+                    throw new IllegalArgumentException("expected name:dimension:window_seconds:threshold");
+                }
+                int windowSeconds = Integer.parseInt(parts[2].trim());
+                int threshold = Integer.parseInt(parts[3].trim());
+                if (windowSeconds <= 0) {
+                    throw new IllegalArgumentException("window_seconds must be positive");
+                }
+                windows.add(new SnapshotWindow(parts[0].trim(), parts[1].trim(), windowSeconds, threshold));
+            } catch (IllegalArgumentException e) {
+                LOG.warnf("Ignoring velocity snapshot window '%s': %s", spec, e.getMessage());
             }
-            return new Decision.VelocityResult(dimension, dimensionValue, 0, threshold, windowSeconds);
         }
+        return windows;
     }
 }
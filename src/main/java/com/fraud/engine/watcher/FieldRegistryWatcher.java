@@ -2,7 +2,9 @@ package com.fraud.engine.watcher;
 
 import com.fraud.engine.dto.FieldRegistryManifest;
 import com.fraud.engine.loader.FieldRegistryLoader;
+import com.fraud.engine.ruleset.RulesetRegistry;
 import com.fraud.engine.service.FieldRegistryService;
+import com.fraud.engine.service.FieldRegistrySnapshot;
 import com.fraud.engine.util.AlertLogger;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -11,6 +13,7 @@ import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -22,7 +25,8 @@ import java.util.concurrent.TimeUnit;
  * This background service polls the manifest.json file periodically and
  * triggers a registry reload when the version changes. The reload is
  * non-blocking - the current registry continues serving requests during
- * the swap.
+ * the swap. The new registry is installed through {@link RulesetRegistry#publish}, so it
+ * lands in the same snapshot the evaluation path reads rulesets from.
  * <p>
  * Configuration:
  * <ul>
@@ -43,15 +47,18 @@ public class FieldRegistryWatcher {
 
     private final FieldRegistryLoader loader;
     private final FieldRegistryService service;
+    private final RulesetRegistry rulesetRegistry;
 
     private ScheduledExecutorService scheduler;
     private volatile int lastVersion = -1;
     private volatile boolean running = false;
 
     @Inject
-    public FieldRegistryWatcher(FieldRegistryLoader loader, FieldRegistryService service) {
+    public FieldRegistryWatcher(FieldRegistryLoader loader, FieldRegistryService service,
+                                RulesetRegistry rulesetRegistry) {
         this.loader = loader;
         this.service = service;
+        this.rulesetRegistry = rulesetRegistry;
     }
 
     @PostConstruct
@@ -133,10 +140,11 @@ public class FieldRegistryWatcher {
 
                 try {
                     // Trigger reload
-                    service.reload();
+                    FieldRegistrySnapshot fieldRegistry = service.prepare();
+                    rulesetRegistry.publish(fieldRegistry, Map.of());
 
                     // Update last version only after successful reload
-                    int newVersion = service.getRegistryVersion();
+                    int newVersion = fieldRegistry.version();
                     lastVersion = newVersion;
 
                     LOG.infof("Field registry hot-reload completed: now at version %d", newVersion);
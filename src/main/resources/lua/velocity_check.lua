@@ -3,6 +3,7 @@
 -- Returns: [current_count, exceeded (1 or 0)]
 --
 -- KEYS[1] = velocity key
+-- KEYS[2] = optional legacy key; the returned count is at least its value
 -- ARGV[1] = window_seconds (TTL)
 -- ARGV[2] = threshold
 --
@@ -23,6 +24,14 @@ if count == 1 then
     redis.call('EXPIRE', key, window_seconds)
 end
 
+-- Merge the legacy counter while it has not expired
+if KEYS[2] then
+    local legacy = tonumber(redis.call('GET', KEYS[2]))
+    if legacy and legacy > count then
+        count = legacy
+    end
+end
+
 -- Return count and exceeded flag
 local exceeded = 0
 if count >= threshold then
@@ -3,10 +3,12 @@
 -- Returns a flat array: [count1, exceeded1, count2, exceeded2, ...]
 --
 -- KEYS[1..N]               = velocity keys
+-- KEYS[N+1..2N]            = optional legacy keys; a key's count is at least its legacy count
 -- ARGV[1..N]               = window_seconds for each key
 -- ARGV[N+1..2N]            = threshold for each key
 
-local n = #KEYS
+local n = #ARGV / 2
+local has_legacy = #KEYS == 2 * n
 local result = {}
 
 for i = 1, n do
@@ -18,6 +20,12 @@ for i = 1, n do
     if count == 1 then
         redis.call('EXPIRE', key, window_seconds)
     end
+    if has_legacy then
+        local legacy = tonumber(redis.call('GET', KEYS[n + i]))
+        if legacy and legacy > count then
+            count = legacy
+        end
+    end
 
     local exceeded = 0
     if count >= threshold then
@@ -0,0 +1,105 @@
+package com.fraud.engine.domain;
+
+import com.fraud.engine.engine.ConditionCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for PredicateIndex - pruning rules whose required equality cannot hold.
+ */
+class PredicateIndexTest {
+
+    private static ConditionNode leaf(String field, String operator, Object value) {
+        Condition condition = new Condition(field, operator, value);
+        return new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+    }
+
+    private static Rule rule(String id, ConditionNode tree) {
+        Rule rule = new Rule(id, id, "REVIEW");
+        rule.setConditionTree(tree);
+        rule.setCompiledCondition(ConditionCompiler.compileTree(tree));
+        return rule;
+    }
+
+    private static TransactionContext transaction(String country, String currency) {
+        TransactionContext tx = new TransactionContext();
+        tx.setAmount(BigDecimal.valueOf(900));
+        tx.setCountryCode(country);
+        tx.setCurrency(currency);
+        return tx;
+    }
+
+    private final Rule usOnly = rule("us", new ConditionNode.And(List.of(
+            leaf("country_code", "eq", "US"), leaf("amount", "gt", 500))));
+    private final Rule euroCurrencies = rule("eur", leaf("currency", "in", List.of("EUR", "CHF")));
+    private final Rule usOrGb = rule("or", new ConditionNode.Or(List.of(
+            leaf("country_code", "eq", "US"), leaf("country_code", "eq", "GB"))));
+    private final Rule amountOnly = rule("amount", leaf("amount", "gt", 100));
+    private final Rule mostSelective = rule("selective", new ConditionNode.And(List.of(
+            leaf("currency", "in", List.of("USD", "EUR", "GBP")), leaf("country_code", "eq", "BR"))));
+
+    private final List<Rule> rules = List.of(usOnly, euroCurrencies, usOrGb, amountOnly, mostSelective);
+
+    @Test
+    void testCandidatesSkipRulesThatCannotMatch() {
+        PredicateIndex index = PredicateIndex.build(rules);
+        long[] candidates = index.candidates(transaction("GB", "EUR"));
+
+        assertThat(PredicateIndex.isCandidate(candidates, usOnly)).isFalse();
+        assertThat(PredicateIndex.isCandidate(candidates, euroCurrencies)).isTrue();
+        assertThat(PredicateIndex.isCandidate(candidates, usOrGb)).isTrue(); // OR is never indexed
+        assertThat(PredicateIndex.isCandidate(candidates, amountOnly)).isTrue();
+        assertThat(PredicateIndex.isCandidate(candidates, mostSelective)).isFalse(); // indexed on country_code
+    }
+
+    @Test
+    void testCandidatesNeverDropARuleThatMatches() {
+        PredicateIndex index = PredicateIndex.build(rules);
+        for (String country : new String[]{"US", "GB", "BR", null}) {
+            for (String currency : new String[]{"USD", "EUR", "CHF", "JPY", null}) {
+                TransactionContext tx = transaction(country, currency);
+                long[] candidates = index.candidates(tx);
+                for (Rule rule : rules) {
+                    if (rule.getCompiledCondition().matches(tx)) {
+                        assertThat(PredicateIndex.isCandidate(candidates, rule))
+                                .as("%s for %s/%s", rule.getId(), country, currency)
+                                .isTrue();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMissingFieldValueExcludesIndexedRules() {
+        PredicateIndex index = PredicateIndex.build(rules);
+        long[] candidates = index.candidates(transaction(null, null));
+
+        assertThat(PredicateIndex.isCandidate(candidates, usOnly)).isFalse();
+        assertThat(PredicateIndex.isCandidate(candidates, euroCurrencies)).isFalse();
+        assertThat(PredicateIndex.isCandidate(candidates, amountOnly)).isTrue();
+    }
+
+    @Test
+    void testSelectivityReport() {
+        PredicateIndex index = PredicateIndex.build(rules);
+
+        assertThat(index.ruleCount()).isEqualTo(5);
+        assertThat(index.indexedRuleCount()).isEqualTo(3);
+        // 2 unindexed + country_code (2 postings / 2 values) + currency (2 postings / 2 values)
+        assertThat(index.estimatedCandidates()).isEqualTo(4.0);
+        assertThat(index.describe()).contains("indexed=3/5", "country_code=2r/2v", "currency=1r/2v");
+    }
+
+    @Test
+    void testRulesWithoutIndexAreAlwaysCandidates() {
+        PredicateIndex index = PredicateIndex.build(rules);
+        Rule outsider = rule("outsider", leaf("country_code", "eq", "FR"));
+
+        assertThat(PredicateIndex.isCandidate(index.candidates(transaction("US", "USD")), outsider)).isTrue();
+    }
+}
@@ -2,8 +2,12 @@ package com.fraud.engine.domain;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -30,6 +34,24 @@ class RulesetScopeBucketsTest {
                 .doesNotContain("disabled");
     }
 
+    @Test
+    void warmScopeCacheSeedsSuccessorWithHottestKeys() {
+        Ruleset outgoing = new Ruleset("CARD_AUTH", 1);
+        outgoing.setRules(List.of(rule("network", 20, RuleScope.network("VISA")), rule("global", 10, null)));
+        outgoing.getApplicableRules("visa", "411122", null, null);
+        outgoing.getApplicableRules("MASTERCARD", null, "5411", null);
+
+        Ruleset candidate = new Ruleset("CARD_AUTH", 2);
+        candidate.setRules(List.of(rule("network-v2", 20, RuleScope.network("VISA")), rule("global-v2", 10, null)));
+        List<Ruleset.ScopeCacheKey> hot = outgoing.hottestScopeKeys(10);
+
+        assertThat(hot).contains(new Ruleset.ScopeCacheKey("VISA", "411122", null, null));
+        assertThat(candidate.warmScopeCache(hot)).isEqualTo(2);
+        assertThat(Set.copyOf(candidate.hottestScopeKeys(10))).isEqualTo(Set.copyOf(hot));
+        assertThat(candidate.getApplicableRules("visa", "411122", null, null)).extracting(Rule::getId)
+                .containsExactly("network-v2", "global-v2");
+    }
+
     @Test
     void getApplicableRulesMatchesMultipleBinPrefixes() {
         Ruleset ruleset = new Ruleset("CARD_AUTH", 1);
@@ -103,6 +125,128 @@ class RulesetScopeBucketsTest {
         assertThat(second).isSameAs(first);
     }
 
+    @Test
+    void getApplicableRulesOrdersLikeStableSortOfBuckets() {
+        Random random = new Random(11);
+        String[] actions = {"APPROVE", "DECLINE", "REVIEW"};
+        for (int round = 0; round < 20; round++) {
+            List<Rule> rules = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                RuleScope scope = switch (random.nextInt(5)) {
+                    case 0 -> RuleScope.bin(digits(random, 1 + random.nextInt(6)));
+                    case 1 -> RuleScope.mcc("54" + random.nextInt(3));
+                    case 2 -> RuleScope.network(random.nextBoolean() ? "VISA" : "MASTERCARD");
+                    case 3 -> RuleScope.logo("PLATINUM");
+                    default -> null;
+                };
+                Rule rule = rule("r" + i, random.nextInt(4) * 10, scope);
+                rule.setAction(actions[random.nextInt(actions.length)]);
+                rules.add(rule);
+            }
+            Ruleset ruleset = new Ruleset("CARD_AUTH", 1);
+            ruleset.setRules(rules);
+
+            for (int t = 0; t < 50; t++) {
+                String bin = digits(random, 8);
+                String mcc = "54" + random.nextInt(3);
+                List<Rule> expected = referenceApplicable(rules, "VISA", bin, mcc, "PLATINUM");
+
+                assertThat(ruleset.getApplicableRules("visa", bin, mcc, "platinum")).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void getApplicableRulesSupportsNonDigitBinKeys() {
+        Ruleset ruleset = new Ruleset("CARD_AUTH", 1);
+        ruleset.setRules(List.of(
+                rule("bin-41x", 10, RuleScope.bin("41X")),
+                rule("bin-4", 20, RuleScope.bin("4"))));
+
+        assertThat(ruleset.getApplicableRules(null, "41X999", null, null)).extracting(Rule::getId)
+                .containsExactly("bin-41x", "bin-4");
+        assertThat(ruleset.getApplicableRules(null, "411999", null, null)).extracting(Rule::getId)
+                .containsExactly("bin-4");
+    }
+
+    @Test
+    void applicableRulesCacheEvictsInsteadOfGrowing() {
+        Ruleset ruleset = new Ruleset("CARD_AUTH", 1);
+        ruleset.setRules(List.of(rule("bin", 10, RuleScope.bin("4")), rule("global", 5, null)));
+        long evictionsBefore = Ruleset.scopeCacheMetrics().get("scope_cache_evictions_total");
+        long hitsBefore = Ruleset.scopeCacheMetrics().get("scope_cache_hits_total");
+
+        for (int i = 0; i < 20_000; i++) {
+            ruleset.getApplicableRules(null, String.valueOf(40_000_000 + i), null, null);
+        }
+        List<Rule> first = ruleset.getApplicableRules(null, "49999999", null, null);
+        List<Rule> second = ruleset.getApplicableRules(null, "49999999", null, null);
+
+        assertThat(second).isSameAs(first);
+        assertThat(Ruleset.scopeCacheMetrics().get("scope_cache_evictions_total")).isGreaterThan(evictionsBefore);
+        assertThat(Ruleset.scopeCacheMetrics().get("scope_cache_hits_total")).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    void getApplicableRulesListsRuleInSeveralMatchingBucketsOnce() {
+        Ruleset ruleset = new Ruleset("CARD_AUTH", 1);
+        Rule multiPrefix = rule("multi", 10, new RuleScope(RuleScope.Type.BIN, Set.of("4", "41", "4111")));
+        ruleset.setRules(List.of(multiPrefix, rule("global", 5, null)));
+
+        assertThat(ruleset.getApplicableRules(null, "411111", null, null)).extracting(Rule::getId)
+                .containsExactly("multi", "global");
+    }
+
+    @Test
+    void applicableRulesBitsIndexTraversalOrder() {
+        Ruleset ruleset = new Ruleset("CARD_AUTH", 1);
+        ruleset.setRules(List.of(
+                rule("global", 50, null),
+                rule("mcc", 10, RuleScope.mcc("5411")),
+                rule("bin", 10, RuleScope.bin("4111")),
+                rule("other-mcc", 10, RuleScope.mcc("7995"))));
+
+        ApplicableRules applicable = ruleset.getApplicableRules(null, "411111", "5411", null);
+
+        assertThat(ruleset.getTraversalOrder()).extracting(Rule::getId)
+                .containsExactly("bin", "mcc", "other-mcc", "global");
+        assertThat(applicable.bits()[0]).isEqualTo(0b1011L);
+        assertThat(applicable).extracting(Rule::getId).containsExactly("bin", "mcc", "global");
+    }
+
+    private static List<Rule> referenceApplicable(List<Rule> rules, String network, String bin, String mcc,
+                                                  String logo) {
+        List<Rule> applicable = new ArrayList<>();
+        for (int len = bin.length(); len >= 1; len--) {
+            String prefix = bin.substring(0, len);
+            rules.stream().filter(r -> r.getScope() != null && r.getScope().getType() == RuleScope.Type.BIN
+                    && prefix.equals(r.getScope().getValue())).forEach(applicable::add);
+        }
+        addScoped(applicable, rules, RuleScope.Type.MCC, mcc);
+        addScoped(applicable, rules, RuleScope.Type.NETWORK, network);
+        addScoped(applicable, rules, RuleScope.Type.LOGO, logo);
+        rules.stream().filter(r -> r.getScope() == null || r.getScope().getType() == RuleScope.Type.GLOBAL
+                || r.getScope().getType() == RuleScope.Type.COMBINED).forEach(applicable::add);
+        applicable.sort(Comparator.comparingInt((Rule r) -> r.getScope() != null ? r.getScope().getSpecificity() : 0)
+                .reversed()
+                .thenComparing(Comparator.comparingInt(Rule::getPriority).reversed())
+                .thenComparing(r -> "APPROVE".equalsIgnoreCase(r.getAction()) ? 0 : 1));
+        return applicable;
+    }
+
+    private static void addScoped(List<Rule> out, List<Rule> rules, RuleScope.Type type, String value) {
+        rules.stream().filter(r -> r.getScope() != null && r.getScope().getType() == type
+                && value.equals(r.getScope().getValue())).forEach(out::add);
+    }
+
+    private static String digits(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('0' + random.nextInt(random.nextBoolean() ? 3 : 10)));
+        }
+        return sb.toString();
+    }
+
     private static Rule rule(String id, int priority, RuleScope scope) {
         Rule rule = new Rule(id, id, "APPROVE");
         rule.setPriority(priority);
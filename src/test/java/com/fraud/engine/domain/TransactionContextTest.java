@@ -247,4 +247,41 @@ class TransactionContextTest {
         assertThat(context.get("card_bin")).isEqualTo("411111");
         assertThat(context.get("card_logo")).isEqualTo("VISA");
     }
+
+    @Test
+    void testNumericSlotTracksAmount() {
+        TransactionContext txn = new TransactionContext();
+        assertThat(txn.hasNumeric(TransactionContext.F_AMOUNT)).isFalse();
+
+        txn.setAmount(new BigDecimal("150.25"));
+        assertThat(txn.hasNumeric(TransactionContext.F_AMOUNT)).isTrue();
+        assertThat(txn.getNumeric(TransactionContext.F_AMOUNT)).isEqualTo(150.25);
+
+        txn.setAmount(null);
+        assertThat(txn.hasNumeric(TransactionContext.F_AMOUNT)).isFalse();
+    }
+
+    @Test
+    void testNumericSlotFollowsSetField() {
+        TransactionContext txn = new TransactionContext();
+
+        txn.setField(TransactionContext.F_MERCHANT_CATEGORY_CODE, 5411);
+        assertThat(txn.hasNumeric(TransactionContext.F_MERCHANT_CATEGORY_CODE)).isTrue();
+        assertThat(txn.getNumeric(TransactionContext.F_MERCHANT_CATEGORY_CODE)).isEqualTo(5411.0);
+
+        txn.setField(TransactionContext.F_MERCHANT_CATEGORY_CODE, "5411");
+        assertThat(txn.hasNumeric(TransactionContext.F_MERCHANT_CATEGORY_CODE)).isFalse();
+        assertThat(txn.hasNumeric(TransactionContext.F_COUNT)).isFalse();
+        assertThat(txn.hasNumeric(0)).isFalse();
+    }
+
+    @Test
+    void testTypedSetterInvalidatesNumericSlot() {
+        TransactionContext txn = new TransactionContext();
+
+        txn.setField(TransactionContext.F_MERCHANT_CATEGORY_CODE, 7995);
+        txn.setMerchantCategoryCode("6011");
+
+        assertThat(txn.hasNumeric(TransactionContext.F_MERCHANT_CATEGORY_CODE)).isFalse();
+    }
 }
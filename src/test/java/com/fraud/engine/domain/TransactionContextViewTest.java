@@ -0,0 +1,112 @@
+package com.fraud.engine.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for TransactionContextView - the array-backed evaluation context.
+ */
+class TransactionContextViewTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    private static TransactionContext transaction() {
+        TransactionContext txn = new TransactionContext();
+        txn.setTransactionId("txn-123");
+        txn.setCardHash("card-abc123");
+        txn.setAmount(new BigDecimal("150.00"));
+        txn.setCurrency("USD");
+        txn.setMerchantCategoryCode("5411");
+        txn.setCardPresent(true);
+        txn.setCountryCode("US");
+        txn.setCardBin("411111");
+        txn.setDecision("APPROVE");
+        return txn;
+    }
+
+    @Test
+    void testMatchesCopiedContext() {
+        TransactionContext txn = transaction();
+
+        Map<String, Object> view = txn.asEvaluationContext();
+
+        assertThat(view).isEqualTo(txn.toEvaluationContext());
+        assertThat(view.size()).isEqualTo(txn.toEvaluationContext().size());
+        assertThat(view.get("amount")).isEqualTo(new BigDecimal("150.00"));
+        assertThat(view.get("decision")).isEqualTo("APPROVE");
+        assertThat(view.get("merchant_name")).isNull();
+        assertThat(view.containsKey("merchant_name")).isFalse();
+    }
+
+    @Test
+    void testAliasesAreNotKeys() {
+        Map<String, Object> view = transaction().asEvaluationContext();
+
+        assertThat(view.get("mcc")).isNull();
+        assertThat(view.containsKey("bin")).isFalse();
+        assertThat(view.get("merchant_category_code")).isEqualTo("5411");
+    }
+
+    @Test
+    void testCustomFieldsShadowStandardFields() {
+        TransactionContext txn = transaction();
+        txn.addCustomField("risk_score", 87);
+        txn.addCustomField("currency", "EUR");
+        txn.addCustomField("note", null);
+
+        Map<String, Object> view = txn.asEvaluationContext();
+
+        assertThat(view).isEqualTo(txn.toEvaluationContext());
+        assertThat(view.get("currency")).isEqualTo("EUR");
+        assertThat(view.get("risk_score")).isEqualTo(87);
+        assertThat(view.containsKey("note")).isTrue();
+        assertThat(view.entrySet()).hasSize(view.size());
+    }
+
+    @Test
+    void testEmptyTransaction() {
+        Map<String, Object> view = new TransactionContext().asEvaluationContext();
+
+        assertThat(view).isEmpty();
+        assertThat(view.entrySet().iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    void testIsReadOnly() {
+        Map<String, Object> view = transaction().asEvaluationContext();
+
+        assertThatThrownBy(() -> view.put("amount", 1))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testSerializesLikeCopiedContext() throws Exception {
+        TransactionContext txn = transaction();
+        txn.addCustomField("risk_score", 87);
+        txn.addCustomField("currency", "EUR");
+
+        String fromView = mapper.writeValueAsString(txn.asEvaluationContext());
+        String fromCopy = mapper.writeValueAsString(txn.toEvaluationContext());
+
+        assertThat(mapper.readTree(fromView)).isEqualTo(mapper.readTree(fromCopy));
+    }
+
+    @Test
+    void testSerializesInsideDecision() throws Exception {
+        TransactionContext txn = transaction();
+        Decision withView = new Decision("txn-123", "MONITORING");
+        withView.setTransactionContext(txn.asEvaluationContext());
+        Decision withCopy = new Decision("txn-123", "MONITORING");
+        withCopy.setTransactionContext(new HashMap<>(txn.toEvaluationContext()));
+
+        assertThat(mapper.valueToTree(withView).get("transaction_context"))
+                .isEqualTo(mapper.valueToTree(withCopy).get("transaction_context"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.util.EngineMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for AdaptiveGroup - sampled cost/selectivity reordering of AND / OR children.
+ */
+class AdaptiveGroupTest {
+
+    /** Fake nanosecond clock; only {@link #slow(boolean)} children advance it. */
+    private final AtomicLong clock = new AtomicLong();
+    private final EngineMetrics metrics = new EngineMetrics();
+
+    private CompiledCondition slow(boolean result) {
+        return tx -> {
+            clock.addAndGet(20_000);
+            return result;
+        };
+    }
+
+    private AdaptiveGroup group(boolean and, CompiledCondition[] children, int sampleRate, int reorderInterval) {
+        return new AdaptiveGroup(and, children, sampleRate, reorderInterval, metrics, clock::get);
+    }
+
+    private static CompiledCondition country(String code) {
+        return tx -> code.equals(tx.getCountryCode());
+    }
+
+    private static TransactionContext transaction(String countryCode) {
+        TransactionContext tx = new TransactionContext();
+        tx.setCountryCode(countryCode);
+        return tx;
+    }
+
+    @Test
+    void testAndMovesCheapSelectiveChildFirst() {
+        AdaptiveGroup group = group(true,
+                new CompiledCondition[]{slow(true), country("US")}, 1, 50);
+        TransactionContext tx = transaction("DE");
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(group.matches(tx)).isFalse();
+        }
+
+        assertThat(group.currentOrder()).containsExactly(1, 0);
+    }
+
+    @Test
+    void testOrMovesCheapLikelyChildFirst() {
+        AdaptiveGroup group = group(false,
+                new CompiledCondition[]{slow(false), country("US")}, 1, 50);
+        TransactionContext tx = transaction("US");
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(group.matches(tx)).isTrue();
+        }
+
+        assertThat(group.currentOrder()).containsExactly(1, 0);
+    }
+
+    @Test
+    void testKeepsAuthoringOrderWithoutSamples() {
+        AdaptiveGroup group = group(true,
+                new CompiledCondition[]{slow(true), country("US")}, 1 << 30, 50);
+
+        group.matches(transaction("DE"));
+
+        assertThat(group.currentOrder()).containsExactly(0, 1);
+    }
+
+    @Test
+    void testReorderingNeverChangesResults() {
+        String[] countries = {"US", "DE", "FR", "GB"};
+        CompiledCondition[] children = {country("US"), country("DE"), tx -> tx.getCountryCode().length() == 2,
+                country("FR").not()};
+        AdaptiveGroup and = group(true, children, 2, 8);
+        AdaptiveGroup or = group(false, children, 2, 8);
+        Random random = new Random(3);
+
+        for (int i = 0; i < 5_000; i++) {
+            TransactionContext tx = transaction(countries[random.nextInt(countries.length)]);
+            boolean expectedAnd = true;
+            boolean expectedOr = false;
+            for (CompiledCondition child : children) {
+                expectedAnd &= child.matches(tx);
+                expectedOr |= child.matches(tx);
+            }
+            assertThat(and.matches(tx)).isEqualTo(expectedAnd);
+            assertThat(or.matches(tx)).isEqualTo(expectedOr);
+        }
+    }
+
+    @Test
+    void testMetricsCountSamplesAndReorders() {
+        AdaptiveGroup group = group(true,
+                new CompiledCondition[]{slow(true), country("US")}, 1, 20);
+
+        for (int i = 0; i < 100; i++) {
+            group.matches(transaction("DE"));
+        }
+
+        assertThat(metrics.snapshot())
+                .containsEntry("adaptive_ordering_groups_created_total", 1L)
+                .containsEntry("adaptive_ordering_samples_total", 100L)
+                .containsEntry("adaptive_ordering_rankings_total", 9L)
+                .containsEntry("adaptive_ordering_reorders_total", 1L)
+                .containsEntry("adaptive_ordering_groups_reordered_total", 1L);
+    }
+
+    @Test
+    void testWarmupEvaluationsAreNotSampled() {
+        AdaptiveGroup group = group(true,
+                new CompiledCondition[]{slow(true), country("US")}, 1, 20);
+
+        int matches = AdaptiveGroup.withoutSampling(() -> {
+            int count = 0;
+            for (int i = 0; i < 100; i++) {
+                count += group.matches(transaction("DE")) ? 1 : 0;
+            }
+            return count;
+        });
+
+        assertThat(matches).isZero();
+        assertThat(group.currentOrder()).containsExactly(0, 1);
+        assertThat(metrics.snapshot()).containsEntry("adaptive_ordering_samples_total", 0L);
+
+        // Sampling resumes once the warm-up is over
+        group.matches(transaction("DE"));
+        assertThat(metrics.snapshot()).containsEntry("adaptive_ordering_samples_total", 1L);
+    }
+}
@@ -8,8 +8,10 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.regex.PatternSyntaxException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests for ConditionCompiler - compiles conditions into executable lambdas.
@@ -191,6 +193,51 @@ class ConditionCompilerTest {
         assertThat(compiled.matches(transaction)).isFalse();
     }
 
+    @Test
+    void testCompileInNormalizesNumbersAndNumericStrings() {
+        Condition condition = new Condition();
+        condition.setField("merchant_category_code");
+        condition.setOperator("in");
+        condition.setValues(List.of(5411, 7995L, "5812"));
+
+        CompiledCondition compiled = ConditionCompiler.compile(condition);
+
+        transaction.setMerchantCategoryCode("5411");
+        assertThat(compiled.matches(transaction)).isTrue();
+
+        transaction.setField(TransactionContext.F_MERCHANT_CATEGORY_CODE, 5812);
+        assertThat(compiled.matches(transaction)).isTrue();
+
+        transaction.setField(TransactionContext.F_MERCHANT_CATEGORY_CODE, BigDecimal.valueOf(7995));
+        assertThat(compiled.matches(transaction)).isTrue();
+
+        transaction.setMerchantCategoryCode("6011");
+        assertThat(compiled.matches(transaction)).isFalse();
+
+        transaction.setMerchantCategoryCode(null);
+        assertThat(compiled.matches(transaction)).isFalse();
+    }
+
+    @Test
+    void testCompileInLargeList() {
+        List<Object> denyList = new java.util.ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            denyList.add("C" + i);
+        }
+        Condition condition = new Condition();
+        condition.setField("country_code");
+        condition.setOperator("not_in");
+        condition.setValues(denyList);
+
+        CompiledCondition compiled = ConditionCompiler.compile(condition);
+
+        transaction.setCountryCode("C4999");
+        assertThat(compiled.matches(transaction)).isFalse();
+
+        transaction.setCountryCode("US");
+        assertThat(compiled.matches(transaction)).isTrue();
+    }
+
     // ===== Multiple Conditions (AND logic) =====
 
     @Test
@@ -306,15 +353,36 @@ class ConditionCompilerTest {
     }
 
     @Test
-    void testCompileRegexInvalidPatternReturnsFalse() {
+    void testCompileRegexInvalidPatternIsRejected() {
         Condition condition = new Condition();
         condition.setField("email");
         condition.setOperator("regex");
         condition.setValue("*[");
 
-        CompiledCondition compiled = ConditionCompiler.compile(condition);
+        assertThatThrownBy(() -> ConditionCompiler.compile(condition))
+                .isInstanceOf(PatternSyntaxException.class);
+    }
 
-        transaction.setEmail("user@example.com");
+    @Test
+    void testCompileRegexBacktrackingPatternIsRejected() {
+        Condition condition = new Condition("email", "regex", "(\\w+)@\\1\\.com");
+
+        assertThatThrownBy(() -> ConditionCompiler.compile(condition))
+                .isInstanceOf(PatternSyntaxException.class)
+                .hasMessageContaining("Backreferences");
+    }
+
+    @Test
+    void testCompileRegexBacktrackingFallbackIsOptIn() {
+        Condition condition = new Condition("email", "regex", "(\\w+)@\\1\\.com");
+        ConditionCompiler compiler = new ConditionCompiler();
+        compiler.regexBacktrackingFallback = true;
+
+        CompiledCondition compiled = compiler.compileCondition(condition);
+
+        transaction.setEmail("acme@acme.com");
+        assertThat(compiled.matches(transaction)).isTrue();
+        transaction.setEmail("acme@other.com");
         assertThat(compiled.matches(transaction)).isFalse();
     }
 
@@ -0,0 +1,217 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.Decision;
+import com.fraud.engine.domain.ApplicableRules;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.RuleScope;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.domain.VelocityConfig;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for MonitoringEvaluator on reused per-thread scratch state.
+ */
+class MonitoringEvaluatorTest {
+
+    /** Velocity evaluator that reports the configured threshold as the count (always exceeded). */
+    private static final class ExceededVelocity extends VelocityEvaluator {
+        int batches;
+
+        @Override
+        public void checkVelocityBatch(TransactionContext transaction, VelocityConfig[] configs, int count,
+                                       Decision decision, Decision.VelocityResult[] results) {
+            batches++;
+            for (int i = 0; i < count; i++) {
+                results[i] = new Decision.VelocityResult(configs[i].getDimension(), "x",
+                        configs[i].getThreshold(), configs[i].getThreshold(), configs[i].getWindowSeconds());
+            }
+        }
+
+        /** Non-blocking checks complete when {@link #reply} is completed. */
+        final CompletableFuture<Void> reply = new CompletableFuture<>();
+
+        @Override
+        public Uni<Void> checkVelocityBatchAsync(TransactionContext transaction, VelocityConfig[] configs, int count,
+                                                 Decision decision, Decision.VelocityResult[] results) {
+            return Uni.createFrom().completionStage(reply)
+                    .invoke(ignored -> checkVelocityBatch(transaction, configs, count, decision, results));
+        }
+    }
+
+    private static Rule rule(String id, boolean matches) {
+        Rule rule = new Rule(id, id, "REVIEW");
+        rule.setCompiledCondition(tx -> matches);
+        return rule;
+    }
+
+    private static TransactionContext transaction() {
+        TransactionContext tx = new TransactionContext();
+        tx.setDecision("APPROVE");
+        return tx;
+    }
+
+    private static Decision evaluate(MonitoringEvaluator evaluator, List<Rule> rules) {
+        Decision decision = new Decision("tx-1", "MONITORING");
+        evaluator.evaluate(EvaluationContext.create(transaction(), null, decision, false,
+                0L, Decision.MODE_NORMAL, null, rules));
+        return decision;
+    }
+
+    @Test
+    void testMatchedRulesKeepRuleOrderAcrossWords() {
+        ExceededVelocity velocity = new ExceededVelocity();
+        MonitoringEvaluator evaluator = new MonitoringEvaluator();
+        evaluator.velocityEvaluator = velocity;
+
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            rules.add(rule("r" + i, i % 3 == 0));
+        }
+        rules.get(3).setVelocity(new VelocityConfig("card_hash", 60, 5, "DECLINE"));
+        rules.get(66).setVelocity(new VelocityConfig("card_hash", 60, 5, "BLOCK"));
+        rules.get(9).setEnabled(false);
+
+        Decision decision = evaluate(evaluator, rules);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 130; i += 3) {
+            if (i != 9) {
+                expected.add("r" + i);
+            }
+        }
+        assertThat(decision.getMatchedRules()).extracting(Decision.MatchedRule::getRuleId)
+                .containsExactly(expected.toArray());
+        assertThat(decision.getMatchedRules().get(1).getAction()).isEqualTo("DECLINE");
+        assertThat(decision.getMatchedRules().get(21).getAction()).isEqualTo("BLOCK");
+        assertThat(decision.getVelocityResults()).containsKeys("r3", "r66");
+        assertThat(velocity.batches).isEqualTo(1);
+        assertThat(decision.getDecision()).isEqualTo("APPROVE");
+    }
+
+    @Test
+    void testScratchStateDoesNotLeakBetweenEvaluations() {
+        ExceededVelocity velocity = new ExceededVelocity();
+        MonitoringEvaluator evaluator = new MonitoringEvaluator();
+        evaluator.velocityEvaluator = velocity;
+
+        List<Rule> large = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Rule rule = rule("a" + i, true);
+            rule.setVelocity(new VelocityConfig("card_hash", 60, 5, "DECLINE"));
+            large.add(rule);
+        }
+        assertThat(evaluate(evaluator, large).getMatchedRules()).hasSize(200);
+
+        Decision small = evaluate(evaluator, List.of(rule("b0", false), rule("b1", true)));
+
+        assertThat(small.getMatchedRules()).extracting(Decision.MatchedRule::getRuleId).containsExactly("b1");
+        assertThat(small.getMatchedRules().get(0).getAction()).isEqualTo("REVIEW");
+        assertThat(small.getVelocityResults()).isEmpty();
+    }
+
+    @Test
+    void testEvaluatesApplicableRulesFromTheirBitset() {
+        ExceededVelocity velocity = new ExceededVelocity();
+        MonitoringEvaluator evaluator = new MonitoringEvaluator();
+        evaluator.velocityEvaluator = velocity;
+
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Rule rule = rule("r" + i, i % 2 == 0);
+            rule.setPriority(i);
+            rule.setScope(i % 4 == 0 ? RuleScope.mcc("5411") : RuleScope.mcc("7995"));
+            rules.add(rule);
+        }
+        rules.get(96).setVelocity(new VelocityConfig("card_hash", 60, 5, "DECLINE"));
+        Ruleset ruleset = new Ruleset("CARD_AUTH", 1);
+        ruleset.setRules(rules);
+
+        ApplicableRules applicable = ruleset.getApplicableRules(null, null, "5411", null);
+        Decision fromBits = evaluate(evaluator, applicable);
+        Decision fromList = evaluate(evaluator, new ArrayList<>(applicable));
+
+        assertThat(applicable).hasSize(25);
+        assertThat(fromBits.getMatchedRules()).extracting(Decision.MatchedRule::getRuleId)
+                .containsExactly(fromList.getMatchedRules().stream().map(Decision.MatchedRule::getRuleId).toArray());
+        assertThat(fromBits.getMatchedRules()).hasSize(25);
+        assertThat(fromBits.getMatchedRules().get(0).getRuleId()).isEqualTo("r96");
+        assertThat(fromBits.getMatchedRules().get(0).getAction()).isEqualTo("DECLINE");
+        assertThat(fromBits.getVelocityResults()).containsKeys("r96");
+    }
+
+    @Test
+    void testWarmupStubsVelocityWithoutReadingRedis() {
+        VelocityEvaluator velocity = new VelocityEvaluator() {
+            @Override
+            public Decision.VelocityResult checkVelocityReadOnly(TransactionContext transaction, Rule rule,
+                                                                 Decision decision,
+                                                                 java.util.Map<String, Decision.VelocityResult> cache) {
+                throw new AssertionError("warm-up must not read velocity");
+            }
+        };
+        MonitoringEvaluator evaluator = new MonitoringEvaluator();
+        evaluator.velocityEvaluator = velocity;
+        Rule rule = rule("r0", true);
+        rule.setVelocity(new VelocityConfig("card_hash", 60, 5, "DECLINE"));
+
+        Decision decision = new Decision("tx-warm", "MONITORING");
+        evaluator.evaluate(EvaluationContext.createWarmup(transaction(), null, decision,
+                0L, Decision.MODE_REPLAY, null, List.of(rule), null));
+
+        assertThat(decision.getMatchedRules()).extracting(Decision.MatchedRule::getRuleId).containsExactly("r0");
+        assertThat(decision.getMatchedRules().get(0).getAction()).isEqualTo("REVIEW");
+        assertThat(decision.getVelocityResults().get("r0").getCount()).isZero();
+        assertThat(decision.getVelocityResults().get("r0").getThreshold()).isEqualTo(5);
+    }
+
+    @Test
+    void testNoMatches() {
+        MonitoringEvaluator evaluator = new MonitoringEvaluator();
+
+        Decision decision = evaluate(evaluator, List.of(rule("r0", false)));
+
+        assertThat(decision.getMatchedRules()).isEmpty();
+        assertThat(decision.getDecision()).isEqualTo("APPROVE");
+    }
+
+    @Test
+    void testNonBlockingEvaluationCompletesWhenVelocityReplies() {
+        ExceededVelocity velocity = new ExceededVelocity();
+        MonitoringEvaluator evaluator = new MonitoringEvaluator();
+        evaluator.velocityEvaluator = velocity;
+
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            rules.add(rule("r" + i, i % 2 == 0));
+        }
+        rules.get(64).setVelocity(new VelocityConfig("card_hash", 60, 5, "DECLINE"));
+        Decision pending = new Decision("tx-async", "MONITORING");
+        CompletableFuture<Void> done = evaluator.evaluateAsync(EvaluationContext.create(transaction(), null, pending,
+                false, 0L, Decision.MODE_NORMAL, null, rules)).subscribeAsCompletionStage();
+
+        assertThat(done.isDone()).isFalse();
+        assertThat(pending.getMatchedRules()).isEmpty();
+
+        // A blocking evaluation on this thread while the reply is outstanding uses the
+        // thread's pooled scratch, not the pending evaluation's
+        Decision other = evaluate(evaluator, List.of(rule("b0", true), rule("b1", false)));
+        assertThat(other.getMatchedRules()).extracting(Decision.MatchedRule::getRuleId).containsExactly("b0");
+
+        velocity.reply.complete(null);
+
+        assertThat(done.isDone()).isTrue();
+        assertThat(pending.getMatchedRules()).hasSize(35);
+        assertThat(pending.getMatchedRules().get(32).getRuleId()).isEqualTo("r64");
+        assertThat(pending.getMatchedRules().get(32).getAction()).isEqualTo("DECLINE");
+        assertThat(pending.getVelocityResults()).containsKeys("r64");
+        assertThat(pending.getDecision()).isEqualTo("APPROVE");
+    }
+}
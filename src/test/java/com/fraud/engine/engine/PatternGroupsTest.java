@@ -0,0 +1,195 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.PredicateMemo;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.TransactionContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for PatternGroups / FieldPatternMatcher - one automaton scan per field.
+ */
+class PatternGroupsTest {
+
+    private static ConditionNode leaf(String field, String operator, Object value) {
+        Condition condition = new Condition(field, operator, value);
+        return new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+    }
+
+    private static Rule rule(String id, ConditionNode tree) {
+        Rule rule = new Rule(id, id, "REVIEW");
+        rule.setConditionTree(tree);
+        rule.setCompiledCondition(ConditionCompiler.compileTree(tree));
+        return rule;
+    }
+
+    private static TransactionContext merchant(String name) {
+        TransactionContext tx = new TransactionContext();
+        tx.setMerchantName(name);
+        return tx;
+    }
+
+    @Test
+    void testOverlappingSubstrings() {
+        FieldPatternMatcher.Builder builder = new FieldPatternMatcher.Builder(TransactionContext.F_MERCHANT_NAME);
+        int he = builder.add(FieldPatternMatcher.Kind.CONTAINS, "he");
+        int she = builder.add(FieldPatternMatcher.Kind.CONTAINS, "she");
+        int his = builder.add(FieldPatternMatcher.Kind.CONTAINS, "his");
+        int hers = builder.add(FieldPatternMatcher.Kind.CONTAINS, "hers");
+        FieldPatternMatcher matcher = builder.build();
+
+        long[] matches = new long[matcher.words()];
+        matcher.scan(merchant("ushers"), matches);
+
+        assertThat(matches[0] & (1L << he)).isNotZero();
+        assertThat(matches[0] & (1L << she)).isNotZero();
+        assertThat(matches[0] & (1L << hers)).isNotZero();
+        assertThat(matches[0] & (1L << his)).isZero();
+    }
+
+    @Test
+    void testDuplicatePatternsShareAnId() {
+        FieldPatternMatcher.Builder builder = new FieldPatternMatcher.Builder(TransactionContext.F_MERCHANT_NAME);
+        int first = builder.add(FieldPatternMatcher.Kind.PREFIX, "CASINO");
+        int again = builder.add(FieldPatternMatcher.Kind.PREFIX, "CASINO");
+        int contains = builder.add(FieldPatternMatcher.Kind.CONTAINS, "CASINO");
+
+        assertThat(again).isEqualTo(first);
+        assertThat(contains).isNotEqualTo(first);
+        assertThat(builder.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testMatchesStringSemanticsOnRandomInput() {
+        Random random = new Random(42);
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            patterns.add(randomString(random, random.nextInt(4)));
+        }
+        FieldPatternMatcher.Builder builder = new FieldPatternMatcher.Builder(TransactionContext.F_MERCHANT_NAME);
+        FieldPatternMatcher.Kind[] kinds = FieldPatternMatcher.Kind.values();
+        int[] ids = new int[patterns.size()];
+        for (int i = 0; i < patterns.size(); i++) {
+            ids[i] = builder.add(kinds[i % kinds.length], patterns.get(i));
+        }
+        FieldPatternMatcher matcher = builder.build();
+
+        for (int n = 0; n < 500; n++) {
+            String value = randomString(random, random.nextInt(12));
+            long[] matches = new long[matcher.words()];
+            matcher.scan(merchant(value), matches);
+            for (int i = 0; i < patterns.size(); i++) {
+                String pattern = patterns.get(i);
+                boolean expected = switch (kinds[i % kinds.length]) {
+                    case CONTAINS -> value.contains(pattern);
+                    case PREFIX -> value.startsWith(pattern);
+                    case SUFFIX -> value.endsWith(pattern);
+                };
+                boolean actual = (matches[ids[i] >>> 6] & (1L << ids[i])) != 0;
+                assertThat(actual).as("%s %s on '%s'", kinds[i % kinds.length], pattern, value).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void testMissingValueMatchesNothing() {
+        FieldPatternMatcher.Builder builder = new FieldPatternMatcher.Builder(TransactionContext.F_MERCHANT_NAME);
+        builder.add(FieldPatternMatcher.Kind.CONTAINS, "");
+        builder.add(FieldPatternMatcher.Kind.SUFFIX, "BET");
+        FieldPatternMatcher matcher = builder.build();
+
+        long[] matches = new long[matcher.words()];
+        matcher.scan(new TransactionContext(), matches);
+
+        assertThat(matches[0]).isZero();
+    }
+
+    @Test
+    void testBuildGroupsFieldsWithSeveralPatterns() {
+        Rule casino = rule("casino", leaf("merchant_name", "contains", "CASINO"));
+        Rule bet = rule("bet", new ConditionNode.And(List.of(
+                leaf("merchant_name", "ends_with", "BET"), leaf("country_code", "eq", "US"))));
+        Rule crypto = rule("crypto", new ConditionNode.Not(leaf("merchant_name", "starts_with", "CRYPTO")));
+        Rule device = rule("device", leaf("device_id", "contains", "emulator"));
+
+        int groups = PatternGroups.build(List.of(casino, bet, crypto, device));
+
+        assertThat(groups).isEqualTo(1);
+        assertThat(((ConditionNode.Leaf) casino.getConditionTree()).compiled())
+                .isInstanceOf(PatternGroups.PatternPredicate.class);
+        assertThat(((ConditionNode.Leaf) device.getConditionTree()).compiled())
+                .isNotInstanceOf(PatternGroups.PatternPredicate.class);
+    }
+
+    @Test
+    void testRewrittenRulesKeepTheirOutcome() {
+        List<Rule> rules = List.of(
+                rule("casino", leaf("merchant_name", "contains", "CASINO")),
+                rule("bet", leaf("merchant_name", "ends_with", "BET")),
+                rule("crypto", new ConditionNode.Not(leaf("merchant_name", "starts_with", "CRYPTO"))));
+        List<TransactionContext> transactions = List.of(
+                merchant("ROYAL CASINO"), merchant("SUPERBET"), merchant("CRYPTO EXCHANGE"),
+                merchant("GROCERY"), new TransactionContext());
+        boolean[][] before = new boolean[transactions.size()][rules.size()];
+        for (int t = 0; t < transactions.size(); t++) {
+            for (int r = 0; r < rules.size(); r++) {
+                before[t][r] = rules.get(r).getCompiledCondition().matches(transactions.get(t));
+            }
+        }
+
+        PatternGroups.build(rules);
+
+        for (int t = 0; t < transactions.size(); t++) {
+            TransactionContext tx = transactions.get(t);
+            tx.setPredicateMemo(PredicateMemo.acquire(0));
+            for (int r = 0; r < rules.size(); r++) {
+                assertThat(rules.get(r).getCompiledCondition().matches(tx)).isEqualTo(before[t][r]);
+            }
+            tx.setPredicateMemo(null);
+            for (int r = 0; r < rules.size(); r++) {
+                assertThat(rules.get(r).getCompiledCondition().matches(tx)).isEqualTo(before[t][r]);
+            }
+        }
+    }
+
+    @Test
+    void testFieldIsScannedOncePerTransaction() {
+        int[] scans = new int[1];
+        PredicateMemo.Scanner counting = new PredicateMemo.Scanner() {
+            @Override
+            public int words() {
+                return 1;
+            }
+
+            @Override
+            public void scan(TransactionContext transaction, long[] matches) {
+                scans[0]++;
+                matches[0] = 0b101L;
+            }
+        };
+        TransactionContext tx = merchant("ANY");
+
+        PredicateMemo memo = PredicateMemo.acquire(0);
+        assertThat(memo.scanOnce(0, counting, tx)[0]).isEqualTo(0b101L);
+        assertThat(memo.scanOnce(0, counting, tx)[0]).isEqualTo(0b101L);
+        assertThat(scans[0]).isEqualTo(1);
+
+        PredicateMemo.acquire(0).scanOnce(0, counting, tx);
+        assertThat(scans[0]).isEqualTo(2);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.PredicateMemo;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.TransactionContext;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for PredicateTable - shared leaf deduplication and per-transaction memoization.
+ */
+class PredicateTableTest {
+
+    private static ConditionNode leaf(String field, String operator, Object value) {
+        Condition condition = new Condition(field, operator, value);
+        return new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+    }
+
+    private static Rule rule(String id, ConditionNode tree) {
+        Rule rule = new Rule(id, id, "REVIEW");
+        rule.setConditionTree(tree);
+        rule.setCompiledCondition(ConditionCompiler.compileTree(tree));
+        return rule;
+    }
+
+    private static TransactionContext transaction() {
+        TransactionContext tx = new TransactionContext();
+        tx.setAmount(BigDecimal.valueOf(750));
+        tx.setCountryCode("US");
+        tx.setCurrency("USD");
+        return tx;
+    }
+
+    @Test
+    void testSharedLeavesGetOneId() {
+        Rule a = rule("a", new ConditionNode.And(List.of(leaf("country_code", "eq", "US"), leaf("amount", "gt", 500))));
+        Rule b = rule("b", new ConditionNode.Or(List.of(leaf("country_code", "eq", "US"), leaf("currency", "eq", "EUR"))));
+        Rule c = rule("c", new ConditionNode.Not(leaf("amount", "gt", 500)));
+
+        PredicateTable table = PredicateTable.build(List.of(a, b, c));
+
+        assertThat(table.leafCount()).isEqualTo(5);
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.predicate(0).getField()).isEqualTo("country_code");
+        assertThat(table.predicate(1).getField()).isEqualTo("amount");
+
+        ConditionNode.Leaf sharedInA = (ConditionNode.Leaf) ((ConditionNode.And) a.getConditionTree()).children().get(0);
+        ConditionNode.Leaf sharedInB = (ConditionNode.Leaf) ((ConditionNode.Or) b.getConditionTree()).children().get(0);
+        ConditionNode.Leaf singleInB = (ConditionNode.Leaf) ((ConditionNode.Or) b.getConditionTree()).children().get(1);
+        assertThat(sharedInA.compiled()).isSameAs(sharedInB.compiled());
+        assertThat(sharedInA.compiled()).isInstanceOf(PredicateTable.MemoizedPredicate.class);
+        assertThat(singleInB.compiled()).isNotInstanceOf(PredicateTable.MemoizedPredicate.class);
+    }
+
+    @Test
+    void testRewrittenRulesKeepTheirOutcome() {
+        Rule a = rule("a", new ConditionNode.And(List.of(leaf("country_code", "eq", "US"), leaf("amount", "gt", 500))));
+        Rule b = rule("b", new ConditionNode.Not(leaf("amount", "gt", 500)));
+        TransactionContext tx = transaction();
+        boolean aBefore = a.getCompiledCondition().matches(tx);
+        boolean bBefore = b.getCompiledCondition().matches(tx);
+
+        PredicateTable.build(List.of(a, b));
+
+        tx.setPredicateMemo(PredicateMemo.acquire(1));
+        assertThat(a.getCompiledCondition().matches(tx)).isEqualTo(aBefore);
+        assertThat(b.getCompiledCondition().matches(tx)).isEqualTo(bBefore);
+    }
+
+    @Test
+    void testMemoEvaluatesSharedPredicateOncePerTransaction() {
+        int[] calls = new int[1];
+        CompiledCondition counting = tx -> {
+            calls[0]++;
+            return true;
+        };
+        Condition condition = new Condition("country_code", "eq", "US");
+        Rule a = rule("a", new ConditionNode.Leaf(condition, counting));
+        Rule b = rule("b", new ConditionNode.Leaf(condition, counting));
+        PredicateTable.build(List.of(a, b));
+        TransactionContext tx = transaction();
+
+        tx.setPredicateMemo(PredicateMemo.acquire(1));
+        a.getCompiledCondition().matches(tx);
+        b.getCompiledCondition().matches(tx);
+        assertThat(calls[0]).isEqualTo(1);
+
+        // A new transaction clears the memo
+        tx.setPredicateMemo(PredicateMemo.acquire(1));
+        a.getCompiledCondition().matches(tx);
+        assertThat(calls[0]).isEqualTo(2);
+
+        // Without a memo the predicate is evaluated directly
+        tx.setPredicateMemo(null);
+        a.getCompiledCondition().matches(tx);
+        b.getCompiledCondition().matches(tx);
+        assertThat(calls[0]).isEqualTo(4);
+    }
+}
@@ -0,0 +1,164 @@
+package com.fraud.engine.engine;
+
+import com.fraud.engine.domain.CompiledCondition;
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.RulesetProgram;
+import com.fraud.engine.domain.TransactionContext;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RulesetProgramCompiler - the generated program must agree with the lambda engine.
+ */
+class RulesetProgramCompilerTest {
+
+    private static ConditionNode leaf(String field, String operator, Object value) {
+        Condition condition = new Condition(field, operator, value);
+        return new ConditionNode.Leaf(condition, ConditionCompiler.compile(condition));
+    }
+
+    private static Rule rule(String id, ConditionNode tree) {
+        Rule rule = new Rule(id, id, "REVIEW");
+        rule.setConditionTree(tree);
+        rule.setCompiledCondition(ConditionCompiler.compileTree(tree));
+        return rule;
+    }
+
+    private static TransactionContext transaction(double amount, String country, String currency) {
+        TransactionContext tx = new TransactionContext();
+        tx.setTransactionId("txn-1");
+        tx.setAmount(BigDecimal.valueOf(amount));
+        tx.setCountryCode(country);
+        tx.setCurrency(currency);
+        return tx;
+    }
+
+    private static long[] allApplicable(RulesetProgram program) {
+        long[] applicable = new long[program.wordCount()];
+        for (int i = 0; i < program.ruleCount(); i++) {
+            applicable[i >>> 6] |= 1L << i;
+        }
+        return applicable;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static Ruleset mixedRuleset(int size) {
+        Ruleset ruleset = new Ruleset("CARD_MONITORING", 1);
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ConditionNode amount = leaf("amount", "gt", i * 10);
+            ConditionNode us = leaf("country_code", "eq", "US");
+            ConditionNode eur = leaf("currency", "eq", "EUR");
+            ConditionNode tree = switch (i % 6) {
+                case 0 -> amount;
+                case 1 -> new ConditionNode.And(List.of(amount, us));
+                case 2 -> new ConditionNode.Or(List.of(us, eur));
+                case 3 -> new ConditionNode.Not(new ConditionNode.Or(List.of(amount, eur)));
+                case 4 -> new ConditionNode.And(List.of(new ConditionNode.Not(us), new ConditionNode.Or(List.of(eur, amount))));
+                default -> new ConditionNode.Or(List.of(new ConditionNode.Constant(false), new ConditionNode.And(List.of())));
+            };
+            rules.add(rule("rule-" + i, tree));
+        }
+        ruleset.setRules(rules);
+        return ruleset;
+    }
+
+    @Test
+    void testProgramMatchesLambdaEngine() {
+        Ruleset ruleset = mixedRuleset(150);
+        RulesetProgram program = RulesetProgramCompiler.compile(ruleset);
+
+        assertThat(program).isNotNull();
+        assertThat(program.ruleCount()).isEqualTo(150);
+        assertThat(program.wordCount()).isEqualTo(3);
+
+        List<TransactionContext> transactions = List.of(
+                transaction(55, "US", "USD"),
+                transaction(900, "GB", "EUR"),
+                transaction(0, "FR", "GBP"),
+                transaction(5000, "US", "EUR"));
+
+        for (TransactionContext tx : transactions) {
+            long[] matches = new long[program.wordCount()];
+            program.evaluate(tx, allApplicable(program), matches);
+
+            for (Rule rule : ruleset.getRules()) {
+                assertThat(isSet(matches, rule.getProgramIndex()))
+                        .as("rule %s", rule.getId())
+                        .isEqualTo(rule.getCompiledCondition().matches(tx));
+            }
+        }
+    }
+
+    @Test
+    void testOnlyApplicableRulesAreEvaluated() {
+        Ruleset ruleset = mixedRuleset(70);
+        RulesetProgram program = RulesetProgramCompiler.compile(ruleset);
+
+        long[] applicable = new long[program.wordCount()];
+        applicable[1] = 1L << 2; // rule 66 only
+        long[] matches = new long[program.wordCount()];
+        program.evaluate(transaction(10_000, "US", "USD"), applicable, matches);
+
+        assertThat(isSet(matches, 66)).isTrue();
+        assertThat(matches[0]).isZero();
+    }
+
+    @Test
+    void testSharedLeavesAreEvaluatedPerRule() {
+        int[] calls = new int[1];
+        CompiledCondition counting = tx -> {
+            calls[0]++;
+            return true;
+        };
+        ConditionNode shared = new ConditionNode.Leaf(null, counting);
+
+        Ruleset ruleset = new Ruleset("CARD_MONITORING", 1);
+        ruleset.setRules(List.of(rule("a", shared), rule("b", shared)));
+        RulesetProgram program = RulesetProgramCompiler.compile(ruleset);
+
+        long[] matches = new long[1];
+        program.evaluate(transaction(1, "US", "USD"), allApplicable(program), matches);
+
+        assertThat(matches[0]).isEqualTo(0b11L);
+        assertThat(calls[0]).isEqualTo(2);
+    }
+
+    @Test
+    void testRuleWithoutConditionIsNotIndexed() {
+        Rule bare = new Rule("bare", "bare", "REVIEW");
+        Ruleset ruleset = new Ruleset("CARD_MONITORING", 1);
+        ruleset.setRules(List.of(bare, rule("a", leaf("amount", "gt", 1))));
+
+        RulesetProgram program = RulesetProgramCompiler.compile(ruleset);
+
+        assertThat(program.ruleCount()).isEqualTo(1);
+        assertThat(bare.getProgramIndex()).isEqualTo(-1);
+        assertThat(ruleset.getRules().get(1).getProgramIndex()).isZero();
+    }
+
+    @Test
+    void testLargeRulesetIsSplitAcrossMethods() {
+        Ruleset ruleset = mixedRuleset(2_000);
+        RulesetProgram program = RulesetProgramCompiler.compile(ruleset);
+
+        assertThat(program).isNotNull();
+        TransactionContext tx = transaction(12_345, "US", "EUR");
+        long[] matches = new long[program.wordCount()];
+        program.evaluate(tx, allApplicable(program), matches);
+
+        Rule last = ruleset.getRules().get(1_999);
+        assertThat(isSet(matches, last.getProgramIndex())).isEqualTo(last.getCompiledCondition().matches(tx));
+    }
+}
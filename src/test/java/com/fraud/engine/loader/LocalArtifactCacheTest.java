@@ -0,0 +1,111 @@
+package com.fraud.engine.loader;
+
+import com.fraud.engine.util.EngineMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalArtifactCacheTest {
+
+    private static final byte[] ARTIFACT = "{\"ruleset_key\":\"CARD_AUTH\",\"rules\":[]}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private Path dir;
+    private EngineMetrics metrics;
+    private LocalArtifactCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("artifact-cache-test");
+        metrics = new EngineMetrics();
+        cache = new LocalArtifactCache();
+        cache.enabled = true;
+        cache.directory = dir.toString();
+        cache.engineMetrics = metrics;
+        cache.init();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] out = new byte[buffer.remaining()];
+        buffer.get(out);
+        return out;
+    }
+
+    @Test
+    void testWriteThenReadByChecksum() {
+        String sha = LocalArtifactCache.sha256Hex(ARTIFACT);
+
+        assertThat(cache.read(sha).isEmpty()).isTrue();
+        cache.write(sha, ARTIFACT);
+
+        assertThat(bytes(cache.read("sha256:" + sha.toUpperCase()).orElseThrow())).isEqualTo(ARTIFACT);
+        assertThat(metrics.snapshot())
+                .containsEntry("artifact_cache_hit_total", 1L)
+                .containsEntry("artifact_cache_miss_total", 1L)
+                .containsEntry("artifact_cache_write_total", 1L);
+    }
+
+    @Test
+    void testCorruptFileIsDeletedAndMissed() throws Exception {
+        String sha = LocalArtifactCache.sha256Hex(ARTIFACT);
+        cache.write(sha, ARTIFACT);
+        Path file = dir.resolve("sha256").resolve(sha.substring(0, 2)).resolve(sha);
+        Files.write(file, "tampered".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.read(sha).isEmpty()).isTrue();
+        assertThat(Files.exists(file)).isFalse();
+        assertThat(metrics.snapshot()).containsEntry("artifact_cache_corrupt_total", 1L);
+    }
+
+    @Test
+    void testWriteLeavesNoTempFiles() throws Exception {
+        cache.write(LocalArtifactCache.sha256Hex(ARTIFACT), ARTIFACT);
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertThat(files.filter(Files::isRegularFile)
+                    .map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(".tmp-"))
+                    .count()).isZero();
+        }
+    }
+
+    @Test
+    void testPointerRoundTrip() {
+        String sha = LocalArtifactCache.sha256Hex(ARTIFACT);
+        cache.writePointer("rulesets/prod/US/CARD_AUTH", new LocalArtifactCache.Pointer(sha, 7));
+
+        assertThat(cache.readPointer("rulesets/prod/US/CARD_AUTH").orElse(null))
+                .isEqualTo(new LocalArtifactCache.Pointer(sha, 7));
+        assertThat(cache.readPointer("rulesets/prod/GB/CARD_AUTH").isEmpty()).isTrue();
+    }
+
+    @Test
+    void testUnsafePointerNamesAreIgnored() {
+        String sha = LocalArtifactCache.sha256Hex(ARTIFACT);
+        cache.writePointer("../escape", new LocalArtifactCache.Pointer(sha, 1));
+
+        assertThat(Files.exists(dir.resolve("escape.json"))).isFalse();
+        assertThat(cache.readPointer("../escape").isEmpty()).isTrue();
+    }
+
+    @Test
+    void testDisabledCacheIsANoOp() {
+        LocalArtifactCache disabled = new LocalArtifactCache();
+        disabled.directory = dir.toString();
+        disabled.init();
+        String sha = LocalArtifactCache.sha256Hex(ARTIFACT);
+
+        disabled.write(sha, ARTIFACT);
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.read(sha).isEmpty()).isTrue();
+        assertThat(Files.exists(dir.resolve("sha256"))).isFalse();
+    }
+}
@@ -7,16 +7,23 @@ import com.fraud.engine.engine.RuleEvaluator;
 import com.fraud.engine.kafka.DecisionPublisher;
 import com.fraud.engine.ruleset.RulesetRegistry;
 import com.fraud.engine.util.RulesetKeyResolver;
+import com.fraud.engine.util.WorkerThreads;
 import com.fraud.engine.velocity.VelocityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -44,7 +51,7 @@ class MonitoringOutboxWorkerTest {
 
         publisher = Mockito.mock(DecisionPublisher.class);
         ruleEvaluator = Mockito.mock(RuleEvaluator.class);
-        rulesetRegistry = Mockito.mock(RulesetRegistry.class);
+        rulesetRegistry = new RulesetRegistry();
         keyResolver = new RulesetKeyResolver();
         velocityService = Mockito.mock(VelocityService.class);
 
@@ -76,7 +83,7 @@ class MonitoringOutboxWorkerTest {
 
         Ruleset monitoringRuleset = new Ruleset("CARD_MONITORING", 1);
         monitoringRuleset.setEvaluationType(RuleEvaluator.EVAL_MONITORING);
-        when(rulesetRegistry.getRulesetWithFallback(any(), eq("CARD_MONITORING"))).thenReturn(monitoringRuleset);
+        rulesetRegistry.register("global", monitoringRuleset);
 
         Decision monitoringDecision = new Decision("txn-123", RuleEvaluator.EVAL_MONITORING);
         monitoringDecision.setDecision(Decision.DECISION_APPROVE);
@@ -109,7 +116,6 @@ class MonitoringOutboxWorkerTest {
         authDecision.setTransactionContext(tx.toEvaluationContext());
 
         OutboxEntry entry = new OutboxEntry("1-1", new OutboxEvent(tx, authDecision));
-        when(rulesetRegistry.getRulesetWithFallback(any(), eq("CARD_MONITORING"))).thenReturn(null);
 
         worker.processEntry(entry);
 
@@ -162,6 +168,64 @@ class MonitoringOutboxWorkerTest {
         verify(ruleEvaluator, never()).evaluate(any(TransactionContext.class), any(Ruleset.class), anyBoolean());
     }
 
+    @Test
+    void pollProcessesBatchEntriesOnVirtualThreads() throws Exception {
+        ExecutorService entryExecutor = WorkerThreads.newExecutor("outbox-test", 1, true);
+        setField(worker, "entryExecutor", entryExecutor);
+        try {
+            for (int i = 0; i < 3; i++) {
+                TransactionContext tx = new TransactionContext();
+                tx.setTransactionId("txn-vt-" + i);
+                tx.setTransactionType("AUTHORIZATION");
+                Decision authDecision = new Decision("txn-vt-" + i, RuleEvaluator.EVAL_MONITORING);
+                authDecision.setDecision(Decision.DECISION_APPROVE);
+                authDecision.setTransactionContext(tx.toEvaluationContext());
+                facade.append(new OutboxEvent(tx, authDecision));
+            }
+            Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+            doAnswer(invocation -> virtual.add(Thread.currentThread().isVirtual()))
+                    .when(publisher).publishDecisionAwait(any(Decision.class));
+
+            worker.poll();
+
+            verify(publisher, times(6)).publishDecisionAwait(any(Decision.class));
+            assertEquals(Set.of(true), virtual);
+        } finally {
+            entryExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void pollCapturesVelocitySnapshotsForTheBatchInOneCall() {
+        for (int i = 0; i < 3; i++) {
+            TransactionContext tx = new TransactionContext();
+            tx.setTransactionId("txn-snap-" + i);
+            tx.setTransactionType("AUTHORIZATION");
+            tx.setCardHash("card-" + i);
+            Decision authDecision = new Decision("txn-snap-" + i, RuleEvaluator.EVAL_MONITORING);
+            authDecision.setDecision(Decision.DECISION_APPROVE);
+            facade.append(new OutboxEvent(tx, authDecision));
+        }
+        when(velocityService.captureVelocitySnapshots(anyList())).thenAnswer(invocation -> {
+            List<TransactionContext> txs = invocation.getArgument(0);
+            return txs.stream()
+                    .map(tx -> Map.of("card_1h", new Decision.VelocityResult("card_hash", tx.getCardHash(), 2, 20, 3600)))
+                    .toList();
+        });
+        List<Decision> published = new ArrayList<>();
+        doAnswer(invocation -> published.add(invocation.getArgument(0)))
+                .when(publisher).publishDecisionAwait(any(Decision.class));
+
+        worker.poll();
+
+        verify(velocityService, times(1)).captureVelocitySnapshots(anyList());
+        verify(velocityService, never()).captureVelocitySnapshot(any());
+        assertEquals(6, published.size());
+        for (Decision decision : published) {
+            assertEquals(2, decision.getVelocitySnapshot().get("card_1h").getCount());
+        }
+    }
+
     private static void setField(Object target, String name, Object value) throws Exception {
         Field field = target.getClass().getDeclaredField(name);
         field.setAccessible(true);
@@ -0,0 +1,168 @@
+package com.fraud.engine.ruleset;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.TransactionContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the binary compiled-artifact format: JSON to binary to rules round trip.
+ */
+class BinaryRulesetFormatTest {
+
+    private static final String ARTIFACT = """
+            {"ruleset_key": "CARD_AUTH", "ruleset_version": 4, "ruleset_id": "rs-4",
+             "evaluation": {"mode": "FIRST_MATCH", "engine": "bytecode"}, "rule_type": "AUTH",
+             "rules": [
+               {"rule_id": "high_amount", "action": "DECLINE", "priority": 90, "rule_version": 2,
+                "scope": {"network": ["VISA", "MASTERCARD"]},
+                "velocity": {"dimension": "card_hash", "window_seconds": 60, "threshold": 3},
+                "condition": {"and": [
+                  {"field": "amount", "op": "GT", "value": 100},
+                  {"field": "country_code", "op": "IN", "values": ["US", "GB"]},
+                  {"op": "not", "args": [{"field": "amount", "op": "GTE", "value": 5000.5}]}
+                ]}},
+               {"rule_id": "gb_review", "action": "REVIEW", "priority": 10, "enabled": false,
+                "scope": {"network": ["MASTERCARD", "VISA"]},
+                "condition": {"or": [
+                  {"field": "amount", "op": "GT", "value": 100},
+                  {"field": "country_code", "op": "EQ", "value": "GB"}
+                ]}},
+               {"rule_id": "always", "action": "APPROVE"}
+             ]}
+            """;
+
+    private static ParsedArtifact parseJson(String json) throws Exception {
+        return new StreamingRulesetParser(new ObjectMapper())
+                .parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] toBinary(String json) throws Exception {
+        return RulesetArtifactConverter.toBinary(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static TransactionContext transaction(double amount, String country) {
+        TransactionContext transaction = new TransactionContext();
+        transaction.setAmount(BigDecimal.valueOf(amount));
+        transaction.setCountryCode(country);
+        return transaction;
+    }
+
+    @Test
+    void testRoundTripKeepsHeaderAndRules() throws Exception {
+        ParsedArtifact json = parseJson(ARTIFACT);
+        byte[] binary = toBinary(ARTIFACT);
+
+        assertThat(BinaryRulesetFormat.isBinary(ByteBuffer.wrap(binary))).isTrue();
+        ParsedArtifact decoded = BinaryRulesetReader.read(ByteBuffer.wrap(binary));
+
+        assertThat(decoded.rulesetKey()).isEqualTo("CARD_AUTH");
+        assertThat(decoded.version()).isEqualTo(4);
+        assertThat(decoded.rulesetId()).isEqualTo("rs-4");
+        assertThat(decoded.evaluationMode()).isEqualTo("FIRST_MATCH");
+        assertThat(decoded.evaluationEngine()).isEqualTo("bytecode");
+        assertThat(decoded.ruleType()).isEqualTo("AUTH");
+        assertThat(decoded.executionMode()).isNull();
+        assertThat(decoded.rules()).hasSize(3);
+
+        for (int i = 0; i < 3; i++) {
+            Rule expected = json.rules().get(i);
+            Rule actual = decoded.rules().get(i);
+            assertThat(actual.getId()).isEqualTo(expected.getId());
+            assertThat(actual.getAction()).isEqualTo(expected.getAction());
+            assertThat(actual.getPriority()).isEqualTo(expected.getPriority());
+            assertThat(actual.isEnabled()).isEqualTo(expected.isEnabled());
+            assertThat(actual.getRuleVersion()).isEqualTo(expected.getRuleVersion());
+            assertThat(actual.getScope()).isEqualTo(expected.getScope());
+            assertThat(actual.getConditions()).isEqualTo(expected.getConditions());
+        }
+
+        Rule first = decoded.rules().get(0);
+        assertThat(first.getConditionTree()).isInstanceOf(ConditionNode.And.class);
+        assertThat(first.getConditions().get(0).getValue()).isEqualTo(100);
+        assertThat(first.getConditions().get(1).getValues()).isEqualTo(List.of("US", "GB"));
+        assertThat(first.getConditions().get(2).getValue()).isEqualTo(5000.5);
+        assertThat(first.getVelocity().getDimension()).isEqualTo("card_hash");
+        assertThat(first.getVelocity().getWindowSeconds()).isEqualTo(60);
+        assertThat(first.getVelocity().getThreshold()).isEqualTo(3);
+        assertThat(first.getVelocity().getAction()).isEqualTo("DECLINE");
+        assertThat(decoded.rules().get(2).getConditionTree()).isEqualTo(ConditionNode.ALWAYS_TRUE);
+    }
+
+    @Test
+    void testDecodedConditionsEvaluateLikeJson() throws Exception {
+        ParsedArtifact json = parseJson(ARTIFACT);
+        ParsedArtifact decoded = BinaryRulesetReader.read(ByteBuffer.wrap(toBinary(ARTIFACT)));
+
+        List<TransactionContext> transactions = List.of(
+                transaction(150, "US"), transaction(150, "FR"), transaction(6000, "US"),
+                transaction(50, "GB"), transaction(50, "FR"));
+        for (int i = 0; i < json.rules().size(); i++) {
+            for (TransactionContext transaction : transactions) {
+                assertThat(decoded.rules().get(i).getCompiledCondition().matches(transaction))
+                        .isEqualTo(json.rules().get(i).getCompiledCondition().matches(transaction));
+            }
+        }
+    }
+
+    @Test
+    void testRepeatedPredicatesAndScopesAreShared() throws Exception {
+        ParsedArtifact decoded = BinaryRulesetReader.read(ByteBuffer.wrap(toBinary(ARTIFACT)));
+
+        Rule first = decoded.rules().get(0);
+        Rule second = decoded.rules().get(1);
+        // "amount GT 100" appears in both rules; the scope lists the same networks in another order
+        assertThat(second.getConditions().get(0)).isSameAs(first.getConditions().get(0));
+        assertThat(((ConditionNode.Or) second.getConditionTree()).children().get(0))
+                .isSameAs(((ConditionNode.And) first.getConditionTree()).children().get(0));
+        assertThat(second.getScope()).isSameAs(first.getScope());
+    }
+
+    @Test
+    void testReadsFromNonZeroPosition() throws Exception {
+        byte[] binary = toBinary(ARTIFACT);
+        ByteBuffer buffer = ByteBuffer.allocate(binary.length + 7);
+        buffer.position(7);
+        buffer.put(binary);
+        buffer.position(7);
+
+        assertThat(BinaryRulesetReader.read(buffer).rules()).hasSize(3);
+        assertThat(buffer.position()).isEqualTo(7);
+    }
+
+    @Test
+    void testRejectsUnsupportedMajorVersion() throws Exception {
+        byte[] binary = toBinary(ARTIFACT);
+        ByteBuffer.wrap(binary).putShort(4, (short) (BinaryRulesetFormat.MAJOR_VERSION + 1));
+
+        assertThatThrownBy(() -> BinaryRulesetReader.read(ByteBuffer.wrap(binary)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void testRejectsTruncatedArtifact() throws Exception {
+        byte[] binary = toBinary(ARTIFACT);
+        ByteBuffer truncated = ByteBuffer.wrap(binary, 0, binary.length - 10);
+
+        assertThatThrownBy(() -> BinaryRulesetReader.read(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testJsonIsNotMistakenForBinary() {
+        byte[] json = ARTIFACT.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(BinaryRulesetFormat.isBinary(ByteBuffer.wrap(json))).isFalse();
+    }
+}
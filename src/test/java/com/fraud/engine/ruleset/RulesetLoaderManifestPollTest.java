@@ -0,0 +1,115 @@
+package com.fraud.engine.ruleset;
+
+import com.fraud.engine.dto.RulesetManifest;
+import com.fraud.engine.util.EngineMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for conditional manifest polling used by auto-reload.
+ */
+@ExtendWith(MockitoExtension.class)
+class RulesetLoaderManifestPollTest {
+
+    private static final String US_MANIFEST = "rulesets/local/US/CARD_AUTH/manifest.json";
+
+    @Mock
+    S3Client s3Client;
+
+    private RulesetLoader loader;
+    private EngineMetrics metrics;
+    private final List<GetObjectRequest> requests = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        metrics = new EngineMetrics();
+        loader = new RulesetLoader();
+        loader.bucketName = "fraud-gov-artifacts";
+        loader.pathPrefix = "rulesets/";
+        loader.rulesetEnvironment = "local";
+        loader.engineMetrics = metrics;
+        var field = RulesetLoader.class.getDeclaredField("s3Client");
+        field.setAccessible(true);
+        field.set(loader, s3Client);
+    }
+
+    @Test
+    void testUnchangedManifestIsServedFromNotModified() {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            requests.add(request);
+            if (!US_MANIFEST.equals(request.key())) {
+                throw NoSuchKeyException.builder().message("missing").build();
+            }
+            if ("\"etag-3\"".equals(request.ifNoneMatch())) {
+                throw S3Exception.builder().statusCode(304).message("Not Modified").build();
+            }
+            return manifest(3, "\"etag-3\"");
+        });
+
+        RulesetManifest first = loader.pollManifest("US", "CARD_AUTH");
+        RulesetManifest second = loader.pollManifest("US", "CARD_AUTH");
+
+        assertThat(first.getRulesetVersion()).isEqualTo(3);
+        assertThat(second).isSameAs(first);
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).ifNoneMatch()).isNull();
+        assertThat(requests.get(1).ifNoneMatch()).isEqualTo("\"etag-3\"");
+        assertThat(metrics.snapshot())
+                .containsEntry("manifest_poll_total", 2L)
+                .containsEntry("manifest_poll_not_modified_total", 1L);
+    }
+
+    @Test
+    void testChangedManifestReplacesRememberedOne() {
+        int[] version = {3};
+        when(s3Client.getObject(any(GetObjectRequest.class)))
+                .thenAnswer(invocation -> manifest(version[0], "\"etag-" + version[0] + "\""));
+
+        assertThat(loader.pollManifest("US", "CARD_AUTH").getRulesetVersion()).isEqualTo(3);
+        version[0] = 4;
+
+        assertThat(loader.pollManifest("US", "CARD_AUTH").getRulesetVersion()).isEqualTo(4);
+    }
+
+    @Test
+    void testFallsBackToLegacyPath() {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            if (request.key().equals("rulesets/local/CARD_AUTH/manifest.json")) {
+                return manifest(2, "\"legacy\"");
+            }
+            throw NoSuchKeyException.builder().message("missing").build();
+        });
+
+        assertThat(loader.pollManifest("US", "CARD_AUTH").getRulesetVersion()).isEqualTo(2);
+    }
+
+    private static ResponseInputStream<GetObjectResponse> manifest(int version, String etag) {
+        String json = "{\"ruleset_key\":\"CARD_AUTH\",\"ruleset_version\":" + version
+                + ",\"artifact_uri\":\"s3://fraud-gov-artifacts/rulesets/local/US/CARD_AUTH/v" + version
+                + "/ruleset.json\"}";
+        return new ResponseInputStream<>(
+                GetObjectResponse.builder().eTag(etag).build(),
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))
+        );
+    }
+}
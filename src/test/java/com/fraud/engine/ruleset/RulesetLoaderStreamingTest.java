@@ -0,0 +1,175 @@
+package com.fraud.engine.ruleset;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.dto.RulesetManifest;
+import com.fraud.engine.loader.LocalArtifactCache;
+import com.fraud.engine.util.EngineMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for streaming artifact loads: checksum verified on the fly, cache written only
+ * for verified artifacts, load memory reported; binary artifacts preferred with JSON as
+ * the fallback.
+ */
+class RulesetLoaderStreamingTest {
+
+    private static final byte[] ARTIFACT = """
+            {"ruleset_key": "CARD_AUTH", "ruleset_version": 3,
+             "rules": [{"rule_id": "r1", "action": "DECLINE",
+                        "condition": {"field": "amount", "op": "GT", "value": 100}}]}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private Path dir;
+    private Path artifactFile;
+    private EngineMetrics metrics;
+    private LocalArtifactCache cache;
+    private RulesetLoader loader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("ruleset-streaming-test");
+        artifactFile = Files.write(dir.resolve("ruleset.json"), ARTIFACT);
+        metrics = new EngineMetrics();
+
+        cache = new LocalArtifactCache();
+        set(cache, "enabled", true);
+        set(cache, "directory", dir.resolve("cache").toString());
+        set(cache, "engineMetrics", metrics);
+        Method init = LocalArtifactCache.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(cache);
+
+        loader = new RulesetLoader();
+        loader.rulesetEnvironment = "local";
+        loader.engineMetrics = metrics;
+        loader.artifactCache = cache;
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private RulesetManifest manifest(String checksum) throws Exception {
+        String json = "{\"ruleset_key\":\"CARD_AUTH\",\"ruleset_version\":3,\"artifact_uri\":\""
+                + artifactFile.toUri() + "\",\"checksum\":\"" + checksum + "\"}";
+        return new ObjectMapper().readValue(json, RulesetManifest.class);
+    }
+
+    @Test
+    void testVerifiedArtifactIsParsedAndCached() throws Exception {
+        String sha = LocalArtifactCache.sha256Hex(ARTIFACT);
+
+        Optional<Ruleset> ruleset = loader.loadFromManifest("US", "CARD_AUTH", manifest("sha256:" + sha));
+
+        assertThat(ruleset.isPresent()).isTrue();
+        assertThat(ruleset.get().getVersion()).isEqualTo(3);
+        assertThat(ruleset.get().getRules()).hasSize(1);
+        assertThat(cache.read(sha).isPresent()).isTrue();
+        assertThat(cache.readPointer("rulesets/local/US/CARD_AUTH").orElse(null))
+                .isEqualTo(new LocalArtifactCache.Pointer(sha, 3));
+        assertThat(metrics.snapshot())
+                .containsEntry("artifact_cache_write_total", 1L)
+                .containsEntry("ruleset_load_artifact_bytes_max", (long) ARTIFACT.length);
+    }
+
+    @Test
+    void testChecksumMismatchLeavesNothingBehind() throws Exception {
+        String wrong = LocalArtifactCache.sha256Hex("other".getBytes(StandardCharsets.UTF_8));
+
+        Optional<Ruleset> ruleset = loader.loadFromManifest("US", "CARD_AUTH", manifest(wrong));
+
+        assertThat(ruleset.isEmpty()).isTrue();
+        assertThat(cache.readPointer("rulesets/local/US/CARD_AUTH").isEmpty()).isTrue();
+        try (Stream<Path> files = Files.walk(dir.resolve("cache"))) {
+            assertThat(files.filter(Files::isRegularFile).count()).isZero();
+        }
+    }
+
+    @Test
+    void testCorruptArtifactIsReportedAsChecksumMismatch() throws Exception {
+        String sha = LocalArtifactCache.sha256Hex(ARTIFACT);
+        Files.write(artifactFile, "{\"rules\": [".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(loader.loadFromManifest("US", "CARD_AUTH", manifest(sha)).isEmpty()).isTrue();
+        assertThat(metrics.snapshot()).containsEntry("artifact_cache_write_total", 0L);
+    }
+
+    private RulesetManifest binaryManifest(Path binaryFile, String binaryChecksum) throws Exception {
+        String json = "{\"ruleset_key\":\"CARD_AUTH\",\"ruleset_version\":3,\"artifact_uri\":\""
+                + artifactFile.toUri() + "\",\"checksum\":\"" + LocalArtifactCache.sha256Hex(ARTIFACT)
+                + "\",\"binary_artifact_uri\":\"" + binaryFile.toUri()
+                + "\",\"binary_checksum\":\"" + binaryChecksum + "\"}";
+        return new ObjectMapper().readValue(json, RulesetManifest.class);
+    }
+
+    @Test
+    void testBinaryArtifactIsPreferredAndCached() throws Exception {
+        byte[] binary = RulesetArtifactConverter.toBinary(new ByteArrayInputStream(ARTIFACT));
+        Path binaryFile = Files.write(dir.resolve("ruleset.bin"), binary);
+        String sha = LocalArtifactCache.sha256Hex(binary);
+
+        Optional<Ruleset> ruleset = loader.loadFromManifest("US", "CARD_AUTH",
+                binaryManifest(binaryFile, "sha256:" + sha));
+
+        assertThat(ruleset.isPresent()).isTrue();
+        assertThat(ruleset.get().getVersion()).isEqualTo(3);
+        assertThat(ruleset.get().getRules().get(0).getAction()).isEqualTo("DECLINE");
+        assertThat(cache.readPointer("rulesets/local/US/CARD_AUTH").orElse(null))
+                .isEqualTo(new LocalArtifactCache.Pointer(sha, 3));
+        assertThat(metrics.snapshot())
+                .containsEntry("ruleset_binary_load_total", 1L)
+                .containsEntry("ruleset_binary_fallback_total", 0L);
+
+        // Restart from the cache decodes the cached binary artifact
+        assertThat(loader.loadCachedRuleset("US", "CARD_AUTH").map(Ruleset::getVersion).orElse(null))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void testBinaryChecksumMismatchFallsBackToJson() throws Exception {
+        byte[] binary = RulesetArtifactConverter.toBinary(new ByteArrayInputStream(ARTIFACT));
+        Path binaryFile = Files.write(dir.resolve("ruleset.bin"), binary);
+        String wrong = LocalArtifactCache.sha256Hex("other".getBytes(StandardCharsets.UTF_8));
+
+        Optional<Ruleset> ruleset = loader.loadFromManifest("US", "CARD_AUTH", binaryManifest(binaryFile, wrong));
+
+        assertThat(ruleset.isPresent()).isTrue();
+        assertThat(cache.readPointer("rulesets/local/US/CARD_AUTH").orElse(null))
+                .isEqualTo(new LocalArtifactCache.Pointer(LocalArtifactCache.sha256Hex(ARTIFACT), 3));
+        assertThat(metrics.snapshot())
+                .containsEntry("ruleset_binary_load_total", 0L)
+                .containsEntry("ruleset_binary_fallback_total", 1L);
+    }
+
+    @Test
+    void testBinaryArtifactsCanBeDisabled() throws Exception {
+        loader.binaryArtifactsEnabled = false;
+        Path missing = dir.resolve("missing.bin");
+
+        assertThat(loader.loadFromManifest("US", "CARD_AUTH", binaryManifest(missing, "")).isPresent()).isTrue();
+        assertThat(metrics.snapshot()).containsEntry("ruleset_binary_fallback_total", 0L);
+    }
+
+    @Test
+    void testLoadRulesetFromFileStreams() throws Exception {
+        Ruleset ruleset = loader.loadRulesetFromFile(artifactFile.toString(), "HINT");
+
+        assertThat(ruleset.getKey()).isEqualTo("CARD_AUTH");
+        assertThat(ruleset.getRules().get(0).getAction()).isEqualTo("DECLINE");
+    }
+}
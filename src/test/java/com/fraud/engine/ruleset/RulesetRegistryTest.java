@@ -0,0 +1,365 @@
+package com.fraud.engine.ruleset;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.dto.FieldRegistryArtifact;
+import com.fraud.engine.dto.RulesetManifest;
+import com.fraud.engine.loader.FieldRegistryLoader;
+import com.fraud.engine.service.FieldRegistryService;
+import com.fraud.engine.service.FieldRegistrySnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RulesetRegistry lookups over immutable snapshots.
+ */
+class RulesetRegistryTest {
+
+    /**
+     * Loader that counts country-path fetches and holds them until released. Its legacy
+     * path always has a ruleset, which lazy loads must not pick up.
+     */
+    private static final class BlockingLoader extends RulesetLoader {
+        final AtomicInteger fetches = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Map<String, Ruleset> available;
+        volatile RuntimeException failure;
+
+        BlockingLoader(Map<String, Ruleset> available) {
+            this.available = available;
+        }
+
+        @Override
+        public Optional<Ruleset> loadLatestCountryRuleset(String country, String rulesetKey) {
+            fetches.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return Optional.ofNullable(available.get(country + "/" + rulesetKey));
+        }
+
+        @Override
+        public Optional<Ruleset> loadLatestCompiledRuleset(String country, String rulesetKey) {
+            return Optional.of(new Ruleset(rulesetKey, 99));
+        }
+    }
+
+    private static RulesetRegistry lazyRegistry(RulesetLoader loader) {
+        RulesetRegistry registry = new RulesetRegistry();
+        registry.loader = loader;
+        registry.lazyLoadEnabled = true;
+        registry.init();
+        return registry;
+    }
+
+    @Test
+    void testFallbackResolvesCountryThenGlobal() {
+        RulesetRegistry registry = new RulesetRegistry();
+        Ruleset global = new Ruleset("CARD_MONITORING", 1);
+        Ruleset globalAuth = new Ruleset("CARD_AUTH", 1);
+        Ruleset us = new Ruleset("CARD_MONITORING", 2);
+        registry.register("global", global);
+        registry.register("global", globalAuth);
+        registry.register("US", us);
+
+        assertThat(registry.getRulesetWithFallback("us", "CARD_MONITORING")).isSameAs(us);
+        assertThat(registry.getRulesetWithFallback("US", "CARD_AUTH")).isSameAs(globalAuth);
+        assertThat(registry.getRulesetWithFallback("FR", "CARD_MONITORING")).isSameAs(global);
+        assertThat(registry.getRulesetWithFallback(null, "CARD_MONITORING")).isSameAs(global);
+        assertThat(registry.getRulesetWithFallback("GLOBAL", "CARD_MONITORING")).isSameAs(global);
+        assertThat(registry.getRulesetWithFallback("US", "UNKNOWN")).isNull();
+        assertThat(registry.getRuleset("US", "CARD_AUTH")).isNull();
+        assertThat(registry.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterWrites() {
+        RulesetRegistry registry = new RulesetRegistry();
+        Ruleset v1 = new Ruleset("CARD_MONITORING", 1);
+        registry.register("US", v1);
+        RegistrySnapshot before = registry.snapshot();
+
+        registry.register("US", new Ruleset("CARD_MONITORING", 2));
+        registry.invalidate("US", "CARD_MONITORING");
+
+        assertThat(before.getRulesetWithFallback("US", "CARD_MONITORING")).isSameAs(v1);
+        assertThat(registry.getRuleset("US", "CARD_MONITORING")).isNull();
+        assertThat(registry.getCountries()).isEmpty();
+    }
+
+    @Test
+    void testPublishSwapsRulesetsAndFieldRegistryTogether() {
+        RulesetRegistry registry = new RulesetRegistry();
+        FieldRegistryService fieldRegistryService = new FieldRegistryService(new FieldRegistryLoader());
+        registry.fieldRegistryService = fieldRegistryService;
+        FieldRegistrySnapshot fieldsV1 = FieldRegistrySnapshot.of(new FieldRegistryLoader().loadBuiltin());
+        FieldRegistrySnapshot fieldsV2 = FieldRegistrySnapshot.of(
+                new FieldRegistryArtifact(1, 2, List.of(), null, Instant.now(), "test"));
+        registry.register("global", new Ruleset("CARD_MONITORING", 1));
+        registry.register("US", new Ruleset("CARD_AUTH", 1));
+        registry.setFieldRegistry(fieldsV1);
+        Ruleset monitoringV2 = new Ruleset("CARD_MONITORING", 2);
+
+        registry.publish(fieldsV2, Map.of("global", Map.of("CARD_MONITORING", monitoringV2)));
+
+        RegistrySnapshot snapshot = registry.snapshot();
+        assertThat(snapshot.fieldRegistry()).isSameAs(fieldsV2);
+        assertThat(snapshot.fieldRegistryVersion()).isEqualTo(2);
+        assertThat(snapshot.getRulesetWithFallback("US", "CARD_MONITORING")).isSameAs(monitoringV2);
+        assertThat(snapshot.getRuleset("US", "CARD_AUTH").getVersion()).isEqualTo(1);
+        // publish() is what installs the field registry
+        assertThat(fieldRegistryService.current()).isSameAs(fieldsV2);
+
+        RulesetRegistry.RulesetLookup lookup = registry.lookup("US", "CARD_MONITORING");
+        assertThat(lookup.ruleset()).isSameAs(monitoringV2);
+        assertThat(lookup.fieldRegistry()).isSameAs(fieldsV2);
+    }
+
+    @Test
+    void testLoadCompiledAcrossFieldRegistryReloadIsCompiledAgain() {
+        RulesetRegistry registry = new RulesetRegistry();
+        registry.fieldRegistryService = new FieldRegistryService(new FieldRegistryLoader());
+        FieldRegistrySnapshot fieldsV2 = FieldRegistrySnapshot.of(
+                new FieldRegistryArtifact(1, 2, List.of(), null, Instant.now(), "test"));
+        AtomicInteger compiles = new AtomicInteger();
+        registry.loader = new RulesetLoader() {
+            @Override
+            public Optional<Ruleset> loadCompiledRuleset(String rulesetKey, int version) {
+                if (compiles.incrementAndGet() == 1) {
+                    // A hot reload publishes another field registry while this one compiles
+                    registry.publish(fieldsV2, Map.of());
+                }
+                Ruleset compiled = new Ruleset(rulesetKey, version);
+                compiled.setFieldRegistryVersion(compiles.get());
+                return Optional.of(compiled);
+            }
+        };
+
+        assertThat(registry.loadAndRegister("US", "CARD_AUTH", 3)).isTrue();
+
+        assertThat(compiles.get()).isEqualTo(2);
+        assertThat(registry.snapshot().fieldRegistry()).isSameAs(fieldsV2);
+        assertThat(registry.getRuleset("US", "CARD_AUTH").getFieldRegistryVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void testClearCountryKeepsOtherNamespaces() {
+        RulesetRegistry registry = new RulesetRegistry();
+        registry.register("global", new Ruleset("CARD_MONITORING", 1));
+        registry.register("US", new Ruleset("CARD_MONITORING", 2));
+
+        registry.clearCountry("US");
+
+        assertThat(registry.getCountries()).containsExactly("global");
+        assertThat(registry.getRulesetWithFallback("US", "CARD_MONITORING").getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void testLookupServesGlobalFallbackWhileOneLoadRuns() throws Exception {
+        Ruleset fr = new Ruleset("CARD_MONITORING", 3);
+        BlockingLoader loader = new BlockingLoader(Map.of("FR/CARD_MONITORING", fr));
+        RulesetRegistry registry = lazyRegistry(loader);
+        Ruleset global = new Ruleset("CARD_MONITORING", 1);
+        registry.register("global", global);
+
+        for (int i = 0; i < 10; i++) {
+            RulesetRegistry.RulesetLookup lookup = registry.lookup("fr", "CARD_MONITORING");
+            assertThat(lookup.ruleset()).isSameAs(global);
+            assertThat(lookup.fallback()).isTrue();
+        }
+        CompletableFuture<Ruleset> load = registry.loadLatestAsync("FR", "CARD_MONITORING");
+        loader.release.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).isSameAs(fr);
+        assertThat(loader.fetches.get()).isEqualTo(1);
+        RulesetRegistry.RulesetLookup loaded = registry.lookup("FR", "CARD_MONITORING");
+        assertThat(loaded.ruleset()).isSameAs(fr);
+        assertThat(loaded.fallback()).isFalse();
+        registry.destroy();
+    }
+
+    @Test
+    void testMissingCountryIsNotRefetchedBeforeRetryInterval() throws Exception {
+        BlockingLoader loader = new BlockingLoader(Map.of());
+        loader.release.countDown();
+        RulesetRegistry registry = lazyRegistry(loader);
+        registry.register("global", new Ruleset("CARD_MONITORING", 1));
+
+        assertThat(registry.loadLatestAsync("DE", "CARD_MONITORING").get(5, TimeUnit.SECONDS)).isNull();
+        for (int i = 0; i < 5; i++) {
+            assertThat(registry.lookup("DE", "CARD_MONITORING").fallback()).isTrue();
+        }
+
+        assertThat(registry.loadLatestAsync("DE", "CARD_MONITORING").get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(loader.fetches.get()).isEqualTo(1);
+        // The legacy-path ruleset is not registered under the country
+        assertThat(registry.getRuleset("DE", "CARD_MONITORING")).isNull();
+        assertThat(registry.lookup("DE", "CARD_MONITORING").ruleset().getVersion()).isEqualTo(1);
+        registry.destroy();
+    }
+
+    @Test
+    void testFailedLoadIsNotRetriedBeforeRetryInterval() throws Exception {
+        BlockingLoader loader = new BlockingLoader(Map.of());
+        loader.failure = new IllegalStateException("checksum mismatch");
+        loader.release.countDown();
+        RulesetRegistry registry = lazyRegistry(loader);
+        registry.register("global", new Ruleset("CARD_MONITORING", 1));
+
+        CompletableFuture<Ruleset> failed = registry.loadLatestAsync("DE", "CARD_MONITORING");
+        assertThat(failed.handle((ruleset, e) -> e).get(5, TimeUnit.SECONDS)).isNotNull();
+        for (int i = 0; i < 5; i++) {
+            assertThat(registry.lookup("DE", "CARD_MONITORING").fallback()).isTrue();
+        }
+
+        assertThat(registry.loadLatestAsync("DE", "CARD_MONITORING").get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(loader.fetches.get()).isEqualTo(1);
+        registry.destroy();
+    }
+
+    @Test
+    void testLookupWithoutCountryIsNotFallback() {
+        RulesetRegistry registry = new RulesetRegistry();
+        Ruleset global = new Ruleset("CARD_MONITORING", 1);
+        registry.register("global", global);
+
+        assertThat(registry.lookup(null, "CARD_MONITORING").fallback()).isFalse();
+        assertThat(registry.lookup("US", "CARD_MONITORING").fallback()).isTrue();
+        assertThat(registry.lookup("US", "UNKNOWN").fallback()).isFalse();
+    }
+
+    @Test
+    void testBulkLoadRunsSpecsInParallelAndOnce() {
+        AtomicInteger fetches = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch overlap = new CountDownLatch(2);
+        RulesetRegistry registry = new RulesetRegistry();
+        registry.bulkLoadMaxConcurrency = 4;
+        registry.loader = new RulesetLoader() {
+            @Override
+            public Optional<Ruleset> loadCompiledRuleset(String rulesetKey, int version) {
+                fetches.incrementAndGet();
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                overlap.countDown();
+                try {
+                    overlap.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return "MISSING".equals(rulesetKey) ? Optional.empty() : Optional.of(new Ruleset(rulesetKey, version));
+            }
+        };
+
+        int loaded = registry.bulkLoad(List.of(
+                RulesetRegistry.RulesetSpec.of("CARD_AUTH", 1, "US"),
+                RulesetRegistry.RulesetSpec.of("CARD_AUTH", 1, "US"),
+                RulesetRegistry.RulesetSpec.of("CARD_AUTH", 1, "GB"),
+                RulesetRegistry.RulesetSpec.of("MISSING", 1)));
+
+        assertThat(loaded).isEqualTo(2);
+        assertThat(fetches.get()).isEqualTo(3);
+        assertThat(peak.get()).isGreaterThan(1);
+        assertThat(registry.getRuleset("US", "CARD_AUTH")).isNotNull();
+        assertThat(registry.getRuleset("GB", "CARD_AUTH")).isNotNull();
+    }
+
+    @Test
+    void testStartsFromLocalCacheThenSwapsInRevalidatedRuleset() throws Exception {
+        CountDownLatch revalidated = new CountDownLatch(1);
+        AtomicInteger s3Loads = new AtomicInteger();
+        RulesetRegistry registry = new RulesetRegistry();
+        registry.loader = new RulesetLoader() {
+            @Override
+            public boolean isLocalCacheEnabled() {
+                return true;
+            }
+
+            @Override
+            public Optional<Ruleset> loadCachedRuleset(String country, String rulesetKey) {
+                return Optional.of(new Ruleset(rulesetKey, 1));
+            }
+
+            @Override
+            public Optional<Ruleset> loadLatestIfChanged(String country, String rulesetKey) {
+                revalidated.countDown();
+                return Optional.of(new Ruleset(rulesetKey, 2));
+            }
+
+            @Override
+            public Optional<Ruleset> loadLatestCompiledRuleset(String country, String rulesetKey) {
+                s3Loads.incrementAndGet();
+                return Optional.empty();
+            }
+        };
+        registry.init();
+        try {
+            Ruleset started = registry.getOrLoadLatest("US", "CARD_AUTH");
+
+            assertThat(started.getVersion()).isEqualTo(1);
+            assertThat(revalidated.await(5, TimeUnit.SECONDS)).isTrue();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (registry.getRuleset("US", "CARD_AUTH").getVersion() != 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(registry.getRuleset("US", "CARD_AUTH").getVersion()).isEqualTo(2);
+            assertThat(s3Loads.get()).isZero();
+        } finally {
+            registry.destroy();
+        }
+    }
+
+    @Test
+    void testAutoReloadDownloadsOnlyWhenCountryManifestVersionChanges() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, RulesetManifest> manifests = Map.of(
+                "US/CARD_AUTH", mapper.readValue("{\"ruleset_version\":2,\"artifact_uri\":\"s3://b/us\"}",
+                        RulesetManifest.class),
+                "GB/CARD_AUTH", mapper.readValue("{\"ruleset_version\":1,\"artifact_uri\":\"s3://b/gb\"}",
+                        RulesetManifest.class));
+        List<String> downloads = new java.util.ArrayList<>();
+        RulesetRegistry registry = new RulesetRegistry();
+        registry.loader = new RulesetLoader() {
+            @Override
+            public RulesetManifest pollManifest(String country, String rulesetKey) {
+                return manifests.get(country + "/" + rulesetKey);
+            }
+
+            @Override
+            public Optional<Ruleset> loadFromManifest(String country, String rulesetKey, RulesetManifest manifest) {
+                downloads.add(country + "/" + rulesetKey);
+                Ruleset ruleset = new Ruleset(rulesetKey, manifest.getRulesetVersion());
+                ruleset.addRule(new Rule("rule-1", "Rule 1", "REVIEW"));
+                return Optional.of(ruleset);
+            }
+        };
+        registry.register("US", new Ruleset("CARD_AUTH", 1));
+        registry.register("GB", new Ruleset("CARD_AUTH", 1));
+        registry.register("FR", new Ruleset("CARD_AUTH", 1));
+
+        registry.checkForUpdates();
+
+        assertThat(downloads).containsExactly("US/CARD_AUTH");
+        assertThat(registry.getRuleset("US", "CARD_AUTH").getVersion()).isEqualTo(2);
+        assertThat(registry.getRuleset("GB", "CARD_AUTH").getVersion()).isEqualTo(1);
+        assertThat(registry.getRuleset("FR", "CARD_AUTH").getVersion()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,146 @@
+package com.fraud.engine.ruleset;
+
+import com.fraud.engine.domain.Decision;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.RuleScope;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.engine.RuleEvaluator;
+import com.fraud.engine.util.EngineMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for pre-swap ruleset warm-up.
+ */
+class RulesetWarmerTest {
+
+    /** Records what it is asked to evaluate instead of evaluating. */
+    private static final class RecordingEvaluator extends RuleEvaluator {
+        final List<Ruleset> rulesets = new ArrayList<>();
+        final List<TransactionContext> transactions = new ArrayList<>();
+        int liveEvaluations;
+        boolean fail;
+
+        @Override
+        public Decision evaluateWarmup(TransactionContext transaction, Ruleset ruleset) {
+            if (fail) {
+                throw new IllegalStateException("boom");
+            }
+            rulesets.add(ruleset);
+            transactions.add(transaction);
+            return new Decision(transaction.getTransactionId(), "MONITORING");
+        }
+
+        @Override
+        public Decision evaluate(TransactionContext transaction, Ruleset ruleset, boolean replayMode) {
+            liveEvaluations++;
+            return new Decision(transaction.getTransactionId(), "MONITORING");
+        }
+    }
+
+    private RecordingEvaluator evaluator;
+    private EngineMetrics metrics;
+    private RulesetWarmer warmer;
+
+    @BeforeEach
+    void setUp() {
+        evaluator = new RecordingEvaluator();
+        metrics = new EngineMetrics();
+        warmer = new RulesetWarmer();
+        warmer.ruleEvaluator = evaluator;
+        warmer.engineMetrics = metrics;
+        warmer.sampleSize = 20;
+        warmer.passes = 3;
+    }
+
+    private static Ruleset ruleset(int version) {
+        Ruleset ruleset = new Ruleset("CARD_AUTH", version);
+        Rule visa = new Rule("visa", "visa", "REVIEW");
+        visa.setScope(RuleScope.network("VISA"));
+        ruleset.setRules(List.of(visa, new Rule("global", "global", "APPROVE")));
+        return ruleset;
+    }
+
+    @Test
+    void testSeedsScopeCacheAndReplaysSample() {
+        Ruleset outgoing = ruleset(1);
+        outgoing.getApplicableRules("VISA", "411111", null, null);
+        outgoing.getApplicableRules("MASTERCARD", null, "5411", null);
+        Ruleset candidate = ruleset(2);
+
+        RulesetWarmer.WarmupReport report = warmer.warm(candidate, outgoing);
+
+        assertThat(report.scopeKeys()).isEqualTo(2);
+        assertThat(candidate.hottestScopeKeys(10)).hasSize(2);
+        assertThat(report.transactions()).isEqualTo(20);
+        assertThat(report.passes()).isEqualTo(3);
+        assertThat(report.coldMeanNanos()).isGreaterThanOrEqualTo(0);
+        assertThat(report.baselineMeanNanos()).isGreaterThanOrEqualTo(0);
+        assertThat(report.latencyDeltaNanos()).isEqualTo(report.warmMeanNanos() - report.baselineMeanNanos());
+
+        // 3 passes on the candidate, then one baseline pass on the outgoing version
+        assertThat(evaluator.rulesets).hasSize(80);
+        assertThat(evaluator.rulesets.subList(0, 60).stream().allMatch(r -> r == candidate)).isTrue();
+        assertThat(evaluator.rulesets.subList(60, 80).stream().allMatch(r -> r == outgoing)).isTrue();
+        // Only the warm-up path (velocity stubbed, no adaptive sampling) is used
+        assertThat(evaluator.liveEvaluations).isZero();
+        // Synthetic transactions cycle through the hot scope keys
+        assertThat(evaluator.transactions).extracting(TransactionContext::getCardNetwork)
+                .contains("VISA", "MASTERCARD");
+        assertThat(metrics.snapshot()).containsEntry("ruleset_warmup_total", 1L);
+    }
+
+    @Test
+    void testFirstVersionHasNoBaseline() {
+        RulesetWarmer.WarmupReport report = warmer.warm(ruleset(1), null);
+
+        assertThat(report.scopeKeys()).isZero();
+        assertThat(report.baselineMeanNanos()).isEqualTo(-1);
+        assertThat(report.latencyDeltaNanos()).isZero();
+        assertThat(evaluator.rulesets).hasSize(60);
+    }
+
+    @Test
+    void testRecordedSampleIsUsedWhenConfigured() throws Exception {
+        Path file = Files.createTempFile("warmup-sample", ".json");
+        Files.writeString(file, """
+                [{"transaction_id": "rec-1", "amount": 10, "card_network": "AMEX", "unknown_field": 1},
+                 {"transaction_id": "rec-2", "amount": 20}]
+                """);
+        warmer.sampleFile = Optional.of(file.toString());
+        warmer.passes = 1;
+
+        RulesetWarmer.WarmupReport report = warmer.warm(ruleset(2), null);
+
+        assertThat(report.transactions()).isEqualTo(2);
+        assertThat(evaluator.transactions).extracting(TransactionContext::getTransactionId)
+                .containsExactly("rec-1", "rec-2");
+    }
+
+    @Test
+    void testDisabledOrFailingWarmupDoesNotBlockSwap() {
+        warmer.enabled = false;
+        assertThat(warmer.warm(ruleset(2), ruleset(1))).isEqualTo(RulesetWarmer.WarmupReport.SKIPPED);
+        assertThat(evaluator.rulesets).isEmpty();
+
+        warmer.enabled = true;
+        evaluator.fail = true;
+        assertThat(warmer.warm(ruleset(2), ruleset(1))).isEqualTo(RulesetWarmer.WarmupReport.SKIPPED);
+    }
+
+    @Test
+    void testTimeBudgetStopsAfterAPass() {
+        warmer.maxDurationMs = 0;
+
+        assertThat(warmer.warm(ruleset(2), null).passes()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,159 @@
+package com.fraud.engine.ruleset;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fraud.engine.domain.Condition;
+import com.fraud.engine.domain.ConditionNode;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.TransactionContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the token-level compiled-artifact parser.
+ */
+class StreamingRulesetParserTest {
+
+    private final StreamingRulesetParser parser = new StreamingRulesetParser(new ObjectMapper());
+
+    private ParsedArtifact parse(String json) throws IOException {
+        return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static TransactionContext transaction(double amount, String country) {
+        TransactionContext transaction = new TransactionContext();
+        transaction.setAmount(BigDecimal.valueOf(amount));
+        transaction.setCountryCode(country);
+        return transaction;
+    }
+
+    @Test
+    void testHeaderFieldsMayFollowRules() throws Exception {
+        ParsedArtifact parsed = parse("""
+                {"rules": [{"rule_id": "r1", "action": "decline"}],
+                 "evaluation": {"mode": "ALL_MATCHING", "engine": "bytecode"},
+                 "rulesetKey": "LEGACY", "ruleset_key": "CARD_AUTH",
+                 "ruleset_version": 7, "ruleset_id": "rs-1", "rule_type": "AUTH"}
+                """);
+
+        assertThat(parsed.rulesetKey()).isEqualTo("CARD_AUTH");
+        assertThat(parsed.version()).isEqualTo(7);
+        assertThat(parsed.rulesetId()).isEqualTo("rs-1");
+        assertThat(parsed.evaluationMode()).isEqualTo("ALL_MATCHING");
+        assertThat(parsed.evaluationEngine()).isEqualTo("bytecode");
+        assertThat(parsed.ruleType()).isEqualTo("AUTH");
+        assertThat(parsed.rules()).hasSize(1);
+        assertThat(parsed.rules().get(0).getAction()).isEqualTo("DECLINE");
+    }
+
+    @Test
+    void testBuildsCompiledConditionTree() throws Exception {
+        ParsedArtifact parsed = parse("""
+                {"rules": [{
+                  "condition": {"and": [
+                    {"field": "amount", "op": "GT", "value": 100},
+                    {"type": "condition", "operator": "IN", "field": "country_code", "values": ["US", "GB"]},
+                    {"op": "not", "args": [{"field": "amount", "op": "GTE", "value": 5000.5}]}
+                  ]},
+                  "rule_id": "r1", "priority": 10, "enabled": "false"
+                }]}
+                """);
+
+        Rule rule = parsed.rules().get(0);
+        assertThat(rule.getPriority()).isEqualTo(10);
+        assertThat(rule.isEnabled()).isFalse();
+        assertThat(rule.getConditionTree()).isInstanceOf(ConditionNode.And.class);
+
+        List<Condition> leaves = rule.getConditions();
+        assertThat(leaves).hasSize(3);
+        assertThat(leaves.get(0).getValue()).isEqualTo(100);
+        assertThat(leaves.get(1).getValues()).isEqualTo(List.of("US", "GB"));
+        assertThat(leaves.get(2).getValue()).isEqualTo(5000.5);
+
+        assertThat(rule.getCompiledCondition().matches(transaction(150, "US"))).isTrue();
+        assertThat(rule.getCompiledCondition().matches(transaction(150, "FR"))).isFalse();
+        assertThat(rule.getCompiledCondition().matches(transaction(6000, "US"))).isFalse();
+    }
+
+    @Test
+    void testWhenIsUsedOnlyWithoutCondition() throws Exception {
+        ParsedArtifact parsed = parse("""
+                {"rules": [
+                  {"rule_id": "r1", "condition": null, "when": {"field": "amount", "op": "LT", "value": 10}},
+                  {"rule_id": "r2", "when": {"field": "amount", "op": "LT", "value": 10},
+                   "condition": {"field": "amount", "op": "GT", "value": 10}}
+                ]}
+                """);
+
+        assertThat(parsed.rules().get(0).getCompiledCondition().matches(transaction(5, "US"))).isTrue();
+        assertThat(parsed.rules().get(1).getCompiledCondition().matches(transaction(5, "US"))).isFalse();
+    }
+
+    @Test
+    void testSkipsUnknownKeysAndInvalidRules() throws Exception {
+        ParsedArtifact parsed = parse("""
+                {"metadata": {"nested": [1, {"rules": []}]},
+                 "rules": [
+                   "not-a-rule",
+                   {"priority": 1},
+                   {"rule_id": "r1", "description": {"text": "kept"}, "tags": ["a", "b"],
+                    "action": {"decision": "review"}}
+                 ]}
+                """);
+
+        assertThat(parsed.rules()).hasSize(1);
+        assertThat(parsed.rules().get(0).getId()).isEqualTo("r1");
+        assertThat(parsed.rules().get(0).getAction()).isEqualTo("REVIEW");
+    }
+
+    @Test
+    void testVelocityDefaultsToRuleAction() throws Exception {
+        ParsedArtifact parsed = parse("""
+                {"rules": [{"rule_id": "r1", "action": "DECLINE",
+                  "velocity": {"dimension": "card_hash", "window_seconds": 60, "threshold": 3}}]}
+                """);
+
+        Rule rule = parsed.rules().get(0);
+        assertThat(rule.getVelocity().getWindowSeconds()).isEqualTo(60);
+        assertThat(rule.getVelocity().getThreshold()).isEqualTo(3);
+        assertThat(rule.getVelocity().getAction()).isEqualTo("DECLINE");
+    }
+
+    @Test
+    void testLeavesStreamOpenForDraining() throws Exception {
+        byte[] bytes = "{\"rules\": []}   \n".getBytes(StandardCharsets.UTF_8);
+        boolean[] closed = {false};
+        InputStream in = new ByteArrayInputStream(bytes) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        assertThat(parser.parse(in).rules()).isEmpty();
+        assertThat(closed[0]).isFalse();
+    }
+
+    @Test
+    void testEmptyAndNonObjectArtifacts() throws Exception {
+        assertThat(parse("  ")).isNull();
+        assertThatThrownBy(() -> parse("[]")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testUnsupportedRegexNamesTheRule() {
+        assertThatThrownBy(() -> parse("""
+                {"rules": [{"rule_id": "bad", "condition": {"field": "email", "op": "REGEX", "value": "(a"}}]}
+                """))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("bad");
+    }
+}
@@ -123,6 +123,31 @@ class FieldRegistryServiceTest {
         assertThat(service.getFieldCount()).isEqualTo(1);
     }
 
+    @Test
+    void testPrepareDoesNotInstallUntilAsked() {
+        List<FieldRegistryEntry> fields = List.of(
+                new FieldRegistryEntry(900, "new_field", "New", "New field",
+                        "STRING", List.of("EQ"), false, false)
+        );
+        when(mockLoader.loadLatest()).thenReturn(new FieldRegistryArtifact(
+                1, 2, fields, null, Instant.now(), "test"
+        ));
+
+        FieldRegistrySnapshot candidate = service.prepare();
+
+        assertThat(candidate.version()).isEqualTo(2);
+        assertThat(service.getRegistryVersion()).isEqualTo(1);
+        assertThat(service.getFieldId("new_field")).isEqualTo(FieldRegistry.UNKNOWN);
+        // Compilation against the candidate sees its fields before it is live
+        assertThat(service.compileAgainst(candidate, () -> service.getFieldId("NEW_FIELD"))).isEqualTo(900);
+        assertThat(service.getFieldId("new_field")).isEqualTo(FieldRegistry.UNKNOWN);
+
+        service.install(candidate);
+
+        assertThat(service.current()).isSameAs(candidate);
+        assertThat(service.getFieldId("new_field")).isEqualTo(900);
+    }
+
     @Test
     void testGetRegistryVersion() {
         // Builtin registry has version 1
@@ -1,6 +1,8 @@
 package com.fraud.engine.service;
 
+import com.fraud.engine.domain.Rule;
 import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.dto.FieldRegistryArtifact;
 import com.fraud.engine.dto.FieldRegistryManifest;
 import com.fraud.engine.dto.RulesetManifest;
 import com.fraud.engine.loader.FieldRegistryLoader;
@@ -15,12 +17,18 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -125,26 +133,28 @@ class HotReloadCoordinatorTest {
 
     @Test
     void performCoordinatedReloadUpdatesTrackedVersionAndSwapsRuleset() {
-        doNothing().when(fieldRegistryService).reload();
-        when(fieldRegistryService.getRegistryVersion()).thenReturn(2);
+        FieldRegistrySnapshot fieldRegistry = preparedRegistry(2);
 
         Ruleset current = new Ruleset("CARD_AUTH", 1);
-        Ruleset latest = new Ruleset("CARD_AUTH", 2);
+        RulesetManifest latest = org.mockito.Mockito.mock(RulesetManifest.class);
+        when(latest.getRulesetVersion()).thenReturn(2);
         Ruleset rulesetV2 = new Ruleset("CARD_AUTH", 2);
         rulesetV2.setFieldRegistryVersion(2);
+        rulesetV2.addRule(new Rule("rule-1", "Rule 1", "REVIEW"));
 
         when(rulesetRegistry.getCountries()).thenReturn(Set.of("global"));
         when(rulesetRegistry.getRulesetKeys("global")).thenReturn(Set.of("CARD_AUTH"));
         when(rulesetRegistry.getRuleset("global", "CARD_AUTH")).thenReturn(current);
-        when(rulesetLoader.loadLatestCompiledRuleset("CARD_AUTH")).thenReturn(Optional.of(latest));
-        when(rulesetLoader.loadCompiledRuleset("CARD_AUTH", 2)).thenReturn(Optional.of(rulesetV2));
-        when(rulesetRegistry.hotSwap("global", "CARD_AUTH", 2))
-                .thenReturn(new RulesetRegistry.HotSwapResult(true, "SUCCESS", "ok", 1));
+        when(rulesetLoader.pollManifest("global", "CARD_AUTH")).thenReturn(latest);
+        when(rulesetLoader.loadFromManifest("global", "CARD_AUTH", latest)).thenReturn(Optional.of(rulesetV2));
 
         invokePrivate("performCoordinatedReload", new Class[]{int.class}, 2);
 
         assertThat(coordinator.getFieldRegistryVersion()).isEqualTo(2);
-        verify(rulesetRegistry).hotSwap("global", "CARD_AUTH", 2);
+        verify(rulesetRegistry).publish(fieldRegistry, Map.of("global", Map.of("CARD_AUTH", rulesetV2)));
+        // The coordinator never installs the registry itself; publish() does
+        verify(fieldRegistryService, never()).install(any());
+        verify(fieldRegistryService, never()).reload();
     }
 
     @Test
@@ -167,16 +177,16 @@ class HotReloadCoordinatorTest {
         when(rulesetManifest.getFieldRegistryVersion()).thenReturn(2);
 
         Ruleset current = new Ruleset("CARD_AUTH", 1);
-        Ruleset latestSameVersion = new Ruleset("CARD_AUTH", 1);
+        RulesetManifest latestSameVersion = org.mockito.Mockito.mock(RulesetManifest.class);
+        when(latestSameVersion.getRulesetVersion()).thenReturn(1);
 
         when(fieldRegistryLoader.loadManifest()).thenReturn(manifest);
         when(rulesetRegistry.getCountries()).thenReturn(Set.of("global"));
         when(rulesetRegistry.getRulesetKeys("global")).thenReturn(Set.of("CARD_AUTH"));
         when(rulesetLoader.loadManifest("CARD_AUTH")).thenReturn(rulesetManifest);
-        doNothing().when(fieldRegistryService).reload();
-        when(fieldRegistryService.getRegistryVersion()).thenReturn(2);
+        preparedRegistry(2);
         when(rulesetRegistry.getRuleset("global", "CARD_AUTH")).thenReturn(current);
-        when(rulesetLoader.loadLatestCompiledRuleset("CARD_AUTH")).thenReturn(Optional.of(latestSameVersion));
+        when(rulesetLoader.pollManifest("global", "CARD_AUTH")).thenReturn(latestSameVersion);
 
         setField("lastFieldRegistryVersion", 1);
         setField("running", true);
@@ -187,6 +197,16 @@ class HotReloadCoordinatorTest {
         assertThat(coordinator.getFieldRegistryVersion()).isEqualTo(2);
     }
 
+    /** Stubs {@code prepare()} to return a registry of the given version; compileAgainst runs its work. */
+    private FieldRegistrySnapshot preparedRegistry(int version) {
+        FieldRegistrySnapshot fieldRegistry = FieldRegistrySnapshot.of(
+                new FieldRegistryArtifact(1, version, List.of(), null, Instant.now(), "test"));
+        when(fieldRegistryService.prepare()).thenReturn(fieldRegistry);
+        when(fieldRegistryService.compileAgainst(eq(fieldRegistry), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        return fieldRegistry;
+    }
+
     private Object invokePrivate(String methodName, Class<?>[] parameterTypes, Object... args) {
         try {
             Method method = HotReloadCoordinator.class.getDeclaredMethod(methodName, parameterTypes);
@@ -10,9 +10,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
@@ -93,4 +95,20 @@ class StartupRulesetLoaderTest {
 
         assertDoesNotThrow(() -> loader.onStart(null));
     }
+
+    @Test
+    void onStartLoadsEveryConfiguredCountryOnce() {
+        loader.countries = Optional.of(List.of("US", "GB", "US"));
+        loader.maxConcurrency = 2;
+        for (String c : List.of("US", "GB")) {
+            when(rulesetRegistry.getOrLoadLatest(c, "CARD_AUTH")).thenReturn(new Ruleset("CARD_AUTH", 1));
+            when(rulesetRegistry.getOrLoadLatest(c, "CARD_MONITORING")).thenReturn(new Ruleset("CARD_MONITORING", 1));
+        }
+        when(rulesetRegistry.size()).thenReturn(4);
+
+        assertDoesNotThrow(() -> loader.onStart(null));
+
+        verify(rulesetRegistry).getOrLoadLatest("US", "CARD_AUTH");
+        verify(rulesetRegistry).getOrLoadLatest("GB", "CARD_MONITORING");
+    }
 }
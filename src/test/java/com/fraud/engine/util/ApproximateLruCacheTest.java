@@ -0,0 +1,80 @@
+package com.fraud.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApproximateLruCacheTest {
+
+    @Test
+    void testGetAndPut() {
+        ApproximateLruCache.Stats stats = new ApproximateLruCache.Stats();
+        ApproximateLruCache<String, Integer> cache = new ApproximateLruCache<>(64, stats);
+
+        assertThat(cache.get("a")).isNull();
+        cache.put("a", 1);
+        cache.put("a", 2);
+
+        assertThat(cache.get("a")).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.evictions()).isZero();
+    }
+
+    @Test
+    void testCapacityIsBounded() {
+        ApproximateLruCache.Stats stats = new ApproximateLruCache.Stats();
+        ApproximateLruCache<Integer, Integer> cache = new ApproximateLruCache<>(100, stats);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.capacity()).isEqualTo(128);
+        assertThat(cache.size()).isLessThan(cache.capacity() + 1);
+        assertThat(stats.evictions()).isEqualTo(10_000 - cache.size());
+    }
+
+    @Test
+    void testRecentlyUsedEntriesSurvive() {
+        ApproximateLruCache.Stats stats = new ApproximateLruCache.Stats();
+        ApproximateLruCache<Integer, Integer> cache = new ApproximateLruCache<>(1024, stats);
+        for (int hot = 0; hot < 100; hot++) {
+            cache.put(hot, hot);
+        }
+
+        for (int cold = 1_000; cold < 50_000; cold++) {
+            cache.put(cold, cold);
+            cache.get(cold % 100);
+        }
+
+        int survivors = 0;
+        for (int hot = 0; hot < 100; hot++) {
+            if (cache.get(hot) != null) {
+                survivors++;
+            }
+        }
+        assertThat(survivors).isEqualTo(100);
+    }
+
+    @Test
+    void testSnapshotNames() {
+        ApproximateLruCache.Stats stats = new ApproximateLruCache.Stats();
+
+        assertThat(stats.snapshot("scope_cache"))
+                .containsKeys("scope_cache_hits_total", "scope_cache_misses_total", "scope_cache_evictions_total");
+    }
+
+    @Test
+    void testHottestKeysAreMostRecentlyUsedFirst() {
+        ApproximateLruCache<String, Integer> cache = new ApproximateLruCache<>(64, new ApproximateLruCache.Stats());
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+
+        assertThat(cache.hottestKeys(2)).containsExactly("a", "c");
+        assertThat(cache.hottestKeys(10)).hasSize(3);
+    }
+}
@@ -0,0 +1,97 @@
+package com.fraud.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FetchMemoTest {
+
+    @Test
+    void testReusesResultWithinWindow() throws Exception {
+        FetchMemo.Stats stats = new FetchMemo.Stats();
+        FetchMemo<String, String> memo = new FetchMemo<>(60_000, stats);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(memo.get("a", () -> "v" + calls.incrementAndGet())).isEqualTo("v1");
+        assertThat(memo.get("a", () -> "v" + calls.incrementAndGet())).isEqualTo("v1");
+        assertThat(memo.get("b", () -> "v" + calls.incrementAndGet())).isEqualTo("v2");
+
+        assertThat(stats.fetches()).isEqualTo(2);
+        assertThat(stats.reused()).isEqualTo(1);
+    }
+
+    @Test
+    void testRemembersNotFound() throws Exception {
+        FetchMemo<String, String> memo = new FetchMemo<>(60_000, new FetchMemo.Stats());
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(memo.get("missing", () -> { calls.incrementAndGet(); return null; })).isNull();
+        assertThat(memo.get("missing", () -> { calls.incrementAndGet(); return null; })).isNull();
+
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testZeroWindowFetchesAgain() throws Exception {
+        FetchMemo<String, Integer> memo = new FetchMemo<>(0, new FetchMemo.Stats());
+        AtomicInteger calls = new AtomicInteger();
+
+        memo.get("a", calls::incrementAndGet);
+        memo.get("a", calls::incrementAndGet);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testFailuresAreNotRemembered() throws Exception {
+        FetchMemo<String, String> memo = new FetchMemo<>(60_000, new FetchMemo.Stats());
+
+        assertThatThrownBy(() -> memo.get("a", () -> { throw new IOException("s3 down"); }))
+                .isInstanceOf(IOException.class);
+
+        assertThat(memo.get("a", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void testConcurrentCallersShareOneFetch() throws Exception {
+        FetchMemo.Stats stats = new FetchMemo.Stats();
+        FetchMemo<String, String> memo = new FetchMemo<>(60_000, stats);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> get(memo, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "manifest";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> get(memo, () -> {
+            calls.incrementAndGet();
+            return "other";
+        }));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("manifest");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("manifest");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(stats.reused()).isEqualTo(1);
+    }
+
+    private static String get(FetchMemo<String, String> memo, FetchMemo.Fetch<String> fetch) {
+        try {
+            return memo.get("k", fetch);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
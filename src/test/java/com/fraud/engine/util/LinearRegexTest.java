@@ -0,0 +1,136 @@
+package com.fraud.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LinearRegexTest {
+
+    private static final List<String> PATTERNS = List.of(
+            ".*@example\\.com$",
+            "^[A-Z]{2}\\d{4}$",
+            "(a|b)*abb",
+            "(a|b)*a(a|b){9}",
+            "x*?y+z?",
+            "(?:ab|a)(?:bc|c)?",
+            "(?<name>[a-c]+)-x?",
+            "[^\\s@]+@[^\\s@]+",
+            "[\\W\\d]+",
+            "\\p{L}+\\P{L}*",
+            "\\Q.*\\E\\+",
+            "\\x41\\u0042[\\t ]?",
+            "a{0,3}b{2,}",
+            "[]a-]+",
+            "",
+            "é+.ü?",
+            "(?i)abc|x[a-c]+",
+            "a(?i:bc)x|(?i)Y+",
+            "(?i)^[^a]b\\p{Lower}",
+            "(?iu)é+\\w",
+            "(?s).+c",
+            "(?i)a(?-i)b",
+            "\\bab?c\\b.*",
+            ".*\\b@\\B.*",
+            "\\w+\\b.?\\bx?");
+
+    private static final String ALPHABET = "abcxyzABCXY@.com 19-+*\tüéÉ\n😀";
+
+    @Test
+    void testMatchesLikeJavaRegex() {
+        Random random = new Random(17);
+        for (String pattern : PATTERNS) {
+            LinearRegex regex = LinearRegex.compile(pattern);
+            Pattern reference = Pattern.compile(pattern);
+            for (int i = 0; i < 2000; i++) {
+                String input = randomInput(random);
+                assertThat(regex.matches(input))
+                        .as("/%s/ on '%s'", pattern, input)
+                        .isEqualTo(reference.matcher(input).matches());
+            }
+        }
+    }
+
+    @Test
+    void testTypicalInputs() {
+        LinearRegex email = LinearRegex.compile(".*@example\\.com$");
+
+        assertThat(email.matches("user@example.com")).isTrue();
+        assertThat(email.matches("user@example.org")).isFalse();
+        assertThat(email.matches("üser@example.com")).isTrue();
+        assertThat(email.requiredLiterals()).containsExactly("@example.com");
+    }
+
+    @Test
+    void testPathologicalPatternRunsInLinearTime() {
+        LinearRegex regex = LinearRegex.compile("(a+)+$");
+        String input = "a".repeat(200_000) + "b";
+
+        long start = System.nanoTime();
+        boolean matched = regex.matches(input);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(matched).isFalse();
+        assertThat(elapsedMillis).isLessThan(1000);
+    }
+
+    @Test
+    void testLargeAutomatonFallsBackToNfa() {
+        LinearRegex regex = LinearRegex.compile("(a|b)*a(a|b){12}");
+
+        assertThat(regex.hasDfa()).isFalse();
+        assertThat(regex.matches("ba" + "b".repeat(12))).isTrue();
+        assertThat(regex.matches("bb" + "b".repeat(12))).isFalse();
+    }
+
+    @Test
+    void testInlineFlagsAndWordBoundaries() {
+        LinearRegex caseless = LinearRegex.compile("(?i)^card_(test|demo)$");
+        assertThat(caseless.matches("CARD_Test")).isTrue();
+        assertThat(caseless.matches("card_prod")).isFalse();
+
+        LinearRegex word = LinearRegex.compile(".*\\btest\\b.*");
+        assertThat(word.hasDfa()).isFalse();
+        assertThat(word.matches("a test card")).isTrue();
+        assertThat(word.matches("attested")).isFalse();
+    }
+
+    @Test
+    void testRejectsNonLinearConstructs() {
+        for (String pattern : List.of("(a)\\1", "(?=a)a", "(?<!a)b", "(?>a)", "a++", "(?m)abc",
+                "\\Afoo", "[a-z&&[^b]]", "a^b", "x{5000}")) {
+            assertThatThrownBy(() -> LinearRegex.compile(pattern))
+                    .as(pattern)
+                    .isInstanceOf(PatternSyntaxException.class);
+        }
+    }
+
+    @Test
+    void testRejectsInvalidSyntax() {
+        for (String pattern : List.of("*[", "(test", "[invalid(", "a{2,1}", "a)", "\\", "(?q)a", "(?i")) {
+            assertThatThrownBy(() -> LinearRegex.compile(pattern))
+                    .as(pattern)
+                    .isInstanceOf(PatternSyntaxException.class);
+        }
+    }
+
+    private static String randomInput(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(16);
+        for (int i = 0; i < length; i++) {
+            int index = random.nextInt(ALPHABET.length());
+            char c = ALPHABET.charAt(index);
+            if (Character.isHighSurrogate(c)) {
+                sb.append(ALPHABET, index, index + 2);
+            } else if (!Character.isLowSurrogate(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.fraud.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void testContains() {
+        LongHashSet set = new LongHashSet(new long[]{0L, 1L, -1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L});
+
+        assertThat(set.size()).isEqualTo(5);
+        assertThat(set.contains(0L)).isTrue();
+        assertThat(set.contains(-1L)).isTrue();
+        assertThat(set.contains(Long.MIN_VALUE)).isTrue();
+        assertThat(set.contains(2L)).isFalse();
+    }
+
+    @Test
+    void testEmptySet() {
+        LongHashSet set = new LongHashSet(new long[0]);
+
+        assertThat(set.size()).isZero();
+        assertThat(set.contains(0L)).isFalse();
+        assertThat(set.contains(42L)).isFalse();
+    }
+
+    @Test
+    void testManyKeys() {
+        long[] keys = new long[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 1024L;
+        }
+        LongHashSet set = new LongHashSet(keys);
+
+        assertThat(set.size()).isEqualTo(10_000);
+        for (long key : keys) {
+            assertThat(set.contains(key)).isTrue();
+        }
+        assertThat(set.contains(1023L)).isFalse();
+    }
+}
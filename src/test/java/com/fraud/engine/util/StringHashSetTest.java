@@ -0,0 +1,23 @@
+package com.fraud.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringHashSetTest {
+
+    @Test
+    void testContains() {
+        StringHashSet set = new StringHashSet(List.of("US", "CA", "US", "Aa", "BB"));
+
+        assertThat(set.size()).isEqualTo(4);
+        assertThat(set.contains("US")).isTrue();
+        // "Aa" and "BB" share a hash code
+        assertThat(set.contains("Aa")).isTrue();
+        assertThat(set.contains("BB")).isTrue();
+        assertThat(set.contains("DE")).isFalse();
+        assertThat(set.contains(null)).isFalse();
+    }
+}
@@ -0,0 +1,132 @@
+package com.fraud.engine.velocity;
+
+import com.fraud.engine.util.EngineMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for cross-request velocity micro-batching, with a fake Redis executor.
+ */
+class VelocityBatcherTest {
+
+    private final List<List<VelocityBatcher.PendingCheck>> batches = new CopyOnWriteArrayList<>();
+    private final EngineMetrics metrics = new EngineMetrics();
+    private VelocityBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    /** Answers each key with its numeric suffix, so results can be matched to requests. */
+    private CompletableFuture<List<long[]>> answer(List<VelocityBatcher.PendingCheck> batch) {
+        batches.add(batch);
+        List<long[]> counts = new ArrayList<>();
+        for (VelocityBatcher.PendingCheck check : batch) {
+            long[] values = new long[check.keys.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Long.parseLong(check.keys[i].substring(check.keys[i].lastIndexOf(':') + 1));
+            }
+            counts.add(values);
+        }
+        return CompletableFuture.completedFuture(counts);
+    }
+
+    private static long[] submit(VelocityBatcher batcher, long... ids) {
+        String[] keys = new String[ids.length];
+        String[] windows = new String[ids.length];
+        String[] thresholds = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            keys[i] = "vel:global:card_hash:" + ids[i];
+            windows[i] = "3600";
+            thresholds[i] = "10";
+        }
+        return batcher.submit(keys, windows, thresholds);
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneBatchAndGetTheirOwnCounts() throws Exception {
+        // Long delay: the batch is flushed by size once all 8 requests (16 keys) are queued
+        batcher = new VelocityBatcher(this::answer, 16, 5_000_000, 4, 64, 10_000, metrics);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                long id = i * 10L;
+                results.add(pool.submit(() -> submit(batcher, id, id + 1)));
+            }
+            for (int i = 0; i < 8; i++) {
+                assertThat(results.get(i).get()).containsExactly(i * 10L, i * 10L + 1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(8);
+        assertThat(metrics.snapshot())
+                .containsEntry("velocity_batch_flush_total", 1L)
+                .containsEntry("velocity_batch_requests_total", 8L)
+                .containsEntry("velocity_batch_ops_total", 16L)
+                .containsEntry("velocity_batch_ops_max", 16L);
+    }
+
+    @Test
+    void testLoneRequestIsFlushedAfterTheDelay() {
+        batcher = new VelocityBatcher(this::answer, 64, 200, 4, 64, 10_000, metrics);
+
+        assertThat(submit(batcher, 7, 8, 9)).containsExactly(7, 8, 9);
+        assertThat(batches).hasSize(1);
+        assertThat(metrics.snapshot().get("velocity_batch_queue_delay_us_max")).isGreaterThanOrEqualTo(0L);
+    }
+
+    @Test
+    void testFailedBatchIsNotRetried() {
+        batcher = new VelocityBatcher(batch -> CompletableFuture.failedFuture(new IllegalStateException("connection reset")),
+                64, 0, 4, 64, 10_000, metrics);
+
+        assertThatThrownBy(() -> submit(batcher, 1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Velocity batch failed");
+        assertThat(metrics.snapshot()).containsEntry("velocity_batch_failure_total", 1L);
+    }
+
+    @Test
+    void testMissingScriptHandsTheCheckBackToTheCaller() {
+        batcher = new VelocityBatcher(batch -> CompletableFuture.failedFuture(
+                new IllegalStateException("NOSCRIPT No matching script")), 64, 0, 4, 64, 10_000, metrics);
+
+        assertThat(submit(batcher, 1)).isNull();
+    }
+
+    @Test
+    void testTimeoutFailsTheRequest() {
+        batcher = new VelocityBatcher(batch -> new CompletableFuture<>(), 64, 0, 4, 64, 20, metrics);
+
+        assertThatThrownBy(() -> submit(batcher, 1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("timed out");
+    }
+
+    @Test
+    void testClosedBatcherHandsChecksBackToTheCaller() {
+        batcher = new VelocityBatcher(this::answer, 64, 0, 4, 64, 10_000, metrics);
+        batcher.close();
+
+        assertThat(submit(batcher, 1)).isNull();
+        assertThat(batches).isEmpty();
+    }
+}
@@ -0,0 +1,269 @@
+package com.fraud.engine.velocity;
+
+import com.fraud.engine.domain.Decision;
+import com.fraud.engine.domain.Rule;
+import com.fraud.engine.domain.Ruleset;
+import com.fraud.engine.domain.TransactionContext;
+import com.fraud.engine.domain.VelocityConfig;
+import com.fraud.engine.util.EngineMetrics;
+import io.quarkus.redis.datasource.value.ValueCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for velocity key layout, per-request key deduplication and snapshot reads
+ * (no Redis needed).
+ */
+class VelocityKeyTest {
+
+    private VelocityService service;
+    private EngineMetrics metrics;
+    private TransactionContext transaction;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new EngineMetrics();
+        service = new VelocityService();
+        service.defaultWindowSeconds = 3600;
+        service.defaultThreshold = 10;
+        service.engineMetrics = metrics;
+
+        transaction = new TransactionContext();
+        transaction.setTransactionId("txn-1");
+        transaction.setCardHash("card-1");
+        transaction.setIpAddress("10.0.0.1");
+    }
+
+    private static Rule rule(String id, VelocityConfig velocity) {
+        Rule rule = new Rule(id, id, "REVIEW");
+        rule.setVelocity(velocity);
+        return rule;
+    }
+
+    @Test
+    void testKeyIncludesWindow() {
+        assertThat(service.buildVelocityKey(transaction, new VelocityConfig("card_hash", 300, 5)))
+                .isEqualTo("vel:global:card_hash:300:card-1");
+        assertThat(service.buildVelocityKey(transaction, new VelocityConfig("card_hash", 0, 5)))
+                .isEqualTo("vel:global:card_hash:3600:card-1");
+    }
+
+    @Test
+    void testIdenticalChecksShareOneKey() {
+        VelocityConfig[] configs = {
+                new VelocityConfig("card_hash", 3600, 2),
+                new VelocityConfig("ip_address", 3600, 5),
+                new VelocityConfig("card_hash", 3600, 20),
+                new VelocityConfig("card_hash", 300, 2)
+        };
+
+        VelocityService.BatchKeys batch = service.prepareBatch(transaction, configs, configs.length);
+
+        assertThat(batch.keys).containsExactly(
+                "vel:global:card_hash:3600:card-1",
+                "vel:global:ip_address:3600:10.0.0.1",
+                "vel:global:card_hash:300:card-1");
+        assertThat(batch.windows).containsExactly("3600", "3600", "300");
+        assertThat(batch.slots).containsExactly(0, 1, 0, 2);
+        assertThat(metrics.snapshot()).containsEntry("velocity_keys_deduplicated_total", 1L);
+
+        Decision.VelocityResult[] results = new Decision.VelocityResult[configs.length];
+        batch.fillResults(new long[]{7, 1, 3}, results);
+
+        // The shared count is judged against each check's own threshold
+        assertThat(results[0].getCount()).isEqualTo(7);
+        assertThat(results[0].isExceeded()).isTrue();
+        assertThat(results[2].getCount()).isEqualTo(7);
+        assertThat(results[2].getThreshold()).isEqualTo(20);
+        assertThat(results[2].isExceeded()).isFalse();
+        assertThat(results[1].getDimension()).isEqualTo("ip_address");
+        assertThat(results[3].getWindowSeconds()).isEqualTo(300);
+    }
+
+    @Test
+    void testLegacyFormatStillIncrementsASharedKeyOnce() {
+        service.format = VelocityService.KeyFormat.LEGACY;
+        VelocityConfig[] configs = {
+                new VelocityConfig("card_hash", 3600, 2),
+                new VelocityConfig("card_hash", 300, 2)
+        };
+
+        assertThat(service.buildVelocityKey(transaction, configs[1])).isEqualTo("vel:global:card_hash:card-1");
+        VelocityService.BatchKeys batch = service.prepareBatch(transaction, configs, configs.length);
+
+        assertThat(batch.keys).containsExactly("vel:global:card_hash:card-1");
+        assertThat(batch.slots).containsExactly(0, 0);
+        assertThat(metrics.snapshot()).containsEntry("velocity_keys_deduplicated_total", 1L);
+    }
+
+    @Test
+    void testLegacyKeysAreAppendedToTheScriptKeys() {
+        service.legacyKeyReads = true;
+        VelocityConfig[] configs = {
+                new VelocityConfig("card_hash", 3600, 2),
+                new VelocityConfig("card_hash", 300, 2),
+                new VelocityConfig("card_hash", 3600, 5)
+        };
+
+        VelocityService.BatchKeys batch = service.prepareBatch(transaction, configs, configs.length);
+
+        assertThat(batch.keys).containsExactly("vel:global:card_hash:3600:card-1", "vel:global:card_hash:300:card-1");
+        assertThat(batch.scriptKeys).containsExactly(
+                "vel:global:card_hash:3600:card-1",
+                "vel:global:card_hash:300:card-1",
+                "vel:global:card_hash:card-1",
+                "vel:global:card_hash:card-1");
+        assertThat(batch.windows).containsExactly("3600", "300");
+    }
+
+    @Test
+    void testLegacyKeysAreNotReadWhenDisabled() {
+        VelocityService.BatchKeys batch = service.prepareBatch(transaction,
+                new VelocityConfig[]{new VelocityConfig("card_hash", 3600, 2)}, 1);
+
+        assertThat(batch.scriptKeys).isSameAs(batch.keys);
+    }
+
+    @Test
+    void testLegacyFormatIgnoresKeyScope() {
+        service.format = VelocityService.KeyFormat.LEGACY;
+        service.scope = VelocityService.KeyScope.RULE;
+
+        service.checkKeyLayout();
+
+        assertThat(service.scope).isEqualTo(VelocityService.KeyScope.GLOBAL);
+    }
+
+    @Test
+    void testRuleScopeSeparatesRulesOnTheSameDimension() {
+        VelocityConfig first = new VelocityConfig("card_hash", 3600, 5);
+        VelocityConfig second = new VelocityConfig("card_hash", 3600, 5);
+        Ruleset ruleset = new Ruleset("CARD_AUTH", 1);
+        ruleset.setRules(List.of(rule("r1", first), rule("r2", second)));
+
+        service.scope = VelocityService.KeyScope.RULE;
+        VelocityService.BatchKeys batch = service.prepareBatch(transaction,
+                new VelocityConfig[]{first, second}, 2);
+        assertThat(batch.keys).containsExactly(
+                "vel:CARD_AUTH:r1:card_hash:3600:card-1",
+                "vel:CARD_AUTH:r2:card_hash:3600:card-1");
+
+        service.scope = VelocityService.KeyScope.RULESET;
+        batch = service.prepareBatch(transaction, new VelocityConfig[]{first, second}, 2);
+        assertThat(batch.keys).containsExactly("vel:CARD_AUTH:card_hash:3600:card-1");
+        assertThat(batch.slots).containsExactly(0, 0);
+    }
+
+    @Test
+    void testUnboundConfigFallsBackToGlobalScope() {
+        service.scope = VelocityService.KeyScope.RULE;
+
+        assertThat(service.buildVelocityKey(transaction, new VelocityConfig("card_hash", 3600, 5)))
+                .isEqualTo("vel:global:card_hash:3600:card-1");
+    }
+
+    @Test
+    void testSnapshotsForSeveralTransactionsShareOneMget() throws Exception {
+        List<String[]> mgets = new ArrayList<>();
+        Object commands = Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ValueCommands.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("mget")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    String[] keys = (String[]) args[0];
+                    mgets.add(keys);
+                    Map<String, Long> counts = new HashMap<>();
+                    counts.put("vel:global:card_hash:300:card-1", 4L);
+                    counts.put("vel:global:ip_address:3600:10.0.0.1", 9L);
+                    return counts;
+                });
+        Field field = VelocityService.class.getDeclaredField("valueCommands");
+        field.setAccessible(true);
+        field.set(service, commands);
+        service.snapshotWindows = VelocityService.parseSnapshotWindows(
+                List.of("card_5min:card_hash:300:10", "ip_1h:ip_address:3600:20", "device_1h:device_id:3600:15"));
+
+        TransactionContext other = new TransactionContext();
+        other.setCardHash("card-2");
+        List<Map<String, Decision.VelocityResult>> snapshots =
+                service.captureVelocitySnapshots(List.of(transaction, other, transaction));
+
+        assertThat(mgets).hasSize(1);
+        // Distinct keys only; no device id, so no device key
+        assertThat(mgets.get(0)).containsExactly(
+                "vel:global:card_hash:300:card-1",
+                "vel:global:ip_address:3600:10.0.0.1",
+                "vel:global:card_hash:300:card-2");
+        assertThat(snapshots).hasSize(3);
+        assertThat(snapshots.get(0).keySet()).containsExactly("card_5min", "ip_1h");
+        assertThat(snapshots.get(0).get("card_5min").getCount()).isEqualTo(4);
+        assertThat(snapshots.get(0).get("ip_1h").getCount()).isEqualTo(9);
+        assertThat(snapshots.get(0).get("ip_1h").getThreshold()).isEqualTo(20);
+        assertThat(snapshots.get(1).keySet()).containsExactly("card_5min");
+        assertThat(snapshots.get(1).get("card_5min").getCount()).isZero();
+        assertThat(snapshots.get(2).get("card_5min").getCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testSnapshotsMergeTheLegacyCounter() throws Exception {
+        service.legacyKeyReads = true;
+        Object commands = Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ValueCommands.class}, (proxy, method, args) -> {
+                    Map<String, Long> counts = new HashMap<>();
+                    for (String key : (String[]) args[0]) {
+                        counts.put(key, null);
+                    }
+                    counts.put("vel:global:card_hash:300:card-1", 2L);
+                    counts.put("vel:global:card_hash:3600:card-1", 9L);
+                    counts.put("vel:global:card_hash:card-1", 6L);
+                    return counts;
+                });
+        Field field = VelocityService.class.getDeclaredField("valueCommands");
+        field.setAccessible(true);
+        field.set(service, commands);
+        service.snapshotWindows = VelocityService.parseSnapshotWindows(
+                List.of("card_5min:card_hash:300:10", "card_1h:card_hash:3600:20", "ip_1h:ip_address:3600:20"));
+
+        Map<String, Decision.VelocityResult> snapshot = service.captureVelocitySnapshot(transaction);
+
+        // The higher of the windowed and legacy counts; neither key exists for the IP
+        assertThat(snapshot.get("card_5min").getCount()).isEqualTo(6);
+        assertThat(snapshot.get("card_1h").getCount()).isEqualTo(9);
+        assertThat(snapshot.get("ip_1h").getCount()).isZero();
+    }
+
+    @Test
+    void testSnapshotWindowParsingSkipsMalformedEntries() {
+        List<VelocityService.SnapshotWindow> windows = VelocityService.parseSnapshotWindows(List.of(
+                " card_1h:card_hash:3600:20 ", "broken", "bad_window:card_hash:abc:5", "zero:card_hash:0:5",
+                "email_24h:email:86400:30"));
+
+        assertThat(windows).containsExactly(
+                new VelocityService.SnapshotWindow("card_1h", "card_hash", 3600, 20),
+                new VelocityService.SnapshotWindow("email_24h", "email", 86400, 30));
+    }
+
+    @Test
+    void testKeyFormatParsing() {
+        assertThat(VelocityService.KeyFormat.parse(" Legacy ")).isEqualTo(VelocityService.KeyFormat.LEGACY);
+        assertThat(VelocityService.KeyFormat.parse("bogus")).isEqualTo(VelocityService.KeyFormat.WINDOWED);
+        assertThat(VelocityService.KeyFormat.parse(null)).isEqualTo(VelocityService.KeyFormat.WINDOWED);
+    }
+
+    @Test
+    void testKeyScopeParsing() {
+        assertThat(VelocityService.KeyScope.parse("rule")).isEqualTo(VelocityService.KeyScope.RULE);
+        assertThat(VelocityService.KeyScope.parse(" Ruleset ")).isEqualTo(VelocityService.KeyScope.RULESET);
+        assertThat(VelocityService.KeyScope.parse("bogus")).isEqualTo(VelocityService.KeyScope.GLOBAL);
+        assertThat(VelocityService.KeyScope.parse(null)).isEqualTo(VelocityService.KeyScope.GLOBAL);
+    }
+}
@@ -3,12 +3,14 @@ package com.fraud.engine.velocity;
 import com.fraud.engine.domain.Decision;
 import com.fraud.engine.domain.TransactionContext;
 import com.fraud.engine.domain.VelocityConfig;
+import io.quarkus.redis.datasource.RedisDataSource;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,6 +24,9 @@ class VelocityServiceTest {
     @Inject
     VelocityService velocityService;
 
+    @Inject
+    RedisDataSource redisDataSource;
+
     @Test
     void testCheckVelocity_BelowThreshold() {
         String uniqueCard = "test-card-below-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 10000);
@@ -102,6 +107,54 @@ class VelocityServiceTest {
         assertThat(amountResult.getCount()).isEqualTo(1);
     }
 
+    @Test
+    void testCheckVelocity_WindowsHaveSeparateCounters() {
+        String uniqueCard = "test-card-windows-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 10000);
+        TransactionContext txn = createTransaction(uniqueCard);
+        VelocityConfig shortWindow = new VelocityConfig("card_hash", 300, 10);
+        VelocityConfig longWindow = new VelocityConfig("card_hash", 86400, 10);
+
+        velocityService.checkVelocity(txn, shortWindow);
+        velocityService.checkVelocity(txn, shortWindow);
+        Decision.VelocityResult longResult = velocityService.checkVelocity(txn, longWindow);
+
+        assertThat(longResult.getCount()).isEqualTo(1);
+        assertThat(velocityService.getCurrentCount(velocityService.buildVelocityKey(txn, shortWindow))).isEqualTo(2);
+    }
+
+    @Test
+    void testCheckVelocity_MergesTheLegacyCounter() {
+        String uniqueCard = "test-card-legacy-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 10000);
+        TransactionContext txn = createTransaction(uniqueCard);
+        VelocityConfig config = new VelocityConfig("card_hash", 3600, 5);
+        redisDataSource.value(Long.class).setex("vel:global:card_hash:" + uniqueCard, 60, 7L);
+
+        Decision.VelocityResult result = velocityService.checkVelocity(txn, config);
+        Decision.VelocityResult[] batched = velocityService.checkVelocityBatch(txn, List.of(config));
+
+        // The windowed counter is at 1 and 2, but the legacy counter still reads 7
+        assertThat(result.getCount()).isEqualTo(7);
+        assertThat(result.isExceeded()).isTrue();
+        assertThat(batched[0].getCount()).isEqualTo(7);
+        assertThat(velocityService.getCurrentCount(velocityService.buildVelocityKey(txn, config))).isEqualTo(2);
+        assertThat(velocityService.getCurrentCount(txn, config)).isEqualTo(7);
+    }
+
+    @Test
+    void testCheckVelocityBatch_IdenticalChecksIncrementOnce() {
+        String uniqueCard = "test-card-dedupe-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 10000);
+        TransactionContext txn = createTransaction(uniqueCard);
+        VelocityConfig strict = new VelocityConfig("card_hash", 3600, 1);
+        VelocityConfig lenient = new VelocityConfig("card_hash", 3600, 5);
+
+        Decision.VelocityResult[] results = velocityService.checkVelocityBatch(txn, List.of(strict, lenient));
+
+        assertThat(results[0].getCount()).isEqualTo(1);
+        assertThat(results[1].getCount()).isEqualTo(1);
+        assertThat(results[0].isExceeded()).isTrue();
+        assertThat(results[1].isExceeded()).isFalse();
+    }
+
     @Test
     void testGetDefaultWindowSeconds() {
         assertThat(velocityService.getDefaultWindowSeconds()).isEqualTo(3600);
@@ -117,7 +170,7 @@ class VelocityServiceTest {
         String uniqueKey = "test-count-" + System.currentTimeMillis();
 
         // Count should start at 0
-        long count = velocityService.getCurrentCount("vel:global:card_hash:" + uniqueKey);
+        long count = velocityService.getCurrentCount("vel:global:card_hash:3600:" + uniqueKey);
         assertThat(count).isEqualTo(0);
     }
 
@@ -132,14 +185,15 @@ class VelocityServiceTest {
         velocityService.checkVelocity(txn, config);
 
         // Get count
-        long countBefore = velocityService.getCurrentCount("vel:global:card_hash:" + uniqueCard);
+        String key = velocityService.buildVelocityKey(txn, config);
+        long countBefore = velocityService.getCurrentCount(key);
         assertThat(countBefore).isGreaterThan(0);
 
         // Reset
-        velocityService.resetVelocity("vel:global:card_hash:" + uniqueCard);
+        velocityService.resetVelocity(key);
 
         // Count should be 0 now
-        long countAfter = velocityService.getCurrentCount("vel:global:card_hash:" + uniqueCard);
+        long countAfter = velocityService.getCurrentCount(key);
         assertThat(countAfter).isEqualTo(0);
     }
 
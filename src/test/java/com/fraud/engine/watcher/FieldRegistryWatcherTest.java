@@ -1,15 +1,23 @@
 package com.fraud.engine.watcher;
 
+import com.fraud.engine.dto.FieldRegistryArtifact;
 import com.fraud.engine.dto.FieldRegistryManifest;
 import com.fraud.engine.loader.FieldRegistryLoader;
+import com.fraud.engine.ruleset.RulesetRegistry;
 import com.fraud.engine.service.FieldRegistryService;
+import com.fraud.engine.service.FieldRegistrySnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -24,11 +32,14 @@ class FieldRegistryWatcherTest {
     @Mock
     FieldRegistryService service;
 
+    @Mock
+    RulesetRegistry rulesetRegistry;
+
     private FieldRegistryWatcher watcher;
 
     @BeforeEach
     void setUp() throws Exception {
-        watcher = new FieldRegistryWatcher(loader, service);
+        watcher = new FieldRegistryWatcher(loader, service, rulesetRegistry);
         setField("hotReloadEnabled", true);
         setField("pollIntervalSeconds", 30);
     }
@@ -59,12 +70,16 @@ class FieldRegistryWatcherTest {
 
         FieldRegistryManifest manifest = new FieldRegistryManifest(1, 2, "s3://fields", "abc", 26, "2026-01-01", "tester");
         when(loader.loadManifest()).thenReturn(manifest);
-        when(service.getRegistryVersion()).thenReturn(2);
+        FieldRegistrySnapshot fieldRegistry = FieldRegistrySnapshot.of(
+                new FieldRegistryArtifact(1, 2, List.of(), null, Instant.now(), "tester"));
+        when(service.prepare()).thenReturn(fieldRegistry);
 
         watcher.triggerCheck();
 
         assertThat(watcher.getLastVersion()).isEqualTo(2);
-        verify(service, times(1)).reload();
+        // Installed through the ruleset registry snapshot, not swapped directly
+        verify(rulesetRegistry, times(1)).publish(fieldRegistry, Map.of());
+        verify(service, times(0)).reload();
     }
 
     @Test
@@ -76,7 +91,7 @@ class FieldRegistryWatcherTest {
         watcher.triggerCheck();
 
         assertThat(watcher.getLastVersion()).isEqualTo(3);
-        verify(service, times(0)).reload();
+        verify(service, times(0)).prepare();
     }
 
     @Test
@@ -97,11 +112,12 @@ class FieldRegistryWatcherTest {
         setField("lastVersion", 1);
         FieldRegistryManifest manifest = new FieldRegistryManifest(1, 2, "s3://fields", "abc", 26, "2026-01-01", "tester");
         when(loader.loadManifest()).thenReturn(manifest);
-        doThrow(new RuntimeException("boom")).when(service).reload();
+        doThrow(new RuntimeException("boom")).when(service).prepare();
 
         watcher.triggerCheck();
 
         assertThat(watcher.getLastVersion()).isEqualTo(1);
+        verify(rulesetRegistry, times(0)).publish(any(), any());
     }
 
     private void setField(String name, Object value) throws Exception {